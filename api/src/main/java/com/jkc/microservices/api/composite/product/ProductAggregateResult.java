@@ -0,0 +1,46 @@
+package com.jkc.microservices.api.composite.product;
+
+public class ProductAggregateResult {
+    private final int productId;
+    private final int status;
+    private final String message;
+    private final ProductAggregate product;
+
+    public ProductAggregateResult() {
+        this.productId = 0;
+        this.status = 0;
+        this.message = null;
+        this.product = null;
+    }
+
+    public ProductAggregateResult(int productId, int status, String message, ProductAggregate product) {
+        this.productId = productId;
+        this.status = status;
+        this.message = message;
+        this.product = product;
+    }
+
+    public static ProductAggregateResult found(ProductAggregate product) {
+        return new ProductAggregateResult(product.getProductId(), 200, null, product);
+    }
+
+    public static ProductAggregateResult failed(int productId, int status, String message) {
+        return new ProductAggregateResult(productId, status, message, null);
+    }
+
+    public int getProductId() {
+        return productId;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public ProductAggregate getProduct() {
+        return product;
+    }
+}
@@ -1,8 +1,16 @@
 package com.jkc.microservices.api.composite.product;
 
 import io.swagger.annotations.*;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
 
 @SwaggerDefinition(info = @Info(
         title = "Api contains methods to get the product by productID",
@@ -23,6 +31,7 @@ public interface ProductCompositeService {
 
     /**
      * usage : curl $HOST:$PORT/product-composite/1
+     * or : curl -H 'If-None-Match: "<etag>"' $HOST:$PORT/product-composite/1
      *
      * @param productID "productID: int required"
      * @return composite productInfo , if found else null
@@ -37,11 +46,108 @@ public interface ProductCompositeService {
     @ApiResponses(
             value = {
                     @ApiResponse(code = 200, message = "Ok"),
+                    @ApiResponse(code = 304, message = "Not modified, the aggregate still has the etag given in If-None-Match."),
                     @ApiResponse(code = 400, message = "Bad Request, invalid format of the request. See response message for more information."),
                     @ApiResponse(code = 404, message = "Not found, product with this id does not exist."),
                     @ApiResponse(code = 422, message = "Unprocessable entity, input parameters caused the processing to fails. See response message for more information.")
             }
     )
     @GetMapping(value = "/product-composite/{productID}", produces = "application/json")
-    ProductAggregate getProduct(@PathVariable int productID);
+    Mono<ProductAggregate> getProduct(@PathVariable int productID);
+
+    /**
+     * usage : curl $HOST:$PORT/product-composite?ids=1,2,3
+     *
+     * @param productIDs "productIDs: comma separated int required"
+     * @return one result per requested productID, in request order, holding either the composite productInfo or the error for that id
+     */
+    @ApiOperation(
+            value = "${api.product-composite.get-composite-products.description}",
+            nickname = "get products by ids",
+            tags = "product composite",
+            notes = "${api.product-composite.get-composite-products.notes}"
+    )
+
+    @ApiResponses(
+            value = {
+                    @ApiResponse(code = 200, message = "Ok, see the status of each result for per product errors"),
+                    @ApiResponse(code = 400, message = "Bad Request, invalid format of the request. See response message for more information."),
+                    @ApiResponse(code = 422, message = "Unprocessable entity, too many ids were requested. See response message for more information.")
+            }
+    )
+    @GetMapping(value = "/product-composite", produces = "application/json")
+    Flux<ProductAggregateResult> getProducts(@RequestParam(value = "ids") List<Integer> productIDs);
+
+    /**
+     * usage : curl -H 'Accept: application/x-ndjson' $HOST:$PORT/product-composite/stream?from=1&to=1000
+     * or : curl -H 'Accept: text/event-stream' $HOST:$PORT/product-composite/stream?ids=1,2,3
+     *
+     * @param productIDs "productIDs: comma separated int, optional when from and to are given"
+     * @param from       "from: int, first productID of the range (inclusive)"
+     * @param to         "to: int, last productID of the range (inclusive)"
+     * @return one result per productID, emitted as soon as its composite view is complete, so not in request order
+     */
+    @ApiOperation(
+            value = "${api.product-composite.stream-composite-products.description}",
+            nickname = "stream products by ids or id range",
+            tags = "product composite",
+            notes = "${api.product-composite.stream-composite-products.notes}"
+    )
+
+    @ApiResponses(
+            value = {
+                    @ApiResponse(code = 200, message = "Ok, see the status of each result for per product errors"),
+                    @ApiResponse(code = 400, message = "Bad Request, invalid format of the request. See response message for more information."),
+                    @ApiResponse(code = 422, message = "Unprocessable entity, neither ids nor a valid range was given or the range is too large. See response message for more information.")
+            }
+    )
+    @GetMapping(value = "/product-composite/stream", produces = {"application/x-ndjson", "text/event-stream"})
+    Flux<ProductAggregateResult> getProductStream(
+            @RequestParam(value = "ids", required = false) List<Integer> productIDs,
+            @RequestParam(value = "from", required = false) Integer from,
+            @RequestParam(value = "to", required = false) Integer to);
+
+    /**
+     * usage : curl -X POST $HOST:$PORT/product-composite -H "Content-Type: application/json" --data '{"productId":123,"name":"product 123","weight":123,"recommendations":[...],"reviews":[...]}'
+     *
+     * @param body "the composite product, its recommendations and reviews are created next to the product"
+     */
+    @ApiOperation(
+            value = "${api.product-composite.create-composite-product.description}",
+            nickname = "create product",
+            tags = "product composite",
+            notes = "${api.product-composite.create-composite-product.notes}"
+    )
+
+    @ApiResponses(
+            value = {
+                    @ApiResponse(code = 200, message = "Ok, the product, its recommendations and its reviews are stored"),
+                    @ApiResponse(code = 400, message = "Bad Request, invalid format of the request. See response message for more information."),
+                    @ApiResponse(code = 422, message = "Unprocessable entity, input parameters caused the processing to fail. See response message for more information.")
+            }
+    )
+    @PostMapping(value = "/product-composite", consumes = "application/json")
+    Mono<Void> createCompositeProduct(@RequestBody ProductAggregate body);
+
+    /**
+     * usage : curl -X DELETE $HOST:$PORT/product-composite/1
+     *
+     * @param productID "productID: int required"
+     */
+    @ApiOperation(
+            value = "${api.product-composite.delete-composite-product.description}",
+            nickname = "delete product by id",
+            tags = "product composite",
+            notes = "${api.product-composite.delete-composite-product.notes}"
+    )
+
+    @ApiResponses(
+            value = {
+                    @ApiResponse(code = 200, message = "Ok, the product, its recommendations and its reviews are gone"),
+                    @ApiResponse(code = 400, message = "Bad Request, invalid format of the request. See response message for more information."),
+                    @ApiResponse(code = 422, message = "Unprocessable entity, input parameters caused the processing to fail. See response message for more information.")
+            }
+    )
+    @DeleteMapping(value = "/product-composite/{productID}")
+    Mono<Void> deleteCompositeProduct(@PathVariable int productID);
 }
@@ -4,11 +4,24 @@ public class RecommendationSummary {
     private final int recommendationID;
     private final String author;
     private final double rate;
+    private final String content;
+
+    public RecommendationSummary() {
+        this.recommendationID = 0;
+        this.author = null;
+        this.rate = 0;
+        this.content = null;
+    }
 
     public RecommendationSummary(int recommendationID, String author, double rate) {
+        this(recommendationID, author, rate, null);
+    }
+
+    public RecommendationSummary(int recommendationID, String author, double rate, String content) {
         this.recommendationID = recommendationID;
         this.author = author;
         this.rate = rate;
+        this.content = content;
     }
 
     public int getRecommendationID() {
@@ -22,4 +35,8 @@ public class RecommendationSummary {
     public double getRate() {
         return rate;
     }
+
+    public String getContent() {
+        return content;
+    }
 }
@@ -3,11 +3,24 @@ package com.jkc.microservices.api.composite.product;
 public class ReviewSummary {
     private final int reviewID;
     private final String author;
+    private final String subject;
     private final String content;
 
+    public ReviewSummary() {
+        this.reviewID = 0;
+        this.author = null;
+        this.subject = null;
+        this.content = null;
+    }
+
     public ReviewSummary(int reviewID, String author, String content) {
+        this(reviewID, author, null, content);
+    }
+
+    public ReviewSummary(int reviewID, String author, String subject, String content) {
         this.reviewID = reviewID;
         this.author = author;
+        this.subject = subject;
         this.content = content;
     }
 
@@ -15,6 +28,10 @@ public class ReviewSummary {
         return reviewID;
     }
 
+    public String getSubject() {
+        return subject;
+    }
+
     public String getContent() {
         return content;
     }
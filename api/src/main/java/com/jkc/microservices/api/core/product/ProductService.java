@@ -1,16 +1,66 @@
 package com.jkc.microservices.api.core.product;
 
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
 
 public interface ProductService {
     /**
      * curl $HOST:$PORT/product/1
+     * or : curl -H 'If-None-Match: "<etag>"' $HOST:$PORT/product/1 (304 while unchanged)
+     * or : curl -H 'Accept: application/x-jackson-smile' $HOST:$PORT/product/1 (binary json, errors stay json)
      *
      * @param productID "productId : int"
-     * @return Product, if found else null
+     * @return Product, if found else an empty Mono
+     */
+
+    @GetMapping(value = "/product/{productID}", produces = {"application/json", "application/x-jackson-smile"})
+    Mono<Product> getProduct(@PathVariable int productID);
+
+    /**
+     * curl $HOST:$PORT/product?ids=1,2,3
+     *
+     * @param productIDs "productIDs : comma separated int"
+     * @return the products that were found, ids without a product are left out
+     */
+
+    @GetMapping(value = "/product", produces = {"application/json", "application/x-jackson-smile"})
+    Flux<Product> getProducts(@RequestParam(value = "ids") List<Integer> productIDs);
+
+    /**
+     * curl -X POST $HOST:$PORT/product -H "Content-Type: application/json" --data '{"productID":123,"name":"product 123","weight":123}'
+     *
+     * @param body "the product, an existing product with the same productID is replaced"
+     * @return the stored product, once it is persisted
+     */
+
+    @PostMapping(value = "/product", consumes = "application/json", produces = "application/json")
+    Mono<Product> createProduct(@RequestBody Product body);
+
+    /**
+     * curl -X POST $HOST:$PORT/product -H "Content-Type: application/x-ndjson" --data-binary @products.ndjson
+     *
+     * @param body "one product per line, for bulk loads"
+     * @return the stored products as they are persisted, not in request order. an invalid product ends the stream
+     * with an error, the products before it stay stored
+     */
+
+    @PostMapping(value = "/product", consumes = "application/x-ndjson", produces = "application/x-ndjson")
+    Flux<Product> createProducts(@RequestBody Flux<Product> body);
+
+    /**
+     * curl -X DELETE $HOST:$PORT/product/1
+     *
+     * @param productID "productId : int, deleting a missing product succeeds too"
      */
 
-    @GetMapping(value = "/product/{productID}", produces = "application/json")
-    Product getProduct(@PathVariable int productID);
+    @DeleteMapping(value = "/product/{productID}")
+    Mono<Void> deleteProduct(@PathVariable int productID);
 }
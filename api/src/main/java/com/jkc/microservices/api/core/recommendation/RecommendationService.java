@@ -1,18 +1,53 @@
 package com.jkc.microservices.api.core.recommendation;
 
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.util.List;
 
 public interface RecommendationService {
     /**
      * usage: curl $HOST:$PORT/recommendation?productID=1
+     * or : curl -H 'If-None-Match: "<etag>"' $HOST:$PORT/recommendation?productID=1 (304 while unchanged)
      *
      * @param productID "provided productID: int"
      * @return list of recommendations for that @productID
      */
 
-    @GetMapping(value = "/recommendation", produces = "application/json")
-    List<Recommendation> getRecommendations(@RequestParam(value = "productID", required = true) int productID);
+    @GetMapping(value = "/recommendation", produces = {"application/json", "application/x-jackson-smile"})
+    Flux<Recommendation> getRecommendations(@RequestParam(value = "productID", required = true) int productID);
+
+    /**
+     * usage: curl $HOST:$PORT/recommendation?ids=1,2,3
+     *
+     * @param productIDs "provided productIDs: comma separated int"
+     * @return recommendations of all the given products, each one carries its productID
+     */
+
+    @GetMapping(value = "/recommendation", params = "ids", produces = {"application/json", "application/x-jackson-smile"})
+    Flux<Recommendation> getRecommendations(@RequestParam(value = "ids") List<Integer> productIDs);
+
+    /**
+     * usage: curl -X POST $HOST:$PORT/recommendation -H "Content-Type: application/json" --data '{"productID":123,"recommendationID":1,"author":"me","rate":5,"content":"c"}'
+     *
+     * @param body "the recommendation, an existing recommendation with the same productID and recommendationID is replaced"
+     * @return the stored recommendation, once it is persisted
+     */
+
+    @PostMapping(value = "/recommendation", consumes = "application/json", produces = "application/json")
+    Mono<Recommendation> createRecommendation(@RequestBody Recommendation body);
+
+    /**
+     * usage: curl -X DELETE $HOST:$PORT/recommendation?productID=1
+     *
+     * @param productID "provided productID: int, all recommendations of the product are deleted"
+     */
+
+    @DeleteMapping(value = "/recommendation")
+    Mono<Void> deleteRecommendations(@RequestParam(value = "productID") int productID);
 }
@@ -1,25 +1,37 @@
 package com.jkc.microservices.api.core.review;
 
+import java.time.Instant;
+
 public class Review {
     private final int productID;
     private final int reviewID;
     private final String author;
     private final String subject;
     private final String content;
+    private final int rating;
+    private final Instant createdAt;
     private final String serviceAddress;
 
     public Review() {
         this.productID = 0;
         this.reviewID = 0;
+        this.rating = 0;
+        this.createdAt = null;
         this.author = this.subject = this.content = this.serviceAddress = null;
     }
 
     public Review(int productID, int reviewID, String author, String subject, String content, String serviceAddress) {
+        this(productID, reviewID, author, subject, content, 0, null, serviceAddress);
+    }
+
+    public Review(int productID, int reviewID, String author, String subject, String content, int rating, Instant createdAt, String serviceAddress) {
         this.productID = productID;
         this.reviewID = reviewID;
         this.author = author;
         this.subject = subject;
         this.content = content;
+        this.rating = rating;
+        this.createdAt = createdAt;
         this.serviceAddress = serviceAddress;
     }
 
@@ -43,6 +55,14 @@ public class Review {
         return content;
     }
 
+    public int getRating() {
+        return rating;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
     public String getServiceAddress() {
         return serviceAddress;
     }
@@ -0,0 +1,29 @@
+package com.jkc.microservices.api.core.review;
+
+import java.util.List;
+
+/**
+ * one page of a product's reviews, nextCursor is null on the last page
+ */
+public class ReviewPage {
+    private final List<Review> reviews;
+    private final String nextCursor;
+
+    public ReviewPage() {
+        this.reviews = null;
+        this.nextCursor = null;
+    }
+
+    public ReviewPage(List<Review> reviews, String nextCursor) {
+        this.reviews = reviews;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Review> getReviews() {
+        return reviews;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
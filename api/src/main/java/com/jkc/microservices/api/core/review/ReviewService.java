@@ -1,18 +1,70 @@
 package com.jkc.microservices.api.core.review;
 
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.util.List;
 
 public interface ReviewService {
     /**
      * usage: curl $HOST:$PORT/review?productID=1
+     * or : curl -H 'If-None-Match: "<etag>"' $HOST:$PORT/review?productID=1 (304 while unchanged)
      *
      * @param productID "required productID int"
-     * @return list of reviews for product associated with productID
+     * @return list of reviews for product associated with productID, newest first
      */
 
-    @GetMapping(value = "/review", produces = "application/json")
-    List<Review> getReviews(@RequestParam(value = "productID", required = true) int productID);
+    @GetMapping(value = "/review", produces = {"application/json", "application/x-jackson-smile"})
+    Flux<Review> getReviews(@RequestParam(value = "productID", required = true) int productID);
+
+    /**
+     * usage: curl $HOST:$PORT/review?ids=1,2,3
+     *
+     * @param productIDs "required productIDs comma separated int"
+     * @return reviews of all the given products, each one carries its productID
+     */
+
+    @GetMapping(value = "/review", params = "ids", produces = {"application/json", "application/x-jackson-smile"})
+    Flux<Review> getReviews(@RequestParam(value = "ids") List<Integer> productIDs);
+
+    /**
+     * usage: curl "$HOST:$PORT/review?productID=1&limit=20&sort=rating", then pass nextCursor as &cursor= for the next page
+     *
+     * @param productID "required productID int"
+     * @param limit     "required page size int"
+     * @param sort      "recent (newest first, the default) or rating (highest first)"
+     * @param cursor    "nextCursor of the previous page, omitted for the first page"
+     * @return up to limit reviews following the cursor and the cursor of the next page
+     */
+
+    @GetMapping(value = "/review", params = {"productID", "limit"}, produces = {"application/json", "application/x-jackson-smile"})
+    Mono<ReviewPage> getReviewPage(
+            @RequestParam(value = "productID") int productID,
+            @RequestParam(value = "limit") int limit,
+            @RequestParam(value = "sort", required = false, defaultValue = "recent") String sort,
+            @RequestParam(value = "cursor", required = false) String cursor);
+
+    /**
+     * usage: curl -X POST $HOST:$PORT/review -H "Content-Type: application/json" --data '{"productID":123,"reviewID":1,"author":"me","subject":"s","content":"c","rating":5}'
+     *
+     * @param body "the review, an existing review with the same productID and reviewID is replaced, createdAt defaults to now"
+     * @return the stored review, once it is persisted
+     */
+
+    @PostMapping(value = "/review", consumes = "application/json", produces = "application/json")
+    Mono<Review> createReview(@RequestBody Review body);
+
+    /**
+     * usage: curl -X DELETE $HOST:$PORT/review?productID=1
+     *
+     * @param productID "required productID int, all reviews of the product are deleted"
+     */
+
+    @DeleteMapping(value = "/review")
+    Mono<Void> deleteReviews(@RequestParam(value = "productID") int productID);
 }
@@ -0,0 +1,40 @@
+package com.jkc.microservices.benchmarks;
+
+import com.jkc.microservices.api.core.product.Product;
+import com.jkc.microservices.api.core.recommendation.Recommendation;
+import com.jkc.microservices.api.core.review.Review;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * payloads shaped like the ones the core services return
+ */
+public final class BenchmarkData {
+
+    public static final int PRODUCT_ID = 1;
+    public static final String SERVICE_ADDRESS = "product-service-5f7d8c9b4-x2x9q/10.42.0.17:8080";
+
+    private BenchmarkData() {
+    }
+
+    public static Product product() {
+        return new Product(PRODUCT_ID, "name " + PRODUCT_ID, 123, SERVICE_ADDRESS);
+    }
+
+    public static List<Recommendation> recommendations(int size) {
+        List<Recommendation> recommendations = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            recommendations.add(new Recommendation(PRODUCT_ID, i, "Author " + i, i % 5, "Content " + i, SERVICE_ADDRESS));
+        }
+        return recommendations;
+    }
+
+    public static List<Review> reviews(int size) {
+        List<Review> reviews = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            reviews.add(new Review(PRODUCT_ID, i, "Author " + i, "Subject " + i, "Content " + i, SERVICE_ADDRESS));
+        }
+        return reviews;
+    }
+}
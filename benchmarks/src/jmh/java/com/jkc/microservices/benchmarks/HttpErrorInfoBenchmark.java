@@ -0,0 +1,70 @@
+package com.jkc.microservices.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jkc.microservices.util.exceptions.NotFoundException;
+import com.jkc.microservices.util.http.HttpErrorBodies;
+import com.jkc.microservices.util.http.HttpErrorInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+
+/**
+ * cost of the 404 path: building the error body, writing it in the core service and reading it back in the composite,
+ * with jackson databind against {@link HttpErrorBodies}, and raising the exception with and without a stack trace
+ */
+@State(Scope.Benchmark)
+public class HttpErrorInfoBenchmark {
+
+    private static final String PATH = "/product/13";
+    private static final String MESSAGE = "No product found for productID: 13";
+
+    private ObjectMapper objectMapper;
+    private byte[] errorJson;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        errorJson = objectMapper.writeValueAsBytes(new HttpErrorInfo(HttpStatus.NOT_FOUND, PATH, MESSAGE));
+    }
+
+    @Benchmark
+    public HttpErrorInfo createHttpErrorInfo() {
+        return new HttpErrorInfo(HttpStatus.NOT_FOUND, PATH, MESSAGE);
+    }
+
+    @Benchmark
+    public byte[] writeHttpErrorInfo() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(new HttpErrorInfo(HttpStatus.NOT_FOUND, PATH, MESSAGE));
+    }
+
+    @Benchmark
+    public String readErrorMessage() throws IOException {
+        return objectMapper.readValue(errorJson, HttpErrorInfo.class).getMessage();
+    }
+
+    @Benchmark
+    public byte[] writeErrorBody() {
+        return HttpErrorBodies.write(HttpStatus.NOT_FOUND, PATH, MESSAGE);
+    }
+
+    @Benchmark
+    public String readErrorBodyMessage() {
+        return HttpErrorBodies.readMessage(errorJson);
+    }
+
+    @Benchmark
+    public RuntimeException createExceptionWithStackTrace() {
+        return new RuntimeException(MESSAGE);
+    }
+
+    @Benchmark
+    public RuntimeException createNotFoundException() {
+        return new NotFoundException(MESSAGE);
+    }
+}
@@ -0,0 +1,83 @@
+package com.jkc.microservices.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jkc.microservices.api.composite.product.ProductAggregate;
+import com.jkc.microservices.api.composite.product.RecommendationSummary;
+import com.jkc.microservices.api.composite.product.ReviewSummary;
+import com.jkc.microservices.api.composite.product.ServiceAddresses;
+import com.jkc.microservices.api.core.product.Product;
+import com.jkc.microservices.api.core.recommendation.Recommendation;
+import com.jkc.microservices.api.core.review.Review;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Jackson encoding of the payloads on the composite read path, with the same ObjectMapper setup spring boot uses
+ */
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    @Param({"0", "3", "100", "1000"})
+    int size;
+
+    private ObjectMapper objectMapper;
+    private Product product;
+    private List<Recommendation> recommendations;
+    private List<Review> reviews;
+    private ProductAggregate productAggregate;
+    private byte[] recommendationsJson;
+    private byte[] reviewsJson;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        product = BenchmarkData.product();
+        recommendations = BenchmarkData.recommendations(size);
+        reviews = BenchmarkData.reviews(size);
+        productAggregate = new ProductAggregate(product.getProductID(), product.getName(), product.getWeight(),
+                recommendations.stream().map(recommendation -> new RecommendationSummary(recommendation.getRecommendationID(), recommendation.getAuthor(), recommendation.getRate())).collect(Collectors.toList()),
+                reviews.stream().map(review -> new ReviewSummary(review.getReviewID(), review.getAuthor(), review.getSubject())).collect(Collectors.toList()),
+                new ServiceAddresses(BenchmarkData.SERVICE_ADDRESS, BenchmarkData.SERVICE_ADDRESS, BenchmarkData.SERVICE_ADDRESS, BenchmarkData.SERVICE_ADDRESS));
+        recommendationsJson = objectMapper.writeValueAsBytes(recommendations);
+        reviewsJson = objectMapper.writeValueAsBytes(reviews);
+    }
+
+    @Benchmark
+    public byte[] writeProductAggregate() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(productAggregate);
+    }
+
+    @Benchmark
+    public byte[] writeProduct() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(product);
+    }
+
+    @Benchmark
+    public byte[] writeRecommendations() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(recommendations);
+    }
+
+    @Benchmark
+    public byte[] writeReviews() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(reviews);
+    }
+
+    @Benchmark
+    public Recommendation[] readRecommendations() throws IOException {
+        return objectMapper.readValue(recommendationsJson, Recommendation[].class);
+    }
+
+    @Benchmark
+    public Review[] readReviews() throws IOException {
+        return objectMapper.readValue(reviewsJson, Review[].class);
+    }
+}
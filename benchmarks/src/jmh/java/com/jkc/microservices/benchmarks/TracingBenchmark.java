@@ -0,0 +1,65 @@
+package com.jkc.microservices.benchmarks;
+
+import com.jkc.microservices.util.tracing.InMemorySpanExporter;
+import com.jkc.microservices.util.tracing.Tracer;
+import com.jkc.microservices.util.tracing.TracingExchangeFilter;
+import com.jkc.microservices.util.tracing.TracingWebFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+
+/**
+ * the cost of tracing on a request that makes three backend calls: no tracer at all, a sample rate of 0 without a
+ * slow threshold (nothing is recorded), tail sampling only (spans are collected and dropped unless slow) and every
+ * request sampled (spans are collected and exported)
+ */
+@State(Scope.Benchmark)
+public class TracingBenchmark {
+
+    @Param({"none", "inactive", "tail", "sampled"})
+    String mode;
+
+    private TracingWebFilter filter;
+    private WebFilterChain chain;
+
+    @Setup
+    public void setUp() {
+        InMemorySpanExporter exporter = new InMemorySpanExporter(10000);
+        switch (mode) {
+            case "none" -> filter = new TracingWebFilter(new Tracer("composite", 0.0, null, null));
+            case "inactive" -> filter = new TracingWebFilter(new Tracer("composite", 0.0, null, exporter));
+            case "tail" -> filter = new TracingWebFilter(new Tracer("composite", 0.0, Duration.ofMillis(500), exporter));
+            case "sampled" -> filter = new TracingWebFilter(new Tracer("composite", 1.0, Duration.ofMillis(500), exporter));
+            default -> throw new IllegalArgumentException(mode);
+        }
+        ExchangeFunction backend = request -> Mono.just(ClientResponse.create(HttpStatus.OK).build());
+        ClientRequest product = ClientRequest.create(HttpMethod.GET, URI.create("http://localhost:7001/product/1")).build();
+        ClientRequest recommendations = ClientRequest.create(HttpMethod.GET, URI.create("http://localhost:7002/recommendation?productID=1")).build();
+        ClientRequest reviews = ClientRequest.create(HttpMethod.GET, URI.create("http://localhost:7003/review?productID=1")).build();
+        chain = exchange -> Mono.when(
+                TracingExchangeFilter.INSTANCE.filter(product, backend),
+                TracingExchangeFilter.INSTANCE.filter(recommendations, backend),
+                TracingExchangeFilter.INSTANCE.filter(reviews, backend));
+    }
+
+    @Benchmark
+    public MockServerWebExchange request() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/product-composite/1"));
+        filter.filter(exchange, chain).block();
+        return exchange;
+    }
+}
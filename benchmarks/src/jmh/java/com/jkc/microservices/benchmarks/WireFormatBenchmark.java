@@ -0,0 +1,84 @@
+package com.jkc.microservices.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jkc.microservices.api.core.product.Product;
+import com.jkc.microservices.api.core.recommendation.Recommendation;
+import com.jkc.microservices.api.core.review.Review;
+import com.jkc.microservices.util.http.SmileCodecConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * json against smile (with shared string values, as the core services write it) on the composite to core service
+ * path, the bytes on the wire of each payload are printed once per trial
+ */
+@State(Scope.Benchmark)
+public class WireFormatBenchmark {
+
+    @Param({"json", "smile"})
+    String format;
+
+    @Param({"3", "100", "1000"})
+    int size;
+
+    private ObjectMapper objectMapper;
+    private Product product;
+    private List<Recommendation> recommendations;
+    private List<Review> reviews;
+    private byte[] productBytes;
+    private byte[] recommendationsBytes;
+    private byte[] reviewsBytes;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        objectMapper = "smile".equals(format)
+                ? SmileCodecConfig.smileMapper(Jackson2ObjectMapperBuilder.json())
+                : Jackson2ObjectMapperBuilder.json().build();
+        product = BenchmarkData.product();
+        recommendations = BenchmarkData.recommendations(size);
+        reviews = BenchmarkData.reviews(size);
+        productBytes = objectMapper.writeValueAsBytes(product);
+        recommendationsBytes = objectMapper.writeValueAsBytes(recommendations);
+        reviewsBytes = objectMapper.writeValueAsBytes(reviews);
+        System.out.printf("%nwire bytes (%s, %d): product %d, recommendations %d, reviews %d%n",
+                format, size, productBytes.length, recommendationsBytes.length, reviewsBytes.length);
+    }
+
+    @Benchmark
+    public byte[] writeProduct() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(product);
+    }
+
+    @Benchmark
+    public byte[] writeRecommendations() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(recommendations);
+    }
+
+    @Benchmark
+    public byte[] writeReviews() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(reviews);
+    }
+
+    @Benchmark
+    public Product readProduct() throws IOException {
+        return objectMapper.readValue(productBytes, Product.class);
+    }
+
+    @Benchmark
+    public Recommendation[] readRecommendations() throws IOException {
+        return objectMapper.readValue(recommendationsBytes, Recommendation[].class);
+    }
+
+    @Benchmark
+    public Review[] readReviews() throws IOException {
+        return objectMapper.readValue(reviewsBytes, Review[].class);
+    }
+}
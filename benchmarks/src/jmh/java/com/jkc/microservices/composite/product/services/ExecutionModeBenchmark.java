@@ -0,0 +1,108 @@
+package com.jkc.microservices.composite.product.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jkc.microservices.benchmarks.BenchmarkData;
+import com.jkc.microservices.composite.product.metrics.BackendCallMetrics;
+import com.jkc.microservices.composite.product.resilience.BackendResilience;
+import com.jkc.microservices.composite.product.resilience.HedgingProperties;
+import com.jkc.microservices.composite.product.resilience.RequestHedger;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.ChannelOption;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/**
+ * a burst of concurrent getVersionedProduct calls against a stub product service that answers after latencyMillis,
+ * in each execution mode. the calls are started from as many "event loop" threads as there are cores, like the
+ * requests of the netty server: blocking holds one of them for every call in flight, virtual-threads holds a
+ * virtual thread, reactive holds none. run with -prof gc for the bytes each call costs
+ * (alloc.rate.norm / concurrency). virtual-threads needs a java 21 runtime, -PjmhJvm=<java 21 executable>
+ */
+@State(Scope.Benchmark)
+public class ExecutionModeBenchmark {
+
+    @Param({"reactive", "virtual-threads", "blocking"})
+    String mode;
+
+    @Param({"100", "1000"})
+    int concurrency;
+
+    @Param({"20"})
+    int latencyMillis;
+
+    private DisposableServer productService;
+    private ConnectionProvider connectionProvider;
+    private BlockingBackendClient blockingBackendClient;
+    private Scheduler eventLoop;
+    private ProductCompositeIntegration integration;
+
+    @Setup
+    public void setUp() throws Exception {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        byte[] product = objectMapper.writeValueAsBytes(BenchmarkData.product());
+        Duration latency = Duration.ofMillis(latencyMillis);
+        // the blocking client opens a connection per call in flight, all of them at once
+        productService = HttpServer.create().host("localhost").port(0)
+                .tcpConfiguration(tcpServer -> tcpServer.option(ChannelOption.SO_BACKLOG, 4096))
+                .route(routes -> routes.get("/product/{productID}", (request, response) -> Mono.delay(latency)
+                        .flatMap(tick -> response.header("Content-Type", "application/json").sendByteArray(Mono.just(product)).then())))
+                .bindNow();
+
+        connectionProvider = ConnectionProvider.builder("product-service").maxConnections(concurrency).build();
+        WebClient webClient = WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connectionProvider)))
+                .filter(BackendCallMetrics.STATUS_FILTER)
+                .build();
+        // neither the bulkhead nor the deadline may cut the burst short
+        BackendResilience backendResilience = new BackendResilience(
+                CircuitBreakerRegistry.ofDefaults(),
+                BulkheadRegistry.of(BulkheadConfig.custom().maxConcurrentCalls(Integer.MAX_VALUE).build()),
+                TimeLimiterRegistry.of(TimeLimiterConfig.custom().timeoutDuration(Duration.ofSeconds(60)).build()),
+                new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+        blockingBackendClient = new BlockingBackendClient(ExecutionMode.valueOf(mode.toUpperCase().replace('-', '_')), Duration.ofSeconds(10), Duration.ofSeconds(60));
+        int port = productService.port();
+        integration = new ProductCompositeIntegration(webClient, webClient, webClient, backendResilience,
+                new RequestHedger(new HedgingProperties(), null), new BackendCallMetrics(null), blockingBackendClient, objectMapper,
+                "localhost", port, "localhost", port, "localhost", port, 0);
+        eventLoop = Schedulers.newParallel("event-loop", Runtime.getRuntime().availableProcessors());
+    }
+
+    @TearDown
+    public void tearDown() {
+        eventLoop.dispose();
+        blockingBackendClient.dispose();
+        connectionProvider.disposeLater().block();
+        productService.disposeNow();
+    }
+
+    @Benchmark
+    public Long burst() {
+        return Flux.range(1, concurrency)
+                .flatMap(productID -> integration.getVersionedProduct(productID).subscribeOn(eventLoop), concurrency)
+                .count()
+                .block();
+    }
+}
@@ -0,0 +1,40 @@
+package com.jkc.microservices.composite.product.services;
+
+import com.jkc.microservices.api.composite.product.ProductAggregate;
+import com.jkc.microservices.api.core.product.Product;
+import com.jkc.microservices.api.core.recommendation.Recommendation;
+import com.jkc.microservices.api.core.review.Review;
+import com.jkc.microservices.benchmarks.BenchmarkData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+/**
+ * ProductCompositeServiceImpl.createProductAggregate, lives in the same package to reach the package-private method
+ */
+@State(Scope.Benchmark)
+public class ProductAggregateBenchmark {
+
+    @Param({"0", "3", "100", "1000"})
+    int size;
+
+    private Product product;
+    private List<Recommendation> recommendations;
+    private List<Review> reviews;
+
+    @Setup
+    public void setUp() {
+        product = BenchmarkData.product();
+        recommendations = BenchmarkData.recommendations(size);
+        reviews = BenchmarkData.reviews(size);
+    }
+
+    @Benchmark
+    public ProductAggregate createProductAggregate() {
+        return ProductCompositeServiceImpl.createProductAggregate(product, recommendations, reviews, BenchmarkData.SERVICE_ADDRESS);
+    }
+}
@@ -0,0 +1,176 @@
+package com.jkc.microservices.core.product.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jkc.microservices.api.core.product.Product;
+import com.jkc.microservices.api.core.product.ProductService;
+import com.jkc.microservices.core.product.persistence.InMemoryProductRepository;
+import com.jkc.microservices.core.product.persistence.ProductEntity;
+import com.jkc.microservices.core.product.persistence.ProductReadCache;
+import com.jkc.microservices.core.product.persistence.ProductStoreProperties;
+import com.jkc.microservices.core.product.persistence.ProductWrite;
+import com.jkc.microservices.util.batch.WriteBatchProperties;
+import com.jkc.microservices.util.batch.WriteBatcher;
+import com.jkc.microservices.util.http.ProductVersions;
+import com.jkc.microservices.util.http.ServiceAddressConfig;
+import com.jkc.microservices.util.http.ServiceUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.filter.reactive.ServerWebExchangeContextFilter;
+import org.springframework.web.reactive.config.EnableWebFlux;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+import org.springframework.web.server.adapter.WebHttpHandlerBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GET /product/{productID} through the webflux dispatcher (routing, conditional get, jackson) with mock requests, so
+ * without the network.
+ * before is the request path as it was: the service address printed to stdout on every request and written as a
+ * plain string, after resolves it once and writes it from pre-encoded bytes
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ProductEndpointBenchmark {
+
+    @Param({"before", "after"})
+    String path;
+
+    private WriteBatcher<ProductWrite> writeBatcher;
+    private AnnotationConfigApplicationContext context;
+    private HttpHandler httpHandler;
+    private PrintStream stdout;
+
+    @Setup
+    public void setUp() throws FileNotFoundException {
+        InMemoryProductRepository repository = new InMemoryProductRepository(16);
+        repository.save(new ProductEntity(1, "name 1", 123));
+        writeBatcher = new WriteBatcher<>("product", new WriteBatchProperties(), repository::writeAll);
+        ServiceUtil serviceUtil = new ServiceUtil("7001");
+        ProductService productService = new ProductServiceImpl(serviceUtil, new ProductReadCache(repository, new ProductStoreProperties.Cache(), null),
+                repository, new ProductVersions(16), writeBatcher, new WriteBatchProperties());
+        Jackson2ObjectMapperBuilder objectMapperBuilder = Jackson2ObjectMapperBuilder.json();
+        if ("before".equals(path)) {
+            productService = new PrintingProductService(productService, serviceUtil);
+            // stdout writes are still issued, but not into the benchmark output
+            stdout = System.out;
+            System.setOut(new PrintStream(nullDevice(), true));
+        } else {
+            objectMapperBuilder.modulesToInstall(ServiceAddressConfig.module());
+        }
+
+        ProductService controller = productService;
+        context = new AnnotationConfigApplicationContext();
+        context.registerBean(ObjectMapper.class, objectMapperBuilder::build);
+        context.registerBean("productService", controllerType(controller), () -> controller);
+        context.registerBean(ServerWebExchangeContextFilter.class);
+        context.register(WebFluxConfig.class);
+        context.refresh();
+        httpHandler = WebHttpHandlerBuilder.applicationContext(context).build();
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        context.close();
+        writeBatcher.close();
+        if (stdout != null) {
+            System.setOut(stdout);
+        }
+    }
+
+    @Benchmark
+    public MockServerHttpResponse getProduct() {
+        MockServerHttpResponse response = new MockServerHttpResponse();
+        httpHandler.handle(MockServerHttpRequest.get("/product/1").build(), response).block();
+        return response;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Class<ProductService> controllerType(ProductService controller) {
+        return (Class<ProductService>) controller.getClass();
+    }
+
+    @Configuration
+    @EnableWebFlux
+    static class WebFluxConfig implements WebFluxConfigurer {
+        private final ObjectMapper objectMapper;
+
+        WebFluxConfig(ObjectMapper objectMapper) {
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        public void configureHttpMessageCodecs(ServerCodecConfigurer configurer) {
+            configurer.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+        }
+    }
+
+    private static OutputStream nullDevice() throws FileNotFoundException {
+        File nullDevice = new File(System.getProperty("os.name").startsWith("Windows") ? "NUL" : "/dev/null");
+        return new FileOutputStream(nullDevice);
+    }
+
+    /**
+     * the removed System.out.println(serviceUtil.getServiceAddress()) of getProduct
+     */
+    @RestController
+    static final class PrintingProductService implements ProductService {
+        private final ProductService delegate;
+        private final ServiceUtil serviceUtil;
+
+        PrintingProductService(ProductService delegate, ServiceUtil serviceUtil) {
+            this.delegate = delegate;
+            this.serviceUtil = serviceUtil;
+        }
+
+        @Override
+        public Mono<Product> getProduct(int productID) {
+            System.out.println(serviceUtil.getServiceAddress());
+            return delegate.getProduct(productID);
+        }
+
+        @Override
+        public Flux<Product> getProducts(List<Integer> productIDs) {
+            return delegate.getProducts(productIDs);
+        }
+
+        @Override
+        public Mono<Product> createProduct(Product body) {
+            return delegate.createProduct(body);
+        }
+
+        @Override
+        public Flux<Product> createProducts(Flux<Product> body) {
+            return delegate.createProducts(body);
+        }
+
+        @Override
+        public Mono<Void> deleteProduct(int productID) {
+            return delegate.deleteProduct(productID);
+        }
+    }
+}
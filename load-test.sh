@@ -0,0 +1,84 @@
+#!/usr/bin/env bash
+#
+# Boots product (7001), recommendation (7002), review (7003) and product-composite (7000) from their boot jars on
+# localhost, drives the composite with the open-model load generator in load-test/ and writes
+# build/load-test/report.json (latency percentiles, throughput, status counts, error rate) plus report.hgrm.
+# Extra arguments are passed to the generator; the exit status is non-zero when a gate is exceeded.
+#
+# Sample usage:
+#
+#   ./load-test.sh
+#   RPS=1000 DURATION=120s DISTRIBUTION=zipf ./load-test.sh --max-p99-ms=50 --max-error-rate=0.001
+#   SKIP_BUILD=true ./load-test.sh --path=/product-composite?ids={id}
+#
+: ${RPS=200}
+: ${DURATION=60s}
+: ${WARMUP=15s}
+: ${DISTRIBUTION=uniform}
+: ${ZIPF_EXPONENT=1.0}
+: ${MAX_ID=1000}
+: ${SEED=42}
+: ${SERVICE_JAVA_OPTS=-Xms256m -Xmx256m}
+: ${SKIP_BUILD=false}
+
+OUT=build/load-test
+SERVICES="product-service:7001 recommendation-service:7002 review-service:7003 product-composite-service:7000"
+
+function stopServices() {
+  if [ -f $OUT/pids ]; then
+    echo "stopping services"
+    kill $(cat $OUT/pids) 2>/dev/null
+    wait 2>/dev/null
+    rm -f $OUT/pids
+  fi
+}
+
+function waitForService() {
+  local url=$1
+  echo -n "wait for url: $url..."
+  for n in $(seq 1 60); do
+    if curl "$url" -s -f -o /dev/null; then
+      echo "Ok"
+      return 0
+    fi
+    sleep 2
+  done
+  echo "Give Up, see $OUT/*.log"
+  exit 1
+}
+
+set -e
+cd "$(dirname "$0")"
+mkdir -p $OUT
+stopServices
+
+if [[ $SKIP_BUILD != "true" ]]; then
+  ./gradlew bootJar :load-test:installDist
+fi
+
+trap stopServices EXIT
+for service in $SERVICES; do
+  name=${service%%:*}
+  port=${service##*:}
+  echo "starting $name on port $port"
+  java $SERVICE_JAVA_OPTS -jar microservices/$name/build/libs/$name-0.0.1-SNAPSHOT.jar --server.port=$port > $OUT/$name.log 2>&1 &
+  echo $! >> $OUT/pids
+done
+for service in $SERVICES; do
+  waitForService "http://localhost:${service##*:}/actuator/health"
+done
+
+set +e
+load-test/build/install/load-test/bin/load-test \
+  --base-url=http://localhost:7000 \
+  --rps=$RPS \
+  --duration=$DURATION \
+  --warmup=$WARMUP \
+  --distribution=$DISTRIBUTION \
+  --zipf-exponent=$ZIPF_EXPONENT \
+  --max-id=$MAX_ID \
+  --seed=$SEED \
+  --report=$OUT/report.json \
+  "$@"
+status=$?
+exit $status
@@ -0,0 +1,73 @@
+package com.jkc.microservices.loadtest;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * picks the productID for the next request; seeded so two runs with the same options hit the same ids in the same order
+ */
+public interface IdDistribution {
+
+    int nextID();
+
+    static IdDistribution of(String name, int minID, int maxID, double zipfExponent, long seed) {
+        return switch (name) {
+            case "uniform" -> new Uniform(minID, maxID, seed);
+            case "zipf" -> new Zipf(minID, maxID, zipfExponent, seed);
+            default -> throw new IllegalArgumentException("Unknown id distribution: " + name + ", expected uniform or zipf");
+        };
+    }
+
+    final class Uniform implements IdDistribution {
+        private final int minID;
+        private final int range;
+        private final SplittableRandom random;
+
+        Uniform(int minID, int maxID, long seed) {
+            if (maxID < minID) {
+                throw new IllegalArgumentException("maxID " + maxID + " is below minID " + minID);
+            }
+            this.minID = minID;
+            this.range = maxID - minID + 1;
+            this.random = new SplittableRandom(seed);
+        }
+
+        @Override
+        public int nextID() {
+            return minID + random.nextInt(range);
+        }
+    }
+
+    /**
+     * rank k (minID is rank 1) is drawn with probability proportional to 1 / k^exponent, sampled by binary search over the cumulative weights
+     */
+    final class Zipf implements IdDistribution {
+        private final int minID;
+        private final double[] cumulative;
+        private final SplittableRandom random;
+
+        Zipf(int minID, int maxID, double exponent, long seed) {
+            if (maxID < minID) {
+                throw new IllegalArgumentException("maxID " + maxID + " is below minID " + minID);
+            }
+            if (exponent <= 0) {
+                throw new IllegalArgumentException("zipf exponent must be positive, got " + exponent);
+            }
+            this.minID = minID;
+            this.cumulative = new double[maxID - minID + 1];
+            double sum = 0;
+            for (int rank = 1; rank <= cumulative.length; rank++) {
+                sum += 1.0 / Math.pow(rank, exponent);
+                cumulative[rank - 1] = sum;
+            }
+            this.random = new SplittableRandom(seed);
+        }
+
+        @Override
+        public int nextID() {
+            double point = random.nextDouble() * cumulative[cumulative.length - 1];
+            int index = Arrays.binarySearch(cumulative, point);
+            return minID + (index >= 0 ? index : -index - 1);
+        }
+    }
+}
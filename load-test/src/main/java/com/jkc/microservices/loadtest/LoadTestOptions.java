@@ -0,0 +1,146 @@
+package com.jkc.microservices.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * command line options in --name=value form, every option has a default so a bare run is a short smoke test
+ */
+public class LoadTestOptions {
+    private final String baseUrl;
+    private final String path;
+    private final int rps;
+    private final Duration duration;
+    private final Duration warmup;
+    private final Duration requestTimeout;
+    private final int maxInFlight;
+    private final int maxConnections;
+    private final String distribution;
+    private final double zipfExponent;
+    private final int minID;
+    private final int maxID;
+    private final long seed;
+    private final Path report;
+    private final double maxErrorRate;
+    private final double maxP99Millis;
+
+    private LoadTestOptions(Map<String, String> options) {
+        this.baseUrl = options.getOrDefault("base-url", "http://localhost:7000");
+        this.path = options.getOrDefault("path", "/product-composite/{id}");
+        this.rps = Integer.parseInt(options.getOrDefault("rps", "200"));
+        this.duration = parseDuration(options.getOrDefault("duration", "30s"));
+        this.warmup = parseDuration(options.getOrDefault("warmup", "10s"));
+        this.requestTimeout = parseDuration(options.getOrDefault("request-timeout", "5s"));
+        this.maxInFlight = Integer.parseInt(options.getOrDefault("max-in-flight", "2000"));
+        this.maxConnections = Integer.parseInt(options.getOrDefault("max-connections", "500"));
+        this.distribution = options.getOrDefault("distribution", "uniform");
+        this.zipfExponent = Double.parseDouble(options.getOrDefault("zipf-exponent", "1.0"));
+        this.minID = Integer.parseInt(options.getOrDefault("min-id", "1"));
+        this.maxID = Integer.parseInt(options.getOrDefault("max-id", "1000"));
+        this.seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        this.report = Path.of(options.getOrDefault("report", "build/load-test/report.json"));
+        this.maxErrorRate = Double.parseDouble(options.getOrDefault("max-error-rate", "-1"));
+        this.maxP99Millis = Double.parseDouble(options.getOrDefault("max-p99-ms", "-1"));
+        if (rps < 1) {
+            throw new IllegalArgumentException("rps must be at least 1, got " + rps);
+        }
+        if (!path.contains("{id}")) {
+            throw new IllegalArgumentException("path must contain an {id} placeholder, got " + path);
+        }
+    }
+
+    public static LoadTestOptions parse(String... args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return new LoadTestOptions(options);
+    }
+
+    // accepts 30s, 500ms, 2m or an ISO-8601 duration such as PT30S
+    static Duration parseDuration(String value) {
+        if (value.startsWith("P") || value.startsWith("p")) {
+            return Duration.parse(value);
+        }
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        long amount = Long.parseLong(value.substring(0, value.length() - 1));
+        return switch (value.charAt(value.length() - 1)) {
+            case 's' -> Duration.ofSeconds(amount);
+            case 'm' -> Duration.ofMinutes(amount);
+            case 'h' -> Duration.ofHours(amount);
+            default -> throw new IllegalArgumentException("Unsupported duration: " + value);
+        };
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public int getRps() {
+        return rps;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    public Duration getWarmup() {
+        return warmup;
+    }
+
+    public Duration getRequestTimeout() {
+        return requestTimeout;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public String getDistribution() {
+        return distribution;
+    }
+
+    public double getZipfExponent() {
+        return zipfExponent;
+    }
+
+    public int getMinID() {
+        return minID;
+    }
+
+    public int getMaxID() {
+        return maxID;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public Path getReport() {
+        return report;
+    }
+
+    public double getMaxErrorRate() {
+        return maxErrorRate;
+    }
+
+    public double getMaxP99Millis() {
+        return maxP99Millis;
+    }
+}
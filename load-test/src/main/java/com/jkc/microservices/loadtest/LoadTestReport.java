@@ -0,0 +1,234 @@
+package com.jkc.microservices.loadtest;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.HdrHistogram.Histogram;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * the machine readable outcome of one run, written as json; errors are 5xx responses, timeouts, connection failures and
+ * requests dropped because max-in-flight was reached, 4xx responses are reported per status but not counted as errors
+ */
+public class LoadTestReport {
+    private final String baseUrl;
+    private final String path;
+    private final String distribution;
+    private final double zipfExponent;
+    private final int minID;
+    private final int maxID;
+    private final long seed;
+    private final int targetRps;
+    private final double warmupSeconds;
+    private final double durationSeconds;
+    private final long requests;
+    private final long completed;
+    private final double achievedRps;
+    private final Map<String, Long> statusCounts;
+    private final long timeouts;
+    private final long transportErrors;
+    private final long dropped;
+    private final long errors;
+    private final double errorRate;
+    private final long maxScheduleLagMillis;
+    private final Latency latencyMillis;
+    private final List<String> failures;
+    private final Histogram histogram;
+
+    private LoadTestReport(LoadTestOptions options, Histogram histogram, Map<Integer, Long> statusCounts, long timeouts,
+                           long transportErrors, long dropped, long requests, long maxScheduleLagMillis) {
+        this.baseUrl = options.getBaseUrl();
+        this.path = options.getPath();
+        this.distribution = options.getDistribution();
+        this.zipfExponent = options.getZipfExponent();
+        this.minID = options.getMinID();
+        this.maxID = options.getMaxID();
+        this.seed = options.getSeed();
+        this.targetRps = options.getRps();
+        this.warmupSeconds = options.getWarmup().toMillis() / 1000.0;
+        this.durationSeconds = options.getDuration().toMillis() / 1000.0;
+        this.requests = requests;
+        this.statusCounts = new LinkedHashMap<>();
+        statusCounts.forEach((status, count) -> this.statusCounts.put(Integer.toString(status), count));
+        this.completed = statusCounts.values().stream().mapToLong(Long::longValue).sum();
+        this.achievedRps = durationSeconds > 0 ? completed / durationSeconds : 0;
+        this.timeouts = timeouts;
+        this.transportErrors = transportErrors;
+        this.dropped = dropped;
+        long serverErrors = statusCounts.entrySet().stream().filter(entry -> entry.getKey() >= 500).mapToLong(Map.Entry::getValue).sum();
+        this.errors = serverErrors + timeouts + transportErrors + dropped;
+        this.errorRate = requests > 0 ? (double) errors / requests : 0;
+        this.maxScheduleLagMillis = maxScheduleLagMillis;
+        this.latencyMillis = new Latency(histogram);
+        this.histogram = histogram;
+        this.failures = new ArrayList<>();
+        if (options.getMaxErrorRate() >= 0 && errorRate > options.getMaxErrorRate()) {
+            failures.add("error rate " + errorRate + " is above max-error-rate " + options.getMaxErrorRate());
+        }
+        if (options.getMaxP99Millis() >= 0 && latencyMillis.getP99() > options.getMaxP99Millis()) {
+            failures.add("p99 " + latencyMillis.getP99() + "ms is above max-p99-ms " + options.getMaxP99Millis());
+        }
+    }
+
+    static LoadTestReport create(LoadTestOptions options, Histogram histogram, Map<Integer, Long> statusCounts, long timeouts,
+                                 long transportErrors, long dropped, long requests, long maxScheduleLagMillis) {
+        return new LoadTestReport(options, histogram, statusCounts, timeouts, transportErrors, dropped, requests, maxScheduleLagMillis);
+    }
+
+    public boolean isPassed() {
+        return failures.isEmpty();
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public String getDistribution() {
+        return distribution;
+    }
+
+    public double getZipfExponent() {
+        return zipfExponent;
+    }
+
+    public int getMinID() {
+        return minID;
+    }
+
+    public int getMaxID() {
+        return maxID;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getTargetRps() {
+        return targetRps;
+    }
+
+    public double getWarmupSeconds() {
+        return warmupSeconds;
+    }
+
+    public double getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    public long getRequests() {
+        return requests;
+    }
+
+    public long getCompleted() {
+        return completed;
+    }
+
+    public double getAchievedRps() {
+        return achievedRps;
+    }
+
+    public Map<String, Long> getStatusCounts() {
+        return statusCounts;
+    }
+
+    public long getTimeouts() {
+        return timeouts;
+    }
+
+    public long getTransportErrors() {
+        return transportErrors;
+    }
+
+    public long getDropped() {
+        return dropped;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public double getErrorRate() {
+        return errorRate;
+    }
+
+    public long getMaxScheduleLagMillis() {
+        return maxScheduleLagMillis;
+    }
+
+    public Latency getLatencyMillis() {
+        return latencyMillis;
+    }
+
+    public List<String> getFailures() {
+        return failures;
+    }
+
+    @JsonIgnore
+    public Histogram getHistogram() {
+        return histogram;
+    }
+
+    public static class Latency {
+        private final long count;
+        private final double min;
+        private final double mean;
+        private final double p50;
+        private final double p90;
+        private final double p99;
+        private final double p999;
+        private final double max;
+
+        Latency(Histogram micros) {
+            this.count = micros.getTotalCount();
+            this.min = toMillis(micros.getTotalCount() > 0 ? micros.getMinValue() : 0);
+            this.mean = micros.getMean() / 1000.0;
+            this.p50 = toMillis(micros.getValueAtPercentile(50));
+            this.p90 = toMillis(micros.getValueAtPercentile(90));
+            this.p99 = toMillis(micros.getValueAtPercentile(99));
+            this.p999 = toMillis(micros.getValueAtPercentile(99.9));
+            this.max = toMillis(micros.getMaxValue());
+        }
+
+        private static double toMillis(long micros) {
+            return micros / 1000.0;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getMin() {
+            return min;
+        }
+
+        public double getMean() {
+            return mean;
+        }
+
+        public double getP50() {
+            return p50;
+        }
+
+        public double getP90() {
+            return p90;
+        }
+
+        public double getP99() {
+            return p99;
+        }
+
+        public double getP999() {
+            return p999;
+        }
+
+        public double getMax() {
+            return max;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.jkc.microservices.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * drives the already running services, writes report.json plus an .hgrm percentile distribution next to it, and exits
+ * with status 1 when a --max-error-rate or --max-p99-ms gate is exceeded
+ */
+public class LoadTestRunner {
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        IdDistribution idDistribution = IdDistribution.of(options.getDistribution(), options.getMinID(), options.getMaxID(),
+                options.getZipfExponent(), options.getSeed());
+
+        System.out.printf("load test: %d rps for %s after %s warmup against %s%s, %s ids %d..%d%n", options.getRps(),
+                options.getDuration(), options.getWarmup(), options.getBaseUrl(), options.getPath(), options.getDistribution(),
+                options.getMinID(), options.getMaxID());
+        LoadTestReport report = new OpenModelLoadGenerator(options, idDistribution).run();
+
+        Path reportFile = options.getReport().toAbsolutePath();
+        Files.createDirectories(reportFile.getParent());
+        ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        mapper.writeValue(reportFile.toFile(), report);
+        Path histogramFile = reportFile.resolveSibling(reportFile.getFileName().toString().replaceFirst("\\.json$", "") + ".hgrm");
+        try (PrintStream out = new PrintStream(Files.newOutputStream(histogramFile))) {
+            report.getHistogram().outputPercentileDistribution(out, 1000.0);
+        }
+
+        System.out.printf("requests=%d completed=%d achieved=%.1f rps errors=%d (%.4f) p50=%.2fms p99=%.2fms p999=%.2fms max=%.2fms%n",
+                report.getRequests(), report.getCompleted(), report.getAchievedRps(), report.getErrors(), report.getErrorRate(),
+                report.getLatencyMillis().getP50(), report.getLatencyMillis().getP99(), report.getLatencyMillis().getP999(),
+                report.getLatencyMillis().getMax());
+        System.out.println("report written to " + reportFile);
+        report.getFailures().forEach(failure -> System.out.println("FAILED: " + failure));
+        System.exit(report.isPassed() ? 0 : 1);
+    }
+}
@@ -0,0 +1,130 @@
+package com.jkc.microservices.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * open-model generator: request i is due at start + i / rps whether or not earlier requests have completed, and its
+ * latency is measured from that due time rather than from when it was actually sent, so a stalled server shows up in
+ * the tail instead of silently lowering the offered load (coordinated omission)
+ */
+public class OpenModelLoadGenerator {
+    private final LoadTestOptions options;
+    private final IdDistribution idDistribution;
+    private final HttpClient httpClient;
+    private final ConnectionProvider connectionProvider;
+
+    private final Histogram latencyMicros = new ConcurrentHistogram(3);
+    private final Map<Integer, LongAdder> statusCounts = new ConcurrentHashMap<>();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder transportErrors = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private long issued;
+    private long maxScheduleLagNanos;
+
+    public OpenModelLoadGenerator(LoadTestOptions options, IdDistribution idDistribution) {
+        this.options = options;
+        this.idDistribution = idDistribution;
+        this.connectionProvider = ConnectionProvider.builder("load-test")
+                .maxConnections(options.getMaxConnections())
+                .pendingAcquireMaxCount(-1)
+                .build();
+        this.httpClient = HttpClient.create(connectionProvider).baseUrl(options.getBaseUrl());
+    }
+
+    public LoadTestReport run() throws InterruptedException {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / options.getRps();
+        long start = System.nanoTime();
+        long measureFrom = start + options.getWarmup().toNanos();
+        long end = measureFrom + options.getDuration().toNanos();
+        try {
+            for (long i = 0; ; i++) {
+                long due = start + i * intervalNanos;
+                if (due >= end) {
+                    break;
+                }
+                long now = System.nanoTime();
+                while (now < due) {
+                    LockSupport.parkNanos(due - now);
+                    now = System.nanoTime();
+                }
+                boolean measured = due >= measureFrom;
+                if (measured) {
+                    issued++;
+                    maxScheduleLagNanos = Math.max(maxScheduleLagNanos, now - due);
+                }
+                send(due, measured);
+            }
+            awaitInFlight();
+        } finally {
+            connectionProvider.disposeLater().block();
+        }
+        return LoadTestReport.create(options, latencyMicros, snapshotStatusCounts(), timeouts.sum(), transportErrors.sum(),
+                dropped.sum(), issued, TimeUnit.NANOSECONDS.toMillis(maxScheduleLagNanos));
+    }
+
+    private void send(long due, boolean measured) {
+        if (inFlight.incrementAndGet() > options.getMaxInFlight()) {
+            inFlight.decrementAndGet();
+            if (measured) {
+                dropped.increment();
+            }
+            return;
+        }
+        String uri = options.getPath().replace("{id}", Integer.toString(idDistribution.nextID()));
+        httpClient.get()
+                .uri(uri)
+                .responseSingle((response, body) -> body.asByteArray().thenReturn(response.status().code()))
+                .timeout(options.getRequestTimeout())
+                .subscribe(
+                        status -> {
+                            inFlight.decrementAndGet();
+                            if (measured) {
+                                recordLatency(due);
+                                statusCounts.computeIfAbsent(status, key -> new LongAdder()).increment();
+                            }
+                        },
+                        error -> {
+                            inFlight.decrementAndGet();
+                            if (!measured) {
+                                return;
+                            }
+                            if (error instanceof TimeoutException) {
+                                // the real latency is unknown but at least the timeout, keep it in the tail rather than dropping it
+                                recordLatency(due);
+                                timeouts.increment();
+                            } else {
+                                transportErrors.increment();
+                            }
+                        });
+    }
+
+    private void recordLatency(long due) {
+        latencyMicros.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - due));
+    }
+
+    private void awaitInFlight() throws InterruptedException {
+        long deadline = System.nanoTime() + options.getRequestTimeout().toNanos() + TimeUnit.SECONDS.toNanos(1);
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+    }
+
+    private Map<Integer, Long> snapshotStatusCounts() {
+        Map<Integer, Long> snapshot = new TreeMap<>();
+        statusCounts.forEach((status, count) -> snapshot.put(status, count.sum()));
+        return snapshot;
+    }
+}
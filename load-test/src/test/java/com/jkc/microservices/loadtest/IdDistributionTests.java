@@ -0,0 +1,44 @@
+package com.jkc.microservices.loadtest;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdDistributionTests {
+
+    private static int[] sample(IdDistribution distribution, int samples, int maxID) {
+        int[] counts = new int[maxID + 1];
+        for (int i = 0; i < samples; i++) {
+            counts[distribution.nextID()]++;
+        }
+        return counts;
+    }
+
+    @Test
+    void idsStayWithinRange() {
+        for (String name : new String[]{"uniform", "zipf"}) {
+            IdDistribution distribution = IdDistribution.of(name, 5, 20, 1.0, 42);
+            for (int i = 0; i < 10_000; i++) {
+                int id = distribution.nextID();
+                assertTrue(id >= 5 && id <= 20, name + " returned " + id);
+            }
+        }
+    }
+
+    @Test
+    void zipfFavoursLowRanks() {
+        int[] counts = sample(IdDistribution.of("zipf", 1, 100, 1.0, 42), 100_000, 100);
+        // with exponent 1 rank 1 is drawn ten times as often as rank 10 and a hundred times as often as rank 100
+        assertTrue(counts[1] > 5 * counts[10], counts[1] + " vs " + counts[10]);
+        assertTrue(counts[10] > 5 * counts[100], counts[10] + " vs " + counts[100]);
+    }
+
+    @Test
+    void sameSeedGivesSameSequence() {
+        assertArrayEquals(sample(IdDistribution.of("zipf", 1, 50, 1.2, 7), 1_000, 50),
+                sample(IdDistribution.of("zipf", 1, 50, 1.2, 7), 1_000, 50));
+        assertThrows(IllegalArgumentException.class, () -> IdDistribution.of("pareto", 1, 50, 1.0, 7));
+    }
+}
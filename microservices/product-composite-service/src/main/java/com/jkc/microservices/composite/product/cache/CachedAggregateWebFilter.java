@@ -0,0 +1,150 @@
+package com.jkc.microservices.composite.product.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jkc.microservices.api.composite.product.ProductAggregate;
+import com.jkc.microservices.composite.product.metrics.AggregateMetrics;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * answers GET /product-composite/{productID} from a cached aggregate without going through the controller: the json
+ * is encoded once per cache entry and, for bodies of at least gzipMinSize bytes, gzip compressed once as well, both
+ * before the entry is cached, so a hot entry is neither serialized nor compressed again. the server does not compress a body that already has a
+ * Content-Encoding. on the netty server the cached buffers are handed to the channel as retained duplicates, so a hit
+ * copies no bytes on the heap. misses, entries due for a refresh and anything else go on to the controller, which
+ * fills the cache
+ */
+public class CachedAggregateWebFilter implements WebFilter {
+
+    private static final String PATH_PREFIX = "/product-composite/";
+    // tags the metrics of a hit like those of the controller method
+    private static final PathPattern PATH_PATTERN = new PathPatternParser().parse(PATH_PREFIX + "{productID}");
+
+    private final ProductAggregateCache cache;
+    private final AggregateMetrics aggregateMetrics;
+    private final ObjectMapper objectMapper;
+    private final ByteBufAllocator allocator;
+    private final long gzipMinSize;
+
+    /**
+     * @param allocator   allocates the buffers that the cache entries keep their encoded body in
+     * @param gzipMinSize bodies below this size are sent as they are, negative to never compress
+     */
+    public CachedAggregateWebFilter(ProductAggregateCache cache, AggregateMetrics aggregateMetrics, ObjectMapper objectMapper, ByteBufAllocator allocator, long gzipMinSize) {
+        this.cache = cache;
+        this.aggregateMetrics = aggregateMetrics;
+        this.objectMapper = objectMapper;
+        this.allocator = allocator;
+        this.gzipMinSize = gzipMinSize;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        int productID = productID(request);
+        Versioned<ProductAggregate> cached = productID > 0 && acceptsJson(request) ? cache.getIfPresent(productID) : null;
+        if (cached == null) {
+            return chain.filter(exchange);
+        }
+        exchange.getAttributes().put(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, PATH_PATTERN);
+        aggregateMetrics.countResponse(cached);
+        ServerHttpResponse response = exchange.getResponse();
+        if (cached.getETag() != null && exchange.checkNotModified(cached.getETag())) {
+            return response.setComplete();
+        }
+        EncodedBody encoded = cached.getEncoded(this::encode);
+        boolean gzip = gzipMinSize >= 0 && encoded != null && encoded.jsonLength() >= gzipMinSize && acceptsGzip(request);
+        ByteBuf body = encoded == null ? null : gzip ? encoded.retainGzip() : encoded.retainJson();
+        if (body == null) {
+            // the entry was evicted while this request was reading it
+            return chain.filter(exchange);
+        }
+        HttpHeaders headers = response.getHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        if (gzipMinSize >= 0) {
+            headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        if (gzip) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        headers.setContentLength(body.readableBytes());
+        return response.writeWith(Mono.just(toDataBuffer(body, response.bufferFactory())));
+    }
+
+    /**
+     * the cache encodes what it loads with this, so a hit finds its json and gzip bytes already there
+     */
+    public EncodedBody encode(ProductAggregate productAggregate) {
+        return EncodedBody.encode(productAggregate, (body, out) -> objectMapper.writeValue(out, body), allocator, gzipMinSize);
+    }
+
+    /**
+     * hands the buffer over as it is on the netty server, other servers (and the test client) get a copy
+     */
+    private static DataBuffer toDataBuffer(ByteBuf body, DataBufferFactory bufferFactory) {
+        if (bufferFactory instanceof NettyDataBufferFactory) {
+            return ((NettyDataBufferFactory) bufferFactory).wrap(body);
+        }
+        try {
+            return bufferFactory.allocateBuffer(body.readableBytes()).write(body.nioBuffer());
+        } finally {
+            body.release();
+        }
+    }
+
+    /**
+     * @return the productID of a GET /product-composite/{productID}, 0 for any other request
+     */
+    static int productID(ServerHttpRequest request) {
+        if (request.getMethod() != HttpMethod.GET) {
+            return 0;
+        }
+        String path = request.getPath().pathWithinApplication().value();
+        if (!path.startsWith(PATH_PREFIX) || path.length() == PATH_PREFIX.length() || path.length() > PATH_PREFIX.length() + 9) {
+            return 0;
+        }
+        int productID = 0;
+        for (int i = PATH_PREFIX.length(); i < path.length(); i++) {
+            char c = path.charAt(i);
+            if (c < '0' || c > '9') {
+                return 0;
+            }
+            productID = productID * 10 + (c - '0');
+        }
+        return productID;
+    }
+
+    private static boolean acceptsJson(ServerHttpRequest request) {
+        List<MediaType> accept = request.getHeaders().getAccept();
+        return accept.isEmpty() || accept.stream().anyMatch(mediaType -> mediaType.isCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+
+    static boolean acceptsGzip(ServerHttpRequest request) {
+        for (String value : request.getHeaders().getOrEmpty(HttpHeaders.ACCEPT_ENCODING)) {
+            for (String coding : value.split(",")) {
+                String[] parts = coding.split(";");
+                if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                    return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+                }
+            }
+        }
+        return false;
+    }
+}
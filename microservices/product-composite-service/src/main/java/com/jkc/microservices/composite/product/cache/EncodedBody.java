@@ -0,0 +1,126 @@
+package com.jkc.microservices.composite.product.cache;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufOutputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * the json bytes of a cached response body and their gzip compressed form, both encoded at most once per cache entry.
+ * the cache encodes both before it inserts the entry, so that {@link #size} is part of the entry's weight. the bytes live in (pooled, direct) netty buffers owned by the cache entry: every write
+ * gets a retained duplicate of them that the channel releases once it is sent, and {@link #release} gives them back
+ * when the entry is evicted or invalidated. a write that races with the release gets null and is served the slow way
+ */
+public final class EncodedBody {
+
+    /**
+     * writes the json of a body to the given stream
+     */
+    @FunctionalInterface
+    public interface Writer<T> {
+        void write(T body, OutputStream out) throws IOException;
+    }
+
+    private final ByteBufAllocator allocator;
+    private final ByteBuf json;
+    private ByteBuf gzip;
+    private boolean released;
+
+    private EncodedBody(ByteBufAllocator allocator, ByteBuf json) {
+        this.allocator = allocator;
+        this.json = json;
+    }
+
+    public static <T> EncodedBody encode(T body, Writer<T> writer, ByteBufAllocator allocator) {
+        return encode(body, writer, allocator, -1);
+    }
+
+    /**
+     * @param gzipMinSize the json is compressed right away when it has at least this many bytes, negative to compress
+     *                    it only once asked for
+     */
+    public static <T> EncodedBody encode(T body, Writer<T> writer, ByteBufAllocator allocator, long gzipMinSize) {
+        ByteBuf json = allocator.buffer();
+        try (OutputStream out = new ByteBufOutputStream(json)) {
+            writer.write(body, out);
+        } catch (IOException e) {
+            json.release();
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            json.release();
+            throw e;
+        }
+        EncodedBody encoded = new EncodedBody(allocator, json);
+        if (gzipMinSize >= 0 && json.readableBytes() >= gzipMinSize) {
+            try {
+                encoded.gzip = gzip(json, allocator);
+            } catch (RuntimeException e) {
+                json.release();
+                throw e;
+            }
+        }
+        return encoded;
+    }
+
+    public int jsonLength() {
+        return json.readableBytes();
+    }
+
+    /**
+     * @return the bytes held by the json and gzip buffers, 0 once released
+     */
+    public synchronized int size() {
+        return released ? 0 : json.capacity() + (gzip == null ? 0 : gzip.capacity());
+    }
+
+    /**
+     * @return a duplicate that the caller must release (writing it to a channel does), null when already released
+     */
+    public synchronized ByteBuf retainJson() {
+        return released ? null : json.retainedDuplicate();
+    }
+
+    /**
+     * @return a duplicate that the caller must release (writing it to a channel does), null when already released
+     */
+    public synchronized ByteBuf retainGzip() {
+        if (released) {
+            return null;
+        }
+        if (gzip == null) {
+            gzip = gzip(json, allocator);
+        }
+        return gzip.retainedDuplicate();
+    }
+
+    /**
+     * duplicates are taken under the same monitor, so none is ever taken of a buffer already back in the pool
+     */
+    public synchronized void release() {
+        if (released) {
+            return;
+        }
+        released = true;
+        json.release();
+        if (gzip != null) {
+            gzip.release();
+        }
+    }
+
+    static ByteBuf gzip(ByteBuf bytes, ByteBufAllocator allocator) {
+        ByteBuf compressed = allocator.buffer(bytes.readableBytes() / 4 + 32);
+        try (InputStream in = new ByteBufInputStream(bytes.duplicate()); GZIPOutputStream out = new GZIPOutputStream(new ByteBufOutputStream(compressed))) {
+            in.transferTo(out);
+        } catch (IOException e) {
+            compressed.release();
+            throw new UncheckedIOException(e);
+        }
+        return compressed;
+    }
+}
@@ -0,0 +1,199 @@
+package com.jkc.microservices.composite.product.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.jkc.microservices.api.composite.product.ProductAggregate;
+import com.jkc.microservices.api.composite.product.RecommendationSummary;
+import com.jkc.microservices.api.composite.product.ReviewSummary;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * in-process cache of composite aggregates and their etags keyed by productID.
+ * concurrent misses on one productID share a single in-flight load, and entries older than refresh-ahead
+ * are reloaded in the background while the cached aggregate keeps being served. an aggregate without an etag was built
+ * from a fallback for a failed call: it reaches the callers that waited for its load but is neither cached nor
+ * installed by a refresh, so the next request tries the backends again. with an encoder set, an aggregate is encoded
+ * before it is cached and the encoded bytes count towards max-bytes.
+ */
+public class ProductAggregateCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProductAggregateCache.class);
+    private static final String CACHE_NAME = "product-aggregate";
+    private final ProductAggregateCacheProperties properties;
+    private final AsyncCache<Integer, Versioned<ProductAggregate>> cache;
+    private final Set<Integer> refreshing = ConcurrentHashMap.newKeySet();
+    private final Counter refreshCounter;
+    private volatile Function<ProductAggregate, EncodedBody> encoder;
+
+    public ProductAggregateCache(ProductAggregateCacheProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        // evicted, expired, replaced and invalidated entries give back the buffers of their encoded body
+        Caffeine<Integer, Versioned<ProductAggregate>> builder = Caffeine.newBuilder().expireAfterWrite(properties.getTtl()).recordStats()
+                .removalListener((Integer productID, Versioned<ProductAggregate> productAggregate, RemovalCause cause) -> {
+                    if (productAggregate != null) {
+                        productAggregate.release();
+                    }
+                });
+        if (properties.getMaxBytes() > 0) {
+            this.cache = builder.maximumWeight(properties.getMaxBytes())
+                    .weigher((Integer productID, Versioned<ProductAggregate> productAggregate) -> estimateSize(productAggregate.getBody()) + productAggregate.encodedSize())
+                    .buildAsync();
+        } else {
+            this.cache = builder.maximumSize(properties.getMaxEntries()).buildAsync();
+        }
+        if (meterRegistry != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+            this.refreshCounter = Counter.builder("cache.refreshes").tag("cache", CACHE_NAME).register(meterRegistry);
+        } else {
+            this.refreshCounter = null;
+        }
+    }
+
+    /**
+     * encodes the body of every aggregate that is loaded into the cache from now on, as the encoded bodies of the
+     * cached aggregates are written with
+     */
+    public void encodeWith(Function<ProductAggregate, EncodedBody> encoder) {
+        this.encoder = encoder;
+    }
+
+    public Mono<Versioned<ProductAggregate>> get(int productID, Function<Integer, Mono<Versioned<ProductAggregate>>> loader) {
+        if (!properties.isEnabled()) {
+            return loader.apply(productID);
+        }
+        // the load runs in the context of the caller that starts it, so its calls are part of that caller's trace
+        return Mono.subscriberContext().flatMap(context -> {
+            CompletableFuture<Versioned<ProductAggregate>> future = cache.get(productID, (id, executor) -> load(id, loader, context));
+            // a load that completed before the cache held its future was not dropped by load
+            dropIfDegraded(productID, future);
+            refreshAheadIfStale(productID, future, loader);
+            // a copy, so that a cancelled caller does not cancel the shared load the other callers are waiting on
+            return Mono.fromFuture(future.copy());
+        });
+    }
+
+    /**
+     * @return the cached aggregate when it is loaded and not due for a refresh yet, null otherwise
+     */
+    public Versioned<ProductAggregate> getIfPresent(int productID) {
+        if (!properties.isEnabled()) {
+            return null;
+        }
+        CompletableFuture<Versioned<ProductAggregate>> future = cache.asMap().get(productID);
+        if (!isLoaded(future) || isStale(productID)) {
+            return null;
+        }
+        // looked up again so that the hit is recorded, a peek that falls back to get would count as two misses
+        future = cache.getIfPresent(productID);
+        return isLoaded(future) && future.join().getETag() != null ? future.join() : null;
+    }
+
+    public void invalidate(int productID) {
+        cache.synchronous().invalidate(productID);
+    }
+
+    public void invalidate(Collection<Integer> productIDs) {
+        cache.synchronous().invalidateAll(productIDs);
+    }
+
+    public void invalidateAll() {
+        cache.synchronous().invalidateAll();
+    }
+
+    private CompletableFuture<Versioned<ProductAggregate>> load(int productID, Function<Integer, Mono<Versioned<ProductAggregate>>> loader, Context context) {
+        CompletableFuture<Versioned<ProductAggregate>> load = loader.apply(productID).map(this::encode).subscriberContext(context).toFuture();
+        load.thenRun(() -> dropIfDegraded(productID, load));
+        return load;
+    }
+
+    /**
+     * encodes an aggregate before the cache weighs it, one that is not going to be cached is left as it is
+     */
+    private Versioned<ProductAggregate> encode(Versioned<ProductAggregate> productAggregate) {
+        Function<ProductAggregate, EncodedBody> encoder = this.encoder;
+        if (encoder != null && productAggregate.getETag() != null) {
+            try {
+                productAggregate.getEncoded(encoder);
+            } catch (RuntimeException e) {
+                LOGGER.warn("encoding productID: {} failed, its hits are served the slow way: {}", productAggregate.getBody().getProductId(), e.getMessage());
+            }
+        }
+        return productAggregate;
+    }
+
+    private void dropIfDegraded(int productID, CompletableFuture<Versioned<ProductAggregate>> future) {
+        if (isLoaded(future) && future.join().getETag() == null) {
+            cache.asMap().remove(productID, future);
+        }
+    }
+
+    private void refreshAheadIfStale(int productID, CompletableFuture<Versioned<ProductAggregate>> future, Function<Integer, Mono<Versioned<ProductAggregate>>> loader) {
+        if (!isLoaded(future) || !isStale(productID) || !refreshing.add(productID)) {
+            return;
+        }
+        if (refreshCounter != null) {
+            refreshCounter.increment();
+        }
+        loader.apply(productID)
+                .map(this::encode)
+                .doFinally(signal -> refreshing.remove(productID))
+                .subscribe(
+                        productAggregate -> {
+                            if (productAggregate.getETag() == null) {
+                                LOGGER.warn("refresh of productID: {} fell back for a failed call, keep serving the cached aggregate", productID);
+                                return;
+                            }
+                            // installed only over the aggregate it refreshes, one invalidated meanwhile stays gone
+                            cache.asMap().replace(productID, future, CompletableFuture.completedFuture(productAggregate));
+                        },
+                        exception -> LOGGER.warn("refresh of productID: {} failed, keep serving the cached aggregate: {}", productID, exception.getMessage()));
+    }
+
+    private boolean isStale(int productID) {
+        Duration refreshAhead = properties.getRefreshAhead();
+        return refreshAhead != null && cache.synchronous().policy().expireAfterWrite()
+                .flatMap(expiration -> expiration.ageOf(productID))
+                .map(age -> age.compareTo(refreshAhead) >= 0)
+                .orElse(false);
+    }
+
+    private static boolean isLoaded(CompletableFuture<?> future) {
+        return future != null && future.isDone() && !future.isCompletedExceptionally();
+    }
+
+    /**
+     * rough retained size of an aggregate, used as its weight when the cache is bounded by max-bytes
+     */
+    static int estimateSize(ProductAggregate productAggregate) {
+        int size = 128 + sizeOf(productAggregate.getName());
+        if (productAggregate.getRecommendations() != null) {
+            for (RecommendationSummary recommendation : productAggregate.getRecommendations()) {
+                size += 40 + sizeOf(recommendation.getAuthor());
+            }
+        }
+        if (productAggregate.getReviews() != null) {
+            for (ReviewSummary review : productAggregate.getReviews()) {
+                size += 40 + sizeOf(review.getAuthor()) + sizeOf(review.getContent());
+            }
+        }
+        return size;
+    }
+
+    private static int sizeOf(String value) {
+        return value == null ? 0 : 40 + value.length();
+    }
+}
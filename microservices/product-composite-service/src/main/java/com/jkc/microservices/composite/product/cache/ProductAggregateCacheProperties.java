@@ -0,0 +1,73 @@
+package com.jkc.microservices.composite.product.cache;
+
+import java.time.Duration;
+
+/**
+ * near-cache settings bound from app.cache, max-bytes takes precedence over max-entries when it is set. max-bytes
+ * covers the aggregates together with their encoded json and gzip bytes
+ */
+public class ProductAggregateCacheProperties {
+
+    /**
+     * where a cache hit is written from: the json kept with the entry in pooled direct buffers or heap buffers,
+     * or off to encode the aggregate with jackson on every hit
+     */
+    public enum EncodedBodies {
+        POOLED, HEAP, OFF
+    }
+
+    private boolean enabled = true;
+    private long maxEntries = 10_000;
+    private long maxBytes = 0;
+    private Duration ttl = Duration.ofSeconds(60);
+    private Duration refreshAhead = Duration.ofSeconds(45);
+    private EncodedBodies encodedBodies = EncodedBodies.POOLED;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(long maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    public Duration getRefreshAhead() {
+        return refreshAhead;
+    }
+
+    public void setRefreshAhead(Duration refreshAhead) {
+        this.refreshAhead = refreshAhead;
+    }
+
+    public EncodedBodies getEncodedBodies() {
+        return encodedBodies;
+    }
+
+    public void setEncodedBodies(EncodedBodies encodedBodies) {
+        this.encodedBodies = encodedBodies;
+    }
+}
@@ -0,0 +1,65 @@
+package com.jkc.microservices.composite.product.cache;
+
+import java.util.function.Function;
+
+/**
+ * a response body together with the etag it was served with, the etag is null when the body must not be revalidated
+ * (e.g. a fallback that stands in for a failed call). the encoded body is kept once it was asked for, until
+ * {@link #release}
+ */
+public final class Versioned<T> {
+    private final T body;
+    private final String etag;
+    private volatile EncodedBody encoded;
+    private boolean released;
+
+    public Versioned(T body, String etag) {
+        this.body = body;
+        this.etag = etag;
+    }
+
+    public T getBody() {
+        return body;
+    }
+
+    public String getETag() {
+        return etag;
+    }
+
+    /**
+     * @return the encoded body, encoded on the first call, null once released
+     */
+    public EncodedBody getEncoded(Function<T, EncodedBody> encoder) {
+        EncodedBody encodedBody = encoded;
+        if (encodedBody == null) {
+            synchronized (this) {
+                if (released) {
+                    return null;
+                }
+                if (encoded == null) {
+                    encoded = encoder.apply(body);
+                }
+                encodedBody = encoded;
+            }
+        }
+        return encodedBody;
+    }
+
+    /**
+     * @return the bytes held by the encoded body, 0 before it is encoded
+     */
+    public int encodedSize() {
+        EncodedBody encodedBody = encoded;
+        return encodedBody == null ? 0 : encodedBody.size();
+    }
+
+    /**
+     * gives back the buffers of the encoded body, writes that still hold a duplicate of them keep them until sent
+     */
+    public synchronized void release() {
+        released = true;
+        if (encoded != null) {
+            encoded.release();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.jkc.microservices.composite.product.configurations;
+
+import com.jkc.microservices.composite.product.metrics.BackendCallMetrics;
+import com.jkc.microservices.util.http.SmileCodecConfig;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.util.List;
+
+/**
+ * one pooled, keep-alive WebClient per core service so that a slow backend can only exhaust its own connections.
+ * pool gauges are published as reactor.netty.connection.provider.* and app.backend.pool.max.connections.
+ * reads ask for smile first and json second, a core service without smile answers with json. the status of every
+ * response is handed to the composite.backend.calls timers
+ */
+@Configuration
+public class BackendClientConfig {
+
+    @Bean
+    @ConfigurationProperties("app.product-service.pool")
+    BackendPoolProperties productServicePool() {
+        return new BackendPoolProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties("app.recommendation-service.pool")
+    BackendPoolProperties recommendationServicePool() {
+        return new BackendPoolProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties("app.review-service.pool")
+    BackendPoolProperties reviewServicePool() {
+        return new BackendPoolProperties();
+    }
+
+    @Bean(destroyMethod = "dispose")
+    ConnectionProvider productServiceConnectionProvider(@Qualifier("productServicePool") BackendPoolProperties pool, ObjectProvider<MeterRegistry> meterRegistry) {
+        return connectionProvider("product-service", pool, meterRegistry);
+    }
+
+    @Bean(destroyMethod = "dispose")
+    ConnectionProvider recommendationServiceConnectionProvider(@Qualifier("recommendationServicePool") BackendPoolProperties pool, ObjectProvider<MeterRegistry> meterRegistry) {
+        return connectionProvider("recommendation-service", pool, meterRegistry);
+    }
+
+    @Bean(destroyMethod = "dispose")
+    ConnectionProvider reviewServiceConnectionProvider(@Qualifier("reviewServicePool") BackendPoolProperties pool, ObjectProvider<MeterRegistry> meterRegistry) {
+        return connectionProvider("review-service", pool, meterRegistry);
+    }
+
+    @Bean
+    WebClient productServiceWebClient(ObjectProvider<WebClient.Builder> webClientBuilder, @Qualifier("productServiceConnectionProvider") ConnectionProvider connectionProvider, @Qualifier("productServicePool") BackendPoolProperties pool) {
+        return webClient(webClientBuilder, connectionProvider, pool);
+    }
+
+    @Bean
+    WebClient recommendationServiceWebClient(ObjectProvider<WebClient.Builder> webClientBuilder, @Qualifier("recommendationServiceConnectionProvider") ConnectionProvider connectionProvider, @Qualifier("recommendationServicePool") BackendPoolProperties pool) {
+        return webClient(webClientBuilder, connectionProvider, pool);
+    }
+
+    @Bean
+    WebClient reviewServiceWebClient(ObjectProvider<WebClient.Builder> webClientBuilder, @Qualifier("reviewServiceConnectionProvider") ConnectionProvider connectionProvider, @Qualifier("reviewServicePool") BackendPoolProperties pool) {
+        return webClient(webClientBuilder, connectionProvider, pool);
+    }
+
+    private static ConnectionProvider connectionProvider(String backend, BackendPoolProperties pool, ObjectProvider<MeterRegistry> meterRegistry) {
+        // idle connections are evicted when they are next acquired once maxIdleTime / maxLifeTime has passed
+        meterRegistry.ifAvailable(registry -> Gauge.builder("app.backend.pool.max.connections", pool, BackendPoolProperties::getMaxConnections)
+                .tag("backend", backend)
+                .register(registry));
+        return ConnectionProvider.builder(backend)
+                .maxConnections(pool.getMaxConnections())
+                .pendingAcquireMaxCount(pool.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(pool.getPendingAcquireTimeout())
+                .maxIdleTime(pool.getMaxIdleTime())
+                .maxLifeTime(pool.getMaxLifeTime())
+                .lifo()
+                .metrics(true)
+                .build();
+    }
+
+    private static WebClient webClient(ObjectProvider<WebClient.Builder> webClientBuilder, ConnectionProvider connectionProvider, BackendPoolProperties pool) {
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .keepAlive(pool.isKeepAlive())
+                .responseTimeout(pool.getResponseTimeout())
+                .tcpConfiguration(tcpClient -> tcpClient
+                        .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) pool.getConnectTimeout().toMillis())
+                        .option(ChannelOption.SO_KEEPALIVE, pool.isKeepAlive()));
+        if (pool.isH2c()) {
+            httpClient = httpClient.protocol(HttpProtocol.H2C, HttpProtocol.HTTP11);
+        }
+        WebClient.Builder builder = webClientBuilder.getIfAvailable(WebClient::builder).clientConnector(new ReactorClientHttpConnector(httpClient))
+                .filter(BackendCallMetrics.STATUS_FILTER);
+        if (pool.isSmile()) {
+            builder.defaultHeaders(headers -> headers.setAccept(List.of(SmileCodecConfig.APPLICATION_SMILE, MediaType.APPLICATION_JSON)));
+        }
+        return builder.build();
+    }
+}
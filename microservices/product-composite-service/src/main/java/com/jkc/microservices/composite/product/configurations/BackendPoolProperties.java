@@ -0,0 +1,99 @@
+package com.jkc.microservices.composite.product.configurations;
+
+import java.time.Duration;
+
+/**
+ * connection pool settings for one core service, bound from app.{backend}-service.pool
+ */
+public class BackendPoolProperties {
+    private int maxConnections = 100;
+    private int pendingAcquireMaxCount = 1000;
+    private Duration pendingAcquireTimeout = Duration.ofSeconds(5);
+    private Duration maxIdleTime = Duration.ofSeconds(30);
+    private Duration maxLifeTime = Duration.ofMinutes(5);
+    private Duration connectTimeout = Duration.ofSeconds(2);
+    private Duration responseTimeout = Duration.ofSeconds(5);
+    private boolean keepAlive = true;
+    private boolean h2c = false;
+    private boolean smile = true;
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public void setMaxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
+    public int getPendingAcquireMaxCount() {
+        return pendingAcquireMaxCount;
+    }
+
+    public void setPendingAcquireMaxCount(int pendingAcquireMaxCount) {
+        this.pendingAcquireMaxCount = pendingAcquireMaxCount;
+    }
+
+    public Duration getPendingAcquireTimeout() {
+        return pendingAcquireTimeout;
+    }
+
+    public void setPendingAcquireTimeout(Duration pendingAcquireTimeout) {
+        this.pendingAcquireTimeout = pendingAcquireTimeout;
+    }
+
+    public Duration getMaxIdleTime() {
+        return maxIdleTime;
+    }
+
+    public void setMaxIdleTime(Duration maxIdleTime) {
+        this.maxIdleTime = maxIdleTime;
+    }
+
+    public Duration getMaxLifeTime() {
+        return maxLifeTime;
+    }
+
+    public void setMaxLifeTime(Duration maxLifeTime) {
+        this.maxLifeTime = maxLifeTime;
+    }
+
+    public Duration getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public void setConnectTimeout(Duration connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    public Duration getResponseTimeout() {
+        return responseTimeout;
+    }
+
+    public void setResponseTimeout(Duration responseTimeout) {
+        this.responseTimeout = responseTimeout;
+    }
+
+    public boolean isKeepAlive() {
+        return keepAlive;
+    }
+
+    public void setKeepAlive(boolean keepAlive) {
+        this.keepAlive = keepAlive;
+    }
+
+    public boolean isH2c() {
+        return h2c;
+    }
+
+    public void setH2c(boolean h2c) {
+        this.h2c = h2c;
+    }
+
+    public boolean isSmile() {
+        return smile;
+    }
+
+    public void setSmile(boolean smile) {
+        this.smile = smile;
+    }
+}
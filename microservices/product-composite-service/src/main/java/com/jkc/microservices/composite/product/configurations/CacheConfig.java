@@ -0,0 +1,55 @@
+package com.jkc.microservices.composite.product.configurations;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jkc.microservices.composite.product.cache.CachedAggregateWebFilter;
+import com.jkc.microservices.composite.product.cache.ProductAggregateCache;
+import com.jkc.microservices.composite.product.cache.ProductAggregateCacheProperties;
+import com.jkc.microservices.composite.product.cache.ProductAggregateCacheProperties.EncodedBodies;
+import com.jkc.microservices.composite.product.metrics.AggregateMetrics;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * near-cache for composite aggregates, hit/miss/eviction counters are published as cache.* metrics.
+ * cache hits are written from json (and gzip) bytes kept with the entry (app.cache.encoded-bodies), gzip follows
+ * server.compression
+ */
+@Configuration
+public class CacheConfig {
+
+    @Bean
+    @ConfigurationProperties("app.cache")
+    ProductAggregateCacheProperties productAggregateCacheProperties() {
+        return new ProductAggregateCacheProperties();
+    }
+
+    @Bean
+    ProductAggregateCache productAggregateCache(ProductAggregateCacheProperties productAggregateCacheProperties, ObjectProvider<MeterRegistry> meterRegistry) {
+        return new ProductAggregateCache(productAggregateCacheProperties, meterRegistry.getIfAvailable());
+    }
+
+    @Bean
+    @ConditionalOnExpression("!'${app.cache.encoded-bodies:pooled}'.equalsIgnoreCase('off')")
+    CachedAggregateWebFilter cachedAggregateWebFilter(
+            ProductAggregateCache productAggregateCache,
+            AggregateMetrics aggregateMetrics,
+            ProductAggregateCacheProperties productAggregateCacheProperties,
+            ObjectMapper objectMapper,
+            @Value("${server.compression.enabled:false}") boolean compressionEnabled,
+            @Value("${server.compression.min-response-size:2KB}") DataSize compressionMinResponseSize) {
+        CachedAggregateWebFilter cachedAggregateWebFilter = new CachedAggregateWebFilter(productAggregateCache, aggregateMetrics, objectMapper,
+                productAggregateCacheProperties.getEncodedBodies() == EncodedBodies.HEAP ? new UnpooledByteBufAllocator(false) : PooledByteBufAllocator.DEFAULT,
+                compressionEnabled ? compressionMinResponseSize.toBytes() : -1);
+        // encoded as they are loaded, so that their encoded bytes count towards app.cache.max-bytes
+        productAggregateCache.encodeWith(cachedAggregateWebFilter::encode);
+        return cachedAggregateWebFilter;
+    }
+}
@@ -0,0 +1,62 @@
+package com.jkc.microservices.composite.product.configurations;
+
+import com.jkc.microservices.composite.product.cache.ProductAggregateCache;
+import com.jkc.microservices.composite.product.events.ChangeEventRelay;
+import com.jkc.microservices.composite.product.events.ChangeEventRelayProperties;
+import com.jkc.microservices.composite.product.events.ProductAggregateInvalidator;
+import com.jkc.microservices.util.events.ChangeEventBus;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+
+/**
+ * cached aggregates are dropped on change events of the core services, which reach the local bus through the relay
+ * unless app.change-events.relay.enabled is false (e.g. when the bus is a broker shared with the core services).
+ * the streams never end, so they get a WebClient of their own: a connection per stream outside the backend pools,
+ * no response timeout and no backend call metrics
+ */
+@Configuration
+public class ChangeEventRelayConfig {
+
+    @Bean
+    @ConfigurationProperties("app.change-events.relay")
+    ChangeEventRelayProperties changeEventRelayProperties() {
+        return new ChangeEventRelayProperties();
+    }
+
+    @Bean(destroyMethod = "close")
+    ProductAggregateInvalidator productAggregateInvalidator(ChangeEventBus changeEventBus, ProductAggregateCache productAggregateCache) {
+        return new ProductAggregateInvalidator(changeEventBus, productAggregateCache);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.change-events.relay.enabled", havingValue = "true", matchIfMissing = true)
+    WebClient changeEventRelayWebClient(ObjectProvider<WebClient.Builder> webClientBuilder) {
+        HttpClient httpClient = HttpClient.newConnection().keepAlive(true);
+        return webClientBuilder.getIfAvailable(WebClient::builder).clientConnector(new ReactorClientHttpConnector(httpClient)).build();
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "app.change-events.relay.enabled", havingValue = "true", matchIfMissing = true)
+    ChangeEventRelay changeEventRelay(ChangeEventBus changeEventBus, ProductAggregateCache productAggregateCache, ChangeEventRelayProperties changeEventRelayProperties,
+                                      @Qualifier("changeEventRelayWebClient") WebClient changeEventRelayWebClient,
+                                      @Value("${app.product-service.host}") String productServiceHost,
+                                      @Value("${app.product-service.port}") int productServicePort,
+                                      @Value("${app.recommendation-service.host}") String recommendationServiceHost,
+                                      @Value("${app.recommendation-service.port}") int recommendationServicePort,
+                                      @Value("${app.review-service.host}") String reviewServiceHost,
+                                      @Value("${app.review-service.port}") int reviewServicePort) {
+        ChangeEventRelay relay = new ChangeEventRelay(changeEventBus, productAggregateCache, changeEventRelayProperties);
+        relay.follow("product-service", changeEventRelayWebClient, "http://" + productServiceHost + ":" + productServicePort + "/change-events");
+        relay.follow("recommendation-service", changeEventRelayWebClient, "http://" + recommendationServiceHost + ":" + recommendationServicePort + "/change-events");
+        relay.follow("review-service", changeEventRelayWebClient, "http://" + reviewServiceHost + ":" + reviewServicePort + "/change-events");
+        return relay;
+    }
+}
@@ -0,0 +1,26 @@
+package com.jkc.microservices.composite.product.configurations;
+
+import com.jkc.microservices.composite.product.metrics.AggregateMetrics;
+import com.jkc.microservices.composite.product.metrics.BackendCallMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * latency of the calls to the core services and of building aggregates, and the share of partial responses, scraped
+ * with the other metrics from /actuator/prometheus
+ */
+@Configuration
+public class CompositeMetricsConfig {
+
+    @Bean
+    BackendCallMetrics backendCallMetrics(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BackendCallMetrics(meterRegistry.getIfAvailable());
+    }
+
+    @Bean
+    AggregateMetrics aggregateMetrics(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new AggregateMetrics(meterRegistry.getIfAvailable());
+    }
+}
@@ -0,0 +1,25 @@
+package com.jkc.microservices.composite.product.configurations;
+
+import com.jkc.microservices.composite.product.services.BlockingBackendClient;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * the execution mode of the single product reads, reactive unless app.integration.execution-mode says otherwise.
+ * virtual-threads needs a java 21 runtime
+ */
+@Configuration
+public class ExecutionModeConfig {
+
+    @Bean
+    @ConfigurationProperties("app.integration")
+    ExecutionModeProperties executionModeProperties() {
+        return new ExecutionModeProperties();
+    }
+
+    @Bean(destroyMethod = "dispose")
+    BlockingBackendClient blockingBackendClient(ExecutionModeProperties executionModeProperties) {
+        return new BlockingBackendClient(executionModeProperties.getExecutionMode(), executionModeProperties.getConnectTimeout(), executionModeProperties.getResponseTimeout());
+    }
+}
@@ -0,0 +1,41 @@
+package com.jkc.microservices.composite.product.configurations;
+
+import com.jkc.microservices.composite.product.services.ExecutionMode;
+
+import java.time.Duration;
+
+/**
+ * how the composite calls the core services for a single product, bound from app.integration
+ */
+public class ExecutionModeProperties {
+    private ExecutionMode executionMode = ExecutionMode.REACTIVE;
+    /**
+     * timeouts of the blocking client of the VIRTUAL_THREADS and BLOCKING modes
+     */
+    private Duration connectTimeout = Duration.ofSeconds(2);
+    private Duration responseTimeout = Duration.ofSeconds(5);
+
+    public ExecutionMode getExecutionMode() {
+        return executionMode;
+    }
+
+    public void setExecutionMode(ExecutionMode executionMode) {
+        this.executionMode = executionMode;
+    }
+
+    public Duration getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public void setConnectTimeout(Duration connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    public Duration getResponseTimeout() {
+        return responseTimeout;
+    }
+
+    public void setResponseTimeout(Duration responseTimeout) {
+        this.responseTimeout = responseTimeout;
+    }
+}
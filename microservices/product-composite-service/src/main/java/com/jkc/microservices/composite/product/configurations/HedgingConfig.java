@@ -0,0 +1,27 @@
+package com.jkc.microservices.composite.product.configurations;
+
+import com.jkc.microservices.composite.product.resilience.HedgingProperties;
+import com.jkc.microservices.composite.product.resilience.RequestHedger;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * opt-in hedging of the idempotent recommendation and review reads, sent and skipped hedges are published as hedging.* metrics
+ */
+@Configuration
+public class HedgingConfig {
+
+    @Bean
+    @ConfigurationProperties("app.hedging")
+    HedgingProperties hedgingProperties() {
+        return new HedgingProperties();
+    }
+
+    @Bean
+    RequestHedger requestHedger(HedgingProperties hedgingProperties, ObjectProvider<MeterRegistry> meterRegistry) {
+        return new RequestHedger(hedgingProperties, meterRegistry.getIfAvailable());
+    }
+}
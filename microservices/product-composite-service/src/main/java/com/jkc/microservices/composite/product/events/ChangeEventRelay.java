@@ -0,0 +1,64 @@
+package com.jkc.microservices.composite.product.events;
+
+import com.jkc.microservices.composite.product.cache.ProductAggregateCache;
+import com.jkc.microservices.util.events.ChangeEventBatch;
+import com.jkc.microservices.util.events.ChangeEventBus;
+import com.jkc.microservices.util.http.StreamingCodecConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.util.retry.Retry;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * follows the /change-events stream of each core service and publishes the batches on the local bus, so that the
+ * core services and the composite can run as separate processes without a broker between them.
+ * a lost stream is reconnected with backoff; changes made while it was down are unknown, so once it is back the
+ * whole aggregate cache is dropped
+ */
+public class ChangeEventRelay implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ChangeEventRelay.class);
+    private final ChangeEventBus bus;
+    private final ProductAggregateCache cache;
+    private final ChangeEventRelayProperties properties;
+    private final Disposable.Composite streams = Disposables.composite();
+
+    public ChangeEventRelay(ChangeEventBus bus, ProductAggregateCache cache, ChangeEventRelayProperties properties) {
+        this.bus = bus;
+        this.cache = cache;
+        this.properties = properties;
+    }
+
+    public void follow(String source, WebClient webClient, String url) {
+        // the cache may have been filled before the first connect
+        AtomicBoolean missedChanges = new AtomicBoolean(true);
+        Disposable stream = Flux.defer(() -> webClient.get().uri(url).accept(StreamingCodecConfig.APPLICATION_NDJSON).retrieve().bodyToFlux(ChangeEventBatch.class))
+                .concatWith(Flux.error(() -> new IllegalStateException("stream ended")))
+                .doOnNext(events -> {
+                    if (missedChanges.compareAndSet(true, false)) {
+                        LOGGER.info("following change events of {}, dropping all cached aggregates", source);
+                        cache.invalidateAll();
+                    }
+                })
+                .doOnError(exception -> {
+                    if (missedChanges.compareAndSet(false, true)) {
+                        LOGGER.warn("lost the change events of {}, reconnecting: {}", source, exception.getMessage());
+                    } else {
+                        LOGGER.debug("change events of {} not available yet: {}", source, exception.getMessage());
+                    }
+                })
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, properties.getMinBackoff()).maxBackoff(properties.getMaxBackoff()))
+                .subscribe(batch -> bus.publish(batch.getEvents()));
+        streams.add(stream);
+    }
+
+    @Override
+    public void close() {
+        streams.dispose();
+    }
+}
@@ -0,0 +1,36 @@
+package com.jkc.microservices.composite.product.events;
+
+import java.time.Duration;
+
+/**
+ * bound from app.change-events.relay
+ */
+public class ChangeEventRelayProperties {
+    private boolean enabled = true;
+    private Duration minBackoff = Duration.ofSeconds(1);
+    private Duration maxBackoff = Duration.ofSeconds(30);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getMinBackoff() {
+        return minBackoff;
+    }
+
+    public void setMinBackoff(Duration minBackoff) {
+        this.minBackoff = minBackoff;
+    }
+
+    public Duration getMaxBackoff() {
+        return maxBackoff;
+    }
+
+    public void setMaxBackoff(Duration maxBackoff) {
+        this.maxBackoff = maxBackoff;
+    }
+}
@@ -0,0 +1,53 @@
+package com.jkc.microservices.composite.product.events;
+
+import com.jkc.microservices.composite.product.cache.ProductAggregateCache;
+import com.jkc.microservices.util.events.ChangeEvent;
+import com.jkc.microservices.util.events.ChangeEventBus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Disposable;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * drops the cached aggregates of the products named by the change events on the bus, whatever entity of the product
+ * changed. entries are only dropped, not reloaded: the next read loads the product again, so products nobody asks for
+ * don't cost backend calls. when the subscription is lost, changes may have been missed and the whole cache is dropped
+ */
+public class ProductAggregateInvalidator implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProductAggregateInvalidator.class);
+    private final ProductAggregateCache cache;
+    private final Disposable subscription;
+
+    public ProductAggregateInvalidator(ChangeEventBus bus, ProductAggregateCache cache) {
+        this.cache = cache;
+        this.subscription = bus.subscribe()
+                .doOnError(exception -> {
+                    LOGGER.warn("change event subscription lost, dropping all cached aggregates: {}", exception.getMessage());
+                    cache.invalidateAll();
+                })
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofMillis(100)).maxBackoff(Duration.ofSeconds(5)))
+                .subscribe(this::invalidate);
+    }
+
+    void invalidate(List<ChangeEvent> events) {
+        Set<Integer> productIDs = new LinkedHashSet<>();
+        for (ChangeEvent event : events) {
+            productIDs.add(event.getProductID());
+        }
+        if (!productIDs.isEmpty()) {
+            cache.invalidate(productIDs);
+            LOGGER.debug("dropped {} cached aggregates for {} change events", productIDs.size(), events.size());
+        }
+    }
+
+    @Override
+    public void close() {
+        subscription.dispose();
+    }
+}
@@ -0,0 +1,50 @@
+package com.jkc.microservices.composite.product.metrics;
+
+import com.jkc.microservices.composite.product.cache.Versioned;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * composite.aggregate.create times building an aggregate from the core service responses. composite.responses counts
+ * the single product responses, with partial=true when recommendations or reviews were left out because their call
+ * failed: such an aggregate has no etag. the partial fraction is the rate of the partial ones over all of them
+ */
+public class AggregateMetrics {
+
+    private final Timer createTimer;
+    private final Counter completeResponses;
+    private final Counter partialResponses;
+
+    /**
+     * @param meterRegistry null to not record anything
+     */
+    public AggregateMetrics(MeterRegistry meterRegistry) {
+        if (meterRegistry != null) {
+            this.createTimer = Timer.builder("composite.aggregate.create")
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofNanos(1000))
+                    .maximumExpectedValue(Duration.ofMillis(100))
+                    .register(meterRegistry);
+            this.completeResponses = Counter.builder("composite.responses").tag("partial", "false").register(meterRegistry);
+            this.partialResponses = Counter.builder("composite.responses").tag("partial", "true").register(meterRegistry);
+        } else {
+            this.createTimer = null;
+            this.completeResponses = null;
+            this.partialResponses = null;
+        }
+    }
+
+    public <T> T timeCreate(Supplier<T> create) {
+        return createTimer == null ? create.get() : createTimer.record(create);
+    }
+
+    public void countResponse(Versioned<?> aggregate) {
+        if (completeResponses != null) {
+            (aggregate.getETag() == null ? partialResponses : completeResponses).increment();
+        }
+    }
+}
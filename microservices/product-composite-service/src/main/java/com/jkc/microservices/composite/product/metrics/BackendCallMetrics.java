@@ -0,0 +1,125 @@
+package com.jkc.microservices.composite.product.metrics;
+
+import com.jkc.microservices.composite.product.resilience.Backend;
+import com.jkc.microservices.util.exceptions.InvalidInputException;
+import com.jkc.microservices.util.exceptions.NotFoundException;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * times every call of the composite to a core service as composite.backend.calls, including the circuit breaker,
+ * bulkhead, deadline and hedges it went through. the timers are tagged by backend, operation, outcome and the http
+ * status of the last response (NONE when there was none), which {@link #STATUS_FILTER} hands over through the
+ * subscriber context. calls cancelled by the caller, such as the losing hedge, are recorded as CANCELLED
+ */
+public class BackendCallMetrics {
+
+    static final String METRIC_NAME = "composite.backend.calls";
+
+    /**
+     * added to the WebClient of every core service, records the status of each response for the call being timed
+     */
+    public static final ExchangeFilterFunction STATUS_FILTER = (request, next) -> Mono.subscriberContext()
+            .flatMap(context -> {
+                CallStatus callStatus = context.getOrDefault(CallStatus.class, null);
+                return callStatus == null ? next.exchange(request) : next.exchange(request).doOnNext(response -> callStatus.status = response.rawStatusCode());
+            });
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * records the status of a response received without a WebClient for the call being timed, if any
+     */
+    public static void recordStatus(Context context, int status) {
+        CallStatus callStatus = context.getOrDefault(CallStatus.class, null);
+        if (callStatus != null) {
+            callStatus.status = status;
+        }
+    }
+
+    /**
+     * @param meterRegistry null to not time anything
+     */
+    public BackendCallMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public <T> Mono<T> time(Backend backend, String operation, Mono<T> call) {
+        if (meterRegistry == null) {
+            return call;
+        }
+        return Mono.defer(() -> {
+            CallStatus callStatus = new CallStatus();
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return call
+                    .doOnError(exception -> callStatus.exception = exception)
+                    .doFinally(signal -> record(sample, backend, operation, signal, callStatus))
+                    .subscriberContext(context -> context.put(CallStatus.class, callStatus));
+        });
+    }
+
+    public <T> Flux<T> time(Backend backend, String operation, Flux<T> call) {
+        if (meterRegistry == null) {
+            return call;
+        }
+        return Flux.defer(() -> {
+            CallStatus callStatus = new CallStatus();
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return call
+                    .doOnError(exception -> callStatus.exception = exception)
+                    .doFinally(signal -> record(sample, backend, operation, signal, callStatus))
+                    .subscriberContext(context -> context.put(CallStatus.class, callStatus));
+        });
+    }
+
+    private void record(Timer.Sample sample, Backend backend, String operation, SignalType signal, CallStatus callStatus) {
+        int status = callStatus.status;
+        sample.stop(Timer.builder(METRIC_NAME)
+                .tag("backend", backend.instanceName())
+                .tag("operation", operation)
+                .tag("outcome", outcome(signal, callStatus.exception))
+                .tag("status", status == 0 ? "NONE" : String.valueOf(status))
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .register(meterRegistry));
+    }
+
+    static String outcome(SignalType signal, Throwable exception) {
+        if (signal == SignalType.CANCEL) {
+            return "CANCELLED";
+        }
+        if (signal != SignalType.ON_ERROR) {
+            return "SUCCESS";
+        }
+        if (exception instanceof NotFoundException || exception instanceof InvalidInputException) {
+            return "CLIENT_ERROR";
+        }
+        if (exception instanceof WebClientResponseException) {
+            return ((WebClientResponseException) exception).getStatusCode().is4xxClientError() ? "CLIENT_ERROR" : "SERVER_ERROR";
+        }
+        if (exception instanceof TimeoutException) {
+            return "TIMEOUT";
+        }
+        if (exception instanceof CallNotPermittedException || exception instanceof BulkheadFullException) {
+            return "REJECTED";
+        }
+        return "UNKNOWN";
+    }
+
+    private static final class CallStatus {
+        private volatile int status;
+        private volatile Throwable exception;
+    }
+}
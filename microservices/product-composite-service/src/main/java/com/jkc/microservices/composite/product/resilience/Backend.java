@@ -0,0 +1,20 @@
+package com.jkc.microservices.composite.product.resilience;
+
+/**
+ * the core services called by the composite, named as their resilience4j instances
+ */
+public enum Backend {
+    PRODUCT("product"),
+    RECOMMENDATION("recommendation"),
+    REVIEW("review");
+
+    private final String instanceName;
+
+    Backend(String instanceName) {
+        this.instanceName = instanceName;
+    }
+
+    public String instanceName() {
+        return instanceName;
+    }
+}
@@ -0,0 +1,83 @@
+package com.jkc.microservices.composite.product.resilience;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.github.resilience4j.reactor.timelimiter.TimeLimiterOperator;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * circuit breaker, bulkhead and deadline per core service, configured under resilience4j.*.instances.{backend}.
+ * the deadline bounds a call as a whole, also one that returns many elements.
+ * the bulkhead sits innermost so a call cut off by its deadline gives its permit back,
+ * and the breaker sits outermost so an open breaker rejects a call before it takes a permit
+ */
+@Component
+public class BackendResilience {
+
+    private final Map<Backend, Guard> guards = new EnumMap<>(Backend.class);
+
+    @Autowired
+    public BackendResilience(
+            CircuitBreakerRegistry circuitBreakerRegistry,
+            BulkheadRegistry bulkheadRegistry,
+            TimeLimiterRegistry timeLimiterRegistry,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        for (Backend backend : Backend.values()) {
+            Guard guard = new Guard(
+                    circuitBreakerRegistry.circuitBreaker(backend.instanceName()),
+                    bulkheadRegistry.bulkhead(backend.instanceName()),
+                    timeLimiterRegistry.timeLimiter(backend.instanceName()));
+            // the bulkhead metrics only publish permits, so rejections are counted here
+            meterRegistry.ifAvailable(registry -> {
+                Counter rejections = Counter.builder("resilience4j.bulkhead.rejected.calls")
+                        .tag("name", backend.instanceName())
+                        .register(registry);
+                guard.bulkhead.getEventPublisher().onCallRejected(event -> rejections.increment());
+            });
+            guards.put(backend, guard);
+        }
+    }
+
+    public <T> Mono<T> decorate(Backend backend, Mono<T> call) {
+        Guard guard = guards.get(backend);
+        return call
+                .transform(BulkheadOperator.of(guard.bulkhead))
+                .transform(TimeLimiterOperator.of(guard.timeLimiter))
+                .transform(CircuitBreakerOperator.of(guard.circuitBreaker));
+    }
+
+    /**
+     * the time limiter times each element of a Flux on its own, so the call is collected and its deadline bounds the
+     * whole call
+     */
+    public <T> Flux<T> decorate(Backend backend, Flux<T> call) {
+        return decorate(backend, call.collectList()).flatMapIterable(elements -> elements);
+    }
+
+    private static final class Guard {
+        private final CircuitBreaker circuitBreaker;
+        private final Bulkhead bulkhead;
+        private final TimeLimiter timeLimiter;
+
+        private Guard(CircuitBreaker circuitBreaker, Bulkhead bulkhead, TimeLimiter timeLimiter) {
+            this.circuitBreaker = circuitBreaker;
+            this.bulkhead = bulkhead;
+            this.timeLimiter = timeLimiter;
+        }
+    }
+}
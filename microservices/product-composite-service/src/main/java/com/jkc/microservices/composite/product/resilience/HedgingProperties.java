@@ -0,0 +1,72 @@
+package com.jkc.microservices.composite.product.resilience;
+
+import java.time.Duration;
+
+/**
+ * request hedging settings bound from app.hedging, hedging is off unless enabled
+ */
+public class HedgingProperties {
+    private boolean enabled = false;
+    private double percentile = 0.95;
+    private Duration minDelay = Duration.ofMillis(10);
+    private Duration maxDelay = Duration.ofMillis(500);
+    private int window = 1024;
+    private double budgetRatio = 0.05;
+    private int maxBurst = 20;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public double getPercentile() {
+        return percentile;
+    }
+
+    public void setPercentile(double percentile) {
+        this.percentile = percentile;
+    }
+
+    public Duration getMinDelay() {
+        return minDelay;
+    }
+
+    public void setMinDelay(Duration minDelay) {
+        this.minDelay = minDelay;
+    }
+
+    public Duration getMaxDelay() {
+        return maxDelay;
+    }
+
+    public void setMaxDelay(Duration maxDelay) {
+        this.maxDelay = maxDelay;
+    }
+
+    public int getWindow() {
+        return window;
+    }
+
+    public void setWindow(int window) {
+        this.window = window;
+    }
+
+    public double getBudgetRatio() {
+        return budgetRatio;
+    }
+
+    public void setBudgetRatio(double budgetRatio) {
+        this.budgetRatio = budgetRatio;
+    }
+
+    public int getMaxBurst() {
+        return maxBurst;
+    }
+
+    public void setMaxBurst(int maxBurst) {
+        this.maxBurst = maxBurst;
+    }
+}
@@ -0,0 +1,41 @@
+package com.jkc.microservices.composite.product.resilience;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * latencies of the most recent calls to one backend, with the configured percentile recomputed every few calls.
+ * writes may race and overwrite each other, which only makes the window slightly less exact
+ */
+class LatencyWindow {
+
+    private final long[] samples;
+    private final double percentile;
+    private final int recomputeEvery;
+    private final AtomicLong recorded = new AtomicLong();
+    private volatile long percentileMillis = -1;
+
+    LatencyWindow(int size, double percentile) {
+        this.samples = new long[size];
+        this.percentile = percentile;
+        this.recomputeEvery = Math.max(1, size / 8);
+    }
+
+    void record(long millis) {
+        long count = recorded.incrementAndGet();
+        samples[(int) ((count - 1) % samples.length)] = millis;
+        if (count >= recomputeEvery && count % recomputeEvery == 0) {
+            int filled = (int) Math.min(count, samples.length);
+            long[] sorted = Arrays.copyOf(samples, filled);
+            Arrays.sort(sorted);
+            percentileMillis = sorted[(int) Math.min(filled - 1, Math.ceil(percentile * filled) - 1)];
+        }
+    }
+
+    /**
+     * @return the latency percentile in milliseconds, or -1 while there are too few samples
+     */
+    long percentileMillis() {
+        return percentileMillis;
+    }
+}
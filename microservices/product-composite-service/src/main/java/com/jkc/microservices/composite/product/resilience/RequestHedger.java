@@ -0,0 +1,112 @@
+package com.jkc.microservices.composite.product.resilience;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * hedged requests for idempotent calls: when a call has not answered within the backend's observed latency percentile
+ * a second identical call is sent and the first one to succeed wins, the other one is cancelled. the hedged call fails
+ * only when both calls failed.
+ * every call earns budget-ratio of a hedge and every hedge spends a whole one, so hedges add at most
+ * budget-ratio extra load (plus max-burst) and cannot amplify an outage
+ */
+public class RequestHedger {
+
+    private static final long ONE_HEDGE = 1000;
+    private final HedgingProperties properties;
+    private final long earnedPerCall;
+    private final long maxBudget;
+    private final AtomicLong budget = new AtomicLong();
+    private final Map<Backend, LatencyWindow> latencies = new EnumMap<>(Backend.class);
+    private final Map<Backend, Counter> hedgeCounters = new EnumMap<>(Backend.class);
+    private final Map<Backend, Counter> budgetExhaustedCounters = new EnumMap<>(Backend.class);
+
+    public RequestHedger(HedgingProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.earnedPerCall = Math.round(properties.getBudgetRatio() * ONE_HEDGE);
+        this.maxBudget = properties.getMaxBurst() * ONE_HEDGE;
+        for (Backend backend : Backend.values()) {
+            latencies.put(backend, new LatencyWindow(properties.getWindow(), properties.getPercentile()));
+            if (meterRegistry != null) {
+                hedgeCounters.put(backend, Counter.builder("hedging.requests").tag("backend", backend.instanceName()).register(meterRegistry));
+                budgetExhaustedCounters.put(backend, Counter.builder("hedging.budget.exhausted").tag("backend", backend.instanceName()).register(meterRegistry));
+            }
+        }
+    }
+
+    public <T> Mono<T> hedge(Backend backend, Supplier<Mono<T>> call) {
+        if (!properties.isEnabled()) {
+            return call.get();
+        }
+        return Mono.defer(() -> {
+            earnBudget();
+            AtomicBoolean hedgeSent = new AtomicBoolean();
+            AtomicReference<Throwable> firstFailure = new AtomicReference<>();
+            // once the hedge is sent a failed call stays silent until the other one failed as well
+            Mono<T> primary = timed(backend, call.get())
+                    .onErrorResume(exception -> hedgeSent.get() ? failIfBothFailed(firstFailure, exception) : Mono.error(exception));
+            // the hedge never wins by being skipped, it just stays silent
+            Mono<T> hedged = Mono.delay(delayOf(backend))
+                    .filter(tick -> spendBudget(backend))
+                    .doOnNext(tick -> hedgeSent.set(true))
+                    .flatMap(tick -> timed(backend, call.get()).onErrorResume(exception -> failIfBothFailed(firstFailure, exception)))
+                    .switchIfEmpty(Mono.never());
+            return Mono.first(primary, hedged);
+        });
+    }
+
+    private static <T> Mono<T> failIfBothFailed(AtomicReference<Throwable> firstFailure, Throwable exception) {
+        return firstFailure.compareAndSet(null, exception) ? Mono.never() : Mono.error(exception);
+    }
+
+    Duration delayOf(Backend backend) {
+        long percentileMillis = latencies.get(backend).percentileMillis();
+        if (percentileMillis < 0) {
+            return properties.getMaxDelay();
+        }
+        Duration delay = Duration.ofMillis(percentileMillis);
+        if (delay.compareTo(properties.getMinDelay()) < 0) {
+            return properties.getMinDelay();
+        }
+        return delay.compareTo(properties.getMaxDelay()) > 0 ? properties.getMaxDelay() : delay;
+    }
+
+    private <T> Mono<T> timed(Backend backend, Mono<T> call) {
+        return call.elapsed()
+                .doOnNext(timed -> latencies.get(backend).record(timed.getT1()))
+                .map(timed -> timed.getT2());
+    }
+
+    private void earnBudget() {
+        budget.getAndUpdate(current -> Math.min(maxBudget, current + earnedPerCall));
+    }
+
+    private boolean spendBudget(Backend backend) {
+        long current;
+        do {
+            current = budget.get();
+            if (current < ONE_HEDGE) {
+                increment(budgetExhaustedCounters, backend);
+                return false;
+            }
+        } while (!budget.compareAndSet(current, current - ONE_HEDGE));
+        increment(hedgeCounters, backend);
+        return true;
+    }
+
+    private static void increment(Map<Backend, Counter> counters, Backend backend) {
+        Counter counter = counters.get(backend);
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+}
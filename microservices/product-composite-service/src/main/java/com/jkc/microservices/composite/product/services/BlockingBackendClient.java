@@ -0,0 +1,146 @@
+package com.jkc.microservices.composite.product.services;
+
+import com.jkc.microservices.composite.product.metrics.BackendCallMetrics;
+import com.jkc.microservices.util.tracing.LocalTrace;
+import com.jkc.microservices.util.tracing.TraceContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.context.Context;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * the json GETs of the {@link ExecutionMode#VIRTUAL_THREADS} and {@link ExecutionMode#BLOCKING} modes: a blocking call
+ * of the jdk HttpClient, run on a new virtual thread or on the thread that subscribes. the client keeps its connections
+ * alive but opens one for every call in flight, the bulkhead of each backend is what bounds them. the status of the
+ * response goes to the composite.backend.calls timers, and a call made while serving a traced request is part of its
+ * trace, as with the WebClients. the build targets java 15, so the virtual threads of a java 21 runtime are looked up
+ * when the VIRTUAL_THREADS mode starts, which fails on an older runtime
+ */
+public class BlockingBackendClient {
+
+    /**
+     * reads a response, on the thread that made the call
+     */
+    @FunctionalInterface
+    public interface ResponseHandler<T> {
+        T handle(HttpResponse<byte[]> response) throws IOException;
+    }
+
+    private static final Method NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR = findNewVirtualThreadPerTaskExecutor();
+
+    private final ExecutionMode executionMode;
+    private final Duration responseTimeout;
+    private final HttpClient httpClient;
+    private final Scheduler scheduler;
+
+    public BlockingBackendClient(ExecutionMode executionMode, Duration connectTimeout, Duration responseTimeout) {
+        this.executionMode = executionMode;
+        this.responseTimeout = responseTimeout;
+        this.httpClient = executionMode == ExecutionMode.REACTIVE ? null : HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(connectTimeout)
+                .build();
+        this.scheduler = executionMode == ExecutionMode.VIRTUAL_THREADS
+                ? Schedulers.fromExecutorService(newVirtualThreadPerTaskExecutor(), "virtual-threads")
+                : null;
+    }
+
+    /**
+     * @return true when the runtime has virtual threads, java 21 or newer
+     */
+    public static boolean isVirtualThreadsAvailable() {
+        return NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR != null;
+    }
+
+    public ExecutionMode getExecutionMode() {
+        return executionMode;
+    }
+
+    /**
+     * @return false in the REACTIVE mode, which makes no calls with this client
+     */
+    public boolean isEnabled() {
+        return executionMode != ExecutionMode.REACTIVE;
+    }
+
+    /**
+     * @param ifNoneMatch the etag to revalidate, null to get the body unconditionally
+     */
+    public <T> Mono<T> get(String url, String ifNoneMatch, ResponseHandler<T> handler) {
+        Mono<T> call = Mono.subscriberContext().flatMap(context -> Mono.defer(() -> {
+            // a call cancelled by its deadline or a failed sibling call (its virtual thread is interrupted) fails for
+            // nobody, its error is not reported as dropped
+            AtomicBoolean cancelled = new AtomicBoolean();
+            return Mono.fromCallable(() -> handler.handle(send(context, url, ifNoneMatch)))
+                    .doOnCancel(() -> cancelled.set(true))
+                    .onErrorResume(exception -> cancelled.get() ? Mono.empty() : Mono.error(exception));
+        }));
+        return scheduler == null ? call : call.subscribeOn(scheduler);
+    }
+
+    private HttpResponse<byte[]> send(Context context, String url, String ifNoneMatch) throws IOException, InterruptedException {
+        URI uri = URI.create(url);
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+                .timeout(responseTimeout)
+                .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE);
+        if (ifNoneMatch != null) {
+            request.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        LocalTrace trace = context.getOrDefault(LocalTrace.class, null);
+        LocalTrace.ClientSpan span = trace == null ? null : trace.startClientSpan("GET " + uri.getPath(), uri.getHost() + ':' + uri.getPort());
+        if (span != null) {
+            request.header(TraceContext.TRACEPARENT, span.traceparent());
+        }
+        try {
+            HttpResponse<byte[]> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+            BackendCallMetrics.recordStatus(context, response.statusCode());
+            if (span != null) {
+                span.finish(response.statusCode(), null);
+            }
+            return response;
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            if (span != null) {
+                span.finish(0, e.toString());
+            }
+            throw e;
+        }
+    }
+
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        if (NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR == null) {
+            throw new IllegalStateException("execution-mode virtual-threads needs a java 21 runtime, this is java " + Runtime.version());
+        }
+        try {
+            return (ExecutorService) NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not create the virtual thread executor", e);
+        }
+    }
+
+    private static Method findNewVirtualThreadPerTaskExecutor() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    public void dispose() {
+        if (scheduler != null) {
+            scheduler.dispose();
+        }
+    }
+}
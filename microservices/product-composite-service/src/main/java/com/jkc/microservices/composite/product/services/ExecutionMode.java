@@ -0,0 +1,21 @@
+package com.jkc.microservices.composite.product.services;
+
+/**
+ * how the single product reads of {@link ProductCompositeIntegration} (product, recommendations, reviews) are made,
+ * bound from app.integration.execution-mode
+ */
+public enum ExecutionMode {
+    /**
+     * WebClient, nothing blocks
+     */
+    REACTIVE,
+    /**
+     * a blocking http call on a virtual thread of its own, a waiting call holds no platform thread
+     */
+    VIRTUAL_THREADS,
+    /**
+     * a blocking http call on the netty event loop that serves the request. only the baseline the other modes are
+     * measured against: every waiting call stalls all requests of its event loop
+     */
+    BLOCKING
+}
@@ -1,89 +1,192 @@
 package com.jkc.microservices.composite.product.services;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.jkc.microservices.api.core.product.Product;
 import com.jkc.microservices.api.core.product.ProductService;
 import com.jkc.microservices.api.core.recommendation.Recommendation;
 import com.jkc.microservices.api.core.recommendation.RecommendationService;
 import com.jkc.microservices.api.core.review.Review;
+import com.jkc.microservices.api.core.review.ReviewPage;
 import com.jkc.microservices.api.core.review.ReviewService;
+import com.jkc.microservices.composite.product.cache.Versioned;
+import com.jkc.microservices.composite.product.metrics.BackendCallMetrics;
+import com.jkc.microservices.composite.product.resilience.Backend;
+import com.jkc.microservices.composite.product.resilience.BackendResilience;
+import com.jkc.microservices.composite.product.resilience.RequestHedger;
 import com.jkc.microservices.util.exceptions.InvalidInputException;
 import com.jkc.microservices.util.exceptions.NotFoundException;
-import com.jkc.microservices.util.http.HttpErrorInfo;
+import com.jkc.microservices.util.http.HttpErrorBodies;
+import com.jkc.microservices.util.http.StreamingCodecConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.ParameterizedTypeReference;
-import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.HttpClientErrorException;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Component
 public class ProductCompositeIntegration implements ProductService, RecommendationService, ReviewService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ProductCompositeIntegration.class);
-    private final RestTemplate restTemplate;
+    private static final MediaType NDJSON = StreamingCodecConfig.APPLICATION_NDJSON;
+    private final WebClient productServiceWebClient;
+    private final WebClient recommendationServiceWebClient;
+    private final WebClient reviewServiceWebClient;
+    private final BackendResilience backendResilience;
+    private final RequestHedger requestHedger;
+    private final BackendCallMetrics backendCallMetrics;
+    private final BlockingBackendClient blockingBackendClient;
     private final ObjectMapper objectMapper;
+    private final JavaType productType;
+    private final JavaType recommendationsType;
+    private final JavaType reviewsType;
     private final String productServiceUrl;
     private final String recommendationServiceUrl;
     private final String reviewServiceUrl;
+    private final String productBatchServiceUrl;
+    private final String recommendationBatchServiceUrl;
+    private final String reviewBatchServiceUrl;
+    private final String productWriteServiceUrl;
+    private final String recommendationWriteServiceUrl;
+    private final String reviewWriteServiceUrl;
+    // the last body and etag of each single product url, sent back as If-None-Match
+    private final Cache<String, Versioned<?>> validators;
 
     @Autowired
     public ProductCompositeIntegration(
-            RestTemplate restTemplate,
+            @Qualifier("productServiceWebClient") WebClient productServiceWebClient,
+            @Qualifier("recommendationServiceWebClient") WebClient recommendationServiceWebClient,
+            @Qualifier("reviewServiceWebClient") WebClient reviewServiceWebClient,
+            BackendResilience backendResilience,
+            RequestHedger requestHedger,
+            BackendCallMetrics backendCallMetrics,
+            BlockingBackendClient blockingBackendClient,
             ObjectMapper objectMapper,
             @Value("${app.product-service.host}") String productServiceHost,
             @Value("${app.product-service.port}") int productServicePort,
             @Value("${app.recommendation-service.host}") String recommendationServiceHost,
             @Value("${app.recommendation-service.port}") int recommendationServicePort,
             @Value("${app.review-service.host}") String reviewServiceHost,
-            @Value("${app.review-service.port}") int reviewServicePort) {
-        this.restTemplate = restTemplate;
+            @Value("${app.review-service.port}") int reviewServicePort,
+            @Value("${app.revalidation.max-entries:30000}") int maxValidators) {
+        this.productServiceWebClient = productServiceWebClient;
+        this.recommendationServiceWebClient = recommendationServiceWebClient;
+        this.reviewServiceWebClient = reviewServiceWebClient;
+        this.backendResilience = backendResilience;
+        this.requestHedger = requestHedger;
+        this.backendCallMetrics = backendCallMetrics;
+        this.blockingBackendClient = blockingBackendClient;
         this.objectMapper = objectMapper;
+        productType = objectMapper.constructType(Product.class);
+        recommendationsType = objectMapper.getTypeFactory().constructCollectionType(List.class, Recommendation.class);
+        reviewsType = objectMapper.getTypeFactory().constructCollectionType(List.class, Review.class);
         String HTTP = "http://";
         productServiceUrl = HTTP + productServiceHost + ":" + productServicePort + "/product/";
         recommendationServiceUrl = HTTP + recommendationServiceHost + ":" + recommendationServicePort + "/recommendation?productID=";
         reviewServiceUrl = HTTP + reviewServiceHost + ":" + reviewServicePort + "/review?productID=";
+        productBatchServiceUrl = HTTP + productServiceHost + ":" + productServicePort + "/product?ids=";
+        recommendationBatchServiceUrl = HTTP + recommendationServiceHost + ":" + recommendationServicePort + "/recommendation?ids=";
+        reviewBatchServiceUrl = HTTP + reviewServiceHost + ":" + reviewServicePort + "/review?ids=";
+        productWriteServiceUrl = HTTP + productServiceHost + ":" + productServicePort + "/product";
+        recommendationWriteServiceUrl = HTTP + recommendationServiceHost + ":" + recommendationServicePort + "/recommendation";
+        reviewWriteServiceUrl = HTTP + reviewServiceHost + ":" + reviewServicePort + "/review";
+        validators = Caffeine.newBuilder().maximumSize(maxValidators).build();
     }
 
     /**
      * curl $HOST:$PORT/product/1
      *
      * @param productID "productID : int"
-     * @return Product, if found else null
+     * @return Product, if found else an empty Mono
      */
     @Override
-    public Product getProduct(int productID) {
-
-        try {
-            String url = productServiceUrl + productID;
-            LOGGER.debug("will call getProduct api on url:{}", url);
-            Product product = restTemplate.getForObject(url, Product.class);
-            assert product != null;
-            LOGGER.debug("found a product with id:{}", product.getProductID());
-            return product;
-        } catch (HttpClientErrorException exception) {
-            switch (exception.getStatusCode()) {
-                case NOT_FOUND -> throw new NotFoundException(getErrorMessage(exception));
-                case UNPROCESSABLE_ENTITY -> throw new InvalidInputException(getErrorMessage(exception));
-                default -> {
-                    sonarResolution(exception);
-                    throw exception;
-                }
+    public Mono<Product> getProduct(int productID) {
+        return getVersionedProduct(productID).map(Versioned::getBody);
+    }
+
+    /**
+     * @return the product with its etag, revalidated rather than downloaded again when it was fetched before
+     */
+    public Mono<Versioned<Product>> getVersionedProduct(int productID) {
+        String url = productServiceUrl + productID;
+        LOGGER.debug("will call getProduct api on url:{}", url);
+        Mono<Versioned<Product>> call = revalidate(productServiceWebClient, url, response -> response.bodyToMono(Product.class), productType)
+                .onErrorMap(WebClientResponseException.class, this::handleException);
+        return decorate(Backend.PRODUCT, "getProduct", call)
+                .doOnNext(product -> LOGGER.debug("found a product with id:{}", product.getBody().getProductID()));
+    }
 
-            }
+    /**
+     * curl $HOST:$PORT/product?ids=1,2,3
+     *
+     * @param productIDs "productIDs : comma separated int"
+     * @return the products that were found, ids without a product are left out
+     */
+    @Override
+    public Flux<Product> getProducts(List<Integer> productIDs) {
+        if (productIDs.isEmpty()) {
+            return Flux.empty();
         }
+        String url = productBatchServiceUrl + joinIDs(productIDs);
+        LOGGER.debug("will call getProducts api on url:{}", url);
+        Flux<Product> call = productServiceWebClient.get().uri(url).retrieve().onStatus(ProductCompositeIntegration::isDomainError, ProductCompositeIntegration::toDomainException).bodyToFlux(Product.class)
+                .onErrorMap(WebClientResponseException.class, this::handleException);
+        return decorate(Backend.PRODUCT, "getProducts", call);
     }
 
-    private void sonarResolution(HttpClientErrorException exception) {
+    private Throwable handleException(WebClientResponseException exception) {
         LOGGER.warn("Got a unexpected HTTP error: {}, will rethrow it", exception.getStatusCode());
         LOGGER.warn("Error body: {}", exception.getResponseBodyAsString());
+        return exception;
+    }
+
+    /**
+     * the resilience decorators of the backend, timed as one call
+     */
+    private <T> Mono<T> decorate(Backend backend, String operation, Mono<T> call) {
+        return backendCallMetrics.time(backend, operation, backendResilience.decorate(backend, call));
+    }
+
+    private <T> Flux<T> decorate(Backend backend, String operation, Flux<T> call) {
+        return backendCallMetrics.time(backend, operation, backendResilience.decorate(backend, call));
+    }
+
+    private static boolean isDomainError(HttpStatus status) {
+        return status == HttpStatus.NOT_FOUND || status == HttpStatus.UNPROCESSABLE_ENTITY;
+    }
+
+    /**
+     * raises the exception that the core service answered with again, with the message read from its error body by a
+     * streaming parser. no WebClientResponseException (with its stack trace and copy of the body) is created
+     */
+    private static Mono<? extends Throwable> toDomainException(ClientResponse response) {
+        HttpStatus status = response.statusCode();
+        return response.bodyToMono(byte[].class)
+                .defaultIfEmpty(new byte[0])
+                .map(body -> toDomainException(status, body));
+    }
+
+    private static RuntimeException toDomainException(HttpStatus status, byte[] body) {
+        String message = HttpErrorBodies.readMessage(body);
+        if (message == null) {
+            message = status.value() + " " + status.getReasonPhrase();
+        }
+        return status == HttpStatus.NOT_FOUND ? new NotFoundException(message) : new InvalidInputException(message);
     }
 
     /**
@@ -93,19 +196,22 @@ public class ProductCompositeIntegration implements ProductService, Recommendati
      * @return list of recommendations for that @productID
      */
     @Override
-    public List<Recommendation> getRecommendations(int productID) {
-        try {
-            String url = recommendationServiceUrl + productID;
-            LOGGER.debug("Will call getRecommendations API on URL: {}", url);
-            List<Recommendation> recommendations = restTemplate.exchange(url, HttpMethod.GET, null, new ParameterizedTypeReference<List<Recommendation>>() {
-            }).getBody();
-            assert recommendations != null;
-            LOGGER.debug("Found {} recommendations for a product with id: {}", recommendations.size(), productID);
-            return recommendations;
-        } catch (Exception exception) {
-            LOGGER.warn("Got an exception while requesting recommendations, return zero recommendations: {}", exception.getMessage());
-            return new ArrayList<>();
-        }
+    public Flux<Recommendation> getRecommendations(int productID) {
+        return getVersionedRecommendations(productID).flatMapIterable(Versioned::getBody);
+    }
+
+    /**
+     * @return the recommendations with their etag, an empty list without an etag when the call failed
+     */
+    public Mono<Versioned<List<Recommendation>>> getVersionedRecommendations(int productID) {
+        String url = recommendationServiceUrl + productID;
+        LOGGER.debug("Will call getRecommendations API on URL: {}", url);
+        return backendCallMetrics.time(Backend.RECOMMENDATION, "getRecommendations", requestHedger.hedge(Backend.RECOMMENDATION, () -> backendResilience.decorate(Backend.RECOMMENDATION,
+                revalidate(recommendationServiceWebClient, url, response -> response.bodyToFlux(Recommendation.class).collectList(), recommendationsType))))
+                .onErrorResume(exception -> {
+                    LOGGER.warn("Got an exception while requesting recommendations, return zero recommendations: {}", exception.getMessage());
+                    return Mono.just(new Versioned<>(List.of(), null));
+                });
     }
 
     /**
@@ -115,25 +221,211 @@ public class ProductCompositeIntegration implements ProductService, Recommendati
      * @return list of reviews for product associated with productID
      */
     @Override
-    public List<Review> getReviews(int productID) {
-        try {
-            String url = reviewServiceUrl + productID;
-            LOGGER.debug("Will call getReviews API on URL: {}", url);
-            List<Review> reviews = restTemplate.exchange(url, HttpMethod.GET, null, new ParameterizedTypeReference<List<Review>>() {
-            }).getBody();
-            assert reviews != null;
-            LOGGER.debug("Found {} reviews for a product with id: {}", reviews.size(), productID);
-            return reviews;
-        } catch (Exception exception) {
-            return new ArrayList<>();
+    public Flux<Review> getReviews(int productID) {
+        return getVersionedReviews(productID).flatMapIterable(Versioned::getBody);
+    }
+
+    /**
+     * @return the reviews with their etag, an empty list without an etag when the call failed
+     */
+    public Mono<Versioned<List<Review>>> getVersionedReviews(int productID) {
+        String url = reviewServiceUrl + productID;
+        LOGGER.debug("Will call getReviews API on URL: {}", url);
+        return backendCallMetrics.time(Backend.REVIEW, "getReviews", requestHedger.hedge(Backend.REVIEW, () -> backendResilience.decorate(Backend.REVIEW,
+                revalidate(reviewServiceWebClient, url, response -> response.bodyToFlux(Review.class).collectList(), reviewsType))))
+                .onErrorResume(exception -> {
+                    LOGGER.warn("Got an exception while requesting reviews, return zero reviews: {}", exception.getMessage());
+                    return Mono.just(new Versioned<>(List.of(), null));
+                });
+    }
+
+    /**
+     * usage: curl $HOST:$PORT/recommendation?ids=1,2,3
+     *
+     * @param productIDs "provided productIDs: comma separated int"
+     * @return recommendations of all the given products, each one carries its productID
+     */
+    @Override
+    public Flux<Recommendation> getRecommendations(List<Integer> productIDs) {
+        if (productIDs.isEmpty()) {
+            return Flux.empty();
         }
+        String url = recommendationBatchServiceUrl + joinIDs(productIDs);
+        LOGGER.debug("Will call getRecommendations API on URL: {}", url);
+        return decorate(Backend.RECOMMENDATION, "getRecommendationsBatch", recommendationServiceWebClient.get().uri(url).retrieve().onStatus(ProductCompositeIntegration::isDomainError, ProductCompositeIntegration::toDomainException).bodyToFlux(Recommendation.class))
+                .onErrorResume(exception -> {
+                    LOGGER.warn("Got an exception while requesting recommendations for {} products, return zero recommendations: {}", productIDs.size(), exception.getMessage());
+                    return Flux.empty();
+                });
     }
 
-    private String getErrorMessage(HttpClientErrorException exception) {
-        try {
-            return objectMapper.readValue(exception.getResponseBodyAsString(), HttpErrorInfo.class).getMessage();
-        } catch (JsonProcessingException e) {
-            return exception.getMessage();
+    /**
+     * usage: curl $HOST:$PORT/review?ids=1,2,3
+     *
+     * @param productIDs "required productIDs comma separated int"
+     * @return reviews of all the given products, each one carries its productID
+     */
+    @Override
+    public Flux<Review> getReviews(List<Integer> productIDs) {
+        if (productIDs.isEmpty()) {
+            return Flux.empty();
+        }
+        String url = reviewBatchServiceUrl + joinIDs(productIDs);
+        LOGGER.debug("Will call getReviews API on URL: {}", url);
+        return decorate(Backend.REVIEW, "getReviewsBatch", reviewServiceWebClient.get().uri(url).retrieve().onStatus(ProductCompositeIntegration::isDomainError, ProductCompositeIntegration::toDomainException).bodyToFlux(Review.class))
+                .onErrorResume(exception -> {
+                    LOGGER.warn("Got an exception while requesting reviews for {} products, return zero reviews: {}", productIDs.size(), exception.getMessage());
+                    return Flux.empty();
+                });
+    }
+
+    /**
+     * usage: curl "$HOST:$PORT/review?productID=1&limit=20&sort=rating&cursor=..."
+     *
+     * @return one page of reviews, invalid limits, sorts and cursors are rejected by the review service
+     */
+    @Override
+    public Mono<ReviewPage> getReviewPage(int productID, int limit, String sort, String cursor) {
+        String url = reviewServiceUrl + productID + "&limit=" + limit + "&sort={sort}" + (cursor == null ? "" : "&cursor={cursor}");
+        LOGGER.debug("Will call getReviewPage API on URL: {}", url);
+        Mono<ReviewPage> call = reviewServiceWebClient.get().uri(url, sort, cursor).retrieve().onStatus(ProductCompositeIntegration::isDomainError, ProductCompositeIntegration::toDomainException).bodyToMono(ReviewPage.class)
+                .onErrorMap(WebClientResponseException.class, this::handleException);
+        return decorate(Backend.REVIEW, "getReviewPage", call);
+    }
+
+    @Override
+    public Mono<Product> createProduct(Product body) {
+        LOGGER.debug("Will call createProduct API on URL: {}", productWriteServiceUrl);
+        Mono<Product> call = productServiceWebClient.post().uri(productWriteServiceUrl).bodyValue(body).retrieve().onStatus(ProductCompositeIntegration::isDomainError, ProductCompositeIntegration::toDomainException).bodyToMono(Product.class)
+                .onErrorMap(WebClientResponseException.class, this::handleException);
+        return decorate(Backend.PRODUCT, "createProduct", call);
+    }
+
+    @Override
+    public Flux<Product> createProducts(Flux<Product> body) {
+        LOGGER.debug("Will call createProducts API on URL: {}", productWriteServiceUrl);
+        Flux<Product> call = productServiceWebClient.post().uri(productWriteServiceUrl).contentType(NDJSON).accept(NDJSON)
+                .body(body, Product.class).retrieve().onStatus(ProductCompositeIntegration::isDomainError, ProductCompositeIntegration::toDomainException).bodyToFlux(Product.class)
+                .onErrorMap(WebClientResponseException.class, this::handleException);
+        return decorate(Backend.PRODUCT, "createProducts", call);
+    }
+
+    @Override
+    public Mono<Void> deleteProduct(int productID) {
+        String url = productWriteServiceUrl + "/" + productID;
+        LOGGER.debug("Will call deleteProduct API on URL: {}", url);
+        Mono<Void> call = productServiceWebClient.delete().uri(url).retrieve().onStatus(ProductCompositeIntegration::isDomainError, ProductCompositeIntegration::toDomainException).bodyToMono(Void.class)
+                .onErrorMap(WebClientResponseException.class, this::handleException);
+        return decorate(Backend.PRODUCT, "deleteProduct", call);
+    }
+
+    @Override
+    public Mono<Recommendation> createRecommendation(Recommendation body) {
+        LOGGER.debug("Will call createRecommendation API on URL: {}", recommendationWriteServiceUrl);
+        Mono<Recommendation> call = recommendationServiceWebClient.post().uri(recommendationWriteServiceUrl).bodyValue(body).retrieve().onStatus(ProductCompositeIntegration::isDomainError, ProductCompositeIntegration::toDomainException).bodyToMono(Recommendation.class)
+                .onErrorMap(WebClientResponseException.class, this::handleException);
+        return decorate(Backend.RECOMMENDATION, "createRecommendation", call);
+    }
+
+    @Override
+    public Mono<Void> deleteRecommendations(int productID) {
+        String url = recommendationServiceUrl + productID;
+        LOGGER.debug("Will call deleteRecommendations API on URL: {}", url);
+        Mono<Void> call = recommendationServiceWebClient.delete().uri(url).retrieve().onStatus(ProductCompositeIntegration::isDomainError, ProductCompositeIntegration::toDomainException).bodyToMono(Void.class)
+                .onErrorMap(WebClientResponseException.class, this::handleException);
+        return decorate(Backend.RECOMMENDATION, "deleteRecommendations", call);
+    }
+
+    @Override
+    public Mono<Review> createReview(Review body) {
+        LOGGER.debug("Will call createReview API on URL: {}", reviewWriteServiceUrl);
+        Mono<Review> call = reviewServiceWebClient.post().uri(reviewWriteServiceUrl).bodyValue(body).retrieve().onStatus(ProductCompositeIntegration::isDomainError, ProductCompositeIntegration::toDomainException).bodyToMono(Review.class)
+                .onErrorMap(WebClientResponseException.class, this::handleException);
+        return decorate(Backend.REVIEW, "createReview", call);
+    }
+
+    @Override
+    public Mono<Void> deleteReviews(int productID) {
+        String url = reviewServiceUrl + productID;
+        LOGGER.debug("Will call deleteReviews API on URL: {}", url);
+        Mono<Void> call = reviewServiceWebClient.delete().uri(url).retrieve().onStatus(ProductCompositeIntegration::isDomainError, ProductCompositeIntegration::toDomainException).bodyToMono(Void.class)
+                .onErrorMap(WebClientResponseException.class, this::handleException);
+        return decorate(Backend.REVIEW, "deleteReviews", call);
+    }
+
+    /**
+     * gets the url with the etag of the body it returned last time, a 304 answer reuses that body without transferring
+     * it again. the validator is kept only while the core service sends an etag, and dropped on errors
+     */
+    private <T> Mono<Versioned<T>> revalidate(WebClient webClient, String url, Function<ClientResponse, Mono<T>> bodyReader, JavaType bodyType) {
+        if (blockingBackendClient.isEnabled()) {
+            return revalidateBlocking(url, bodyType);
         }
+        return Mono.defer(() -> {
+            @SuppressWarnings("unchecked")
+            Versioned<T> known = (Versioned<T>) validators.getIfPresent(url);
+            return webClient.get().uri(url)
+                    .headers(headers -> {
+                        if (known != null) {
+                            headers.setIfNoneMatch(known.getETag());
+                        }
+                    })
+                    .exchange()
+                    .flatMap(response -> {
+                        if (known != null && response.statusCode() == HttpStatus.NOT_MODIFIED) {
+                            return response.releaseBody().thenReturn(known);
+                        }
+                        if (response.statusCode().isError()) {
+                            validators.invalidate(url);
+                            return (isDomainError(response.statusCode()) ? toDomainException(response) : response.createException()).flatMap(Mono::error);
+                        }
+                        String etag = response.headers().asHttpHeaders().getETag();
+                        return bodyReader.apply(response).map(body -> {
+                            Versioned<T> versioned = new Versioned<>(body, etag);
+                            if (etag == null) {
+                                validators.invalidate(url);
+                            } else {
+                                validators.put(url, versioned);
+                            }
+                            return versioned;
+                        });
+                    });
+        });
+    }
+
+    /**
+     * {@link #revalidate} with the blocking client of the VIRTUAL_THREADS and BLOCKING execution modes, which reads json
+     */
+    private <T> Mono<Versioned<T>> revalidateBlocking(String url, JavaType bodyType) {
+        return Mono.defer(() -> {
+            @SuppressWarnings("unchecked")
+            Versioned<T> known = (Versioned<T>) validators.getIfPresent(url);
+            return blockingBackendClient.get(url, known == null ? null : known.getETag(), response -> {
+                if (known != null && response.statusCode() == HttpStatus.NOT_MODIFIED.value()) {
+                    return known;
+                }
+                if (response.statusCode() >= 400) {
+                    validators.invalidate(url);
+                    HttpStatus status = HttpStatus.resolve(response.statusCode());
+                    if (status != null && isDomainError(status)) {
+                        throw toDomainException(status, response.body());
+                    }
+                    // the exception of the reactive mode, so that errors are logged and timed alike
+                    throw WebClientResponseException.create(response.statusCode(), status == null ? "" : status.getReasonPhrase(), HttpHeaders.EMPTY, response.body(), null);
+                }
+                String etag = response.headers().firstValue(HttpHeaders.ETAG).orElse(null);
+                Versioned<T> versioned = new Versioned<>(objectMapper.readValue(response.body(), bodyType), etag);
+                if (etag == null) {
+                    validators.invalidate(url);
+                } else {
+                    validators.put(url, versioned);
+                }
+                return versioned;
+            });
+        });
+    }
+
+    private static String joinIDs(List<Integer> productIDs) {
+        return productIDs.stream().map(String::valueOf).collect(Collectors.joining(","));
     }
 }
@@ -4,49 +4,261 @@ import com.jkc.microservices.api.composite.product.*;
 import com.jkc.microservices.api.core.product.Product;
 import com.jkc.microservices.api.core.recommendation.Recommendation;
 import com.jkc.microservices.api.core.review.Review;
+import com.jkc.microservices.composite.product.cache.ProductAggregateCache;
+import com.jkc.microservices.composite.product.cache.Versioned;
+import com.jkc.microservices.composite.product.metrics.AggregateMetrics;
+import com.jkc.microservices.util.exceptions.InvalidInputException;
 import com.jkc.microservices.util.exceptions.NotFoundException;
+import com.jkc.microservices.util.http.ConditionalGet;
 import com.jkc.microservices.util.http.ServiceUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Signal;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @RestController
 public class ProductCompositeServiceImpl implements ProductCompositeService {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProductCompositeServiceImpl.class);
     private final ServiceUtil serviceUtil;
     private final ProductCompositeIntegration productCompositeIntegration;
+    private final ProductAggregateCache productAggregateCache;
+    private final AggregateMetrics aggregateMetrics;
+    private final int maxBatchSize;
+    private final int maxStreamSize;
+    private final int streamConcurrency;
 
     @Autowired
-    public ProductCompositeServiceImpl(ServiceUtil serviceUtil, ProductCompositeIntegration productCompositeIntegration) {
+    public ProductCompositeServiceImpl(
+            ServiceUtil serviceUtil,
+            ProductCompositeIntegration productCompositeIntegration,
+            ProductAggregateCache productAggregateCache,
+            AggregateMetrics aggregateMetrics,
+            @Value("${app.batch.max-ids:200}") int maxBatchSize,
+            @Value("${app.stream.max-ids:100000}") int maxStreamSize,
+            @Value("${app.stream.concurrency:16}") int streamConcurrency) {
         this.serviceUtil = serviceUtil;
         this.productCompositeIntegration = productCompositeIntegration;
+        this.productAggregateCache = productAggregateCache;
+        this.aggregateMetrics = aggregateMetrics;
+        this.maxBatchSize = maxBatchSize;
+        this.maxStreamSize = maxStreamSize;
+        this.streamConcurrency = streamConcurrency;
     }
 
     /**
      * usage : curl $HOST:$PORT/product-composite/1
+     * or : curl -H 'If-None-Match: "<etag>"' $HOST:$PORT/product-composite/1
      *
      * @param productID "productID: int required"
-     * @return composite productInfo , if found else null
+     * @return composite productInfo , if found else null, nothing but 304 when the aggregate still has the given etag
      */
     @Override
-    public ProductAggregate getProduct(int productID) {
-        Product product = productCompositeIntegration.getProduct(productID);
+    public Mono<ProductAggregate> getProduct(int productID) {
+        return productAggregateCache.get(productID, this::fetchProductAggregate)
+                .doOnNext(aggregateMetrics::countResponse)
+                .flatMap(aggregate -> ConditionalGet.unlessNotModified(aggregate.getETag(), Mono.just(aggregate.getBody())));
+    }
+
+    private Mono<ProductAggregate> getProductAggregate(int productID) {
+        return productAggregateCache.get(productID, this::fetchProductAggregate).map(Versioned::getBody);
+    }
+
+    private Mono<Versioned<ProductAggregate>> fetchProductAggregate(int productID) {
+        // zip subscribes to all three calls at once and cancels the others as soon as one of them fails
+        return Mono.zip(
+                productCompositeIntegration.getVersionedProduct(productID)
+                        .switchIfEmpty(Mono.error(() -> new NotFoundException("No product found for productId: " + productID))),
+                productCompositeIntegration.getVersionedRecommendations(productID),
+                productCompositeIntegration.getVersionedReviews(productID))
+                .map(tuple -> new Versioned<>(
+                        aggregateMetrics.timeCreate(() -> createProductAggregate(tuple.getT1().getBody(), tuple.getT2().getBody(), tuple.getT3().getBody(), serviceUtil.getServiceAddress())),
+                        aggregateETag(tuple.getT1().getETag(), tuple.getT2().getETag(), tuple.getT3().getETag())));
+    }
+
+    /**
+     * the aggregate changes exactly when one of its inputs does, so its etag is made of theirs. an aggregate built from
+     * a fallback has none and is always sent in full
+     */
+    static String aggregateETag(String productETag, String recommendationsETag, String reviewsETag) {
+        if (productETag == null || recommendationsETag == null || reviewsETag == null) {
+            return null;
+        }
+        return '"' + unquote(productETag) + '+' + unquote(recommendationsETag) + '+' + unquote(reviewsETag) + '"';
+    }
+
+    private static String unquote(String etag) {
+        int start = etag.startsWith("W/") ? 3 : 1;
+        return etag.substring(start, etag.length() - 1);
+    }
+
+    /**
+     * usage : curl $HOST:$PORT/product-composite?ids=1,2,3
+     *
+     * @param productIDs "productIDs: comma separated int required"
+     * @return one result per requested productID, in request order, holding either the composite productInfo or the error for that id
+     */
+    @Override
+    public Flux<ProductAggregateResult> getProducts(List<Integer> productIDs) {
+        List<Integer> distinctIDs = productIDs.stream().distinct().collect(Collectors.toList());
+        if (distinctIDs.size() > maxBatchSize) {
+            throw new InvalidInputException("Too many productIds: " + distinctIDs.size() + ", at most " + maxBatchSize + " can be requested at once");
+        }
+        List<Integer> validIDs = distinctIDs.stream().filter(productID -> productID >= 1).collect(Collectors.toList());
+        // one batch call per core service, whatever the number of requested products. recommendations and reviews fall
+        // back to none, a failed product call fails each id with its error, as the stream endpoint does
+        return Mono.zip(
+                productCompositeIntegration.getProducts(validIDs).collectMap(Product::getProductID).materialize(),
+                productCompositeIntegration.getRecommendations(validIDs).collectMultimap(Recommendation::getProductID),
+                productCompositeIntegration.getReviews(validIDs).collectMultimap(Review::getProductID))
+                .flatMapIterable(tuple -> {
+                    Signal<Map<Integer, Product>> products = tuple.getT1();
+                    if (products.isOnError()) {
+                        LOGGER.warn("Failed to get {} products, each of them fails: {}", validIDs.size(), products.getThrowable().getMessage());
+                    }
+                    String serviceAddress = serviceUtil.getServiceAddress();
+                    return distinctIDs.stream()
+                            .map(productID -> products.isOnError() && productID >= 1
+                                    ? toFailedResult(productID, products.getThrowable())
+                                    : createProductAggregateResult(productID, products.get(), tuple.getT2(), tuple.getT3(), serviceAddress))
+                            .collect(Collectors.toList());
+                });
+    }
+
+    /**
+     * usage : curl -H 'Accept: application/x-ndjson' $HOST:$PORT/product-composite/stream?from=1&to=1000
+     * or : curl -H 'Accept: text/event-stream' $HOST:$PORT/product-composite/stream?ids=1,2,3
+     *
+     * @param productIDs "productIDs: comma separated int, optional when from and to are given"
+     * @param from       "from: int, first productID of the range (inclusive)"
+     * @param to         "to: int, last productID of the range (inclusive)"
+     * @return one result per productID, emitted as soon as its composite view is complete, so not in request order
+     */
+    @Override
+    public Flux<ProductAggregateResult> getProductStream(List<Integer> productIDs, Integer from, Integer to) {
+        Flux<Integer> requestedIDs;
+        if (productIDs != null && !productIDs.isEmpty()) {
+            if (productIDs.size() > maxStreamSize) {
+                throw new InvalidInputException("Too many productIds: " + productIDs.size() + ", at most " + maxStreamSize + " can be streamed at once");
+            }
+            requestedIDs = Flux.fromIterable(productIDs).distinct();
+        } else if (from != null && to != null && from <= to) {
+            long count = (long) to - from + 1;
+            if (count > maxStreamSize) {
+                throw new InvalidInputException("Too many productIds: " + count + ", at most " + maxStreamSize + " can be streamed at once");
+            }
+            requestedIDs = Flux.range(from, (int) count);
+        } else {
+            throw new InvalidInputException("Either ids or a range with from <= to must be given");
+        }
+        // at most streamConcurrency fan-outs are in flight, and no more are started than the client has requested
+        return requestedIDs.flatMap(productID -> getProductAggregate(productID)
+                .map(ProductAggregateResult::found)
+                .onErrorResume(exception -> Mono.just(createFailedResult(productID, exception))), streamConcurrency, 1);
+    }
+
+    /**
+     * usage : curl -X POST $HOST:$PORT/product-composite -H "Content-Type: application/json" --data '{"productId":123,"name":"product 123","weight":123,"recommendations":[...],"reviews":[...]}'
+     *
+     * @param body "the composite product, its recommendations and reviews are created once the product is, not atomically"
+     */
+    @Override
+    public Mono<Void> createCompositeProduct(ProductAggregate body) {
+        int productID = body.getProductId();
+        if (productID < 1) {
+            throw new InvalidInputException("Invalid productId: " + productID);
+        }
+        LOGGER.debug("createCompositeProduct: creates a new composite entity for productId: {}", productID);
+        // the product first, so a rejected product leaves no recommendations or reviews behind. nothing is rolled back
+        // when one of the children fails
+        return productCompositeIntegration.createProduct(new Product(productID, body.getName(), body.getWeight(), null))
+                .then(Mono.defer(() -> createChildren(productID, body)))
+                .doFinally(signal -> productAggregateCache.invalidate(productID));
+    }
+
+    /**
+     * all writes run at the same time, each core service folds concurrent writes into one batch
+     */
+    private Mono<Void> createChildren(int productID, ProductAggregate body) {
+        List<Mono<?>> writes = new ArrayList<>();
+        if (body.getRecommendations() != null) {
+            body.getRecommendations().forEach(recommendation -> writes.add(productCompositeIntegration.createRecommendation(
+                    new Recommendation(productID, recommendation.getRecommendationID(), recommendation.getAuthor(), recommendation.getRate(), recommendation.getContent(), null))));
+        }
+        if (body.getReviews() != null) {
+            body.getReviews().forEach(review -> writes.add(productCompositeIntegration.createReview(
+                    new Review(productID, review.getReviewID(), review.getAuthor(), review.getSubject(), review.getContent(), null))));
+        }
+        return Mono.when(writes);
+    }
+
+    /**
+     * usage : curl -X DELETE $HOST:$PORT/product-composite/1
+     *
+     * @param productID "productID: int required"
+     */
+    @Override
+    public Mono<Void> deleteCompositeProduct(int productID) {
+        if (productID < 1) {
+            throw new InvalidInputException("Invalid productId: " + productID);
+        }
+        LOGGER.debug("deleteCompositeProduct: deletes the product, recommendations and reviews of productId: {}", productID);
+        return Mono.when(
+                productCompositeIntegration.deleteProduct(productID),
+                productCompositeIntegration.deleteRecommendations(productID),
+                productCompositeIntegration.deleteReviews(productID))
+                .doFinally(signal -> productAggregateCache.invalidate(productID));
+    }
+
+    private ProductAggregateResult createFailedResult(int productID, Throwable exception) {
+        if (!(exception instanceof NotFoundException) && !(exception instanceof InvalidInputException)) {
+            LOGGER.warn("Failed to create the composite view of productId: {}: {}", productID, exception.getMessage());
+        }
+        return toFailedResult(productID, exception);
+    }
+
+    private static ProductAggregateResult toFailedResult(int productID, Throwable exception) {
+        if (exception instanceof NotFoundException) {
+            return ProductAggregateResult.failed(productID, HttpStatus.NOT_FOUND.value(), exception.getMessage());
+        }
+        if (exception instanceof InvalidInputException) {
+            return ProductAggregateResult.failed(productID, HttpStatus.UNPROCESSABLE_ENTITY.value(), exception.getMessage());
+        }
+        return ProductAggregateResult.failed(productID, HttpStatus.BAD_GATEWAY.value(), exception.getMessage());
+    }
+
+    private ProductAggregateResult createProductAggregateResult(int productID, Map<Integer, Product> products, Map<Integer, Collection<Recommendation>> recommendations, Map<Integer, Collection<Review>> reviews, String serviceAddress) {
+        if (productID < 1) {
+            return ProductAggregateResult.failed(productID, HttpStatus.UNPROCESSABLE_ENTITY.value(), "Invalid productId: " + productID);
+        }
+        Product product = products.get(productID);
         if (product == null) {
-            throw new NotFoundException("No product found for productId: " + productID);
+            return ProductAggregateResult.failed(productID, HttpStatus.NOT_FOUND.value(), "No product found for productId: " + productID);
         }
-        List<Recommendation> recommendations = productCompositeIntegration.getRecommendations(productID);
-        List<Review> reviews = productCompositeIntegration.getReviews(productID);
-        return createProductAggregate(product, recommendations, reviews, serviceUtil.getServiceAddress());
+        return ProductAggregateResult.found(aggregateMetrics.timeCreate(() -> createProductAggregate(product,
+                new ArrayList<>(recommendations.getOrDefault(productID, Collections.emptyList())),
+                new ArrayList<>(reviews.getOrDefault(productID, Collections.emptyList())),
+                serviceAddress)));
     }
 
-    private ProductAggregate createProductAggregate(Product product, List<Recommendation> recommendations, List<Review> reviews, String serviceAddress) {
+    static ProductAggregate createProductAggregate(Product product, List<Recommendation> recommendations, List<Review> reviews, String serviceAddress) {
         int productID = product.getProductID();
         String name = product.getName();
         double weight = product.getWeight();
-        List<RecommendationSummary> recommendationSummaries = (recommendations == null) ? null : recommendations.stream().map(recommendation -> new RecommendationSummary(recommendation.getRecommendationID(), recommendation.getAuthor(), recommendation.getRate())).collect(Collectors.toList());
-        List<ReviewSummary> reviewSummaries = (reviews == null) ? null : reviews.stream().map(review -> new ReviewSummary(review.getReviewID(), review.getAuthor(), review.getSubject())).collect(Collectors.toList());
+        List<RecommendationSummary> recommendationSummaries = (recommendations == null) ? null : recommendations.stream().map(recommendation -> new RecommendationSummary(recommendation.getRecommendationID(), recommendation.getAuthor(), recommendation.getRate(), recommendation.getContent())).collect(Collectors.toList());
+        List<ReviewSummary> reviewSummaries = (reviews == null) ? null : reviews.stream().map(review -> new ReviewSummary(review.getReviewID(), review.getAuthor(), review.getSubject(), review.getContent())).collect(Collectors.toList());
         String serviceProductAddress = product.getServiceAddress();
         String reviewAddress = (reviews != null && !reviews.isEmpty()) ? reviews.get(0).getServiceAddress() : "";
         String recommendationAddress = (recommendations != null && !recommendations.isEmpty()) ? recommendations.get(0).getServiceAddress() : "";
@@ -1,9 +1,17 @@
 package com.jkc.microservices.composite.product;
 
+import com.jkc.microservices.api.composite.product.ProductAggregate;
+import com.jkc.microservices.api.composite.product.ProductAggregateResult;
+import com.jkc.microservices.api.composite.product.RecommendationSummary;
+import com.jkc.microservices.api.composite.product.ReviewSummary;
 import com.jkc.microservices.api.core.product.Product;
 import com.jkc.microservices.api.core.recommendation.Recommendation;
 import com.jkc.microservices.api.core.review.Review;
+import com.jkc.microservices.composite.product.cache.Versioned;
+import com.jkc.microservices.composite.product.resilience.BackendResilience;
 import com.jkc.microservices.composite.product.services.ProductCompositeIntegration;
+import com.jkc.microservices.util.events.ChangeEvent;
+import com.jkc.microservices.util.events.ChangeEventBus;
 import com.jkc.microservices.util.exceptions.InvalidInputException;
 import com.jkc.microservices.util.exceptions.NotFoundException;
 import org.junit.jupiter.api.BeforeEach;
@@ -16,12 +24,31 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
 
-import static java.util.Collections.singletonList;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(SpringExtension.class)
-@WebFluxTest
+@WebFluxTest(properties = "app.change-events.relay.enabled=false")
 class ProductCompositeServiceApplicationTests {
     private static final int PRODUCT_ID_OK = 1;
     private static final int PRODUCT_ID_NOT_FOUND = 2;
@@ -33,19 +60,35 @@ class ProductCompositeServiceApplicationTests {
     @MockBean
     private ProductCompositeIntegration productCompositeIntegration;
 
+    @MockBean
+    private BackendResilience backendResilience;
+
+    @Autowired
+    private ChangeEventBus changeEventBus;
+
     @BeforeEach
     void setUp() {
 
-        when(productCompositeIntegration.getProduct(PRODUCT_ID_OK)).
-                thenReturn(new Product(PRODUCT_ID_OK, "name", 1, "mock-address"));
-        when(productCompositeIntegration.getRecommendations(PRODUCT_ID_OK)).
-                thenReturn(singletonList(new Recommendation(PRODUCT_ID_OK, 1, "author", 1, "content", "mock address")));
-        when(productCompositeIntegration.getReviews(PRODUCT_ID_OK)).
-                thenReturn(singletonList(new Review(PRODUCT_ID_OK, 1, "author", "subject", "content", "mock address")));
+        when(productCompositeIntegration.getVersionedRecommendations(anyInt())).thenReturn(Mono.just(new Versioned<>(List.of(), "\"r0\"")));
+        when(productCompositeIntegration.getVersionedReviews(anyInt())).thenReturn(Mono.just(new Versioned<>(List.of(), "\"v0\"")));
+
+        when(productCompositeIntegration.getVersionedProduct(PRODUCT_ID_OK)).
+                thenReturn(Mono.just(new Versioned<>(new Product(PRODUCT_ID_OK, "name", 1, "mock-address"), "\"p1\"")));
+        when(productCompositeIntegration.getVersionedRecommendations(PRODUCT_ID_OK)).
+                thenReturn(Mono.just(new Versioned<>(List.of(new Recommendation(PRODUCT_ID_OK, 1, "author", 1, "content", "mock address")), "\"r1\"")));
+        when(productCompositeIntegration.getVersionedReviews(PRODUCT_ID_OK)).
+                thenReturn(Mono.just(new Versioned<>(List.of(new Review(PRODUCT_ID_OK, 1, "author", "subject", "content", "mock address")), "\"v1\"")));
 
-        when(productCompositeIntegration.getProduct(PRODUCT_ID_NOT_FOUND)).thenThrow(new NotFoundException("NOT FOUND: " + PRODUCT_ID_NOT_FOUND));
+        when(productCompositeIntegration.getVersionedProduct(PRODUCT_ID_NOT_FOUND)).thenReturn(Mono.error(new NotFoundException("NOT FOUND: " + PRODUCT_ID_NOT_FOUND)));
 
-        when(productCompositeIntegration.getProduct(PRODUCT_ID_INVALID)).thenThrow(new InvalidInputException("INVALID: " + PRODUCT_ID_INVALID));
+        when(productCompositeIntegration.getVersionedProduct(PRODUCT_ID_INVALID)).thenReturn(Mono.error(new InvalidInputException("INVALID: " + PRODUCT_ID_INVALID)));
+
+        when(productCompositeIntegration.getProducts(anyList())).
+                thenReturn(Flux.just(new Product(PRODUCT_ID_OK, "name", 1, "mock-address")));
+        when(productCompositeIntegration.getRecommendations(anyList())).
+                thenReturn(Flux.just(new Recommendation(PRODUCT_ID_OK, 1, "author", 1, "content", "mock address")));
+        when(productCompositeIntegration.getReviews(anyList())).
+                thenReturn(Flux.just(new Review(PRODUCT_ID_OK, 1, "author", "subject", "content", "mock address")));
     }
 
     @Test
@@ -63,6 +106,79 @@ class ProductCompositeServiceApplicationTests {
                 .jsonPath("$.reviews.length()").isEqualTo(1);
     }
 
+    @Test
+    void getProductNotModified() {
+        webTestClient.get()
+                .uri("/product-composite/" + PRODUCT_ID_OK)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", "\"p1+r1+v1\"");
+
+        webTestClient.get()
+                .uri("/product-composite/" + PRODUCT_ID_OK)
+                .ifNoneMatch("\"p1+r1+v1\"")
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+    }
+
+    @Test
+    void getProductWithoutETagWhenAnInputHasNone() {
+        int productID = 5;
+        when(productCompositeIntegration.getVersionedProduct(productID)).thenReturn(Mono.just(new Versioned<>(new Product(productID, "name", 1, "mock-address"), "\"p5\"")));
+        when(productCompositeIntegration.getVersionedReviews(productID)).thenReturn(Mono.just(new Versioned<>(List.of(), null)));
+
+        webTestClient.get()
+                .uri("/product-composite/" + productID)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().doesNotExist("ETag");
+    }
+
+    @Test
+    void getCachedProductIsCompressedOnce() throws IOException {
+        int productID = 6;
+        List<Review> reviews = IntStream.rangeClosed(1, 50)
+                .mapToObj(reviewID -> new Review(productID, reviewID, "author " + reviewID, "subject " + reviewID, "content " + reviewID, "mock address"))
+                .collect(Collectors.toList());
+        when(productCompositeIntegration.getVersionedProduct(productID)).thenReturn(Mono.just(new Versioned<>(new Product(productID, "name", 1, "mock-address"), "\"p6\"")));
+        when(productCompositeIntegration.getVersionedReviews(productID)).thenReturn(Mono.just(new Versioned<>(reviews, "\"v6\"")));
+
+        // the first call loads the aggregate through the controller, the next ones are answered from the cached bytes
+        webTestClient.get().uri("/product-composite/" + productID).exchange().expectStatus().isOk();
+
+        byte[] gzip = webTestClient.get()
+                .uri("/product-composite/" + productID)
+                .header("Accept-Encoding", "gzip, deflate")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectHeader().valueEquals("Content-Encoding", "gzip")
+                .expectHeader().valueEquals("ETag", "\"p6+r0+v6\"")
+                .expectBody().returnResult().getResponseBody();
+        assertNotNull(gzip);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+            assertTrue(new String(in.readAllBytes(), StandardCharsets.UTF_8).contains("\"subject 50\""));
+        }
+
+        webTestClient.get()
+                .uri("/product-composite/" + productID)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().doesNotExist("Content-Encoding")
+                .expectBody()
+                .jsonPath("$.reviews.length()").isEqualTo(50);
+
+        webTestClient.get()
+                .uri("/product-composite/" + productID)
+                .header("Accept-Encoding", "gzip")
+                .ifNoneMatch("\"p6+r0+v6\"")
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+        verify(productCompositeIntegration, times(1)).getVersionedProduct(productID);
+    }
+
     @Test
     void getProductNotFound() {
 
@@ -90,6 +206,142 @@ class ProductCompositeServiceApplicationTests {
                 .jsonPath("$.message").isEqualTo("INVALID: " + PRODUCT_ID_INVALID);
     }
 
+    @Test
+    void getProductsByIds() {
+        webTestClient.get()
+                .uri("/product-composite?ids=" + PRODUCT_ID_OK + "," + PRODUCT_ID_NOT_FOUND + ",-1")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(3)
+                .jsonPath("$[0].status").isEqualTo(200)
+                .jsonPath("$[0].product.productId").isEqualTo(PRODUCT_ID_OK)
+                .jsonPath("$[0].product.reviews.length()").isEqualTo(1)
+                .jsonPath("$[1].productId").isEqualTo(PRODUCT_ID_NOT_FOUND)
+                .jsonPath("$[1].status").isEqualTo(404)
+                .jsonPath("$[2].status").isEqualTo(422);
+    }
+
+    @Test
+    void getProductsByIdsWhenTheProductBatchFails() {
+        when(productCompositeIntegration.getProducts(anyList())).thenReturn(Flux.error(new IllegalStateException("product-service down")));
+        webTestClient.get()
+                .uri("/product-composite?ids=" + PRODUCT_ID_OK + "," + PRODUCT_ID_NOT_FOUND + ",-1")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(3)
+                .jsonPath("$[0].productId").isEqualTo(PRODUCT_ID_OK)
+                .jsonPath("$[0].status").isEqualTo(502)
+                .jsonPath("$[0].message").isEqualTo("product-service down")
+                .jsonPath("$[1].status").isEqualTo(502)
+                .jsonPath("$[2].status").isEqualTo(422);
+    }
+
+    @Test
+    void getProductStream() {
+        Flux<ProductAggregateResult> results = webTestClient.get()
+                .uri("/product-composite/stream?ids=" + PRODUCT_ID_OK + "," + PRODUCT_ID_NOT_FOUND)
+                .accept(MediaType.valueOf("application/x-ndjson"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.valueOf("application/x-ndjson"))
+                .returnResult(ProductAggregateResult.class)
+                .getResponseBody();
+        StepVerifier.create(results.collectMap(ProductAggregateResult::getProductId, ProductAggregateResult::getStatus))
+                .expectNextMatches(statuses -> statuses.size() == 2
+                        && statuses.get(PRODUCT_ID_OK) == 200
+                        && statuses.get(PRODUCT_ID_NOT_FOUND) == 404)
+                .verifyComplete();
+    }
+
+    @Test
+    void getProductStreamWithoutIds() {
+        webTestClient.get()
+                .uri("/product-composite/stream")
+                .accept(MediaType.valueOf("application/x-ndjson"))
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+
+    @Test
+    void createCompositeProduct() {
+        when(productCompositeIntegration.createProduct(any())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(productCompositeIntegration.createRecommendation(any())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(productCompositeIntegration.createReview(any())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        ProductAggregate body = new ProductAggregate(PRODUCT_ID_OK, "name", 1,
+                List.of(new RecommendationSummary(1, "a", 1, "c"), new RecommendationSummary(2, "b", 2, "d")),
+                List.of(new ReviewSummary(1, "a", "s", "c")), null);
+
+        webTestClient.post()
+                .uri("/product-composite")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(body)
+                .exchange()
+                .expectStatus().isOk();
+        verify(productCompositeIntegration).createProduct(argThat(product -> product.getProductID() == PRODUCT_ID_OK && product.getName().equals("name")));
+        verify(productCompositeIntegration, times(2)).createRecommendation(argThat(recommendation -> recommendation.getProductID() == PRODUCT_ID_OK));
+        verify(productCompositeIntegration).createReview(argThat(review -> review.getProductID() == PRODUCT_ID_OK && review.getSubject().equals("s")));
+    }
+
+    @Test
+    void createCompositeProductWritesNoChildrenOfARejectedProduct() {
+        when(productCompositeIntegration.createProduct(any())).thenReturn(Mono.error(new InvalidInputException("The product store is read-only")));
+        ProductAggregate body = new ProductAggregate(PRODUCT_ID_OK, "name", 1,
+                List.of(new RecommendationSummary(1, "a", 1, "c")), List.of(new ReviewSummary(1, "a", "s", "c")), null);
+
+        webTestClient.post()
+                .uri("/product-composite")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(body)
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+        verify(productCompositeIntegration, never()).createRecommendation(any());
+        verify(productCompositeIntegration, never()).createReview(any());
+    }
+
+    @Test
+    void createCompositeProductInvalidId() {
+        webTestClient.post()
+                .uri("/product-composite")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new ProductAggregate(0, "name", 1, null, null, null))
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+
+    @Test
+    void deleteCompositeProduct() {
+        when(productCompositeIntegration.deleteProduct(PRODUCT_ID_OK)).thenReturn(Mono.empty());
+        when(productCompositeIntegration.deleteRecommendations(PRODUCT_ID_OK)).thenReturn(Mono.empty());
+        when(productCompositeIntegration.deleteReviews(PRODUCT_ID_OK)).thenReturn(Mono.empty());
+
+        webTestClient.delete()
+                .uri("/product-composite/" + PRODUCT_ID_OK)
+                .exchange()
+                .expectStatus().isOk();
+        verify(productCompositeIntegration).deleteProduct(PRODUCT_ID_OK);
+        verify(productCompositeIntegration).deleteRecommendations(PRODUCT_ID_OK);
+        verify(productCompositeIntegration).deleteReviews(PRODUCT_ID_OK);
+    }
+
+    @Test
+    void changeEventDropsCachedAggregate() {
+        int productID = 4;
+        when(productCompositeIntegration.getVersionedProduct(productID)).thenReturn(Mono.just(new Versioned<>(new Product(productID, "name", 1, "mock-address"), "\"p4\"")));
+        for (int i = 0; i < 2; i++) {
+            webTestClient.get().uri("/product-composite/" + productID).exchange().expectStatus().isOk();
+        }
+        verify(productCompositeIntegration, times(1)).getVersionedProduct(productID);
+
+        changeEventBus.publish(List.of(new ChangeEvent(productID, ChangeEvent.Type.REVIEW, 1)));
+        webTestClient.get().uri("/product-composite/" + productID).exchange().expectStatus().isOk();
+        verify(productCompositeIntegration, times(2)).getVersionedProduct(productID);
+    }
+
 //	@Test
 //	void contextLoads() {
 //	}
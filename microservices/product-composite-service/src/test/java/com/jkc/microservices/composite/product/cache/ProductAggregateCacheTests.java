@@ -0,0 +1,169 @@
+package com.jkc.microservices.composite.product.cache;
+
+import com.jkc.microservices.api.composite.product.ProductAggregate;
+import com.jkc.microservices.api.composite.product.ServiceAddresses;
+import com.jkc.microservices.util.exceptions.NotFoundException;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductAggregateCacheTests {
+
+    private static final int PRODUCT_ID = 1;
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private Mono<Versioned<ProductAggregate>> load(int productID) {
+        return Mono.fromCallable(() -> {
+            int version = loads.incrementAndGet();
+            return new Versioned<>(new ProductAggregate(productID, "name", 1, Collections.emptyList(), Collections.emptyList(), new ServiceAddresses()), "\"" + version + "\"");
+        }).delayElement(Duration.ofMillis(50));
+    }
+
+    private ProductAggregateCache cache() {
+        ProductAggregateCacheProperties properties = new ProductAggregateCacheProperties();
+        properties.setRefreshAhead(null);
+        return new ProductAggregateCache(properties, null);
+    }
+
+    @Test
+    void concurrentMissesLoadOnce() {
+        ProductAggregateCache cache = cache();
+        StepVerifier.create(Flux.range(0, 1000).flatMap(i -> cache.get(PRODUCT_ID, this::load)).count())
+                .expectNext(1000L)
+                .verifyComplete();
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void failedLoadIsNotCached() {
+        ProductAggregateCache cache = cache();
+        StepVerifier.create(cache.get(PRODUCT_ID, productID -> Mono.error(new NotFoundException("NOT FOUND: " + productID))))
+                .expectError(NotFoundException.class)
+                .verify();
+        StepVerifier.create(cache.get(PRODUCT_ID, this::load))
+                .expectNextMatches(productAggregate -> productAggregate.getBody().getProductId() == PRODUCT_ID && productAggregate.getETag().equals("\"1\""))
+                .verifyComplete();
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void invalidateForcesReload() {
+        ProductAggregateCache cache = cache();
+        cache.get(PRODUCT_ID, this::load).block();
+        cache.get(PRODUCT_ID, this::load).block();
+        cache.invalidate(PRODUCT_ID);
+        cache.get(PRODUCT_ID, this::load).block();
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void invalidateDuringRefreshIsNotUndone() throws InterruptedException {
+        ProductAggregateCacheProperties properties = new ProductAggregateCacheProperties();
+        properties.setRefreshAhead(Duration.ZERO);
+        ProductAggregateCache cache = new ProductAggregateCache(properties, null);
+        cache.get(PRODUCT_ID, this::load).block();
+        // stale as soon as caffeine has recorded the write, the refresh started then completes after the invalidation
+        for (int i = 0; i < 100 && loads.get() < 2; i++) {
+            cache.get(PRODUCT_ID, this::load).block();
+            Thread.sleep(5);
+        }
+        cache.invalidate(PRODUCT_ID);
+        Thread.sleep(200);
+        StepVerifier.create(cache.get(PRODUCT_ID, this::load))
+                .expectNextMatches(productAggregate -> productAggregate.getETag().equals("\"3\""))
+                .verifyComplete();
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void aggregateWithoutETagIsNotCached() {
+        ProductAggregateCache cache = cache();
+        for (int i = 0; i < 2; i++) {
+            StepVerifier.create(cache.get(PRODUCT_ID, productID -> load(productID).map(loaded -> new Versioned<>(loaded.getBody(), null))))
+                    .expectNextMatches(productAggregate -> productAggregate.getETag() == null)
+                    .verifyComplete();
+            assertNull(cache.getIfPresent(PRODUCT_ID));
+        }
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void refreshWithoutETagKeepsTheCachedAggregate() throws InterruptedException {
+        ProductAggregateCacheProperties properties = new ProductAggregateCacheProperties();
+        properties.setRefreshAhead(Duration.ZERO);
+        ProductAggregateCache cache = new ProductAggregateCache(properties, null);
+        cache.get(PRODUCT_ID, this::load).block();
+        for (int i = 0; i < 100 && loads.get() < 2; i++) {
+            cache.get(PRODUCT_ID, productID -> load(productID).map(loaded -> new Versioned<>(loaded.getBody(), null))).block();
+            Thread.sleep(5);
+        }
+        Thread.sleep(200);
+        StepVerifier.create(cache.get(PRODUCT_ID, this::load))
+                .expectNextMatches(productAggregate -> "\"1\"".equals(productAggregate.getETag()))
+                .verifyComplete();
+    }
+
+    @Test
+    void invalidateReleasesEncodedBody() throws InterruptedException {
+        ProductAggregateCache cache = cache();
+        Versioned<ProductAggregate> cached = cache.get(PRODUCT_ID, this::load).block();
+        assertNotNull(cached);
+        EncodedBody encoded = cached.getEncoded(productAggregate -> EncodedBody.encode(productAggregate,
+                (body, out) -> out.write(body.getName().getBytes()), PooledByteBufAllocator.DEFAULT));
+        ByteBuf inFlight = encoded.retainJson();
+        assertNotNull(inFlight);
+
+        cache.invalidate(PRODUCT_ID);
+        // the removal listener runs asynchronously
+        ByteBuf retained;
+        for (int i = 0; i < 100 && (retained = encoded.retainJson()) != null; i++) {
+            retained.release();
+            Thread.sleep(10);
+        }
+        assertNull(encoded.retainJson());
+        // a write that was already under way keeps its bytes until it is done with them
+        assertEquals("name", inFlight.toString(StandardCharsets.UTF_8));
+        assertTrue(inFlight.release());
+    }
+
+    @Test
+    void encodedBodiesCountTowardsMaxBytes() throws InterruptedException {
+        ProductAggregateCacheProperties properties = new ProductAggregateCacheProperties();
+        properties.setRefreshAhead(null);
+        properties.setMaxBytes(30_000);
+        ProductAggregateCache cache = new ProductAggregateCache(properties, null);
+        AtomicInteger encodes = new AtomicInteger();
+        cache.encodeWith(productAggregate -> {
+            encodes.incrementAndGet();
+            return EncodedBody.encode(productAggregate, (body, out) -> out.write(new byte[10_000]), PooledByteBufAllocator.DEFAULT);
+        });
+        List<Versioned<ProductAggregate>> loaded = new ArrayList<>();
+        for (int productID = 1; productID <= 10; productID++) {
+            Versioned<ProductAggregate> productAggregate = cache.get(productID, this::load).block();
+            assertNotNull(productAggregate);
+            loaded.add(productAggregate);
+        }
+        assertEquals(10, encodes.get());
+        // evicted entries release their encoded body, the eviction runs asynchronously
+        for (int i = 0; i < 100 && loaded.stream().filter(productAggregate -> productAggregate.encodedSize() > 0).count() > 2; i++) {
+            Thread.sleep(10);
+        }
+        assertTrue(loaded.stream().filter(productAggregate -> productAggregate.encodedSize() > 0).count() <= 2);
+    }
+}
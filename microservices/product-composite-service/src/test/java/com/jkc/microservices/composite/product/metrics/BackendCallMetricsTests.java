@@ -0,0 +1,60 @@
+package com.jkc.microservices.composite.product.metrics;
+
+import com.jkc.microservices.composite.product.resilience.Backend;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BackendCallMetricsTests {
+
+    private final PrometheusMeterRegistry meterRegistry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+    private final BackendCallMetrics backendCallMetrics = new BackendCallMetrics(meterRegistry);
+
+    @Test
+    void tagsTheStatusOfTheResponse() {
+        StepVerifier.create(backendCallMetrics.time(Backend.PRODUCT, "getProduct", call(HttpStatus.OK))).expectNext("{}").verifyComplete();
+        StepVerifier.create(backendCallMetrics.time(Backend.PRODUCT, "getProduct", call(HttpStatus.NOT_FOUND))).verifyError(WebClientResponseException.class);
+        StepVerifier.create(backendCallMetrics.time(Backend.PRODUCT, "getProduct", call(HttpStatus.SERVICE_UNAVAILABLE))).verifyError(WebClientResponseException.class);
+
+        assertEquals(1, timer("SUCCESS", "200").count());
+        assertEquals(1, timer("CLIENT_ERROR", "404").count());
+        assertEquals(1, timer("SERVER_ERROR", "503").count());
+        assertTrue(meterRegistry.scrape().contains("composite_backend_calls_seconds_bucket{backend=\"product\",operation=\"getProduct\",outcome=\"SUCCESS\",status=\"200\","));
+    }
+
+    @Test
+    void callsWithoutResponseHaveNoStatus() {
+        StepVerifier.create(backendCallMetrics.time(Backend.REVIEW, "getReviews", Mono.never().timeout(Duration.ofMillis(10)))).verifyError();
+        StepVerifier.create(backendCallMetrics.time(Backend.REVIEW, "getReviews", Mono.never())).thenCancel().verify();
+
+        assertEquals(1, meterRegistry.get(BackendCallMetrics.METRIC_NAME).tag("backend", "review").tag("outcome", "TIMEOUT").tag("status", "NONE").timer().count());
+        assertEquals(1, meterRegistry.get(BackendCallMetrics.METRIC_NAME).tag("backend", "review").tag("outcome", "CANCELLED").tag("status", "NONE").timer().count());
+    }
+
+    private static Mono<String> call(HttpStatus status) {
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(request -> Mono.just(ClientResponse.create(status)
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE).body("{}").build()))
+                .filter(BackendCallMetrics.STATUS_FILTER)
+                .build();
+        return webClient.get().uri("http://product/product/1").retrieve().bodyToMono(String.class);
+    }
+
+    private Timer timer(String outcome, String status) {
+        return meterRegistry.get(BackendCallMetrics.METRIC_NAME).tag("backend", "product").tag("outcome", outcome).tag("status", status).timer();
+    }
+}
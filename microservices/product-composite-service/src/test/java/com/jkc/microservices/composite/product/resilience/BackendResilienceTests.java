@@ -0,0 +1,39 @@
+package com.jkc.microservices.composite.product.resilience;
+
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+class BackendResilienceTests {
+
+    private final BackendResilience backendResilience = new BackendResilience(
+            CircuitBreakerRegistry.ofDefaults(),
+            BulkheadRegistry.ofDefaults(),
+            TimeLimiterRegistry.of(TimeLimiterConfig.custom().timeoutDuration(Duration.ofMillis(300)).build()),
+            new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+
+    @Test
+    void deadlineBoundsTheWholeFlux() {
+        // every element arrives well within the deadline, all of them do not
+        Flux<Long> call = Flux.interval(Duration.ofMillis(100)).take(5);
+        StepVerifier.create(backendResilience.decorate(Backend.REVIEW, call))
+                .expectError(TimeoutException.class)
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void fluxWithinTheDeadlineKeepsItsElements() {
+        StepVerifier.create(backendResilience.decorate(Backend.REVIEW, Flux.just(1, 2, 3)))
+                .expectNext(1, 2, 3)
+                .verifyComplete();
+    }
+}
@@ -0,0 +1,81 @@
+package com.jkc.microservices.composite.product.resilience;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RequestHedgerTests {
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    private RequestHedger hedger(double budgetRatio, int maxBurst) {
+        HedgingProperties properties = new HedgingProperties();
+        properties.setEnabled(true);
+        properties.setMaxDelay(Duration.ofMillis(50));
+        properties.setBudgetRatio(budgetRatio);
+        properties.setMaxBurst(maxBurst);
+        return new RequestHedger(properties, null);
+    }
+
+    /**
+     * the first call takes the given latency, every later one answers right away
+     */
+    private Mono<String> call(Duration firstLatency) {
+        return Mono.defer(() -> calls.incrementAndGet() == 1
+                ? Mono.just("primary").delayElement(firstLatency)
+                : Mono.just("hedge"));
+    }
+
+    @Test
+    void fastCallIsNotHedged() {
+        RequestHedger hedger = hedger(1, 1);
+        StepVerifier.create(hedger.hedge(Backend.REVIEW, () -> call(Duration.ZERO)))
+                .expectNext("primary")
+                .verifyComplete();
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void slowCallIsHedged() {
+        RequestHedger hedger = hedger(1, 1);
+        StepVerifier.create(hedger.hedge(Backend.REVIEW, () -> call(Duration.ofSeconds(5))))
+                .expectNext("hedge")
+                .verifyComplete();
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void slowCallIsNotHedgedWithoutBudget() {
+        RequestHedger hedger = hedger(0, 1);
+        StepVerifier.create(hedger.hedge(Backend.REVIEW, () -> call(Duration.ofMillis(200))))
+                .expectNext("primary")
+                .verifyComplete();
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void primaryFailingAfterTheHedgeWasSentLetsTheHedgeWin() {
+        RequestHedger hedger = hedger(1, 1);
+        StepVerifier.create(hedger.hedge(Backend.REVIEW, () -> Mono.defer(() -> calls.incrementAndGet() == 1
+                        ? Mono.<String>error(new IllegalStateException("primary")).delaySubscription(Duration.ofMillis(100))
+                        : Mono.just("hedge").delayElement(Duration.ofMillis(200)))))
+                .expectNext("hedge")
+                .verifyComplete();
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void failsWhenBothCallsFailed() {
+        RequestHedger hedger = hedger(1, 1);
+        StepVerifier.create(hedger.hedge(Backend.REVIEW, () -> Mono.<String>error(new IllegalStateException("call " + calls.incrementAndGet()))
+                        .delaySubscription(Duration.ofMillis(100))))
+                .expectErrorMessage("call 2")
+                .verify(Duration.ofSeconds(5));
+        assertEquals(2, calls.get());
+    }
+}
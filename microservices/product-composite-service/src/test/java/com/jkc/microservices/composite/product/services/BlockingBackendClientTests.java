@@ -0,0 +1,98 @@
+package com.jkc.microservices.composite.product.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Hooks;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class BlockingBackendClientTests {
+
+    private DisposableServer server;
+    private BlockingBackendClient client;
+
+    @BeforeEach
+    void setUp() {
+        server = HttpServer.create().host("localhost").port(0)
+                .route(routes -> routes
+                        .get("/product/1", (request, response) -> "\"p1\"".equals(request.requestHeaders().get("If-None-Match"))
+                                ? response.status(304).send()
+                                : response.header("ETag", "\"p1\"").sendString(Mono.just("{\"productID\":1}")).then())
+                        .get("/slow", (request, response) -> Mono.delay(Duration.ofSeconds(10)).then()))
+                .bindNow();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (client != null) {
+            client.dispose();
+        }
+        server.disposeNow();
+    }
+
+    @Test
+    void callsOnAVirtualThread() {
+        assumeTrue(BlockingBackendClient.isVirtualThreadsAvailable());
+        client = new BlockingBackendClient(ExecutionMode.VIRTUAL_THREADS, Duration.ofSeconds(1), Duration.ofSeconds(1));
+        AtomicBoolean virtual = new AtomicBoolean();
+
+        StepVerifier.create(client.get(url("/product/1"), null, response -> {
+            virtual.set(isVirtual(Thread.currentThread()));
+            return response.statusCode() + " " + response.headers().firstValue("ETag").orElse(null);
+        })).expectNext("200 \"p1\"").verifyComplete();
+        assertTrue(virtual.get());
+
+        StepVerifier.create(client.get(url("/product/1"), "\"p1\"", response -> response.statusCode()))
+                .expectNext(304)
+                .verifyComplete();
+    }
+
+    @Test
+    void cancelledCallsFailForNobody() throws InterruptedException {
+        assumeTrue(BlockingBackendClient.isVirtualThreadsAvailable());
+        client = new BlockingBackendClient(ExecutionMode.VIRTUAL_THREADS, Duration.ofSeconds(1), Duration.ofSeconds(30));
+        AtomicReference<Throwable> dropped = new AtomicReference<>();
+        Hooks.onErrorDropped(dropped::set);
+        try {
+            // the deadline cancels the call, which interrupts its virtual thread
+            StepVerifier.create(client.get(url("/slow"), null, response -> response.statusCode()).timeout(Duration.ofMillis(200), Mono.just(0)))
+                    .expectNext(0)
+                    .verifyComplete();
+            Thread.sleep(200);
+            assertNull(dropped.get());
+        } finally {
+            Hooks.resetOnErrorDropped();
+        }
+    }
+
+    @Test
+    void virtualThreadsFailToStartBeforeJava21() {
+        assumeFalse(BlockingBackendClient.isVirtualThreadsAvailable());
+        assertThrows(IllegalStateException.class, () -> new BlockingBackendClient(ExecutionMode.VIRTUAL_THREADS, Duration.ofSeconds(1), Duration.ofSeconds(1)));
+    }
+
+    private static boolean isVirtual(Thread thread) {
+        try {
+            return (Boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+        } catch (ReflectiveOperationException e) {
+            return false;
+        }
+    }
+
+    private String url(String path) {
+        return "http://localhost:" + server.port() + path;
+    }
+}
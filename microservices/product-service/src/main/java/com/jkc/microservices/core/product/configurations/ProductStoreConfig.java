@@ -0,0 +1,144 @@
+package com.jkc.microservices.core.product.configurations;
+
+import com.jkc.microservices.core.product.persistence.InMemoryProductRepository;
+import com.jkc.microservices.core.product.persistence.JdbcProductRepository;
+import com.jkc.microservices.core.product.persistence.ProductImporter;
+import com.jkc.microservices.core.product.persistence.ProductReadCache;
+import com.jkc.microservices.core.product.persistence.ProductRepository;
+import com.jkc.microservices.core.product.persistence.ProductSnapshotWriter;
+import com.jkc.microservices.core.product.persistence.ProductStoreProperties;
+import com.jkc.microservices.core.product.persistence.ProductWrite;
+import com.jkc.microservices.core.product.persistence.SnapshotProductRepository;
+import com.jkc.microservices.util.batch.WriteBatchProperties;
+import com.jkc.microservices.util.batch.WriteBatcher;
+import com.jkc.microservices.util.events.ChangeEvent;
+import com.jkc.microservices.util.events.ChangeEventBus;
+import com.jkc.microservices.util.events.ChangeEventProperties;
+import com.jkc.microservices.util.events.ChangeEventPublisher;
+import com.jkc.microservices.util.http.ProductVersions;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * product store selected by app.product-store.type (memory, jdbc or snapshot), filled from app.product-store.import.location
+ * before the server starts taking requests, with a read-through cache in front of it and batched writes behind it
+ */
+@Configuration
+public class ProductStoreConfig {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProductStoreConfig.class);
+
+    @Bean
+    @ConfigurationProperties("app.product-store")
+    ProductStoreProperties productStoreProperties() {
+        return new ProductStoreProperties();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.product-store.type", havingValue = "memory", matchIfMissing = true)
+    ProductRepository inMemoryProductRepository(ProductStoreProperties productStoreProperties, ResourceLoader resourceLoader) throws IOException {
+        return importProducts(new InMemoryProductRepository(productStoreProperties.getInitialCapacity()), productStoreProperties.getImport(), resourceLoader);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.product-store.type", havingValue = "jdbc")
+    ProductRepository jdbcProductRepository(NamedParameterJdbcTemplate jdbcTemplate, ProductStoreProperties productStoreProperties, ResourceLoader resourceLoader) throws IOException {
+        return importProducts(new JdbcProductRepository(jdbcTemplate), productStoreProperties.getImport(), resourceLoader);
+    }
+
+    /**
+     * a missing snapshot file is built from the import location, so a fresh instance can start from the csv catalog
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "app.product-store.type", havingValue = "snapshot")
+    ProductRepository snapshotProductRepository(ProductStoreProperties productStoreProperties, ResourceLoader resourceLoader) throws IOException {
+        ProductStoreProperties.Snapshot snapshot = productStoreProperties.getSnapshot();
+        Path path = Path.of(snapshot.getPath());
+        if (Files.notExists(path)) {
+            InMemoryProductRepository catalog = importProducts(new InMemoryProductRepository(productStoreProperties.getInitialCapacity()), productStoreProperties.getImport(), resourceLoader);
+            ProductSnapshotWriter.write(catalog.findAll(), path);
+            LOGGER.info("wrote product snapshot {} with {} products", path, catalog.count());
+        }
+        return new SnapshotProductRepository(path, snapshot.getReloadInterval());
+    }
+
+    @Bean
+    ProductReadCache productReadCache(ProductRepository productRepository, ProductStoreProperties productStoreProperties, ObjectProvider<MeterRegistry> meterRegistry) {
+        return new ProductReadCache(productRepository, productStoreProperties.getCache(), meterRegistry.getIfAvailable());
+    }
+
+    /**
+     * etags of the stored products, a swapped in snapshot replaces every product at once
+     */
+    @Bean
+    ProductVersions productVersions(ProductRepository productRepository, ProductReadCache productReadCache, ProductStoreProperties productStoreProperties) {
+        ProductVersions productVersions = new ProductVersions(productStoreProperties.getInitialCapacity());
+        if (productRepository instanceof SnapshotProductRepository) {
+            ((SnapshotProductRepository) productRepository).onSwap(() -> {
+                productReadCache.invalidateAll();
+                productVersions.changedAll();
+            });
+        }
+        return productVersions;
+    }
+
+    @Bean
+    @ConfigurationProperties("app.write-batch")
+    WriteBatchProperties writeBatchProperties() {
+        return new WriteBatchProperties();
+    }
+
+    @Bean(destroyMethod = "close")
+    ChangeEventPublisher productChangeEventPublisher(ChangeEventBus changeEventBus, ChangeEventProperties changeEventProperties) {
+        return new ChangeEventPublisher(ChangeEvent.Type.PRODUCT, changeEventBus, changeEventProperties);
+    }
+
+    /**
+     * creates and deletes are persisted in batches, the cached copies of the written products are dropped afterwards,
+     * then their etags change and a change event is published for each of them
+     */
+    @Bean(destroyMethod = "close")
+    WriteBatcher<ProductWrite> productWriteBatcher(ProductRepository productRepository, ProductReadCache productReadCache, ProductVersions productVersions,
+                                                   WriteBatchProperties writeBatchProperties, ChangeEventPublisher productChangeEventPublisher) {
+        return new WriteBatcher<>("product", writeBatchProperties, writes -> {
+            productRepository.writeAll(writes);
+            writes.forEach(write -> {
+                productReadCache.invalidate(write.getProductID());
+                productVersions.changed(write.getProductID());
+                productChangeEventPublisher.changed(write.getProductID());
+            });
+        });
+    }
+
+    private static <R extends ProductRepository> R importProducts(R repository, ProductStoreProperties.Import settings, ResourceLoader resourceLoader) throws IOException {
+        if (settings.getLocation() == null || settings.getLocation().isBlank()) {
+            return repository;
+        }
+        if (settings.isOnlyIfEmpty() && repository.count() > 0) {
+            LOGGER.info("product store already holds {} products, skipping import of {}", repository.count(), settings.getLocation());
+            return repository;
+        }
+        Resource resource = resourceLoader.getResource(settings.getLocation());
+        try (Reader reader = new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8)) {
+            long imported = new ProductImporter(repository, settings.getBatchSize()).importCsv(reader);
+            LOGGER.info("imported {} products from {}", imported, settings.getLocation());
+        }
+        return repository;
+    }
+}
@@ -0,0 +1,64 @@
+package com.jkc.microservices.core.product.persistence;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * heap backed store, the map is the primary-key index. nothing survives a restart, the catalog is imported at startup
+ */
+public class InMemoryProductRepository implements ProductRepository {
+    private final Map<Integer, ProductEntity> products;
+
+    public InMemoryProductRepository(int initialCapacity) {
+        this.products = new ConcurrentHashMap<>(initialCapacity);
+    }
+
+    @Override
+    public Optional<ProductEntity> findByProductID(int productID) {
+        return Optional.ofNullable(products.get(productID));
+    }
+
+    @Override
+    public Map<Integer, ProductEntity> findAllByProductID(Collection<Integer> productIDs) {
+        Map<Integer, ProductEntity> found = new HashMap<>();
+        for (Integer productID : productIDs) {
+            ProductEntity product = products.get(productID);
+            if (product != null) {
+                found.put(productID, product);
+            }
+        }
+        return found;
+    }
+
+    public Collection<ProductEntity> findAll() {
+        return products.values();
+    }
+
+    @Override
+    public void save(ProductEntity product) {
+        products.put(product.getProductID(), product);
+    }
+
+    @Override
+    public void saveAll(Collection<ProductEntity> products) {
+        products.forEach(this::save);
+    }
+
+    @Override
+    public void deleteAll(Collection<Integer> productIDs) {
+        productIDs.forEach(products::remove);
+    }
+
+    @Override
+    public long count() {
+        return products.size();
+    }
+
+    @Override
+    public boolean servesFromMemory() {
+        return true;
+    }
+}
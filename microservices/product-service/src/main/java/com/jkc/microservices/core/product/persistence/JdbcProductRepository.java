@@ -0,0 +1,110 @@
+package com.jkc.microservices.core.product.persistence;
+
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * relational store, product_id is the primary key so lookups are index seeks. the table is created on startup when it
+ * is missing; with the bundled H2 driver spring.datasource.url decides between an in-memory and a file database
+ */
+public class JdbcProductRepository implements ProductRepository {
+
+    private static final int IN_CLAUSE_CHUNK = 500;
+    private static final RowMapper<ProductEntity> ROW_MAPPER = (resultSet, rowNum) ->
+            new ProductEntity(resultSet.getInt("product_id"), resultSet.getString("name"), resultSet.getDouble("weight"));
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public JdbcProductRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        jdbcTemplate.getJdbcOperations().execute("CREATE TABLE IF NOT EXISTS products ("
+                + "product_id INT PRIMARY KEY, "
+                + "name VARCHAR(" + ProductEntity.MAX_NAME_LENGTH + ") NOT NULL, "
+                + "weight DOUBLE PRECISION NOT NULL)");
+    }
+
+    @Override
+    public Optional<ProductEntity> findByProductID(int productID) {
+        List<ProductEntity> found = jdbcTemplate.query("SELECT product_id, name, weight FROM products WHERE product_id = :productID",
+                new MapSqlParameterSource("productID", productID), ROW_MAPPER);
+        return found.stream().findFirst();
+    }
+
+    @Override
+    public Map<Integer, ProductEntity> findAllByProductID(Collection<Integer> productIDs) {
+        Map<Integer, ProductEntity> found = new HashMap<>();
+        List<Integer> ids = new ArrayList<>(productIDs);
+        for (int from = 0; from < ids.size(); from += IN_CLAUSE_CHUNK) {
+            List<Integer> chunk = ids.subList(from, Math.min(from + IN_CLAUSE_CHUNK, ids.size()));
+            jdbcTemplate.query("SELECT product_id, name, weight FROM products WHERE product_id IN (:productIDs)",
+                    new MapSqlParameterSource("productIDs", chunk), ROW_MAPPER)
+                    .forEach(product -> found.put(product.getProductID(), product));
+        }
+        return found;
+    }
+
+    @Override
+    public void save(ProductEntity product) {
+        saveAll(List.of(product));
+    }
+
+    /**
+     * update-then-insert in two batches rather than a vendor specific MERGE, so any JDBC database works
+     */
+    @Override
+    public void saveAll(Collection<ProductEntity> products) {
+        if (products.isEmpty()) {
+            return;
+        }
+        List<ProductEntity> batch = new ArrayList<>(products);
+        int[] updated = jdbcTemplate.batchUpdate("UPDATE products SET name = :name, weight = :weight WHERE product_id = :productID",
+                parameters(batch));
+        List<ProductEntity> inserts = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                inserts.add(batch.get(i));
+            }
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO products (product_id, name, weight) VALUES (:productID, :name, :weight)",
+                    parameters(inserts));
+        }
+    }
+
+    @Override
+    public void deleteAll(Collection<Integer> productIDs) {
+        List<Integer> ids = new ArrayList<>(productIDs);
+        for (int from = 0; from < ids.size(); from += IN_CLAUSE_CHUNK) {
+            List<Integer> chunk = ids.subList(from, Math.min(from + IN_CLAUSE_CHUNK, ids.size()));
+            jdbcTemplate.update("DELETE FROM products WHERE product_id IN (:productIDs)", new MapSqlParameterSource("productIDs", chunk));
+        }
+    }
+
+    @Override
+    public long count() {
+        Long count = jdbcTemplate.getJdbcOperations().queryForObject("SELECT COUNT(*) FROM products", Long.class);
+        return count == null ? 0 : count;
+    }
+
+    @Override
+    public boolean isBlocking() {
+        return true;
+    }
+
+    private static SqlParameterSource[] parameters(List<ProductEntity> products) {
+        return products.stream()
+                .map(product -> new MapSqlParameterSource()
+                        .addValue("productID", product.getProductID())
+                        .addValue("name", product.getName())
+                        .addValue("weight", product.getWeight()))
+                .toArray(SqlParameterSource[]::new);
+    }
+}
@@ -0,0 +1,33 @@
+package com.jkc.microservices.core.product.persistence;
+
+/**
+ * a stored product, the serviceAddress of the api model is added by the service on the way out
+ */
+public class ProductEntity {
+    /**
+     * the longest name every repository can store
+     */
+    public static final int MAX_NAME_LENGTH = 255;
+
+    private final int productID;
+    private final String name;
+    private final double weight;
+
+    public ProductEntity(int productID, String name, double weight) {
+        this.productID = productID;
+        this.name = name;
+        this.weight = weight;
+    }
+
+    public int getProductID() {
+        return productID;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public double getWeight() {
+        return weight;
+    }
+}
@@ -0,0 +1,63 @@
+package com.jkc.microservices.core.product.persistence;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * bulk import of productID,name,weight lines into a {@link ProductRepository}, written in batches of batchSize.
+ * a header line, blank lines and lines starting with # are skipped; the name may contain commas
+ */
+public class ProductImporter {
+
+    private final ProductRepository repository;
+    private final int batchSize;
+
+    public ProductImporter(ProductRepository repository, int batchSize) {
+        this.repository = repository;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * @return the number of imported products
+     */
+    public long importCsv(Reader reader) throws IOException {
+        long imported = 0;
+        List<ProductEntity> batch = new ArrayList<>(batchSize);
+        BufferedReader lines = new BufferedReader(reader);
+        int lineNumber = 0;
+        for (String line = lines.readLine(); line != null; line = lines.readLine()) {
+            lineNumber++;
+            line = line.strip();
+            if (line.isEmpty() || line.startsWith("#") || (lineNumber == 1 && !Character.isDigit(line.charAt(0)))) {
+                continue;
+            }
+            batch.add(parse(line, lineNumber));
+            if (batch.size() == batchSize) {
+                repository.saveAll(batch);
+                imported += batch.size();
+                batch.clear();
+            }
+        }
+        repository.saveAll(batch);
+        imported += batch.size();
+        return imported;
+    }
+
+    private static ProductEntity parse(String line, int lineNumber) {
+        int first = line.indexOf(',');
+        int last = line.lastIndexOf(',');
+        if (first < 0 || first == last) {
+            throw new IllegalArgumentException("Line " + lineNumber + " is not productID,name,weight: " + line);
+        }
+        try {
+            return new ProductEntity(Integer.parseInt(line.substring(0, first).strip()),
+                    line.substring(first + 1, last).strip(),
+                    Double.parseDouble(line.substring(last + 1).strip()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Line " + lineNumber + " is not productID,name,weight: " + line, e);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.jkc.microservices.core.product.persistence;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+
+/**
+ * read-through cache in front of the {@link ProductRepository}. hits complete on the calling thread, misses are
+ * loaded in bulk and, for a blocking store, on the bounded elastic scheduler so the event loop never waits on I/O.
+ * concurrent misses on one productID share a single load, each caller gets a copy of it so a cancelled request does
+ * not cancel the load for the others. stores that already serve from memory, and a disabled cache, are read directly.
+ */
+public class ProductReadCache {
+
+    private static final String CACHE_NAME = "product";
+    private final ProductRepository repository;
+    private final AsyncLoadingCache<Integer, Optional<ProductEntity>> cache;
+
+    public ProductReadCache(ProductRepository repository, ProductStoreProperties.Cache properties, MeterRegistry meterRegistry) {
+        this.repository = repository;
+        if (!properties.isEnabled() || repository.servesFromMemory()) {
+            this.cache = null;
+            return;
+        }
+        Executor executor = repository.isBlocking() ? runnable -> Schedulers.boundedElastic().schedule(runnable) : Runnable::run;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxEntries())
+                .expireAfterWrite(properties.getTtl())
+                .executor(executor)
+                .recordStats()
+                .buildAsync(new CacheLoader<>() {
+                    @Override
+                    public Optional<ProductEntity> load(Integer productID) {
+                        return repository.findByProductID(productID);
+                    }
+
+                    @Override
+                    public Map<Integer, Optional<ProductEntity>> loadAll(Iterable<? extends Integer> productIDs) {
+                        List<Integer> ids = new ArrayList<>();
+                        productIDs.forEach(ids::add);
+                        Map<Integer, ProductEntity> found = repository.findAllByProductID(ids);
+                        Map<Integer, Optional<ProductEntity>> loaded = new HashMap<>();
+                        ids.forEach(productID -> loaded.put(productID, Optional.ofNullable(found.get(productID))));
+                        return loaded;
+                    }
+                });
+        if (meterRegistry != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        }
+    }
+
+    public Mono<ProductEntity> find(int productID) {
+        if (cache == null) {
+            return offload(Mono.fromCallable(() -> repository.findByProductID(productID))).flatMap(Mono::justOrEmpty);
+        }
+        return Mono.defer(() -> Mono.fromFuture(cache.get(productID).copy())).flatMap(Mono::justOrEmpty);
+    }
+
+    /**
+     * @return the found products in the order of productIDs, ids without a product are left out
+     */
+    public Flux<ProductEntity> findAll(List<Integer> productIDs) {
+        if (cache == null) {
+            return offload(Mono.fromCallable(() -> repository.findAllByProductID(productIDs)))
+                    .flatMapIterable(found -> productIDs.stream()
+                            .map(found::get)
+                            .filter(Objects::nonNull)
+                            .collect(Collectors.toList()));
+        }
+        return Mono.defer(() -> Mono.fromFuture(cache.getAll(productIDs).copy()))
+                .flatMapIterable(found -> productIDs.stream()
+                        .map(found::get)
+                        .flatMap(Optional::stream)
+                        .collect(Collectors.toList()));
+    }
+
+    public void invalidate(int productID) {
+        if (cache != null) {
+            cache.synchronous().invalidate(productID);
+        }
+    }
+
+    public void invalidateAll() {
+        if (cache != null) {
+            cache.synchronous().invalidateAll();
+        }
+    }
+
+    private <T> Mono<T> offload(Mono<T> call) {
+        return repository.isBlocking() ? call.subscribeOn(Schedulers.boundedElastic()) : call;
+    }
+}
@@ -0,0 +1,84 @@
+package com.jkc.microservices.core.product.persistence;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * product storage keyed by productID, the primary key of every backend.
+ * the backend is picked with app.product-store.type, reads normally go through {@link ProductReadCache}
+ */
+public interface ProductRepository {
+
+    Optional<ProductEntity> findByProductID(int productID);
+
+    /**
+     * @return the stored products keyed by productID, ids without a product are left out
+     */
+    Map<Integer, ProductEntity> findAllByProductID(Collection<Integer> productIDs);
+
+    /**
+     * inserts the product or replaces the one stored under the same productID
+     */
+    void save(ProductEntity product);
+
+    /**
+     * bulk variant of {@link #save(ProductEntity)}, used by the importer
+     */
+    void saveAll(Collection<ProductEntity> products);
+
+    /**
+     * deletes the products, ids without a product are ignored
+     */
+    void deleteAll(Collection<Integer> productIDs);
+
+    /**
+     * applies a batch of queued writes with one bulk save and one bulk delete, a productID written more than once
+     * keeps its last write
+     */
+    default void writeAll(List<ProductWrite> writes) {
+        Map<Integer, ProductWrite> lastWrites = new LinkedHashMap<>();
+        writes.forEach(write -> lastWrites.put(write.getProductID(), write));
+        List<ProductEntity> saves = new ArrayList<>();
+        List<Integer> deletes = new ArrayList<>();
+        for (ProductWrite write : lastWrites.values()) {
+            if (write.getProduct() != null) {
+                saves.add(write.getProduct());
+            } else {
+                deletes.add(write.getProductID());
+            }
+        }
+        if (!saves.isEmpty()) {
+            saveAll(saves);
+        }
+        if (!deletes.isEmpty()) {
+            deleteAll(deletes);
+        }
+    }
+
+    long count();
+
+    /**
+     * true when calls may block on I/O, {@link ProductReadCache} then runs loads off the event loop
+     */
+    default boolean isBlocking() {
+        return false;
+    }
+
+    /**
+     * true when reads are already served from memory, {@link ProductReadCache} then reads through without caching
+     */
+    default boolean servesFromMemory() {
+        return false;
+    }
+
+    /**
+     * true when the store rejects writes, the service then refuses them up front
+     */
+    default boolean isReadOnly() {
+        return false;
+    }
+}
@@ -0,0 +1,104 @@
+package com.jkc.microservices.core.product.persistence;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * a read-only, memory-mapped catalog file written by {@link ProductSnapshotWriter}. layout, little-endian:
+ * <pre>
+ * header   magic int, version int, count int, reserved int, stringsOffset long, stringsLength long
+ * records  count x (productID int, weight double, nameOffset int, nameLength int), sorted by productID
+ * strings  the utf-8 encoded names the records point into
+ * </pre>
+ * opening only maps the file, the sorted records are the index and lookups binary search them in place,
+ * so neither startup time nor heap use grow with the number of products
+ */
+public final class ProductSnapshot {
+
+    static final int MAGIC = 0x50435331;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int RECORD_SIZE = 20;
+    private static final ThreadLocal<byte[]> NAME_BUFFER = ThreadLocal.withInitial(() -> new byte[256]);
+
+    private final Path path;
+    private final int count;
+    private final ByteBuffer records;
+    private final ByteBuffer strings;
+
+    private ProductSnapshot(Path path, int count, ByteBuffer records, ByteBuffer strings) {
+        this.path = path;
+        this.count = count;
+        this.records = records;
+        this.strings = strings;
+    }
+
+    public static ProductSnapshot open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_SIZE) {
+                throw new IOException("Not a product snapshot, too short: " + path);
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                throw new IOException("Not a version " + VERSION + " product snapshot: " + path);
+            }
+            int count = header.getInt(8);
+            long recordsLength = (long) count * RECORD_SIZE;
+            long stringsOffset = header.getLong(16);
+            long stringsLength = header.getLong(24);
+            if (stringsOffset != HEADER_SIZE + recordsLength || stringsOffset + stringsLength != fileSize) {
+                throw new IOException("Product snapshot is truncated or corrupt: " + path);
+            }
+            // the mappings stay valid after the channel is closed and are released when the snapshot is collected
+            MappedByteBuffer records = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, recordsLength);
+            MappedByteBuffer strings = channel.map(FileChannel.MapMode.READ_ONLY, stringsOffset, stringsLength);
+            return new ProductSnapshot(path, count, records.order(ByteOrder.LITTLE_ENDIAN), strings);
+        }
+    }
+
+    /**
+     * @return the product, or null when the snapshot has no product with this productID
+     */
+    public ProductEntity find(int productID) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int position = middle * RECORD_SIZE;
+            int candidate = records.getInt(position);
+            if (candidate < productID) {
+                low = middle + 1;
+            } else if (candidate > productID) {
+                high = middle - 1;
+            } else {
+                return new ProductEntity(productID, name(records.getInt(position + 12), records.getInt(position + 16)), records.getDouble(position + 4));
+            }
+        }
+        return null;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    private String name(int offset, int length) {
+        byte[] buffer = NAME_BUFFER.get();
+        if (buffer.length < length) {
+            buffer = new byte[Math.max(length, buffer.length * 2)];
+            NAME_BUFFER.set(buffer);
+        }
+        strings.get(offset, buffer, 0, length);
+        return new String(buffer, 0, length, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,100 @@
+package com.jkc.microservices.core.product.persistence;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * writes a {@link ProductSnapshot} file. the file is written next to the target and then renamed over it, so a running
+ * {@link SnapshotProductRepository} never sees a half written snapshot; when a productID occurs twice the last one wins
+ */
+public final class ProductSnapshotWriter {
+
+    private static final int CHUNK = 64 * 1024;
+
+    private ProductSnapshotWriter() {
+    }
+
+    public static void write(Collection<ProductEntity> products, Path target) throws IOException {
+        List<ProductEntity> sorted = new ArrayList<>(products);
+        sorted.sort(Comparator.comparingInt(ProductEntity::getProductID));
+        List<ProductEntity> unique = new ArrayList<>(sorted.size());
+        for (ProductEntity product : sorted) {
+            if (!unique.isEmpty() && unique.get(unique.size() - 1).getProductID() == product.getProductID()) {
+                unique.set(unique.size() - 1, product);
+            } else {
+                unique.add(product);
+            }
+        }
+
+        List<byte[]> names = new ArrayList<>(unique.size());
+        long stringsLength = 0;
+        for (ProductEntity product : unique) {
+            byte[] name = product.getName().getBytes(StandardCharsets.UTF_8);
+            names.add(name);
+            stringsLength += name.length;
+        }
+        if (stringsLength > Integer.MAX_VALUE || (long) unique.size() * ProductSnapshot.RECORD_SIZE > Integer.MAX_VALUE) {
+            throw new IOException("Catalog too large for a single snapshot: " + unique.size() + " products");
+        }
+
+        Path directory = target.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(CHUNK).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(ProductSnapshot.MAGIC)
+                    .putInt(ProductSnapshot.VERSION)
+                    .putInt(unique.size())
+                    .putInt(0)
+                    .putLong(ProductSnapshot.HEADER_SIZE + (long) unique.size() * ProductSnapshot.RECORD_SIZE)
+                    .putLong(stringsLength);
+            int nameOffset = 0;
+            for (int i = 0; i < unique.size(); i++) {
+                if (buffer.remaining() < ProductSnapshot.RECORD_SIZE) {
+                    flush(buffer, channel);
+                }
+                ProductEntity product = unique.get(i);
+                buffer.putInt(product.getProductID())
+                        .putDouble(product.getWeight())
+                        .putInt(nameOffset)
+                        .putInt(names.get(i).length);
+                nameOffset += names.get(i).length;
+            }
+            for (byte[] name : names) {
+                if (buffer.remaining() < name.length) {
+                    flush(buffer, channel);
+                }
+                if (name.length > buffer.capacity()) {
+                    channel.write(ByteBuffer.wrap(name));
+                } else {
+                    buffer.put(name);
+                }
+            }
+            flush(buffer, channel);
+            channel.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static void flush(ByteBuffer buffer, FileChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
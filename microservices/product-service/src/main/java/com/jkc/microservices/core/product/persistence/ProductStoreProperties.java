@@ -0,0 +1,132 @@
+package com.jkc.microservices.core.product.persistence;
+
+import java.time.Duration;
+
+/**
+ * product store settings bound from app.product-store
+ */
+public class ProductStoreProperties {
+    private String type = "memory";
+    private int initialCapacity = 1024;
+    private final Import importSettings = new Import();
+    private final Cache cache = new Cache();
+    private final Snapshot snapshot = new Snapshot();
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public int getInitialCapacity() {
+        return initialCapacity;
+    }
+
+    public void setInitialCapacity(int initialCapacity) {
+        this.initialCapacity = initialCapacity;
+    }
+
+    public Import getImport() {
+        return importSettings;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * csv file (productID,name,weight) loaded into the store at startup, skipped when location is empty
+     */
+    public static class Import {
+        private String location;
+        private int batchSize = 1000;
+        private boolean onlyIfEmpty = true;
+
+        public String getLocation() {
+            return location;
+        }
+
+        public void setLocation(String location) {
+            this.location = location;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public boolean isOnlyIfEmpty() {
+            return onlyIfEmpty;
+        }
+
+        public void setOnlyIfEmpty(boolean onlyIfEmpty) {
+            this.onlyIfEmpty = onlyIfEmpty;
+        }
+    }
+
+    /**
+     * read-through cache in front of the store, unknown productIDs are cached as well so repeated misses stay in memory
+     */
+    public static class Cache {
+        private boolean enabled = true;
+        private long maxEntries = 100_000;
+        private Duration ttl = Duration.ofMinutes(10);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(long maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+    }
+
+    /**
+     * memory-mapped catalog used by the snapshot store, checked for a replacement file every reload-interval (0 disables)
+     */
+    public static class Snapshot {
+        private String path = "data/products.snapshot";
+        private Duration reloadInterval = Duration.ofSeconds(30);
+
+        public String getPath() {
+            return path;
+        }
+
+        public void setPath(String path) {
+            this.path = path;
+        }
+
+        public Duration getReloadInterval() {
+            return reloadInterval;
+        }
+
+        public void setReloadInterval(Duration reloadInterval) {
+            this.reloadInterval = reloadInterval;
+        }
+    }
+}
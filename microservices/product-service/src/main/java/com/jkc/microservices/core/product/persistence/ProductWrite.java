@@ -0,0 +1,33 @@
+package com.jkc.microservices.core.product.persistence;
+
+/**
+ * one queued write of a product: a save, or a delete when there is no product
+ */
+public final class ProductWrite {
+    private final int productID;
+    private final ProductEntity product;
+
+    private ProductWrite(int productID, ProductEntity product) {
+        this.productID = productID;
+        this.product = product;
+    }
+
+    public static ProductWrite save(ProductEntity product) {
+        return new ProductWrite(product.getProductID(), product);
+    }
+
+    public static ProductWrite delete(int productID) {
+        return new ProductWrite(productID, null);
+    }
+
+    public int getProductID() {
+        return productID;
+    }
+
+    /**
+     * @return the product to store, null for a delete
+     */
+    public ProductEntity getProduct() {
+        return product;
+    }
+}
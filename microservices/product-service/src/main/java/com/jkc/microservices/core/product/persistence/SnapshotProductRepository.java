@@ -0,0 +1,138 @@
+package com.jkc.microservices.core.product.persistence;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * read-only store serving a memory-mapped {@link ProductSnapshot}. the snapshot file is checked every reload-interval
+ * and, when it was replaced, the new one is opened and swapped in atomically; requests that already picked up the old
+ * snapshot finish on it. publish a new catalog with {@link ProductSnapshotWriter} or by renaming a complete file over
+ * the path, never by rewriting the mapped file in place
+ */
+public class SnapshotProductRepository implements ProductRepository, Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SnapshotProductRepository.class);
+    private final Path path;
+    private final Disposable watcher;
+    private volatile ProductSnapshot snapshot;
+    private volatile Object loadedVersion;
+    private volatile Runnable swapListener = () -> {
+    };
+
+    public SnapshotProductRepository(Path path, Duration reloadInterval) throws IOException {
+        this.path = path;
+        this.loadedVersion = version(path);
+        this.snapshot = ProductSnapshot.open(path);
+        LOGGER.info("mapped product snapshot {} with {} products", path, snapshot.size());
+        this.watcher = reloadInterval == null || reloadInterval.isZero()
+                ? null
+                : Flux.interval(reloadInterval, Schedulers.single()).subscribe(tick -> reloadIfChanged());
+    }
+
+    /**
+     * swaps in the snapshot at the configured path when the file was replaced since it was last loaded
+     *
+     * @return true when a new snapshot was swapped in
+     */
+    public synchronized boolean reloadIfChanged() {
+        try {
+            Object version = version(path);
+            if (Objects.equals(version, loadedVersion)) {
+                return false;
+            }
+            ProductSnapshot replacement = ProductSnapshot.open(path);
+            snapshot = replacement;
+            loadedVersion = version;
+            LOGGER.info("swapped in product snapshot {} with {} products", path, replacement.size());
+            swapListener.run();
+            return true;
+        } catch (IOException | RuntimeException e) {
+            // keep serving the current snapshot, the next check retries
+            LOGGER.warn("could not load product snapshot {}, keeping the current one: {}", path, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * @param listener runs after each swap, on the thread that did it
+     */
+    public void onSwap(Runnable listener) {
+        this.swapListener = listener;
+    }
+
+    @Override
+    public Optional<ProductEntity> findByProductID(int productID) {
+        return Optional.ofNullable(snapshot.find(productID));
+    }
+
+    @Override
+    public Map<Integer, ProductEntity> findAllByProductID(Collection<Integer> productIDs) {
+        ProductSnapshot current = snapshot;
+        Map<Integer, ProductEntity> found = new HashMap<>();
+        for (Integer productID : productIDs) {
+            ProductEntity product = current.find(productID);
+            if (product != null) {
+                found.put(productID, product);
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public void save(ProductEntity product) {
+        throw new UnsupportedOperationException("The product snapshot store is read-only, publish a new snapshot instead");
+    }
+
+    @Override
+    public void saveAll(Collection<ProductEntity> products) {
+        throw new UnsupportedOperationException("The product snapshot store is read-only, publish a new snapshot instead");
+    }
+
+    @Override
+    public void deleteAll(Collection<Integer> productIDs) {
+        throw new UnsupportedOperationException("The product snapshot store is read-only, publish a new snapshot instead");
+    }
+
+    @Override
+    public long count() {
+        return snapshot.size();
+    }
+
+    @Override
+    public boolean servesFromMemory() {
+        return true;
+    }
+
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
+
+    @Override
+    public void close() {
+        if (watcher != null) {
+            watcher.dispose();
+        }
+    }
+
+    // a rename over the path changes the file key (inode), size and modification time catch file systems without one
+    private static Object version(Path path) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        return Objects.requireNonNullElse(attributes.fileKey(), "") + "/" + attributes.size() + "/" + attributes.lastModifiedTime().toMillis();
+    }
+}
@@ -2,42 +2,144 @@ package com.jkc.microservices.core.product.services;
 
 import com.jkc.microservices.api.core.product.Product;
 import com.jkc.microservices.api.core.product.ProductService;
+import com.jkc.microservices.core.product.persistence.ProductEntity;
+import com.jkc.microservices.core.product.persistence.ProductReadCache;
+import com.jkc.microservices.core.product.persistence.ProductRepository;
+import com.jkc.microservices.core.product.persistence.ProductWrite;
+import com.jkc.microservices.util.batch.WriteBatchProperties;
+import com.jkc.microservices.util.batch.WriteBatcher;
 import com.jkc.microservices.util.exceptions.InvalidInputException;
 import com.jkc.microservices.util.exceptions.NotFoundException;
+import com.jkc.microservices.util.http.ConditionalGet;
+import com.jkc.microservices.util.http.ProductVersions;
 import com.jkc.microservices.util.http.ServiceUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.stream.Collectors;
 
 @RestController
 public class ProductServiceImpl implements ProductService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ProductServiceImpl.class);
     private final ServiceUtil serviceUtil;
+    private final ProductReadCache productReadCache;
+    private final ProductRepository productRepository;
+    private final ProductVersions productVersions;
+    private final WriteBatcher<ProductWrite> productWriteBatcher;
+    private final int bulkConcurrency;
 
     @Autowired
-    public ProductServiceImpl(ServiceUtil serviceUtil) {
+    public ProductServiceImpl(ServiceUtil serviceUtil, ProductReadCache productReadCache, ProductRepository productRepository, ProductVersions productVersions,
+                              WriteBatcher<ProductWrite> productWriteBatcher, WriteBatchProperties writeBatchProperties) {
         this.serviceUtil = serviceUtil;
+        this.productReadCache = productReadCache;
+        this.productRepository = productRepository;
+        this.productVersions = productVersions;
+        this.productWriteBatcher = productWriteBatcher;
+        this.bulkConcurrency = writeBatchProperties.getMaxSize() * 2;
     }
 
     /**
      * curl $HOST:$PORT/product/1
+     * or : curl -H 'If-None-Match: "<etag>"' $HOST:$PORT/product/1
      *
      * @param productID "productId : int"
-     * @return Product, if found else null
+     * @return Product, if found else an empty Mono, nothing but 304 when the product still has the given etag
      */
     @Override
-    public Product getProduct(int productID) {
-        System.out.println(serviceUtil.getServiceAddress());
-        LOGGER.debug("/product return the found product for productId={} serviceAddress: {}" , productID,serviceUtil.getServiceAddress());
+    public Mono<Product> getProduct(int productID) {
+        String serviceAddress = serviceUtil.getServiceAddress();
+        LOGGER.debug("/product return the found product for productId={} serviceAddress: {}", productID, serviceAddress);
         if (productID <1) {
             throw new InvalidInputException("Invalid ProductID: "+productID);
         }
-        if (productID == 13) {
-            throw new NotFoundException("No product found for productID: " + productID);
+        String etag = productVersions.etag(productID);
+        return productReadCache.find(productID)
+                .switchIfEmpty(Mono.error(() -> new NotFoundException("No product found for productID: " + productID)))
+                .flatMap(product -> ConditionalGet.unlessNotModified(etag, Mono.fromSupplier(() -> toProduct(product, serviceAddress))));
+    }
+
+    /**
+     * curl $HOST:$PORT/product?ids=1,2,3
+     *
+     * @param productIDs "productIDs : comma separated int"
+     * @return the products that were found, ids without a product are left out
+     */
+    @Override
+    public Flux<Product> getProducts(List<Integer> productIDs) {
+        LOGGER.debug("/product return the found products for productIDs={}", productIDs);
+        for (int productID : productIDs) {
+            if (productID < 1) {
+                throw new InvalidInputException("Invalid ProductID: " + productID);
+            }
+        }
+        String serviceAddress = serviceUtil.getServiceAddress();
+        return productReadCache.findAll(productIDs.stream().distinct().collect(Collectors.toList()))
+                .map(product -> toProduct(product, serviceAddress));
+    }
+
+    /**
+     * curl -X POST $HOST:$PORT/product -H "Content-Type: application/json" --data '{"productID":123,"name":"product 123","weight":123}'
+     *
+     * @param body "the product with a name of 1..255 characters, an existing product with the same productID is replaced"
+     * @return the stored product, once it is persisted
+     */
+    @Override
+    public Mono<Product> createProduct(Product body) {
+        if (body.getProductID() < 1) {
+            throw new InvalidInputException("Invalid ProductID: " + body.getProductID());
+        }
+        // rejected up front, a write the store refuses would fail every other write of its batch
+        if (body.getName() == null || body.getName().isBlank() || body.getName().length() > ProductEntity.MAX_NAME_LENGTH) {
+            throw new InvalidInputException("Invalid name, expected 1.." + ProductEntity.MAX_NAME_LENGTH + " characters");
+        }
+        checkWritable();
+        ProductEntity product = new ProductEntity(body.getProductID(), body.getName(), body.getWeight());
+        String serviceAddress = serviceUtil.getServiceAddress();
+        return productWriteBatcher.submit(ProductWrite.save(product))
+                .then(Mono.fromCallable(() -> toProduct(product, serviceAddress)));
+    }
+
+    /**
+     * curl -X POST $HOST:$PORT/product -H "Content-Type: application/x-ndjson" --data-binary @products.ndjson
+     *
+     * @param body "one product per line, for bulk loads"
+     * @return the stored products as they are persisted, not in request order
+     */
+    @Override
+    public Flux<Product> createProducts(Flux<Product> body) {
+        // enough writes in flight to fill a couple of batches, so a single connection keeps the writer busy
+        return body.flatMap(this::createProduct, bulkConcurrency);
+    }
+
+    /**
+     * curl -X DELETE $HOST:$PORT/product/1
+     *
+     * @param productID "productId : int, deleting a missing product succeeds too"
+     */
+    @Override
+    public Mono<Void> deleteProduct(int productID) {
+        if (productID < 1) {
+            throw new InvalidInputException("Invalid ProductID: " + productID);
         }
+        checkWritable();
+        LOGGER.debug("/product delete productID={}", productID);
+        return productWriteBatcher.submit(ProductWrite.delete(productID));
+    }
+
+    private void checkWritable() {
+        if (productRepository.isReadOnly()) {
+            throw new InvalidInputException("The product store is read-only");
+        }
+    }
 
-        return new Product(productID,"name "+productID,123,serviceUtil.getServiceAddress());
+    private static Product toProduct(ProductEntity product, String serviceAddress) {
+        return new Product(product.getProductID(), product.getName(), product.getWeight(), serviceAddress);
     }
 }
@@ -1,6 +1,10 @@
 package com.jkc.microservices.core.product;
 
+import com.jkc.microservices.api.core.product.Product;
 import com.jkc.microservices.core.product.services.ProductServiceImpl;
+import com.jkc.microservices.util.events.ChangeEvent;
+import com.jkc.microservices.util.events.ChangeEventBus;
+import com.jkc.microservices.util.http.SmileCodecConfig;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,6 +13,12 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 
 @ExtendWith(SpringExtension.class)
 @WebFluxTest(controllers = ProductServiceImpl.class)
@@ -17,12 +27,65 @@ class ProductServiceApplicationTests {
 	@Autowired
 	public WebTestClient webClient;
 
+	@Autowired
+	private ChangeEventBus changeEventBus;
+
 	@Test
 	void getProductByID() {
 		int productID =1;
 		webClient.get().uri("/product/"+productID).accept(MediaType.APPLICATION_JSON).exchange().expectStatus().isOk().expectHeader().contentType(MediaType.APPLICATION_JSON).expectBody().jsonPath("$.productID").isEqualTo(productID);
 	}
 
+	@Test
+	void getProductByIDInSmile() {
+		int productID = 1;
+		Product product = webClient.get().uri("/product/" + productID).accept(SmileCodecConfig.APPLICATION_SMILE, MediaType.APPLICATION_JSON)
+				.exchange()
+				.expectStatus().isOk()
+				.expectHeader().contentType(SmileCodecConfig.APPLICATION_SMILE)
+				.expectBody(Product.class).returnResult().getResponseBody();
+		assertNotNull(product);
+		assertEquals(productID, product.getProductID());
+	}
+
+	@Test
+	void getProductsByIDsInSmile() {
+		webClient.get().uri("/product?ids=1,13,2").accept(SmileCodecConfig.APPLICATION_SMILE)
+				.exchange()
+				.expectStatus().isOk()
+				.expectHeader().contentType(SmileCodecConfig.APPLICATION_SMILE)
+				.expectBodyList(Product.class).hasSize(2);
+	}
+
+	@Test
+	void getProductNotFoundInSmileIsJson() {
+		webClient.get().uri("/product/13").accept(SmileCodecConfig.APPLICATION_SMILE, MediaType.APPLICATION_JSON)
+				.exchange()
+				.expectStatus().isNotFound()
+				.expectHeader().contentType(MediaType.APPLICATION_JSON)
+				.expectBody()
+				.jsonPath("$.message").isEqualTo("No product found for productID: 13");
+	}
+
+	@Test
+	void getProductNotModifiedUntilWritten() {
+		int productID = 5002;
+		webClient.post().uri("/product").contentType(MediaType.APPLICATION_JSON).bodyValue(new Product(productID, "first", 1, null))
+				.exchange().expectStatus().isOk();
+		String etag = webClient.get().uri("/product/" + productID).exchange().expectStatus().isOk()
+				.returnResult(Product.class).getResponseHeaders().getETag();
+		assertNotNull(etag);
+		webClient.get().uri("/product/" + productID).ifNoneMatch(etag).exchange()
+				.expectStatus().isNotModified()
+				.expectBody().isEmpty();
+
+		webClient.post().uri("/product").contentType(MediaType.APPLICATION_JSON).bodyValue(new Product(productID, "second", 1, null))
+				.exchange().expectStatus().isOk();
+		webClient.get().uri("/product/" + productID).ifNoneMatch(etag).exchange()
+				.expectStatus().isOk()
+				.expectBody().jsonPath("$.name").isEqualTo("second");
+	}
+
 	@Test
 	void getProductInvalidParameterString() {
 		webClient.get()
@@ -64,6 +127,86 @@ class ProductServiceApplicationTests {
 				.jsonPath("$.message").isEqualTo("Invalid ProductID: " + productIdInvalid);
 	}
 
+	@Test
+	void getProductsByIDs() {
+		webClient.get()
+				.uri("/product?ids=1,13,2")
+				.accept(MediaType.APPLICATION_JSON)
+				.exchange()
+				.expectStatus().isOk()
+				.expectHeader().contentType(MediaType.APPLICATION_JSON)
+				.expectBody()
+				.jsonPath("$.length()").isEqualTo(2)
+				.jsonPath("$[0].productID").isEqualTo(1)
+				.jsonPath("$[1].productID").isEqualTo(2);
+	}
+
+	@Test
+	void createAndDeleteProduct() {
+		int productID = 5000;
+		webClient.post()
+				.uri("/product")
+				.contentType(MediaType.APPLICATION_JSON)
+				.bodyValue(new Product(productID, "created", 42, null))
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$.productID").isEqualTo(productID)
+				.jsonPath("$.name").isEqualTo("created");
+		webClient.get().uri("/product/" + productID).exchange().expectStatus().isOk()
+				.expectBody().jsonPath("$.weight").isEqualTo(42.0);
+
+		webClient.delete().uri("/product/" + productID).exchange().expectStatus().isOk();
+		webClient.get().uri("/product/" + productID).exchange().expectStatus().isNotFound();
+		// deletes are idempotent
+		webClient.delete().uri("/product/" + productID).exchange().expectStatus().isOk();
+	}
+
+	@Test
+	void createProductPublishesChangeEvent() {
+		int productID = 5001;
+		StepVerifier.create(changeEventBus.subscribe().flatMapIterable(events -> events).take(1))
+				.then(() -> webClient.post()
+						.uri("/product")
+						.contentType(MediaType.APPLICATION_JSON)
+						.bodyValue(new Product(productID, "created", 1, null))
+						.exchange()
+						.expectStatus().isOk())
+				.expectNextMatches(event -> event.getProductID() == productID && event.getType() == ChangeEvent.Type.PRODUCT)
+				.expectComplete()
+				.verify(Duration.ofSeconds(5));
+	}
+
+	@Test
+	void createProductInvalidID() {
+		webClient.post()
+				.uri("/product")
+				.contentType(MediaType.APPLICATION_JSON)
+				.bodyValue(new Product(0, "invalid", 1, null))
+				.exchange()
+				.expectStatus().isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY)
+				.expectBody()
+				.jsonPath("$.message").isEqualTo("Invalid ProductID: 0");
+	}
+
+	@Test
+	void createProductInvalidName() {
+		webClient.post()
+				.uri("/product")
+				.contentType(MediaType.APPLICATION_JSON)
+				.bodyValue(new Product(5001, null, 1, null))
+				.exchange()
+				.expectStatus().isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY)
+				.expectBody()
+				.jsonPath("$.message").isEqualTo("Invalid name, expected 1..255 characters");
+		webClient.post()
+				.uri("/product")
+				.contentType(MediaType.APPLICATION_JSON)
+				.bodyValue(new Product(5001, "n".repeat(256), 1, null))
+				.exchange()
+				.expectStatus().isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+	}
+
 	@Test
 	void contextLoads() {
 	}
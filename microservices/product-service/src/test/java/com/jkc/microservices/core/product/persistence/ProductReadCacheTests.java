@@ -0,0 +1,84 @@
+package com.jkc.microservices.core.product.persistence;
+
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ProductReadCacheTests {
+
+    private final AtomicInteger reads = new AtomicInteger();
+    // counts the reads and behaves like a remote store, so the cache is not bypassed
+    private final InMemoryProductRepository repository = new InMemoryProductRepository(16) {
+        @Override
+        public boolean servesFromMemory() {
+            return false;
+        }
+
+        @Override
+        public Optional<ProductEntity> findByProductID(int productID) {
+            reads.incrementAndGet();
+            return super.findByProductID(productID);
+        }
+
+        @Override
+        public Map<Integer, ProductEntity> findAllByProductID(Collection<Integer> productIDs) {
+            reads.incrementAndGet();
+            return super.findAllByProductID(productIDs);
+        }
+    };
+
+    private ProductReadCache cache(boolean enabled) {
+        ProductStoreProperties.Cache properties = new ProductStoreProperties.Cache();
+        properties.setEnabled(enabled);
+        return new ProductReadCache(repository, properties, null);
+    }
+
+    @Test
+    void hitsAndMissesAreServedFromCache() {
+        repository.save(new ProductEntity(1, "name 1", 1));
+        ProductReadCache cache = cache(true);
+
+        for (int i = 0; i < 3; i++) {
+            StepVerifier.create(cache.find(1)).expectNextMatches(product -> product.getProductID() == 1).verifyComplete();
+            StepVerifier.create(cache.find(2)).verifyComplete();
+        }
+        assertEquals(2, reads.get());
+
+        repository.save(new ProductEntity(2, "name 2", 2));
+        cache.invalidate(2);
+        StepVerifier.create(cache.find(2)).expectNextMatches(product -> product.getProductID() == 2).verifyComplete();
+        assertEquals(3, reads.get());
+    }
+
+    @Test
+    void findAllKeepsRequestOrderAndLoadsMissesInOneCall() {
+        repository.saveAll(List.of(new ProductEntity(1, "a", 1), new ProductEntity(2, "b", 2), new ProductEntity(3, "c", 3)));
+        ProductReadCache cache = cache(true);
+        StepVerifier.create(cache.find(2)).expectNextCount(1).verifyComplete();
+
+        StepVerifier.create(cache.findAll(List.of(3, 4, 2, 1)))
+                .expectNextMatches(product -> product.getProductID() == 3)
+                .expectNextMatches(product -> product.getProductID() == 2)
+                .expectNextMatches(product -> product.getProductID() == 1)
+                .verifyComplete();
+        assertEquals(2, reads.get());
+    }
+
+    @Test
+    void disabledCacheReadsThrough() {
+        repository.save(new ProductEntity(1, "name 1", 1));
+        ProductReadCache cache = cache(false);
+
+        StepVerifier.create(cache.find(1)).expectNextCount(1).verifyComplete();
+        StepVerifier.create(cache.find(1)).expectNextCount(1).verifyComplete();
+        StepVerifier.create(cache.findAll(List.of(1, 2))).expectNextCount(1).verifyComplete();
+        assertEquals(3, reads.get());
+    }
+}
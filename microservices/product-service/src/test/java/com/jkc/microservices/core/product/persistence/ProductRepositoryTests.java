@@ -0,0 +1,95 @@
+package com.jkc.microservices.core.product.persistence;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * the same contract against every backend, jdbc runs on an embedded H2 database
+ */
+class ProductRepositoryTests {
+
+    private static final List<EmbeddedDatabase> DATABASES = new ArrayList<>();
+
+    static Stream<Arguments> repositories() {
+        EmbeddedDatabase database = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+        DATABASES.add(database);
+        return Stream.of(
+                Arguments.of("memory", new InMemoryProductRepository(16)),
+                Arguments.of("jdbc", new JdbcProductRepository(new NamedParameterJdbcTemplate(database))));
+    }
+
+    @AfterAll
+    static void shutdownDatabases() {
+        DATABASES.forEach(EmbeddedDatabase::shutdown);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("repositories")
+    void saveAndFindByProductID(String type, ProductRepository repository) {
+        repository.save(new ProductEntity(1, "name 1", 10));
+        repository.save(new ProductEntity(1, "renamed", 20));
+
+        ProductEntity product = repository.findByProductID(1).orElseThrow();
+        assertEquals("renamed", product.getName());
+        assertEquals(20, product.getWeight());
+        assertFalse(repository.findByProductID(2).isPresent());
+        assertEquals(1, repository.count());
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("repositories")
+    void findAllLeavesOutMissingIDs(String type, ProductRepository repository) {
+        repository.saveAll(List.of(new ProductEntity(1, "a", 1), new ProductEntity(2, "b", 2), new ProductEntity(3, "c", 3)));
+
+        Map<Integer, ProductEntity> found = repository.findAllByProductID(List.of(3, 4, 1));
+        assertEquals(2, found.size());
+        assertEquals("c", found.get(3).getName());
+        assertEquals("a", found.get(1).getName());
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("repositories")
+    void writeAllKeepsLastWritePerProduct(String type, ProductRepository repository) {
+        repository.saveAll(List.of(new ProductEntity(1, "a", 1), new ProductEntity(2, "b", 2)));
+
+        repository.writeAll(List.of(
+                ProductWrite.save(new ProductEntity(3, "c", 3)),
+                ProductWrite.delete(1),
+                ProductWrite.save(new ProductEntity(1, "back", 1)),
+                ProductWrite.save(new ProductEntity(2, "gone", 2)),
+                ProductWrite.delete(2),
+                ProductWrite.delete(9)));
+        assertEquals("back", repository.findByProductID(1).orElseThrow().getName());
+        assertFalse(repository.findByProductID(2).isPresent());
+        assertEquals("c", repository.findByProductID(3).orElseThrow().getName());
+        assertEquals(2, repository.count());
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("repositories")
+    void importCsvInBatches(String type, ProductRepository repository) throws IOException {
+        String csv = "productID,name,weight\n1,plain,1.5\n\n# comment\n2,with, comma,2\n3,last,3\n";
+
+        assertEquals(3, new ProductImporter(repository, 2).importCsv(new StringReader(csv)));
+        assertEquals(3, repository.count());
+        assertEquals("with, comma", repository.findByProductID(2).orElseThrow().getName());
+        assertThrows(IllegalArgumentException.class, () -> new ProductImporter(repository, 2).importCsv(new StringReader("4,broken\n")));
+    }
+}
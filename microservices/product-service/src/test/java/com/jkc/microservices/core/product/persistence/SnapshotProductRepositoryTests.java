@@ -0,0 +1,78 @@
+package com.jkc.microservices.core.product.persistence;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SnapshotProductRepositoryTests {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void snapshotRoundTrip() throws IOException {
+        Path path = directory.resolve("products.snapshot");
+        ProductSnapshotWriter.write(List.of(
+                new ProductEntity(30, "thirty", 3),
+                new ProductEntity(10, "zehn üß ☃", 1.5),
+                new ProductEntity(20, "", 2),
+                new ProductEntity(10, "ten", 1)), path);
+
+        ProductSnapshot snapshot = ProductSnapshot.open(path);
+        assertEquals(3, snapshot.size());
+        assertEquals("ten", snapshot.find(10).getName());
+        assertEquals(1, snapshot.find(10).getWeight());
+        assertEquals("", snapshot.find(20).getName());
+        assertEquals("thirty", snapshot.find(30).getName());
+        assertNull(snapshot.find(15));
+        assertNull(snapshot.find(31));
+        assertNull(snapshot.find(-1));
+    }
+
+    @Test
+    void unicodeNamesAndCorruptFiles() throws IOException {
+        Path path = directory.resolve("products.snapshot");
+        ProductSnapshotWriter.write(List.of(new ProductEntity(1, "zehn üß ☃", 1)), path);
+        assertEquals("zehn üß ☃", ProductSnapshot.open(path).find(1).getName());
+
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 1));
+        assertThrows(IOException.class, () -> ProductSnapshot.open(path));
+    }
+
+    @Test
+    void replacedSnapshotIsSwappedIn() throws IOException {
+        Path path = directory.resolve("products.snapshot");
+        ProductSnapshotWriter.write(List.of(new ProductEntity(1, "old", 1)), path);
+        SnapshotProductRepository repository = new SnapshotProductRepository(path, null);
+        assertEquals("old", repository.findByProductID(1).orElseThrow().getName());
+        assertFalse(repository.reloadIfChanged());
+
+        ProductSnapshotWriter.write(List.of(new ProductEntity(1, "new", 1), new ProductEntity(2, "added", 2)), path);
+        assertTrue(repository.reloadIfChanged());
+        assertEquals("new", repository.findByProductID(1).orElseThrow().getName());
+        Map<Integer, ProductEntity> found = repository.findAllByProductID(List.of(1, 2, 3));
+        assertEquals(2, found.size());
+        assertEquals(2, repository.count());
+
+        Path corrupt = Files.writeString(directory.resolve("corrupt.tmp"), "not a snapshot");
+        Files.move(corrupt, path, StandardCopyOption.REPLACE_EXISTING);
+        assertFalse(repository.reloadIfChanged());
+        assertEquals("new", repository.findByProductID(1).orElseThrow().getName());
+        assertThrows(UnsupportedOperationException.class, () -> repository.save(new ProductEntity(3, "three", 3)));
+        repository.close();
+    }
+}
@@ -0,0 +1,112 @@
+package com.jkc.microservices.core.recommendation.configurations;
+
+import com.jkc.microservices.core.recommendation.persistence.RecommendationBatch;
+import com.jkc.microservices.core.recommendation.persistence.RecommendationEngineProperties;
+import com.jkc.microservices.core.recommendation.persistence.RecommendationImporter;
+import com.jkc.microservices.core.recommendation.persistence.RecommendationWrite;
+import com.jkc.microservices.core.recommendation.persistence.TopRecommendations;
+import com.jkc.microservices.util.batch.WriteBatchProperties;
+import com.jkc.microservices.util.batch.WriteBatcher;
+import com.jkc.microservices.util.events.ChangeEvent;
+import com.jkc.microservices.util.events.ChangeEventBus;
+import com.jkc.microservices.util.events.ChangeEventProperties;
+import com.jkc.microservices.util.events.ChangeEventPublisher;
+import com.jkc.microservices.util.http.ProductVersions;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ResourceLoader;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * top-N recommendation lists, bulk ranked from app.recommendation-engine.import-location before the server starts
+ * taking requests, creates and deletes are applied to them in batches
+ */
+@Configuration
+public class RecommendationEngineConfig {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RecommendationEngineConfig.class);
+
+    @Bean
+    @ConfigurationProperties("app.recommendation-engine")
+    RecommendationEngineProperties recommendationEngineProperties() {
+        return new RecommendationEngineProperties();
+    }
+
+    @Bean
+    TopRecommendations topRecommendations(RecommendationEngineProperties properties, ResourceLoader resourceLoader, ObjectProvider<MeterRegistry> meterRegistry) throws IOException {
+        TopRecommendations topRecommendations = new TopRecommendations(properties.getTopN(), properties.getExpectedProducts());
+        String location = properties.getImportLocation();
+        if (location != null && !location.isBlank()) {
+            RecommendationBatch batch;
+            try (Reader reader = new InputStreamReader(resourceLoader.getResource(location).getInputStream(), StandardCharsets.UTF_8)) {
+                batch = RecommendationImporter.readCsv(reader);
+            }
+            long start = System.nanoTime();
+            rebuild(topRecommendations, batch, properties.getRebuildParallelism());
+            LOGGER.info("ranked {} recommendations of {} products from {} in {} ms", batch.size(), topRecommendations.products(), location, (System.nanoTime() - start) / 1_000_000);
+        }
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            Gauge.builder("app.recommendation.engine.products", topRecommendations, TopRecommendations::products).register(registry);
+            Gauge.builder("app.recommendation.engine.entries", topRecommendations, TopRecommendations::entries).register(registry);
+        }
+        return topRecommendations;
+    }
+
+    @Bean
+    @ConfigurationProperties("app.write-batch")
+    WriteBatchProperties writeBatchProperties() {
+        return new WriteBatchProperties();
+    }
+
+    @Bean(destroyMethod = "close")
+    ChangeEventPublisher recommendationChangeEventPublisher(ChangeEventBus changeEventBus, ChangeEventProperties changeEventProperties) {
+        return new ChangeEventPublisher(ChangeEvent.Type.RECOMMENDATION, changeEventBus, changeEventProperties);
+    }
+
+    /**
+     * etags of the recommendations of each product
+     */
+    @Bean
+    ProductVersions recommendationVersions(RecommendationEngineProperties recommendationEngineProperties) {
+        return new ProductVersions(recommendationEngineProperties.getExpectedProducts());
+    }
+
+    /**
+     * the etag changes and a change event is published for every product whose recommendations were written
+     */
+    @Bean(destroyMethod = "close")
+    WriteBatcher<RecommendationWrite> recommendationWriteBatcher(TopRecommendations topRecommendations, ProductVersions recommendationVersions, WriteBatchProperties writeBatchProperties, ChangeEventPublisher recommendationChangeEventPublisher) {
+        return new WriteBatcher<>("recommendation", writeBatchProperties, writes -> {
+            topRecommendations.writeAll(writes);
+            writes.forEach(write -> {
+                recommendationVersions.changed(write.getProductID());
+                recommendationChangeEventPublisher.changed(write.getProductID());
+            });
+        });
+    }
+
+    private static void rebuild(TopRecommendations topRecommendations, RecommendationBatch batch, int parallelism) {
+        if (parallelism <= 0) {
+            topRecommendations.rebuild(batch, ForkJoinPool.commonPool());
+            return;
+        }
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            topRecommendations.rebuild(batch, pool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.jkc.microservices.core.recommendation.persistence;
+
+/**
+ * open addressing map from an int productID to a dense slot number 0, 1, 2, ... in first seen order.
+ * productIDs are positive, so 0 marks a free entry. not thread safe, {@link TopRecommendations} guards it
+ */
+final class ProductSlots {
+
+    private static final int FREE = 0;
+    private int[] keys;
+    private int[] slots;
+    private int size;
+
+    ProductSlots(int expectedProducts) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedProducts * 2 - 1)) << 1;
+        this.keys = new int[capacity];
+        this.slots = new int[capacity];
+    }
+
+    /**
+     * @return the slot of the product, -1 when it has none
+     */
+    int get(int productID) {
+        int mask = keys.length - 1;
+        for (int entry = hash(productID) & mask; ; entry = (entry + 1) & mask) {
+            int key = keys[entry];
+            if (key == productID) {
+                return slots[entry];
+            }
+            if (key == FREE) {
+                return -1;
+            }
+        }
+    }
+
+    int getOrAssign(int productID) {
+        int slot = get(productID);
+        if (slot >= 0) {
+            return slot;
+        }
+        if ((size + 1) * 2 > keys.length) {
+            resize();
+        }
+        insert(keys, slots, productID, size);
+        return size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void resize() {
+        int[] resizedKeys = new int[keys.length * 2];
+        int[] resizedSlots = new int[keys.length * 2];
+        for (int entry = 0; entry < keys.length; entry++) {
+            if (keys[entry] != FREE) {
+                insert(resizedKeys, resizedSlots, keys[entry], slots[entry]);
+            }
+        }
+        keys = resizedKeys;
+        slots = resizedSlots;
+    }
+
+    private static void insert(int[] keys, int[] slots, int productID, int slot) {
+        int mask = keys.length - 1;
+        int entry = hash(productID) & mask;
+        while (keys[entry] != FREE) {
+            entry = (entry + 1) & mask;
+        }
+        keys[entry] = productID;
+        slots[entry] = slot;
+    }
+
+    private static int hash(int productID) {
+        int h = productID * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
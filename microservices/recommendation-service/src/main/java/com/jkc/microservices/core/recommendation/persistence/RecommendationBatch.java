@@ -0,0 +1,49 @@
+package com.jkc.microservices.core.recommendation.persistence;
+
+import java.util.Arrays;
+
+/**
+ * column oriented buffer of recommendation records for {@link TopRecommendations#rebuild}, one array per field
+ * instead of one object per record. when a productID and recommendationID pair repeats the last record wins
+ */
+public class RecommendationBatch {
+    int[] productIDs;
+    int[] recommendationIDs;
+    double[] rates;
+    String[] authors;
+    String[] contents;
+    int size;
+
+    public RecommendationBatch(int expectedRecords) {
+        int capacity = Math.max(16, expectedRecords);
+        productIDs = new int[capacity];
+        recommendationIDs = new int[capacity];
+        rates = new double[capacity];
+        authors = new String[capacity];
+        contents = new String[capacity];
+    }
+
+    public void add(int productID, int recommendationID, String author, double rate, String content) {
+        if (productID < 1) {
+            throw new IllegalArgumentException("Invalid productID: " + productID);
+        }
+        if (size == productIDs.length) {
+            int capacity = size * 2;
+            productIDs = Arrays.copyOf(productIDs, capacity);
+            recommendationIDs = Arrays.copyOf(recommendationIDs, capacity);
+            rates = Arrays.copyOf(rates, capacity);
+            authors = Arrays.copyOf(authors, capacity);
+            contents = Arrays.copyOf(contents, capacity);
+        }
+        productIDs[size] = productID;
+        recommendationIDs[size] = recommendationID;
+        rates[size] = rate;
+        authors[size] = author;
+        contents[size] = content;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,44 @@
+package com.jkc.microservices.core.recommendation.persistence;
+
+/**
+ * recommendation engine settings bound from app.recommendation-engine
+ */
+public class RecommendationEngineProperties {
+    private String importLocation;
+    private int topN = 10;
+    private int expectedProducts = 1024;
+    // 0 ranks the initial load on the common fork-join pool, which uses all cores
+    private int rebuildParallelism = 0;
+
+    public String getImportLocation() {
+        return importLocation;
+    }
+
+    public void setImportLocation(String importLocation) {
+        this.importLocation = importLocation;
+    }
+
+    public int getTopN() {
+        return topN;
+    }
+
+    public void setTopN(int topN) {
+        this.topN = topN;
+    }
+
+    public int getExpectedProducts() {
+        return expectedProducts;
+    }
+
+    public void setExpectedProducts(int expectedProducts) {
+        this.expectedProducts = expectedProducts;
+    }
+
+    public int getRebuildParallelism() {
+        return rebuildParallelism;
+    }
+
+    public void setRebuildParallelism(int rebuildParallelism) {
+        this.rebuildParallelism = rebuildParallelism;
+    }
+}
@@ -0,0 +1,41 @@
+package com.jkc.microservices.core.recommendation.persistence;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * reads productID,recommendationID,rate,author,content lines into a {@link RecommendationBatch}.
+ * the content is the last column and may contain commas. a header line, blank lines and lines starting with # are skipped
+ */
+public class RecommendationImporter {
+
+    private static final int COLUMNS = 5;
+
+    private RecommendationImporter() {
+    }
+
+    public static RecommendationBatch readCsv(Reader reader) throws IOException {
+        RecommendationBatch batch = new RecommendationBatch(1024);
+        BufferedReader lines = new BufferedReader(reader);
+        int lineNumber = 0;
+        for (String line = lines.readLine(); line != null; line = lines.readLine()) {
+            lineNumber++;
+            line = line.strip();
+            if (line.isEmpty() || line.startsWith("#") || (lineNumber == 1 && !Character.isDigit(line.charAt(0)))) {
+                continue;
+            }
+            String[] columns = line.split(",", COLUMNS);
+            if (columns.length != COLUMNS) {
+                throw new IllegalArgumentException("Line " + lineNumber + " is not productID,recommendationID,rate,author,content: " + line);
+            }
+            try {
+                batch.add(Integer.parseInt(columns[0].strip()), Integer.parseInt(columns[1].strip()),
+                        columns[3].strip(), Double.parseDouble(columns[2].strip()), columns[4].strip());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Line " + lineNumber + " is not productID,recommendationID,rate,author,content: " + line, e);
+            }
+        }
+        return batch;
+    }
+}
@@ -0,0 +1,35 @@
+package com.jkc.microservices.core.recommendation.persistence;
+
+import com.jkc.microservices.api.core.recommendation.Recommendation;
+
+/**
+ * one queued write: a recommendation to rank, or the deletion of all recommendations of a product when there is none
+ */
+public final class RecommendationWrite {
+    private final int productID;
+    private final Recommendation recommendation;
+
+    private RecommendationWrite(int productID, Recommendation recommendation) {
+        this.productID = productID;
+        this.recommendation = recommendation;
+    }
+
+    public static RecommendationWrite save(Recommendation recommendation) {
+        return new RecommendationWrite(recommendation.getProductID(), recommendation);
+    }
+
+    public static RecommendationWrite deleteProduct(int productID) {
+        return new RecommendationWrite(productID, null);
+    }
+
+    public int getProductID() {
+        return productID;
+    }
+
+    /**
+     * @return the recommendation to rank, null when all recommendations of the product are deleted
+     */
+    public Recommendation getRecommendation() {
+        return recommendation;
+    }
+}
@@ -0,0 +1,385 @@
+package com.jkc.microservices.core.recommendation.persistence;
+
+import com.jkc.microservices.api.core.recommendation.Recommendation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * the best topN recommendations of every product, ranked by rate (highest first, ties by the lower recommendationID).
+ * every product owns a fixed region of topN entries in flat parallel arrays, so there is no object per product or
+ * per entry and a read is a copy of at most topN entries that are already in order.
+ * {@link #add} keeps the lists up to date one record at a time, {@link #rebuild} replaces all of them from a batch
+ * using a fork-join pool.
+ * only the topN entries are kept: when an update lowers the rate of a listed recommendation it can end up below one
+ * that was dropped earlier, the next rebuild restores the exact ranking
+ */
+public class TopRecommendations {
+
+    private static final int SLOTS_PER_TASK = 256;
+
+    private final int topN;
+    private final int expectedProducts;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Lists lists;
+
+    public TopRecommendations(int topN, int expectedProducts) {
+        if (topN < 1) {
+            throw new IllegalArgumentException("top-n must be positive: " + topN);
+        }
+        this.topN = topN;
+        this.expectedProducts = expectedProducts;
+        this.lists = new Lists(new ProductSlots(expectedProducts), topN, expectedProducts);
+    }
+
+    /**
+     * ranks the recommendation into its product's list, replacing the one with the same recommendationID
+     *
+     * @return true when the recommendation is listed afterwards
+     */
+    public boolean add(int productID, int recommendationID, String author, double rate, String content) {
+        if (productID < 1) {
+            throw new IllegalArgumentException("Invalid productID: " + productID);
+        }
+        lock.writeLock().lock();
+        try {
+            return addLocked(productID, recommendationID, author, rate, content);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * applies a batch of queued writes in order while taking the write lock once
+     */
+    public void writeAll(List<RecommendationWrite> writes) {
+        for (RecommendationWrite write : writes) {
+            if (write.getProductID() < 1) {
+                throw new IllegalArgumentException("Invalid productID: " + write.getProductID());
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            for (RecommendationWrite write : writes) {
+                Recommendation recommendation = write.getRecommendation();
+                if (recommendation == null) {
+                    deleteProductLocked(write.getProductID());
+                } else {
+                    // the validated productID, a slot of productID 0 or less would read as free
+                    addLocked(write.getProductID(), recommendation.getRecommendationID(), recommendation.getAuthor(),
+                            recommendation.getRate(), recommendation.getContent());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return true when the recommendation was listed
+     */
+    public boolean delete(int productID, int recommendationID) {
+        lock.writeLock().lock();
+        try {
+            int slot = lists.slots.get(productID);
+            return slot >= 0 && lists.remove(slot, recommendationID);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * deletes all recommendations of the product
+     */
+    public void deleteProduct(int productID) {
+        lock.writeLock().lock();
+        try {
+            deleteProductLocked(productID);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return the listed recommendations of the product, best first
+     */
+    public List<Recommendation> find(int productID, String serviceAddress) {
+        lock.readLock().lock();
+        try {
+            Lists current = lists;
+            int slot = current.slots.get(productID);
+            if (slot < 0) {
+                return List.of();
+            }
+            int base = slot * topN;
+            int size = current.sizes[slot];
+            List<Recommendation> recommendations = new ArrayList<>(size);
+            for (int i = base; i < base + size; i++) {
+                recommendations.add(new Recommendation(productID, current.recommendationIDs[i], current.authors[i],
+                        current.rates[i], current.contents[i], serviceAddress));
+            }
+            return recommendations;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * replaces every list with the exact top topN of the batch. the lists are built next to the current ones, one
+     * fork-join task per range of products, and swapped in at the end, reads keep being served meanwhile.
+     * records added while a rebuild runs are not carried over, so rebuild before taking updates
+     */
+    public void rebuild(RecommendationBatch batch, ForkJoinPool pool) {
+        ProductSlots slots = new ProductSlots(Math.max(expectedProducts, batch.size / 4));
+        int[] slotOf = new int[batch.size];
+        for (int record = 0; record < batch.size; record++) {
+            slotOf[record] = slots.getOrAssign(batch.productIDs[record]);
+        }
+        int slotCount = slots.size();
+        // group the records by slot, keeping their batch order inside a slot
+        int[] starts = new int[slotCount + 1];
+        for (int record = 0; record < batch.size; record++) {
+            starts[slotOf[record] + 1]++;
+        }
+        for (int slot = 0; slot < slotCount; slot++) {
+            starts[slot + 1] += starts[slot];
+        }
+        int[] grouped = new int[batch.size];
+        int[] next = Arrays.copyOf(starts, slotCount);
+        for (int record = 0; record < batch.size; record++) {
+            grouped[next[slotOf[record]]++] = record;
+        }
+
+        Lists rebuilt = new Lists(slots, topN, slotCount);
+        pool.invoke(new RankTask(batch, rebuilt, starts, grouped, 0, slotCount));
+        rebuilt.entries = Arrays.stream(rebuilt.sizes, 0, slotCount).asLongStream().sum();
+
+        lock.writeLock().lock();
+        try {
+            lists = rebuilt;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private boolean addLocked(int productID, int recommendationID, String author, double rate, String content) {
+        Lists current = lists;
+        int slot = current.slots.getOrAssign(productID);
+        current.ensureSlots(slot + 1);
+        current.remove(slot, recommendationID);
+        return current.insert(slot, recommendationID, author, rate, content);
+    }
+
+    private void deleteProductLocked(int productID) {
+        int slot = lists.slots.get(productID);
+        if (slot >= 0) {
+            lists.clear(slot);
+        }
+    }
+
+    public int products() {
+        lock.readLock().lock();
+        try {
+            return lists.slots.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of listed recommendations over all products
+     */
+    public long entries() {
+        lock.readLock().lock();
+        try {
+            return lists.entries;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * per product regions of topN entries, the entries of slot s are at s * topN up to s * topN + sizes[s]
+     */
+    private static final class Lists {
+        final ProductSlots slots;
+        final int topN;
+        int[] sizes;
+        int[] recommendationIDs;
+        double[] rates;
+        String[] authors;
+        String[] contents;
+        long entries;
+
+        Lists(ProductSlots slots, int topN, int slotCapacity) {
+            this.slots = slots;
+            this.topN = topN;
+            int capacity = Math.max(16, slotCapacity);
+            sizes = new int[capacity];
+            recommendationIDs = new int[capacity * topN];
+            rates = new double[capacity * topN];
+            authors = new String[capacity * topN];
+            contents = new String[capacity * topN];
+        }
+
+        void ensureSlots(int slotCount) {
+            if (slotCount <= sizes.length) {
+                return;
+            }
+            int capacity = Math.max(slotCount, sizes.length * 2);
+            sizes = Arrays.copyOf(sizes, capacity);
+            recommendationIDs = Arrays.copyOf(recommendationIDs, capacity * topN);
+            rates = Arrays.copyOf(rates, capacity * topN);
+            authors = Arrays.copyOf(authors, capacity * topN);
+            contents = Arrays.copyOf(contents, capacity * topN);
+        }
+
+        void clear(int slot) {
+            int base = slot * topN;
+            Arrays.fill(authors, base, base + sizes[slot], null);
+            Arrays.fill(contents, base, base + sizes[slot], null);
+            entries -= sizes[slot];
+            sizes[slot] = 0;
+        }
+
+        boolean remove(int slot, int recommendationID) {
+            int base = slot * topN;
+            int size = sizes[slot];
+            for (int i = base; i < base + size; i++) {
+                if (recommendationIDs[i] == recommendationID) {
+                    int moved = base + size - i - 1;
+                    System.arraycopy(recommendationIDs, i + 1, recommendationIDs, i, moved);
+                    System.arraycopy(rates, i + 1, rates, i, moved);
+                    System.arraycopy(authors, i + 1, authors, i, moved);
+                    System.arraycopy(contents, i + 1, contents, i, moved);
+                    int last = base + size - 1;
+                    authors[last] = null;
+                    contents[last] = null;
+                    sizes[slot]--;
+                    entries--;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * inserts at the ranked position, dropping the last entry of a full list. the recommendationID must not be
+         * listed already
+         */
+        boolean insert(int slot, int recommendationID, String author, double rate, String content) {
+            int base = slot * topN;
+            int size = sizes[slot];
+            int low = base;
+            int high = base + size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (rates[middle] > rate || (rates[middle] == rate && recommendationIDs[middle] < recommendationID)) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            if (low == base + topN) {
+                return false;
+            }
+            int moved = Math.min(size, topN - 1) - (low - base);
+            System.arraycopy(recommendationIDs, low, recommendationIDs, low + 1, moved);
+            System.arraycopy(rates, low, rates, low + 1, moved);
+            System.arraycopy(authors, low, authors, low + 1, moved);
+            System.arraycopy(contents, low, contents, low + 1, moved);
+            recommendationIDs[low] = recommendationID;
+            rates[low] = rate;
+            authors[low] = author;
+            contents[low] = content;
+            if (size < topN) {
+                sizes[slot]++;
+                entries++;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * ranks the records of the slots from (inclusive) to (exclusive). tasks own disjoint slots, so they write to
+     * disjoint regions of the shared arrays, entries is summed up after the pool is done
+     */
+    private static final class RankTask extends RecursiveAction {
+        private final RecommendationBatch batch;
+        private final Lists lists;
+        private final int[] starts;
+        private final int[] grouped;
+        private final int from;
+        private final int to;
+
+        RankTask(RecommendationBatch batch, Lists lists, int[] starts, int[] grouped, int from, int to) {
+            this.batch = batch;
+            this.lists = lists;
+            this.starts = starts;
+            this.grouped = grouped;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > SLOTS_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new RankTask(batch, lists, starts, grouped, from, middle),
+                        new RankTask(batch, lists, starts, grouped, middle, to));
+                return;
+            }
+            SeenIDs seen = new SeenIDs();
+            for (int slot = from; slot < to; slot++) {
+                seen.clear(starts[slot + 1] - starts[slot]);
+                // newest record first so the last one of a repeated recommendationID wins
+                for (int i = starts[slot + 1] - 1; i >= starts[slot]; i--) {
+                    int record = grouped[i];
+                    if (seen.add(batch.recommendationIDs[record])) {
+                        lists.insert(slot, batch.recommendationIDs[record], batch.authors[record], batch.rates[record], batch.contents[record]);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * reusable open addressing int set, clearing it bumps a generation instead of wiping the arrays
+     */
+    private static final class SeenIDs {
+        private int[] keys = new int[16];
+        private int[] generations = new int[16];
+        private int generation;
+
+        void clear(int expected) {
+            generation++;
+            if (expected * 2 > keys.length) {
+                int capacity = Integer.highestOneBit(expected * 2 - 1) << 1;
+                keys = new int[capacity];
+                generations = new int[capacity];
+            }
+        }
+
+        /**
+         * @return true when the id was not in the set yet
+         */
+        boolean add(int id) {
+            int mask = keys.length - 1;
+            int h = id * 0x9E3779B9;
+            for (int entry = (h ^ (h >>> 16)) & mask; ; entry = (entry + 1) & mask) {
+                if (generations[entry] != generation) {
+                    generations[entry] = generation;
+                    keys[entry] = id;
+                    return true;
+                }
+                if (keys[entry] == id) {
+                    return false;
+                }
+            }
+        }
+    }
+}
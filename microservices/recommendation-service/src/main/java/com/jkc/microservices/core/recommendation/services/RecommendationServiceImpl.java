@@ -2,14 +2,20 @@ package com.jkc.microservices.core.recommendation.services;
 
 import com.jkc.microservices.api.core.recommendation.Recommendation;
 import com.jkc.microservices.api.core.recommendation.RecommendationService;
+import com.jkc.microservices.core.recommendation.persistence.RecommendationWrite;
+import com.jkc.microservices.core.recommendation.persistence.TopRecommendations;
+import com.jkc.microservices.util.batch.WriteBatcher;
 import com.jkc.microservices.util.exceptions.InvalidInputException;
+import com.jkc.microservices.util.http.ConditionalGet;
+import com.jkc.microservices.util.http.ProductVersions;
 import com.jkc.microservices.util.http.ServiceUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
-import java.util.ArrayList;
 import java.util.List;
 
 @RestController
@@ -17,27 +23,77 @@ public class RecommendationServiceImpl implements RecommendationService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(RecommendationServiceImpl.class);
     private final ServiceUtil serviceUtil;
+    private final TopRecommendations topRecommendations;
+    private final ProductVersions recommendationVersions;
+    private final WriteBatcher<RecommendationWrite> recommendationWriteBatcher;
 
     @Autowired
-    public RecommendationServiceImpl(ServiceUtil serviceUtil) {this.serviceUtil=serviceUtil;}
+    public RecommendationServiceImpl(ServiceUtil serviceUtil, TopRecommendations topRecommendations, ProductVersions recommendationVersions, WriteBatcher<RecommendationWrite> recommendationWriteBatcher) {
+        this.serviceUtil = serviceUtil;
+        this.topRecommendations = topRecommendations;
+        this.recommendationVersions = recommendationVersions;
+        this.recommendationWriteBatcher = recommendationWriteBatcher;
+    }
     /**
      * usage: curl $HOST:$PORT/recommendation?productID=1
+     * or : curl -H 'If-None-Match: "<etag>"' $HOST:$PORT/recommendation?productID=1
      *
      * @param productID "provided productID: int"
-     * @return list of recommendations for that @productID
+     * @return the top recommendations for that @productID, highest rate first, nothing but 304 when they still have the given etag
      */
     @Override
-    public List<Recommendation> getRecommendations(int productID) {
+    public Flux<Recommendation> getRecommendations(int productID) {
         if (productID<1) {throw new InvalidInputException("Invalid productID: " + productID); }
-        if (productID == 13) {
-            LOGGER.debug("No recommendation found for productID: {}",productID);
-            return new ArrayList<>();
-        }
-        List<Recommendation> recommendations = new ArrayList<>();
-        recommendations.add(new Recommendation(productID, 1, "Author 1", 1, "Content 1", serviceUtil.getServiceAddress()));
-        recommendations.add(new Recommendation(productID, 2, "Author 2", 2, "Content 2", serviceUtil.getServiceAddress()));
-        recommendations.add(new Recommendation(productID, 3, "Author 3", 3, "Content 3", serviceUtil.getServiceAddress()));
+        String etag = recommendationVersions.etag(productID);
+        return ConditionalGet.unlessNotModified(etag, Flux.defer(() -> findRecommendations(productID)));
+    }
+
+    /**
+     * the recommendations of one product, never answered with a 304, as a batch carries no etag of each of its products
+     */
+    private Flux<Recommendation> findRecommendations(int productID) {
+        List<Recommendation> recommendations = topRecommendations.find(productID, serviceUtil.getServiceAddress());
         LOGGER.debug("/recommendation response size: {}", recommendations.size());
-        return recommendations;
+        return Flux.fromIterable(recommendations);
+    }
+
+    /**
+     * usage: curl $HOST:$PORT/recommendation?ids=1,2,3
+     *
+     * @param productIDs "provided productIDs: comma separated int"
+     * @return recommendations of all the given products, each one carries its productID
+     */
+    @Override
+    public Flux<Recommendation> getRecommendations(List<Integer> productIDs) {
+        for (int productID : productIDs) {
+            if (productID < 1) {throw new InvalidInputException("Invalid productID: " + productID); }
+        }
+        return Flux.fromIterable(productIDs).distinct().concatMap(this::findRecommendations);
+    }
+
+    /**
+     * usage: curl -X POST $HOST:$PORT/recommendation -H "Content-Type: application/json" --data '{"productID":123,"recommendationID":1,"author":"me","rate":5,"content":"c"}'
+     *
+     * @param body "the recommendation, an existing recommendation with the same productID and recommendationID is replaced"
+     * @return the stored recommendation, once it is ranked
+     */
+    @Override
+    public Mono<Recommendation> createRecommendation(Recommendation body) {
+        if (body.getProductID() < 1) {throw new InvalidInputException("Invalid productID: " + body.getProductID()); }
+        Recommendation recommendation = new Recommendation(body.getProductID(), body.getRecommendationID(), body.getAuthor(),
+                body.getRate(), body.getContent(), serviceUtil.getServiceAddress());
+        return recommendationWriteBatcher.submit(RecommendationWrite.save(recommendation)).thenReturn(recommendation);
+    }
+
+    /**
+     * usage: curl -X DELETE $HOST:$PORT/recommendation?productID=1
+     *
+     * @param productID "provided productID: int, all recommendations of the product are deleted"
+     */
+    @Override
+    public Mono<Void> deleteRecommendations(int productID) {
+        if (productID < 1) {throw new InvalidInputException("Invalid productID: " + productID); }
+        LOGGER.debug("/recommendation delete all recommendations of productID={}", productID);
+        return recommendationWriteBatcher.submit(RecommendationWrite.deleteProduct(productID));
     }
 }
@@ -1,5 +1,6 @@
 package com.jkc.microservices.core.recommendation;
 
+import com.jkc.microservices.api.core.recommendation.Recommendation;
 import com.jkc.microservices.core.recommendation.services.RecommendationServiceImpl;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -11,6 +12,8 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.reactive.server.WebTestClient;
 
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
 @ExtendWith({SpringExtension.class})
 @WebFluxTest(RecommendationServiceImpl.class)
 class RecommendationServiceApplicationTests {
@@ -87,6 +90,74 @@ class RecommendationServiceApplicationTests {
 	}
 
 
+	@Test
+	void getRecommendationsByProductIds() {
+		webTestClient.get()
+				.uri("/recommendation?ids=1,13,2")
+				.accept(MediaType.APPLICATION_JSON)
+				.exchange()
+				.expectStatus().isOk()
+				.expectHeader().contentType(MediaType.APPLICATION_JSON)
+				.expectBody()
+				.jsonPath("$.length()").isEqualTo(6)
+				.jsonPath("$[0].productID").isEqualTo(1)
+				.jsonPath("$[3].productID").isEqualTo(2);
+	}
+
+	@Test
+	void getRecommendationsByProductIdsIgnoresIfNoneMatch() {
+		String etag = webTestClient.get()
+				.uri("/recommendation?productID=1")
+				.exchange()
+				.expectStatus().isOk()
+				.returnResult(Recommendation.class)
+				.getResponseHeaders().getETag();
+		assertNotNull(etag);
+		webTestClient.get()
+				.uri("/recommendation?ids=1,13,2")
+				.ifNoneMatch(etag)
+				.accept(MediaType.APPLICATION_JSON)
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$.length()").isEqualTo(6)
+				.jsonPath("$[0].productID").isEqualTo(1)
+				.jsonPath("$[3].productID").isEqualTo(2);
+	}
+
+	@Test
+	void getRecommendationsHighestRateFirst() {
+		webTestClient.get()
+				.uri("/recommendation?productID=1")
+				.accept(MediaType.APPLICATION_JSON)
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$[0].recommendationID").isEqualTo(2)
+				.jsonPath("$[0].rate").isEqualTo(4.0)
+				.jsonPath("$[1].recommendationID").isEqualTo(3)
+				.jsonPath("$[2].recommendationID").isEqualTo(1);
+	}
+
+	@Test
+	void createAndDeleteRecommendations() {
+		int productId = 5000;
+		webTestClient.post()
+				.uri("/recommendation")
+				.contentType(MediaType.APPLICATION_JSON)
+				.bodyValue(new Recommendation(productId, 1, "author", 3, "content", null))
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$.recommendationID").isEqualTo(1);
+		webTestClient.get().uri("/recommendation?productID=" + productId).exchange().expectStatus().isOk()
+				.expectBody().jsonPath("$.length()").isEqualTo(1).jsonPath("$[0].rate").isEqualTo(3.0);
+
+		webTestClient.delete().uri("/recommendation?productID=" + productId).exchange().expectStatus().isOk();
+		webTestClient.get().uri("/recommendation?productID=" + productId).exchange().expectStatus().isOk()
+				.expectBody().jsonPath("$.length()").isEqualTo(0);
+	}
+
 	@Test
 	void contextLoads() {
 	}
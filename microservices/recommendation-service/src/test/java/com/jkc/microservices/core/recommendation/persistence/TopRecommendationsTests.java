@@ -0,0 +1,116 @@
+package com.jkc.microservices.core.recommendation.persistence;
+
+import com.jkc.microservices.api.core.recommendation.Recommendation;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TopRecommendationsTests {
+
+    @Test
+    void ranksIncrementally() {
+        TopRecommendations top = new TopRecommendations(3, 2);
+        top.add(1, 1, "a", 2, "c");
+        top.add(1, 2, "a", 5, "c");
+        top.add(1, 3, "a", 2, "c");
+        assertEquals(List.of(2, 1, 3), ids(top.find(1, "test")));
+        // a full list drops the lowest entry, a worse one is not listed at all
+        assertTrue(top.add(1, 4, "a", 3, "c"));
+        assertFalse(top.add(1, 5, "a", 1, "c"));
+        assertEquals(List.of(2, 4, 1), ids(top.find(1, "test")));
+        assertEquals(3, top.entries());
+        assertTrue(top.find(2, "test").isEmpty());
+    }
+
+    @Test
+    void replacesAndDeletes() {
+        TopRecommendations top = new TopRecommendations(3, 2);
+        top.add(1, 1, "a", 2, "c");
+        top.add(1, 2, "a", 5, "c");
+        top.add(1, 2, "b", 1, "updated");
+        List<Recommendation> recommendations = top.find(1, "test");
+        assertEquals(List.of(1, 2), ids(recommendations));
+        assertEquals("updated", recommendations.get(1).getContent());
+        assertEquals(1.0, recommendations.get(1).getRate());
+
+        assertTrue(top.delete(1, 1));
+        assertFalse(top.delete(1, 1));
+        assertFalse(top.delete(9, 1));
+        assertEquals(List.of(2), ids(top.find(1, "test")));
+        assertEquals(1, top.entries());
+    }
+
+    @Test
+    void writesBatchesInOrder() {
+        TopRecommendations top = new TopRecommendations(3, 2);
+        top.add(1, 1, "a", 2, "c");
+        top.writeAll(List.of(
+                RecommendationWrite.deleteProduct(1),
+                RecommendationWrite.save(new Recommendation(1, 2, "a", 4, "c", null)),
+                RecommendationWrite.save(new Recommendation(2, 1, "a", 1, "c", null))));
+        assertEquals(List.of(2), ids(top.find(1, "test")));
+        assertEquals(List.of(1), ids(top.find(2, "test")));
+        assertEquals(2, top.entries());
+        top.deleteProduct(2);
+        assertTrue(top.find(2, "test").isEmpty());
+        assertEquals(1, top.entries());
+    }
+
+    @Test
+    void growsPastExpectedProducts() {
+        TopRecommendations top = new TopRecommendations(2, 1);
+        for (int productID = 1; productID <= 100; productID++) {
+            top.add(productID, 1, "a", productID, "c");
+        }
+        assertEquals(100, top.products());
+        assertEquals(37.0, top.find(37, "test").get(0).getRate());
+    }
+
+    @Test
+    void rebuildMatchesFullSort() {
+        SplittableRandom random = new SplittableRandom(7);
+        RecommendationBatch batch = new RecommendationBatch(16);
+        Map<Integer, Map<Integer, Double>> expected = new LinkedHashMap<>();
+        for (int i = 0; i < 50_000; i++) {
+            int productID = 1 + random.nextInt(2_000);
+            int recommendationID = random.nextInt(40);
+            double rate = random.nextInt(10);
+            batch.add(productID, recommendationID, "a", rate, "c");
+            // repeated ids keep the last rate
+            expected.computeIfAbsent(productID, id -> new LinkedHashMap<>()).put(recommendationID, rate);
+        }
+        TopRecommendations top = new TopRecommendations(5, 16);
+        top.add(9_999, 1, "a", 1, "c");
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            top.rebuild(batch, pool);
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(expected.size(), top.products());
+        assertTrue(top.find(9_999, "test").isEmpty());
+        for (Map.Entry<Integer, Map<Integer, Double>> product : expected.entrySet()) {
+            List<Integer> best = product.getValue().entrySet().stream()
+                    .sorted(Map.Entry.<Integer, Double>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                    .limit(5).map(Map.Entry::getKey).collect(Collectors.toList());
+            assertEquals(best, ids(top.find(product.getKey(), "test")), "productID " + product.getKey());
+        }
+    }
+
+    private static List<Integer> ids(List<Recommendation> recommendations) {
+        List<Integer> ids = new ArrayList<>();
+        recommendations.forEach(recommendation -> ids.add(recommendation.getRecommendationID()));
+        return ids;
+    }
+}
@@ -0,0 +1,94 @@
+package com.jkc.microservices.core.review.configurations;
+
+import com.jkc.microservices.core.review.persistence.ReviewImporter;
+import com.jkc.microservices.core.review.persistence.ReviewStore;
+import com.jkc.microservices.core.review.persistence.ReviewStoreProperties;
+import com.jkc.microservices.core.review.persistence.ReviewWrite;
+import com.jkc.microservices.util.batch.WriteBatchProperties;
+import com.jkc.microservices.util.batch.WriteBatcher;
+import com.jkc.microservices.util.events.ChangeEvent;
+import com.jkc.microservices.util.events.ChangeEventBus;
+import com.jkc.microservices.util.events.ChangeEventProperties;
+import com.jkc.microservices.util.events.ChangeEventPublisher;
+import com.jkc.microservices.util.http.ProductVersions;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ResourceLoader;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * off-heap review store, filled from app.review-store.import-location before the server starts taking requests,
+ * creates and deletes are applied to it in batches
+ */
+@Configuration
+public class ReviewStoreConfig {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReviewStoreConfig.class);
+
+    @Bean
+    @ConfigurationProperties("app.review-store")
+    ReviewStoreProperties reviewStoreProperties() {
+        return new ReviewStoreProperties();
+    }
+
+    @Bean
+    ReviewStore reviewStore(ReviewStoreProperties reviewStoreProperties, ResourceLoader resourceLoader, ObjectProvider<MeterRegistry> meterRegistry) throws IOException {
+        ReviewStore store = new ReviewStore(reviewStoreProperties.getExpectedProducts(), reviewStoreProperties.getRecordsPerChunk(), reviewStoreProperties.getTextChunkBytes());
+        String location = reviewStoreProperties.getImportLocation();
+        if (location != null && !location.isBlank()) {
+            try (Reader reader = new InputStreamReader(resourceLoader.getResource(location).getInputStream(), StandardCharsets.UTF_8)) {
+                long imported = new ReviewImporter(store).importCsv(reader);
+                LOGGER.info("imported {} reviews from {}", imported, location);
+            }
+        }
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            Gauge.builder("app.review.store.reviews", store, ReviewStore::count).register(registry);
+            Gauge.builder("app.review.store.off.heap.bytes", store, ReviewStore::offHeapBytes).baseUnit("bytes").register(registry);
+        }
+        return store;
+    }
+
+    @Bean
+    @ConfigurationProperties("app.write-batch")
+    WriteBatchProperties writeBatchProperties() {
+        return new WriteBatchProperties();
+    }
+
+    @Bean(destroyMethod = "close")
+    ChangeEventPublisher reviewChangeEventPublisher(ChangeEventBus changeEventBus, ChangeEventProperties changeEventProperties) {
+        return new ChangeEventPublisher(ChangeEvent.Type.REVIEW, changeEventBus, changeEventProperties);
+    }
+
+    /**
+     * etags of the reviews of each product
+     */
+    @Bean
+    ProductVersions reviewVersions(ReviewStoreProperties reviewStoreProperties) {
+        return new ProductVersions(reviewStoreProperties.getExpectedProducts());
+    }
+
+    /**
+     * the etag changes and a change event is published for every product whose reviews were written
+     */
+    @Bean(destroyMethod = "close")
+    WriteBatcher<ReviewWrite> reviewWriteBatcher(ReviewStore reviewStore, ProductVersions reviewVersions, WriteBatchProperties writeBatchProperties, ChangeEventPublisher reviewChangeEventPublisher) {
+        return new WriteBatcher<>("review", writeBatchProperties, writes -> {
+            reviewStore.writeAll(writes);
+            writes.forEach(write -> {
+                reviewVersions.changed(write.getProductID());
+                reviewChangeEventPublisher.changed(write.getProductID());
+            });
+        });
+    }
+}
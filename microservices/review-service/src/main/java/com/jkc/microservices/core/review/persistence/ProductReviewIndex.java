@@ -0,0 +1,177 @@
+package com.jkc.microservices.core.review.persistence;
+
+import java.util.Arrays;
+
+/**
+ * open addressing map from an int productID to its review postings, no boxed keys and no entry objects.
+ * productIDs are positive, so 0 marks a free slot. not thread safe, {@link ReviewStore} guards it
+ */
+final class ProductReviewIndex {
+
+    private static final int FREE = 0;
+    private int[] keys;
+    private Postings[] values;
+    private int size;
+
+    ProductReviewIndex(int expectedProducts) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedProducts * 2 - 1)) << 1;
+        this.keys = new int[capacity];
+        this.values = new Postings[capacity];
+    }
+
+    Postings get(int productID) {
+        int mask = keys.length - 1;
+        for (int slot = hash(productID) & mask; ; slot = (slot + 1) & mask) {
+            int key = keys[slot];
+            if (key == productID) {
+                return values[slot];
+            }
+            if (key == FREE) {
+                return null;
+            }
+        }
+    }
+
+    Postings getOrCreate(int productID) {
+        Postings postings = get(productID);
+        if (postings != null) {
+            return postings;
+        }
+        if ((size + 1) * 2 > keys.length) {
+            resize();
+        }
+        postings = new Postings();
+        insert(keys, values, productID, postings);
+        size++;
+        return postings;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void resize() {
+        int[] resizedKeys = new int[keys.length * 2];
+        Postings[] resizedValues = new Postings[keys.length * 2];
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != FREE) {
+                insert(resizedKeys, resizedValues, keys[slot], values[slot]);
+            }
+        }
+        keys = resizedKeys;
+        values = resizedValues;
+    }
+
+    private static void insert(int[] keys, Postings[] values, int productID, Postings postings) {
+        int mask = keys.length - 1;
+        int slot = hash(productID) & mask;
+        while (keys[slot] != FREE) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = productID;
+        values[slot] = postings;
+    }
+
+    private static int hash(int productID) {
+        int h = productID * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * the record numbers of one product's reviews, kept sorted once per {@link ReviewSort}, and the record of each
+     * reviewID in an open addressing map, a record of -1 marks a free slot. removal shifts the following entries back
+     * instead of leaving tombstones
+     */
+    static final class Postings {
+        static final int NONE = -1;
+        int[] byRecent = new int[4];
+        int[] byRating = new int[4];
+        int size;
+        private int[] reviewIDs = new int[8];
+        private int[] records = newRecords(8);
+
+        int[] sorted(ReviewSort sort) {
+            return sort == ReviewSort.RECENT ? byRecent : byRating;
+        }
+
+        /**
+         * @return the record of the review, NONE when the product has no such review
+         */
+        int recordOf(int reviewID) {
+            int mask = reviewIDs.length - 1;
+            for (int slot = hash(reviewID) & mask; ; slot = (slot + 1) & mask) {
+                if (records[slot] == NONE) {
+                    return NONE;
+                }
+                if (reviewIDs[slot] == reviewID) {
+                    return records[slot];
+                }
+            }
+        }
+
+        /**
+         * maps a reviewID the product has no review for yet, before size counts it
+         */
+        void putRecord(int reviewID, int record) {
+            if ((size + 1) * 2 > reviewIDs.length) {
+                int[] oldReviewIDs = reviewIDs;
+                int[] oldRecords = records;
+                reviewIDs = new int[oldReviewIDs.length * 2];
+                records = newRecords(oldReviewIDs.length * 2);
+                for (int slot = 0; slot < oldReviewIDs.length; slot++) {
+                    if (oldRecords[slot] != NONE) {
+                        insert(oldReviewIDs[slot], oldRecords[slot]);
+                    }
+                }
+            }
+            insert(reviewID, record);
+        }
+
+        /**
+         * @return the record the reviewID was mapped to, NONE when there was none
+         */
+        int removeRecord(int reviewID) {
+            int mask = reviewIDs.length - 1;
+            int gap = hash(reviewID) & mask;
+            while (records[gap] != NONE && reviewIDs[gap] != reviewID) {
+                gap = (gap + 1) & mask;
+            }
+            int record = records[gap];
+            if (record == NONE) {
+                return NONE;
+            }
+            for (int next = (gap + 1) & mask; records[next] != NONE; next = (next + 1) & mask) {
+                // an entry moves into the gap unless the gap lies before its home slot
+                int home = hash(reviewIDs[next]) & mask;
+                if (((next - home) & mask) >= ((next - gap) & mask)) {
+                    reviewIDs[gap] = reviewIDs[next];
+                    records[gap] = records[next];
+                    gap = next;
+                }
+            }
+            records[gap] = NONE;
+            return record;
+        }
+
+        void clearRecords() {
+            reviewIDs = new int[8];
+            records = newRecords(8);
+        }
+
+        private void insert(int reviewID, int record) {
+            int mask = reviewIDs.length - 1;
+            int slot = hash(reviewID) & mask;
+            while (records[slot] != NONE) {
+                slot = (slot + 1) & mask;
+            }
+            reviewIDs[slot] = reviewID;
+            records[slot] = record;
+        }
+
+        private static int[] newRecords(int capacity) {
+            int[] records = new int[capacity];
+            Arrays.fill(records, NONE);
+            return records;
+        }
+    }
+}
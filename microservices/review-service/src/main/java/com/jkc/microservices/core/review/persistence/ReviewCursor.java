@@ -0,0 +1,57 @@
+package com.jkc.microservices.core.review.persistence;
+
+import com.jkc.microservices.util.exceptions.InvalidInputException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * keyset cursor: the sort keys of the last review on a page. the next page starts after that key rather than at an
+ * offset, so reviews added or removed between two requests do not shift or repeat entries
+ */
+public final class ReviewCursor {
+    private final ReviewSort sort;
+    private final int rating;
+    private final long createdAt;
+    private final int reviewID;
+
+    ReviewCursor(ReviewSort sort, int rating, long createdAt, int reviewID) {
+        this.sort = sort;
+        this.rating = rating;
+        this.createdAt = createdAt;
+        this.reviewID = reviewID;
+    }
+
+    public static ReviewCursor decode(String cursor, ReviewSort sort) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII).split(":");
+            if (parts.length != 4 || !parts[0].equals(sort.parameter())) {
+                throw new InvalidInputException("Invalid cursor: " + cursor + " for sort " + sort.parameter());
+            }
+            return new ReviewCursor(sort, Integer.parseInt(parts[1]), Long.parseLong(parts[2]), Integer.parseInt(parts[3]));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidInputException("Invalid cursor: " + cursor);
+        }
+    }
+
+    public String encode() {
+        String key = sort.parameter() + ":" + rating + ":" + createdAt + ":" + reviewID;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    ReviewSort getSort() {
+        return sort;
+    }
+
+    int getRating() {
+        return rating;
+    }
+
+    long getCreatedAt() {
+        return createdAt;
+    }
+
+    int getReviewID() {
+        return reviewID;
+    }
+}
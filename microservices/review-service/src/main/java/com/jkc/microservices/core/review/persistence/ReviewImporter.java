@@ -0,0 +1,51 @@
+package com.jkc.microservices.core.review.persistence;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+
+/**
+ * bulk import of productID,reviewID,rating,createdAt,author,subject,content lines into a {@link ReviewStore}.
+ * createdAt is an ISO-8601 instant, the content is the last column and may contain commas.
+ * a header line, blank lines and lines starting with # are skipped
+ */
+public class ReviewImporter {
+
+    private static final int COLUMNS = 7;
+    private final ReviewStore store;
+
+    public ReviewImporter(ReviewStore store) {
+        this.store = store;
+    }
+
+    /**
+     * @return the number of imported reviews
+     */
+    public long importCsv(Reader reader) throws IOException {
+        long imported = 0;
+        BufferedReader lines = new BufferedReader(reader);
+        int lineNumber = 0;
+        for (String line = lines.readLine(); line != null; line = lines.readLine()) {
+            lineNumber++;
+            line = line.strip();
+            if (line.isEmpty() || line.startsWith("#") || (lineNumber == 1 && !Character.isDigit(line.charAt(0)))) {
+                continue;
+            }
+            String[] columns = line.split(",", COLUMNS);
+            if (columns.length != COLUMNS) {
+                throw new IllegalArgumentException("Line " + lineNumber + " is not productID,reviewID,rating,createdAt,author,subject,content: " + line);
+            }
+            try {
+                store.add(Integer.parseInt(columns[0].strip()), Integer.parseInt(columns[1].strip()),
+                        columns[4].strip(), columns[5].strip(), columns[6].strip(),
+                        Integer.parseInt(columns[2].strip()), Instant.parse(columns[3].strip()).toEpochMilli());
+            } catch (NumberFormatException | DateTimeParseException e) {
+                throw new IllegalArgumentException("Line " + lineNumber + " is not productID,reviewID,rating,createdAt,author,subject,content: " + line, e);
+            }
+            imported++;
+        }
+        return imported;
+    }
+}
@@ -0,0 +1,43 @@
+package com.jkc.microservices.core.review.persistence;
+
+import com.jkc.microservices.util.exceptions.InvalidInputException;
+
+/**
+ * page orders, ties are broken by the later createdAt and then the higher reviewID so every order is total
+ */
+public enum ReviewSort {
+    RECENT("recent"),
+    RATING("rating");
+
+    private final String parameter;
+
+    ReviewSort(String parameter) {
+        this.parameter = parameter;
+    }
+
+    public String parameter() {
+        return parameter;
+    }
+
+    public static ReviewSort fromParameter(String parameter) {
+        for (ReviewSort sort : values()) {
+            if (sort.parameter.equals(parameter)) {
+                return sort;
+            }
+        }
+        throw new InvalidInputException("Invalid sort: " + parameter + ", expected recent or rating");
+    }
+
+    /**
+     * @return a negative number when review a comes first in this order
+     */
+    int compare(int ratingA, long createdAtA, int reviewIDA, int ratingB, long createdAtB, int reviewIDB) {
+        if (this == RATING && ratingA != ratingB) {
+            return Integer.compare(ratingB, ratingA);
+        }
+        if (createdAtA != createdAtB) {
+            return Long.compare(createdAtB, createdAtA);
+        }
+        return Integer.compare(reviewIDB, reviewIDA);
+    }
+}
@@ -0,0 +1,455 @@
+package com.jkc.microservices.core.review.persistence;
+
+import com.jkc.microservices.api.core.review.Review;
+import com.jkc.microservices.api.core.review.ReviewPage;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * review storage keyed by int productID. reviews live off-heap as fixed-width records in direct buffer chunks with
+ * their text in an append-only utf-8 arena, so the heap only holds a primitive productID index and two sorted int
+ * arrays of record numbers per product, one per {@link ReviewSort}. a page is a binary search for the cursor followed
+ * by decoding at most limit records; nothing is sorted on the request path. a per product map from reviewID to
+ * record finds the review a write replaces without scanning the product's reviews.
+ * replaced and deleted reviews give their record back to a free list the next writes take from, their text stays in
+ * the arena until it is more than half garbage, then the live texts are copied into a new arena under the write lock
+ */
+public class ReviewStore {
+
+    private static final int RECORD_SIZE = 56;
+    // the productID of a record on the free list, productIDs are positive
+    private static final int FREE = 0;
+    private static final int PRODUCT_ID = 0;
+    private static final int REVIEW_ID = 4;
+    private static final int RATING = 8;
+    private static final int CREATED_AT = 12;
+    private static final int AUTHOR = 20;
+    private static final int SUBJECT = 32;
+    private static final int CONTENT = 44;
+    private static final ThreadLocal<byte[]> TEXT_BUFFER = ThreadLocal.withInitial(() -> new byte[1024]);
+
+    private final int recordsPerChunk;
+    private final int textChunkBytes;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<ByteBuffer> recordChunks = new ArrayList<>();
+    private final ProductReviewIndex index;
+    private List<ByteBuffer> textChunks = new ArrayList<>();
+    private int records;
+    private int[] freeRecords = new int[16];
+    private int freeCount;
+    private long textEnd;
+    private long textGarbage;
+    private long reviews;
+
+    public ReviewStore(int expectedProducts, int recordsPerChunk, int textChunkBytes) {
+        if ((long) recordsPerChunk * RECORD_SIZE > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("records-per-chunk too large: " + recordsPerChunk);
+        }
+        this.index = new ProductReviewIndex(expectedProducts);
+        this.recordsPerChunk = recordsPerChunk;
+        this.textChunkBytes = textChunkBytes;
+    }
+
+    /**
+     * stores the review, replacing the one with the same productID and reviewID
+     */
+    public void add(int productID, int reviewID, String author, String subject, String content, int rating, long createdAt) {
+        if (productID < 1) {
+            throw new IllegalArgumentException("Invalid productID: " + productID);
+        }
+        requireFits(author, subject, content);
+        lock.writeLock().lock();
+        try {
+            addLocked(productID, reviewID, author, subject, content, rating, createdAt);
+            compactTextIfWasteful();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * applies a batch of queued writes in order while taking the write lock once. the whole batch is validated first,
+     * so it is either rejected or applied as a whole
+     */
+    public void writeAll(List<ReviewWrite> writes) {
+        for (ReviewWrite write : writes) {
+            if (write.getProductID() < 1) {
+                throw new IllegalArgumentException("Invalid productID: " + write.getProductID());
+            }
+            Review review = write.getReview();
+            if (review != null) {
+                requireFits(review.getAuthor(), review.getSubject(), review.getContent());
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            for (ReviewWrite write : writes) {
+                Review review = write.getReview();
+                if (review == null) {
+                    deleteProductLocked(write.getProductID());
+                } else {
+                    addLocked(write.getProductID(), review.getReviewID(), review.getAuthor(), review.getSubject(),
+                            review.getContent(), review.getRating(), review.getCreatedAt().toEpochMilli());
+                }
+            }
+            compactTextIfWasteful();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return true when the review existed
+     */
+    public boolean delete(int productID, int reviewID) {
+        lock.writeLock().lock();
+        try {
+            ProductReviewIndex.Postings postings = index.get(productID);
+            boolean removed = postings != null && remove(postings, reviewID);
+            compactTextIfWasteful();
+            return removed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * deletes all reviews of the product
+     *
+     * @return the number of deleted reviews
+     */
+    public int deleteProduct(int productID) {
+        lock.writeLock().lock();
+        try {
+            int deleted = deleteProductLocked(productID);
+            compactTextIfWasteful();
+            return deleted;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param after  the cursor of the previous page, null for the first page
+     * @return up to limit reviews following the cursor, with the cursor of the next page when there are more
+     */
+    public ReviewPage page(int productID, ReviewSort sort, ReviewCursor after, int limit, String serviceAddress) {
+        lock.readLock().lock();
+        try {
+            ProductReviewIndex.Postings postings = index.get(productID);
+            if (postings == null) {
+                return new ReviewPage(List.of(), null);
+            }
+            int[] sorted = postings.sorted(sort);
+            int start = after == null ? 0 : firstAfter(sorted, postings.size, sort, after);
+            int end = (int) Math.min(postings.size, (long) start + limit);
+            List<Review> page = new ArrayList<>(Math.max(0, end - start));
+            for (int i = start; i < end; i++) {
+                page.add(toReview(sorted[i], serviceAddress));
+            }
+            String nextCursor = end < postings.size && end > start ? cursorOf(sorted[end - 1], sort).encode() : null;
+            return new ReviewPage(page, nextCursor);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Review> findAll(int productID, ReviewSort sort, String serviceAddress) {
+        return page(productID, sort, null, Integer.MAX_VALUE, serviceAddress).getReviews();
+    }
+
+    /**
+     * @return true when each of the texts fits a text chunk
+     */
+    public boolean fits(String author, String subject, String content) {
+        return utf8Length(author) <= textChunkBytes && utf8Length(subject) <= textChunkBytes && utf8Length(content) <= textChunkBytes;
+    }
+
+    public long count() {
+        lock.readLock().lock();
+        try {
+            return reviews;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * direct memory held by records and text, including free records and text garbage that is not compacted yet
+     */
+    public long offHeapBytes() {
+        lock.readLock().lock();
+        try {
+            return (long) recordChunks.size() * recordsPerChunk * RECORD_SIZE + (long) textChunks.size() * textChunkBytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void addLocked(int productID, int reviewID, String author, String subject, String content, int rating, long createdAt) {
+        ProductReviewIndex.Postings postings = index.getOrCreate(productID);
+        remove(postings, reviewID);
+        int record = appendRecord(productID, reviewID, author, subject, content, rating, createdAt);
+        postings.putRecord(reviewID, record);
+        insertSorted(postings, ReviewSort.RECENT, record);
+        insertSorted(postings, ReviewSort.RATING, record);
+        postings.size++;
+        reviews++;
+    }
+
+    private int deleteProductLocked(int productID) {
+        ProductReviewIndex.Postings postings = index.get(productID);
+        if (postings == null) {
+            return 0;
+        }
+        int deleted = postings.size;
+        for (int i = 0; i < deleted; i++) {
+            freeRecord(postings.byRecent[i]);
+        }
+        postings.clearRecords();
+        postings.size = 0;
+        reviews -= deleted;
+        return deleted;
+    }
+
+    private boolean remove(ProductReviewIndex.Postings postings, int reviewID) {
+        int record = postings.removeRecord(reviewID);
+        if (record == ProductReviewIndex.Postings.NONE) {
+            return false;
+        }
+        removeAt(postings.byRecent, postings.size, lowerBound(postings.byRecent, postings.size, ReviewSort.RECENT, record));
+        removeAt(postings.byRating, postings.size, lowerBound(postings.byRating, postings.size, ReviewSort.RATING, record));
+        postings.size--;
+        reviews--;
+        freeRecord(record);
+        return true;
+    }
+
+    private void insertSorted(ProductReviewIndex.Postings postings, ReviewSort sort, int record) {
+        int[] sorted = postings.sorted(sort);
+        int low = lowerBound(sorted, postings.size, sort, record);
+        if (postings.size == sorted.length) {
+            int[] grown = new int[sorted.length * 2];
+            System.arraycopy(sorted, 0, grown, 0, postings.size);
+            sorted = grown;
+            if (sort == ReviewSort.RECENT) {
+                postings.byRecent = grown;
+            } else {
+                postings.byRating = grown;
+            }
+        }
+        System.arraycopy(sorted, low, sorted, low + 1, postings.size - low);
+        sorted[low] = record;
+    }
+
+    /**
+     * @return the position of the first record that does not sort before the given one, its own position when listed
+     */
+    private int lowerBound(int[] sorted, int size, ReviewSort sort, int record) {
+        int rating = rating(record);
+        long createdAt = createdAt(record);
+        int reviewID = reviewID(record);
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int other = sorted[middle];
+            if (sort.compare(rating(other), createdAt(other), reviewID(other), rating, createdAt, reviewID) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private int firstAfter(int[] sorted, int size, ReviewSort sort, ReviewCursor cursor) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int record = sorted[middle];
+            if (sort.compare(rating(record), createdAt(record), reviewID(record), cursor.getRating(), cursor.getCreatedAt(), cursor.getReviewID()) <= 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private int appendRecord(int productID, int reviewID, String author, String subject, String content, int rating, long createdAt) {
+        int record;
+        if (freeCount > 0) {
+            record = freeRecords[--freeCount];
+        } else {
+            record = records++;
+            if (record / recordsPerChunk == recordChunks.size()) {
+                recordChunks.add(ByteBuffer.allocateDirect(recordsPerChunk * RECORD_SIZE).order(ByteOrder.nativeOrder()));
+            }
+        }
+        ByteBuffer chunk = recordChunk(record);
+        int position = recordPosition(record);
+        chunk.putInt(position + PRODUCT_ID, productID)
+                .putInt(position + REVIEW_ID, reviewID)
+                .putInt(position + RATING, rating)
+                .putLong(position + CREATED_AT, createdAt);
+        putText(chunk, position + AUTHOR, author);
+        putText(chunk, position + SUBJECT, subject);
+        putText(chunk, position + CONTENT, content);
+        return record;
+    }
+
+    private void freeRecord(int record) {
+        ByteBuffer chunk = recordChunk(record);
+        int position = recordPosition(record);
+        textGarbage += Math.max(0, chunk.getInt(position + AUTHOR + 8)) + Math.max(0, chunk.getInt(position + SUBJECT + 8))
+                + Math.max(0, chunk.getInt(position + CONTENT + 8));
+        chunk.putInt(position + PRODUCT_ID, FREE);
+        if (freeCount == freeRecords.length) {
+            freeRecords = Arrays.copyOf(freeRecords, freeCount * 2);
+        }
+        freeRecords[freeCount++] = record;
+    }
+
+    /**
+     * copies the live texts into a new arena once more than half of the current one, and at least a chunk, is garbage
+     */
+    private void compactTextIfWasteful() {
+        if (textGarbage < textChunkBytes || textGarbage * 2 < textEnd) {
+            return;
+        }
+        List<ByteBuffer> oldChunks = textChunks;
+        textChunks = new ArrayList<>();
+        textEnd = 0;
+        textGarbage = 0;
+        for (int record = 0; record < records; record++) {
+            ByteBuffer chunk = recordChunk(record);
+            int position = recordPosition(record);
+            if (chunk.getInt(position + PRODUCT_ID) != FREE) {
+                moveText(oldChunks, chunk, position + AUTHOR);
+                moveText(oldChunks, chunk, position + SUBJECT);
+                moveText(oldChunks, chunk, position + CONTENT);
+            }
+        }
+    }
+
+    private void moveText(List<ByteBuffer> oldChunks, ByteBuffer recordChunk, int position) {
+        int length = recordChunk.getInt(position + 8);
+        if (length >= 0) {
+            putText(recordChunk, position, readText(oldChunks, recordChunk.getLong(position), length), length);
+        }
+    }
+
+    // a text reference is the arena offset (long) followed by the utf-8 length (int), -1 for null
+    private void putText(ByteBuffer recordChunk, int position, String text) {
+        if (text == null) {
+            recordChunk.putLong(position, 0).putInt(position + 8, -1);
+            return;
+        }
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        putText(recordChunk, position, bytes, bytes.length);
+    }
+
+    private void putText(ByteBuffer recordChunk, int position, byte[] bytes, int length) {
+        if (textEnd % textChunkBytes + length > textChunkBytes) {
+            textEnd = (textEnd / textChunkBytes + 1) * textChunkBytes;
+        }
+        int chunkIndex = (int) (textEnd / textChunkBytes);
+        if (chunkIndex == textChunks.size()) {
+            textChunks.add(ByteBuffer.allocateDirect(textChunkBytes));
+        }
+        textChunks.get(chunkIndex).put((int) (textEnd % textChunkBytes), bytes, 0, length);
+        recordChunk.putLong(position, textEnd).putInt(position + 8, length);
+        textEnd += length;
+    }
+
+    private void requireFits(String author, String subject, String content) {
+        if (!fits(author, subject, content)) {
+            throw new IllegalArgumentException("Review text exceeds text-chunk-bytes " + textChunkBytes);
+        }
+    }
+
+    private static int utf8Length(String text) {
+        if (text == null) {
+            return 0;
+        }
+        int length = text.length();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isSurrogate(c)) {
+                // a pair takes four bytes for its two chars
+                length++;
+            } else if (c >= 0x800) {
+                length += 2;
+            } else if (c >= 0x80) {
+                length++;
+            }
+        }
+        return length;
+    }
+
+    private String text(ByteBuffer recordChunk, int position) {
+        int length = recordChunk.getInt(position + 8);
+        if (length < 0) {
+            return null;
+        }
+        return new String(readText(textChunks, recordChunk.getLong(position), length), 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return a thread local buffer holding the text in its first length bytes
+     */
+    private byte[] readText(List<ByteBuffer> chunks, long offset, int length) {
+        byte[] buffer = TEXT_BUFFER.get();
+        if (buffer.length < length) {
+            buffer = new byte[Math.max(length, buffer.length * 2)];
+            TEXT_BUFFER.set(buffer);
+        }
+        chunks.get((int) (offset / textChunkBytes)).get((int) (offset % textChunkBytes), buffer, 0, length);
+        return buffer;
+    }
+
+    private Review toReview(int record, String serviceAddress) {
+        ByteBuffer chunk = recordChunk(record);
+        int position = recordPosition(record);
+        return new Review(chunk.getInt(position + PRODUCT_ID), chunk.getInt(position + REVIEW_ID),
+                text(chunk, position + AUTHOR), text(chunk, position + SUBJECT), text(chunk, position + CONTENT),
+                chunk.getInt(position + RATING), Instant.ofEpochMilli(chunk.getLong(position + CREATED_AT)), serviceAddress);
+    }
+
+    private ReviewCursor cursorOf(int record, ReviewSort sort) {
+        return new ReviewCursor(sort, rating(record), createdAt(record), reviewID(record));
+    }
+
+    private ByteBuffer recordChunk(int record) {
+        return recordChunks.get(record / recordsPerChunk);
+    }
+
+    private int recordPosition(int record) {
+        return (record % recordsPerChunk) * RECORD_SIZE;
+    }
+
+    private int reviewID(int record) {
+        return recordChunk(record).getInt(recordPosition(record) + REVIEW_ID);
+    }
+
+    private int rating(int record) {
+        return recordChunk(record).getInt(recordPosition(record) + RATING);
+    }
+
+    private long createdAt(int record) {
+        return recordChunk(record).getLong(recordPosition(record) + CREATED_AT);
+    }
+
+    private static void removeAt(int[] array, int size, int index) {
+        System.arraycopy(array, index + 1, array, index, size - index - 1);
+    }
+}
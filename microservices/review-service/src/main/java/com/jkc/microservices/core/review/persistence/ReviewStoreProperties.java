@@ -0,0 +1,52 @@
+package com.jkc.microservices.core.review.persistence;
+
+/**
+ * review store settings bound from app.review-store
+ */
+public class ReviewStoreProperties {
+    private String importLocation;
+    private int expectedProducts = 1024;
+    private int recordsPerChunk = 64 * 1024;
+    private int textChunkBytes = 4 * 1024 * 1024;
+    private int maxLimit = 100;
+
+    public String getImportLocation() {
+        return importLocation;
+    }
+
+    public void setImportLocation(String importLocation) {
+        this.importLocation = importLocation;
+    }
+
+    public int getExpectedProducts() {
+        return expectedProducts;
+    }
+
+    public void setExpectedProducts(int expectedProducts) {
+        this.expectedProducts = expectedProducts;
+    }
+
+    public int getRecordsPerChunk() {
+        return recordsPerChunk;
+    }
+
+    public void setRecordsPerChunk(int recordsPerChunk) {
+        this.recordsPerChunk = recordsPerChunk;
+    }
+
+    public int getTextChunkBytes() {
+        return textChunkBytes;
+    }
+
+    public void setTextChunkBytes(int textChunkBytes) {
+        this.textChunkBytes = textChunkBytes;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public void setMaxLimit(int maxLimit) {
+        this.maxLimit = maxLimit;
+    }
+}
@@ -0,0 +1,38 @@
+package com.jkc.microservices.core.review.persistence;
+
+import com.jkc.microservices.api.core.review.Review;
+
+/**
+ * one queued write: a review to store, or the deletion of all reviews of a product when there is no review
+ */
+public final class ReviewWrite {
+    private final int productID;
+    private final Review review;
+
+    private ReviewWrite(int productID, Review review) {
+        this.productID = productID;
+        this.review = review;
+    }
+
+    /**
+     * @param review a review with a createdAt
+     */
+    public static ReviewWrite save(Review review) {
+        return new ReviewWrite(review.getProductID(), review);
+    }
+
+    public static ReviewWrite deleteProduct(int productID) {
+        return new ReviewWrite(productID, null);
+    }
+
+    public int getProductID() {
+        return productID;
+    }
+
+    /**
+     * @return the review to store, null when all reviews of the product are deleted
+     */
+    public Review getReview() {
+        return review;
+    }
+}
@@ -1,15 +1,26 @@
 package com.jkc.microservices.core.review.services;
 
 import com.jkc.microservices.api.core.review.Review;
+import com.jkc.microservices.api.core.review.ReviewPage;
 import com.jkc.microservices.api.core.review.ReviewService;
+import com.jkc.microservices.core.review.persistence.ReviewCursor;
+import com.jkc.microservices.core.review.persistence.ReviewSort;
+import com.jkc.microservices.core.review.persistence.ReviewStore;
+import com.jkc.microservices.core.review.persistence.ReviewStoreProperties;
+import com.jkc.microservices.core.review.persistence.ReviewWrite;
+import com.jkc.microservices.util.batch.WriteBatcher;
 import com.jkc.microservices.util.exceptions.InvalidInputException;
+import com.jkc.microservices.util.http.ConditionalGet;
+import com.jkc.microservices.util.http.ProductVersions;
 import com.jkc.microservices.util.http.ServiceUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
-import java.util.ArrayList;
+import java.time.Instant;
 import java.util.List;
 
 @RestController
@@ -18,32 +29,107 @@ public class ReviewServiceImpl implements ReviewService {
     private static final Logger LOGGER = LoggerFactory.getLogger(ReviewServiceImpl.class);
 
     private final ServiceUtil serviceUtil;
+    private final ReviewStore reviewStore;
+    private final ProductVersions reviewVersions;
+    private final int maxLimit;
+    private final int textChunkBytes;
+    private final WriteBatcher<ReviewWrite> reviewWriteBatcher;
 
     @Autowired
-    public ReviewServiceImpl(ServiceUtil serviceUtil) {
+    public ReviewServiceImpl(ServiceUtil serviceUtil, ReviewStore reviewStore, ProductVersions reviewVersions, ReviewStoreProperties reviewStoreProperties, WriteBatcher<ReviewWrite> reviewWriteBatcher) {
         this.serviceUtil = serviceUtil;
+        this.reviewStore = reviewStore;
+        this.reviewVersions = reviewVersions;
+        this.maxLimit = reviewStoreProperties.getMaxLimit();
+        this.textChunkBytes = reviewStoreProperties.getTextChunkBytes();
+        this.reviewWriteBatcher = reviewWriteBatcher;
     }
 
     /**
      * usage: curl $HOST:$PORT/review?productID=1
+     * or : curl -H 'If-None-Match: "<etag>"' $HOST:$PORT/review?productID=1
      *
      * @param productID "required productID int"
-     * @return list of reviews for product associated with productID
+     * @return list of reviews for product associated with productID, newest first, nothing but 304 when they still have the given etag
      */
     @Override
-    public List<Review> getReviews(int productID) {
+    public Flux<Review> getReviews(int productID) {
         if (productID < 1) throw new InvalidInputException("Invalid productId: " + productID);
 
-        if (productID == 213) {
-            LOGGER.debug("No reviews found for productId: {}", productID);
-            return  new ArrayList<>();
-        }
+        String etag = reviewVersions.etag(productID);
+        return ConditionalGet.unlessNotModified(etag, Flux.defer(() -> findReviews(productID)));
+    }
 
-        List<Review> reviews = new ArrayList<>();
-        reviews.add(new Review(productID, 1, "Author 1", "Subject 1", "Content 1", serviceUtil.getServiceAddress()));
-        reviews.add(new Review(productID, 2, "Author 2", "Subject 2", "Content 2", serviceUtil.getServiceAddress()));
-        reviews.add(new Review(productID, 3, "Author 3", "Subject 3", "Content 3", serviceUtil.getServiceAddress()));
+    /**
+     * the reviews of one product, never answered with a 304, as a batch carries no etag of each of its products
+     */
+    private Flux<Review> findReviews(int productID) {
+        List<Review> reviews = reviewStore.findAll(productID, ReviewSort.RECENT, serviceUtil.getServiceAddress());
         LOGGER.debug("/reviews response size: {}", reviews.size());
-        return reviews;
+        return Flux.fromIterable(reviews);
+    }
+
+    /**
+     * usage: curl $HOST:$PORT/review?ids=1,2,3
+     *
+     * @param productIDs "required productIDs comma separated int"
+     * @return reviews of all the given products, each one carries its productID
+     */
+    @Override
+    public Flux<Review> getReviews(List<Integer> productIDs) {
+        for (int productID : productIDs) {
+            if (productID < 1) throw new InvalidInputException("Invalid productId: " + productID);
+        }
+        return Flux.fromIterable(productIDs).distinct().concatMap(this::findReviews);
+    }
+
+    /**
+     * usage: curl "$HOST:$PORT/review?productID=1&limit=20&sort=rating&cursor=..."
+     *
+     * @param productID "required productID int"
+     * @param limit     "required page size int, at most app.review-store.max-limit"
+     * @param sort      "recent or rating"
+     * @param cursor    "nextCursor of the previous page"
+     * @return up to limit reviews following the cursor and the cursor of the next page
+     */
+    @Override
+    public Mono<ReviewPage> getReviewPage(int productID, int limit, String sort, String cursor) {
+        if (productID < 1) throw new InvalidInputException("Invalid productId: " + productID);
+        if (limit < 1 || limit > maxLimit) throw new InvalidInputException("Invalid limit: " + limit + ", expected 1.." + maxLimit);
+        ReviewSort reviewSort = ReviewSort.fromParameter(sort);
+        ReviewCursor after = cursor == null || cursor.isEmpty() ? null : ReviewCursor.decode(cursor, reviewSort);
+
+        ReviewPage page = reviewStore.page(productID, reviewSort, after, limit, serviceUtil.getServiceAddress());
+        LOGGER.debug("/reviews page size: {}, next cursor: {}", page.getReviews().size(), page.getNextCursor());
+        return Mono.just(page);
+    }
+
+    /**
+     * usage: curl -X POST $HOST:$PORT/review -H "Content-Type: application/json" --data '{"productID":123,"reviewID":1,"author":"me","subject":"s","content":"c","rating":5}'
+     *
+     * @param body "the review, an existing review with the same productID and reviewID is replaced, createdAt defaults to now,
+     *             author, subject and content each at most app.review-store.text-chunk-bytes utf-8 bytes"
+     * @return the stored review, once it is persisted
+     */
+    @Override
+    public Mono<Review> createReview(Review body) {
+        if (body.getProductID() < 1) throw new InvalidInputException("Invalid productId: " + body.getProductID());
+        if (!reviewStore.fits(body.getAuthor(), body.getSubject(), body.getContent())) throw new InvalidInputException("Review text exceeds " + textChunkBytes + " bytes");
+        Instant createdAt = body.getCreatedAt() != null ? body.getCreatedAt() : Instant.now();
+        Review review = new Review(body.getProductID(), body.getReviewID(), body.getAuthor(), body.getSubject(), body.getContent(),
+                body.getRating(), createdAt, serviceUtil.getServiceAddress());
+        return reviewWriteBatcher.submit(ReviewWrite.save(review)).thenReturn(review);
+    }
+
+    /**
+     * usage: curl -X DELETE $HOST:$PORT/review?productID=1
+     *
+     * @param productID "required productID int, all reviews of the product are deleted"
+     */
+    @Override
+    public Mono<Void> deleteReviews(int productID) {
+        if (productID < 1) throw new InvalidInputException("Invalid productId: " + productID);
+        LOGGER.debug("/review delete all reviews of productID={}", productID);
+        return reviewWriteBatcher.submit(ReviewWrite.deleteProduct(productID));
     }
 }
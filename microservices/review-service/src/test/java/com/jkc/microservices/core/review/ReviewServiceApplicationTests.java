@@ -1,5 +1,7 @@
 package com.jkc.microservices.core.review;
 
+import com.jkc.microservices.api.core.review.Review;
+import com.jkc.microservices.api.core.review.ReviewPage;
 import org.apiguardian.api.API;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -11,8 +13,11 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.reactive.server.WebTestClient;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
 @ExtendWith(SpringExtension.class)
-@WebFluxTest
+@WebFluxTest(properties = "app.review-store.text-chunk-bytes=1024")
 class ReviewServiceApplicationTests {
 
 	@Autowired
@@ -32,6 +37,23 @@ class ReviewServiceApplicationTests {
 				.jsonPath("$[0].productID").isEqualTo(productId);
 	}
 
+	@Test
+	void getReviewsNotModified() {
+		String etag = webTestClient.get()
+				.uri("/review?productID=1")
+				.exchange()
+				.expectStatus().isOk()
+				.returnResult(Review.class)
+				.getResponseHeaders().getETag();
+		assertNotNull(etag);
+		webTestClient.get()
+				.uri("/review?productID=1")
+				.ifNoneMatch(etag)
+				.exchange()
+				.expectStatus().isNotModified()
+				.expectBody().isEmpty();
+	}
+
 	@Test
 	void getReviewsMissingParameter() {
 		webTestClient.get()
@@ -85,6 +107,151 @@ class ReviewServiceApplicationTests {
 				.jsonPath("$.message").isEqualTo("Invalid productId: " + productIdInvalid);
 	}
 
+	@Test
+	void getReviewsByProductIds() {
+		webTestClient.get()
+				.uri("/review?ids=1,213,2")
+				.accept(MediaType.APPLICATION_JSON)
+				.exchange()
+				.expectStatus().isOk()
+				.expectHeader().contentType(MediaType.APPLICATION_JSON)
+				.expectBody()
+				.jsonPath("$.length()").isEqualTo(6)
+				.jsonPath("$[0].productID").isEqualTo(1)
+				.jsonPath("$[3].productID").isEqualTo(2);
+	}
+
+	@Test
+	void getReviewsByProductIdsIgnoresIfNoneMatch() {
+		String etag = webTestClient.get()
+				.uri("/review?productID=1")
+				.exchange()
+				.expectStatus().isOk()
+				.returnResult(Review.class)
+				.getResponseHeaders().getETag();
+		assertNotNull(etag);
+		webTestClient.get()
+				.uri("/review?ids=1,213,2")
+				.ifNoneMatch(etag)
+				.accept(MediaType.APPLICATION_JSON)
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$.length()").isEqualTo(6)
+				.jsonPath("$[0].productID").isEqualTo(1)
+				.jsonPath("$[3].productID").isEqualTo(2);
+	}
+
+	@Test
+	void getReviewsNewestFirst() {
+		webTestClient.get()
+				.uri("/review?productID=2")
+				.accept(MediaType.APPLICATION_JSON)
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$[0].reviewID").isEqualTo(3)
+				.jsonPath("$[2].reviewID").isEqualTo(1);
+	}
+
+	@Test
+	void getReviewPageByRating() {
+		webTestClient.get()
+				.uri("/review?productID=2&limit=2&sort=rating")
+				.accept(MediaType.APPLICATION_JSON)
+				.exchange()
+				.expectStatus().isOk()
+				.expectHeader().contentType(MediaType.APPLICATION_JSON)
+				.expectBody()
+				.jsonPath("$.reviews.length()").isEqualTo(2)
+				.jsonPath("$.reviews[0].reviewID").isEqualTo(2)
+				.jsonPath("$.reviews[0].rating").isEqualTo(5)
+				.jsonPath("$.reviews[1].reviewID").isEqualTo(1)
+				.jsonPath("$.nextCursor").isNotEmpty();
+	}
+
+	@Test
+	void getReviewPageFollowsCursor() {
+		ReviewPage first = webTestClient.get()
+				.uri("/review?productID=2&limit=2")
+				.accept(MediaType.APPLICATION_JSON)
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody(ReviewPage.class)
+				.returnResult().getResponseBody();
+		assertNotNull(first);
+		assertEquals(2, first.getReviews().size());
+		assertEquals(3, first.getReviews().get(0).getReviewID());
+		webTestClient.get()
+				.uri("/review?productID=2&limit=2&cursor=" + first.getNextCursor())
+				.accept(MediaType.APPLICATION_JSON)
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$.reviews.length()").isEqualTo(1)
+				.jsonPath("$.reviews[0].reviewID").isEqualTo(1)
+				.jsonPath("$.nextCursor").doesNotExist();
+	}
+
+	@Test
+	void getReviewPageInvalidLimit() {
+		webTestClient.get()
+				.uri("/review?productID=2&limit=101")
+				.accept(MediaType.APPLICATION_JSON)
+				.exchange()
+				.expectStatus().isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY)
+				.expectBody()
+				.jsonPath("$.message").isEqualTo("Invalid limit: 101, expected 1..100");
+	}
+
+	@Test
+	void getReviewPageInvalidSortAndCursor() {
+		webTestClient.get()
+				.uri("/review?productID=2&limit=2&sort=oldest")
+				.accept(MediaType.APPLICATION_JSON)
+				.exchange()
+				.expectStatus().isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+		webTestClient.get()
+				.uri("/review?productID=2&limit=2&cursor=garbage")
+				.accept(MediaType.APPLICATION_JSON)
+				.exchange()
+				.expectStatus().isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+	}
+
+	@Test
+	void createAndDeleteReviews() {
+		int productId = 5000;
+		webTestClient.post()
+				.uri("/review")
+				.contentType(MediaType.APPLICATION_JSON)
+				.bodyValue(new Review(productId, 1, "author", "subject", "content", 4, null, null))
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$.reviewID").isEqualTo(1)
+				.jsonPath("$.createdAt").isNotEmpty();
+		webTestClient.get().uri("/review?productID=" + productId).exchange().expectStatus().isOk()
+				.expectBody().jsonPath("$.length()").isEqualTo(1).jsonPath("$[0].rating").isEqualTo(4);
+
+		webTestClient.delete().uri("/review?productID=" + productId).exchange().expectStatus().isOk();
+		webTestClient.get().uri("/review?productID=" + productId).exchange().expectStatus().isOk()
+				.expectBody().jsonPath("$.length()").isEqualTo(0);
+	}
+
+	@Test
+	void createReviewWithOversizedText() {
+		webTestClient.post()
+				.uri("/review")
+				.contentType(MediaType.APPLICATION_JSON)
+				.bodyValue(new Review(5001, 1, "author", "subject", "c".repeat(1025), 4, null, null))
+				.exchange()
+				.expectStatus().isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY)
+				.expectBody()
+				.jsonPath("$.message").isEqualTo("Review text exceeds 1024 bytes");
+		webTestClient.get().uri("/review?productID=5001").exchange().expectStatus().isOk()
+				.expectBody().jsonPath("$.length()").isEqualTo(0);
+	}
+
 	@Test
 	void contextLoads() {
 	}
@@ -0,0 +1,159 @@
+package com.jkc.microservices.core.review.persistence;
+
+import com.jkc.microservices.api.core.review.Review;
+import com.jkc.microservices.api.core.review.ReviewPage;
+import com.jkc.microservices.util.exceptions.InvalidInputException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReviewStoreTests {
+
+    private ReviewStore store;
+
+    @BeforeEach
+    void setUp() {
+        // tiny chunks so the tests cross record and text chunk boundaries
+        store = new ReviewStore(2, 4, 64);
+        store.add(1, 1, "a1", "s1", "c1", 3, 1_000);
+        store.add(1, 2, "a2", "s2", "c2", 5, 2_000);
+        store.add(1, 3, "a3", "s3", "c3", 5, 3_000);
+        store.add(1, 4, "a4", "s4", "c4", 1, 4_000);
+        store.add(1, 5, "a5", "s5", null, 3, 4_000);
+        store.add(2, 1, "b1", "t1", "d1", 4, 500);
+    }
+
+    @Test
+    void sortsByRecentAndRating() {
+        assertEquals(List.of(5, 4, 3, 2, 1), reviewIDs(store.findAll(1, ReviewSort.RECENT, "test")));
+        assertEquals(List.of(3, 2, 5, 1, 4), reviewIDs(store.findAll(1, ReviewSort.RATING, "test")));
+        Review review = store.findAll(1, ReviewSort.RECENT, "test").get(0);
+        assertEquals("a5", review.getAuthor());
+        assertNull(review.getContent());
+        assertEquals(4_000, review.getCreatedAt().toEpochMilli());
+        assertEquals("test", review.getServiceAddress());
+        assertTrue(store.findAll(3, ReviewSort.RECENT, "test").isEmpty());
+    }
+
+    @Test
+    void pagesWithCursor() {
+        List<Integer> seen = new ArrayList<>();
+        ReviewCursor cursor = null;
+        do {
+            ReviewPage page = store.page(1, ReviewSort.RATING, cursor, 2, "test");
+            seen.addAll(reviewIDs(page.getReviews()));
+            cursor = page.getNextCursor() == null ? null : ReviewCursor.decode(page.getNextCursor(), ReviewSort.RATING);
+        } while (cursor != null);
+        assertEquals(List.of(3, 2, 5, 1, 4), seen);
+    }
+
+    @Test
+    void cursorIsStableAcrossChanges() {
+        ReviewPage first = store.page(1, ReviewSort.RECENT, null, 2, "test");
+        assertEquals(List.of(5, 4), reviewIDs(first.getReviews()));
+        // a newer review and the removal of an already returned one must not shift the next page
+        store.add(1, 6, "a6", "s6", "c6", 2, 9_000);
+        assertTrue(store.delete(1, 5));
+        ReviewPage second = store.page(1, ReviewSort.RECENT, ReviewCursor.decode(first.getNextCursor(), ReviewSort.RECENT), 2, "test");
+        assertEquals(List.of(3, 2), reviewIDs(second.getReviews()));
+    }
+
+    @Test
+    void replacesAndDeletes() {
+        store.add(1, 1, "a1", "s1", "updated", 5, 5_000);
+        assertEquals(6, store.count());
+        List<Review> recent = store.findAll(1, ReviewSort.RECENT, "test");
+        assertEquals(5, recent.size());
+        assertEquals(1, recent.get(0).getReviewID());
+        assertEquals("updated", recent.get(0).getContent());
+
+        assertTrue(store.delete(2, 1));
+        assertFalse(store.delete(2, 1));
+        assertFalse(store.delete(7, 1));
+        assertTrue(store.findAll(2, ReviewSort.RECENT, "test").isEmpty());
+        assertEquals(5, store.count());
+    }
+
+    @Test
+    void reusesRecordsAndCompactsTextOfReplacedReviews() {
+        long offHeapBytes = store.offHeapBytes();
+        for (int i = 0; i < 1000; i++) {
+            store.add(1, 1 + i % 5, "a", "s", "content " + i, 3, 10_000 + i);
+            store.writeAll(List.of(ReviewWrite.deleteProduct(3), ReviewWrite.save(new Review(3, i, "b", "t", "text " + i, 4, Instant.ofEpochMilli(i), null))));
+        }
+        // 2000 replaced reviews, yet the records are reused and the text arena at most doubles between compactions
+        assertTrue(store.offHeapBytes() <= 2 * offHeapBytes, "off-heap bytes: " + store.offHeapBytes());
+        assertEquals(List.of("content 999", "content 998", "content 997", "content 996", "content 995"),
+                store.findAll(1, ReviewSort.RECENT, "test").stream().map(Review::getContent).collect(Collectors.toList()));
+        assertEquals("text 999", store.findAll(3, ReviewSort.RECENT, "test").get(0).getContent());
+        assertEquals("d1", store.findAll(2, ReviewSort.RECENT, "test").get(0).getContent());
+        assertEquals(7, store.count());
+    }
+
+    @Test
+    void replacesAndDeletesAmongManyReviewsOfAProduct() {
+        List<Integer> expected = new ArrayList<>();
+        for (int reviewID = 0; reviewID < 2000; reviewID++) {
+            store.add(4, reviewID, "a", "s", null, reviewID % 5, reviewID);
+            expected.add(0, reviewID);
+        }
+        for (int reviewID = 0; reviewID < 2000; reviewID += 3) {
+            assertTrue(store.delete(4, reviewID));
+            expected.remove(Integer.valueOf(reviewID));
+        }
+        store.add(4, 1, "a", "s", null, 5, 5_000);
+        expected.remove(Integer.valueOf(1));
+        expected.add(0, 1);
+        assertEquals(expected, reviewIDs(store.findAll(4, ReviewSort.RECENT, "test")));
+        assertEquals(1, store.findAll(4, ReviewSort.RATING, "test").get(0).getReviewID());
+        assertFalse(store.delete(4, 3));
+    }
+
+    @Test
+    void writesBatchesInOrder() {
+        store.writeAll(List.of(
+                ReviewWrite.deleteProduct(1),
+                ReviewWrite.save(new Review(1, 7, "a7", "s7", "c7", 2, Instant.ofEpochMilli(7_000), null)),
+                ReviewWrite.save(new Review(3, 1, "c1", "u1", "e1", 5, Instant.ofEpochMilli(1_000), null))));
+        assertEquals(List.of(7), reviewIDs(store.findAll(1, ReviewSort.RECENT, "test")));
+        assertEquals(List.of(1), reviewIDs(store.findAll(3, ReviewSort.RATING, "test")));
+        assertEquals(3, store.count());
+        assertEquals(1, store.deleteProduct(3));
+        assertEquals(0, store.deleteProduct(3));
+    }
+
+    @Test
+    void rejectsBatchWithOversizedTextAsAWhole() {
+        List<ReviewWrite> writes = List.of(
+                ReviewWrite.deleteProduct(2),
+                ReviewWrite.save(new Review(1, 7, "a7", "s".repeat(65), "c7", 2, Instant.ofEpochMilli(7_000), null)));
+        assertThrows(IllegalArgumentException.class, () -> store.writeAll(writes));
+        assertEquals(List.of(1), reviewIDs(store.findAll(2, ReviewSort.RECENT, "test")));
+        assertEquals(6, store.count());
+        assertTrue(store.fits("a", "\u00e9".repeat(32), null));
+        assertFalse(store.fits("a", "\u00e9".repeat(33), null));
+        assertFalse(store.fits("a", "b", "\ud83d\ude00".repeat(17)));
+    }
+
+    @Test
+    void rejectsCursorOfAnotherSort() {
+        String cursor = store.page(1, ReviewSort.RECENT, null, 1, "test").getNextCursor();
+        assertThrows(InvalidInputException.class, () -> ReviewCursor.decode(cursor, ReviewSort.RATING));
+        assertThrows(InvalidInputException.class, () -> ReviewCursor.decode("not a cursor", ReviewSort.RECENT));
+        assertThrows(InvalidInputException.class, () -> ReviewSort.fromParameter("oldest"));
+    }
+
+    private static List<Integer> reviewIDs(List<Review> reviews) {
+        return reviews.stream().map(Review::getReviewID).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,27 @@
+package com.jkc.microservices.util.batch;
+
+import java.time.Duration;
+
+/**
+ * write batching settings, bound from app.write-batch by each core service
+ */
+public class WriteBatchProperties {
+    private int maxSize = 500;
+    private Duration maxDelay = Duration.ofMillis(5);
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public Duration getMaxDelay() {
+        return maxDelay;
+    }
+
+    public void setMaxDelay(Duration maxDelay) {
+        this.maxDelay = maxDelay;
+    }
+}
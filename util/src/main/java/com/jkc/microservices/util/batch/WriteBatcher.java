@@ -0,0 +1,146 @@
+package com.jkc.microservices.util.batch;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * groups writes submitted by concurrent requests into batches that are persisted together. a batch is written as soon
+ * as it holds max-size writes, or max-delay after its first write, whichever comes first.
+ * batches are written one at a time, in submission order, on a dedicated thread, so a blocking store never runs on the
+ * event loop. the mono of a write completes once its batch is persisted or fails with the error of its batch;
+ * cancelling it does not withdraw the write
+ */
+public class WriteBatcher<T> implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WriteBatcher.class);
+
+    private final String name;
+    private final int maxSize;
+    private final long maxDelayNanos;
+    private final Consumer<List<T>> writer;
+    private final ScheduledExecutorService executor;
+    private List<T> writes = new ArrayList<>();
+    private List<MonoSink<Void>> sinks = new ArrayList<>();
+    private long batch;
+    private boolean closed;
+
+    /**
+     * @param writer persists one batch, called on the writer thread only
+     */
+    public WriteBatcher(String name, WriteBatchProperties properties, Consumer<List<T>> writer) {
+        if (properties.getMaxSize() < 1) {
+            throw new IllegalArgumentException("write-batch max-size must be positive: " + properties.getMaxSize());
+        }
+        this.name = name;
+        this.maxSize = properties.getMaxSize();
+        this.maxDelayNanos = properties.getMaxDelay().toNanos();
+        this.writer = writer;
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, name + "-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // close() hands the pending batch over itself, the timers still waiting for it are not needed anymore
+        executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        this.executor = executor;
+    }
+
+    public Mono<Void> submit(T write) {
+        return Mono.create(sink -> {
+            synchronized (this) {
+                if (closed) {
+                    sink.error(new IllegalStateException("The " + name + " writer is closed"));
+                    return;
+                }
+                sinks.add(sink);
+                addLocked(write);
+            }
+        });
+    }
+
+    /**
+     * queues writes nobody waits for, they are dropped once the batcher is closed
+     */
+    public void add(Collection<? extends T> queued) {
+        synchronized (this) {
+            if (!closed) {
+                queued.forEach(this::addLocked);
+            }
+        }
+    }
+
+    /**
+     * writes what is pending and waits for every batch to be persisted
+     */
+    @Override
+    public void close() throws InterruptedException {
+        synchronized (this) {
+            closed = true;
+            if (!writes.isEmpty()) {
+                scheduleWrite();
+            }
+        }
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            LOGGER.warn("{} writer did not finish its pending batches within 30s", name);
+        }
+    }
+
+    private void addLocked(T write) {
+        writes.add(write);
+        if (writes.size() >= maxSize) {
+            // scheduled while holding the lock, so batches reach the writer thread in the order they were closed
+            scheduleWrite();
+        } else if (writes.size() == 1) {
+            long due = batch;
+            executor.schedule(() -> writeIfDue(due), maxDelayNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void scheduleWrite() {
+        List<T> closedWrites = writes;
+        List<MonoSink<Void>> closedSinks = sinks;
+        writes = new ArrayList<>(maxSize);
+        sinks = new ArrayList<>(maxSize);
+        batch++;
+        executor.execute(() -> write(closedWrites, closedSinks));
+    }
+
+    private void writeIfDue(long due) {
+        List<T> dueWrites;
+        List<MonoSink<Void>> dueSinks;
+        synchronized (this) {
+            // the batch may have been closed by max-size meanwhile
+            if (batch != due || writes.isEmpty()) {
+                return;
+            }
+            dueWrites = writes;
+            dueSinks = sinks;
+            writes = new ArrayList<>(maxSize);
+            sinks = new ArrayList<>(maxSize);
+            batch++;
+        }
+        write(dueWrites, dueSinks);
+    }
+
+    private void write(List<T> batchWrites, List<MonoSink<Void>> batchSinks) {
+        try {
+            writer.accept(batchWrites);
+        } catch (RuntimeException e) {
+            LOGGER.warn("{} batch of {} writes failed: {}", name, batchWrites.size(), e.getMessage());
+            batchSinks.forEach(sink -> sink.error(e));
+            return;
+        }
+        batchSinks.forEach(MonoSink::success);
+    }
+}
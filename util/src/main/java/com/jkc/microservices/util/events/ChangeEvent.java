@@ -0,0 +1,64 @@
+package com.jkc.microservices.util.events;
+
+import java.util.Objects;
+
+/**
+ * tells that an entity of a product was created, updated or deleted. version increases with every change published
+ * by a service, so of two events for the same product and type the one with the higher version is the newer one
+ */
+public class ChangeEvent {
+
+    public enum Type {
+        PRODUCT, RECOMMENDATION, REVIEW
+    }
+
+    private final int productID;
+    private final Type type;
+    private final long version;
+
+    public ChangeEvent() {
+        this.productID = 0;
+        this.type = null;
+        this.version = 0;
+    }
+
+    public ChangeEvent(int productID, Type type, long version) {
+        this.productID = productID;
+        this.type = type;
+        this.version = version;
+    }
+
+    public int getProductID() {
+        return productID;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (other == null || getClass() != other.getClass()) {
+            return false;
+        }
+        ChangeEvent event = (ChangeEvent) other;
+        return productID == event.productID && version == event.version && type == event.type;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(productID, type, version);
+    }
+
+    @Override
+    public String toString() {
+        return type + ":" + productID + "@" + version;
+    }
+}
@@ -0,0 +1,23 @@
+package com.jkc.microservices.util.events;
+
+import java.util.List;
+
+/**
+ * one line of the /change-events stream. a batch is wrapped rather than written as a json array because a streaming
+ * decoder splits top-level arrays into their elements
+ */
+public class ChangeEventBatch {
+    private final List<ChangeEvent> events;
+
+    public ChangeEventBatch() {
+        this.events = List.of();
+    }
+
+    public ChangeEventBatch(List<ChangeEvent> events) {
+        this.events = events;
+    }
+
+    public List<ChangeEvent> getEvents() {
+        return events;
+    }
+}
@@ -0,0 +1,17 @@
+package com.jkc.microservices.util.events;
+
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+/**
+ * carries batches of change events from the services that publish them to the ones that keep derived copies.
+ * a subscription only sees batches published after it was made, and it errors when the bus had to drop batches for
+ * it, a subscriber that resubscribes has to assume that it missed changes
+ */
+public interface ChangeEventBus {
+
+    void publish(List<ChangeEvent> events);
+
+    Flux<List<ChangeEvent>> subscribe();
+}
@@ -0,0 +1,32 @@
+package com.jkc.microservices.util.events;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * change event bus selected by app.change-events.bus (in-memory or local-broker)
+ */
+@Configuration
+public class ChangeEventConfig {
+
+    @Bean
+    @ConfigurationProperties("app.change-events")
+    ChangeEventProperties changeEventProperties() {
+        return new ChangeEventProperties();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.change-events.bus", havingValue = "in-memory", matchIfMissing = true)
+    ChangeEventBus inMemoryChangeEventBus(ChangeEventProperties changeEventProperties) {
+        return new InMemoryChangeEventBus(changeEventProperties.getMaxPending());
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "app.change-events.bus", havingValue = "local-broker")
+    ChangeEventBus localBrokerChangeEventBus(ObjectMapper objectMapper, ChangeEventProperties changeEventProperties) {
+        return new LocalBrokerChangeEventBus(objectMapper, changeEventProperties.getMaxPending());
+    }
+}
@@ -0,0 +1,35 @@
+package com.jkc.microservices.util.events;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * streams the batches published on this service's bus to other processes, one {@link ChangeEventBatch} per line.
+ * an empty batch is sent every heartbeat so that an idle stream is not taken for a dead connection
+ */
+@RestController
+public class ChangeEventController {
+
+    private final ChangeEventBus changeEventBus;
+    private final Duration heartbeat;
+
+    @Autowired
+    public ChangeEventController(ChangeEventBus changeEventBus, ChangeEventProperties changeEventProperties) {
+        this.changeEventBus = changeEventBus;
+        this.heartbeat = changeEventProperties.getHeartbeat();
+    }
+
+    /**
+     * curl -N $HOST:$PORT/change-events
+     */
+    @GetMapping(value = "/change-events", produces = "application/x-ndjson")
+    public Flux<ChangeEventBatch> streamChangeEvents() {
+        Flux<ChangeEventBatch> heartbeats = Flux.interval(heartbeat).onBackpressureDrop().map(tick -> new ChangeEventBatch(List.of()));
+        return Flux.merge(changeEventBus.subscribe().map(ChangeEventBatch::new), heartbeats);
+    }
+}
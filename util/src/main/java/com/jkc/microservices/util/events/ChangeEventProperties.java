@@ -0,0 +1,57 @@
+package com.jkc.microservices.util.events;
+
+import java.time.Duration;
+
+/**
+ * change event settings, bound from app.change-events
+ */
+public class ChangeEventProperties {
+    /**
+     * in-memory or local-broker
+     */
+    private String bus = "in-memory";
+    private Duration window = Duration.ofMillis(50);
+    private int maxBatch = 1000;
+    private int maxPending = 1024;
+    private Duration heartbeat = Duration.ofSeconds(2);
+
+    public String getBus() {
+        return bus;
+    }
+
+    public void setBus(String bus) {
+        this.bus = bus;
+    }
+
+    public Duration getWindow() {
+        return window;
+    }
+
+    public void setWindow(Duration window) {
+        this.window = window;
+    }
+
+    public int getMaxBatch() {
+        return maxBatch;
+    }
+
+    public void setMaxBatch(int maxBatch) {
+        this.maxBatch = maxBatch;
+    }
+
+    public int getMaxPending() {
+        return maxPending;
+    }
+
+    public void setMaxPending(int maxPending) {
+        this.maxPending = maxPending;
+    }
+
+    public Duration getHeartbeat() {
+        return heartbeat;
+    }
+
+    public void setHeartbeat(Duration heartbeat) {
+        this.heartbeat = heartbeat;
+    }
+}
@@ -0,0 +1,69 @@
+package com.jkc.microservices.util.events;
+
+import com.jkc.microservices.util.batch.WriteBatchProperties;
+import com.jkc.microservices.util.batch.WriteBatcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * coalesces the changes of one entity type before they go to the bus: repeated changes of a product within a window
+ * become one event with the latest version, and a batch is published window after its first change or as soon as it
+ * holds max-batch changes, whichever comes first. a bulk import therefore reaches subscribers as a few large batches
+ * instead of one event per write. the changes are batched by a {@link WriteBatcher} whose writer publishes them
+ */
+public class ChangeEventPublisher implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ChangeEventPublisher.class);
+
+    private final ChangeEvent.Type type;
+    private final ChangeEventBus bus;
+    private final WriteBatcher<Integer> batcher;
+    // only touched by the writer thread of the batcher
+    private long version;
+
+    public ChangeEventPublisher(ChangeEvent.Type type, ChangeEventBus bus, ChangeEventProperties properties) {
+        if (properties.getMaxBatch() < 1) {
+            throw new IllegalArgumentException("change-events max-batch must be positive: " + properties.getMaxBatch());
+        }
+        this.type = type;
+        this.bus = bus;
+        WriteBatchProperties batchProperties = new WriteBatchProperties();
+        batchProperties.setMaxSize(properties.getMaxBatch());
+        batchProperties.setMaxDelay(properties.getWindow());
+        this.batcher = new WriteBatcher<>(type.name().toLowerCase() + "-change-events", batchProperties, this::publish);
+    }
+
+    public void changed(int productID) {
+        batcher.add(List.of(productID));
+    }
+
+    public void changed(Collection<Integer> productIDs) {
+        batcher.add(productIDs);
+    }
+
+    /**
+     * publishes what is pending
+     */
+    @Override
+    public void close() throws InterruptedException {
+        batcher.close();
+    }
+
+    private void publish(List<Integer> productIDs) {
+        Map<Integer, ChangeEvent> events = new LinkedHashMap<>();
+        for (int productID : productIDs) {
+            events.put(productID, new ChangeEvent(productID, type, ++version));
+        }
+        try {
+            bus.publish(new ArrayList<>(events.values()));
+        } catch (RuntimeException e) {
+            LOGGER.warn("publishing {} {} change events failed: {}", events.size(), type, e.getMessage());
+        }
+    }
+}
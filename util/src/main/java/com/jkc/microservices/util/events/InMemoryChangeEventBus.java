@@ -0,0 +1,45 @@
+package com.jkc.microservices.util.events;
+
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * delivers each batch to the subscribers of this process on the publishing thread, nothing leaves the process.
+ * a subscriber that falls more than max-pending batches behind is disconnected with an error
+ */
+public class InMemoryChangeEventBus implements ChangeEventBus {
+
+    private final int maxPending;
+    private final List<FluxSink<List<ChangeEvent>>> sinks = new CopyOnWriteArrayList<>();
+
+    public InMemoryChangeEventBus(int maxPending) {
+        if (maxPending < 1) {
+            throw new IllegalArgumentException("change-events max-pending must be positive: " + maxPending);
+        }
+        this.maxPending = maxPending;
+    }
+
+    @Override
+    public void publish(List<ChangeEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        List<ChangeEvent> batch = List.copyOf(events);
+        sinks.forEach(sink -> sink.next(batch));
+    }
+
+    @Override
+    public Flux<List<ChangeEvent>> subscribe() {
+        Flux<List<ChangeEvent>> batches = Flux.create(sink -> {
+            sinks.add(sink);
+            sink.onDispose(() -> sinks.remove(sink));
+        });
+        return batches
+                .onBackpressureBuffer(maxPending, batch -> {
+                }, BufferOverflowStrategy.ERROR);
+    }
+}
@@ -0,0 +1,80 @@
+package com.jkc.microservices.util.events;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * stands in for an external message broker inside one process: a batch is serialized when it is published, every
+ * subscriber has its own bounded queue and receives decoded copies on the broker thread, never on the publishing one.
+ * a subscriber that lets more than max-pending batches queue up is disconnected with an error, like a consumer that
+ * fell behind the retention of a real broker
+ */
+public class LocalBrokerChangeEventBus implements ChangeEventBus, AutoCloseable {
+
+    private static final TypeReference<List<ChangeEvent>> BATCH = new TypeReference<>() {
+    };
+
+    private final ObjectMapper objectMapper;
+    private final int maxPending;
+    private final Scheduler scheduler = Schedulers.newSingle("change-event-broker", true);
+    private final List<FluxSink<byte[]>> sinks = new CopyOnWriteArrayList<>();
+
+    public LocalBrokerChangeEventBus(ObjectMapper objectMapper, int maxPending) {
+        if (maxPending < 1) {
+            throw new IllegalArgumentException("change-events max-pending must be positive: " + maxPending);
+        }
+        this.objectMapper = objectMapper;
+        this.maxPending = maxPending;
+    }
+
+    @Override
+    public void publish(List<ChangeEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        byte[] message;
+        try {
+            message = objectMapper.writeValueAsBytes(events);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        sinks.forEach(sink -> sink.next(message));
+    }
+
+    @Override
+    public Flux<List<ChangeEvent>> subscribe() {
+        Flux<byte[]> messages = Flux.create(sink -> {
+            sinks.add(sink);
+            sink.onDispose(() -> sinks.remove(sink));
+        });
+        return messages
+                .onBackpressureBuffer(maxPending, message -> {
+                }, BufferOverflowStrategy.ERROR)
+                .publishOn(scheduler, 1)
+                .map(this::decode);
+    }
+
+    @Override
+    public void close() {
+        scheduler.dispose();
+    }
+
+    private List<ChangeEvent> decode(byte[] message) {
+        try {
+            return objectMapper.readValue(message, BATCH);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -1,8 +1,12 @@
 package com.jkc.microservices.util.exceptions;
 
+/**
+ * invalid input, answered with 422. like {@link NotFoundException} it is an expected outcome described by its message,
+ * so no stack trace is captured
+ */
 public class InvalidInputException extends RuntimeException {
-    public InvalidInputException() {}
-    public InvalidInputException(String message) {super(message);}
-    public InvalidInputException(String message,Throwable cause) { super(message,cause);}
-    public InvalidInputException(Throwable cause) {super(cause);}
-}
\ No newline at end of file
+    public InvalidInputException() {this(null, null);}
+    public InvalidInputException(String message) {this(message, null);}
+    public InvalidInputException(String message,Throwable cause) { super(message,cause,false,false);}
+    public InvalidInputException(Throwable cause) {this(cause == null ? null : cause.toString(), cause);}
+}
@@ -1,8 +1,12 @@
 package com.jkc.microservices.util.exceptions;
 
+/**
+ * an unknown id, answered with 404. unknown ids are common (crawlers, stale links) and the message says everything
+ * there is to know, so no stack trace is captured
+ */
 public class NotFoundException extends RuntimeException {
-    public NotFoundException() {}
-    public NotFoundException(String message) {super(message);}
-    public NotFoundException(String message,Throwable cause) {super(message,cause);}
-    public NotFoundException(Throwable cause) {super(cause);}
-}
\ No newline at end of file
+    public NotFoundException() {this(null, null);}
+    public NotFoundException(String message) {this(message, null);}
+    public NotFoundException(String message,Throwable cause) {super(message,cause,false,false);}
+    public NotFoundException(Throwable cause) {this(cause == null ? null : cause.toString(), cause);}
+}
@@ -0,0 +1,52 @@
+package com.jkc.microservices.util.http;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * the current time in utc at millisecond precision, created (and formatted) at most once per millisecond however many
+ * error responses are written in it
+ */
+public final class CachedClock {
+
+    private static volatile Tick last = new Tick(System.currentTimeMillis());
+
+    private CachedClock() {
+    }
+
+    public static ZonedDateTime now() {
+        return tick().time;
+    }
+
+    /**
+     * @return the current time as a quoted iso-8601 json string, as jackson writes a ZonedDateTime. not to be modified
+     */
+    static byte[] nowAsJson() {
+        return tick().json;
+    }
+
+    private static Tick tick() {
+        long millis = System.currentTimeMillis();
+        Tick tick = last;
+        if (tick.millis != millis) {
+            tick = new Tick(millis);
+            last = tick;
+        }
+        return tick;
+    }
+
+    private static final class Tick {
+        private final long millis;
+        private final ZonedDateTime time;
+        private final byte[] json;
+
+        private Tick(long millis) {
+            this.millis = millis;
+            this.time = ZonedDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC);
+            this.json = ('"' + DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(time) + '"').getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.jkc.microservices.util.http;
+
+import org.springframework.web.filter.reactive.ServerWebExchangeContextFilter;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+/**
+ * answers If-None-Match from a handler whose signature is fixed by the api interfaces: the exchange is taken from the
+ * reactor context (see {@link ConditionalGetConfig}). the etag is set on the response, and when it matches the
+ * request the 304 is completed right away, so the body is never produced, let alone serialized
+ */
+public final class ConditionalGet {
+
+    private ConditionalGet() {
+    }
+
+    /**
+     * @param body subscribed to only when the etag does not match, so it must not read the data before that
+     */
+    public static <T> Mono<T> unlessNotModified(String etag, Mono<T> body) {
+        // an empty mono is written as an empty body with content-length 0
+        return Mono.subscriberContext().flatMap(context -> notModified(context, etag) ? Mono.empty() : body);
+    }
+
+    /**
+     * @param body subscribed to only when the etag does not match, so it must not read the data before that
+     */
+    public static <T> Flux<T> unlessNotModified(String etag, Flux<T> body) {
+        return Mono.subscriberContext().flatMapMany(context -> {
+            if (notModified(context, etag)) {
+                // an empty flux would still be written as the [] of an empty json array, a committed response is not
+                return ServerWebExchangeContextFilter.get(context).orElseThrow().getResponse().setComplete().thenMany(Flux.empty());
+            }
+            return body;
+        });
+    }
+
+    private static boolean notModified(Context context, String etag) {
+        if (etag == null) {
+            return false;
+        }
+        return ServerWebExchangeContextFilter.get(context).map(exchange -> exchange.checkNotModified(etag)).orElse(false);
+    }
+}
@@ -0,0 +1,17 @@
+package com.jkc.microservices.util.http;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.filter.reactive.ServerWebExchangeContextFilter;
+
+/**
+ * makes the current exchange available to {@link ConditionalGet}
+ */
+@Configuration
+public class ConditionalGetConfig {
+
+    @Bean
+    ServerWebExchangeContextFilter serverWebExchangeContextFilter() {
+        return new ServerWebExchangeContextFilter();
+    }
+}
@@ -5,32 +5,33 @@ import com.jkc.microservices.util.exceptions.NotFoundException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.web.bind.annotation.ExceptionHandler;
-import org.springframework.web.bind.annotation.ResponseBody;
-import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+/**
+ * error bodies are always json, also for callers that asked for smile, so that anyone can read them. they are written
+ * by {@link HttpErrorBodies}, the status tells the composite which exception to raise again
+ */
 @RestControllerAdvice
 class GlobalControllerExceptionHandler {
     private static final Logger LOG = LoggerFactory.getLogger(GlobalControllerExceptionHandler.class);
-    @ResponseStatus(HttpStatus.NOT_FOUND)
     @ExceptionHandler(NotFoundException.class)
-    public @ResponseBody
-    HttpErrorInfo handleNotFoundExceptions(ServerHttpRequest serverHttpRequest, Exception exception) {
+    public ResponseEntity<byte[]> handleNotFoundExceptions(ServerHttpRequest serverHttpRequest, Exception exception) {
         return createHttpErrorInfo(HttpStatus.NOT_FOUND,serverHttpRequest,exception);
     }
 
-    @ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
     @ExceptionHandler(InvalidInputException.class)
-    public @ResponseBody HttpErrorInfo handleInvalidInputException(ServerHttpRequest serverHttpRequest,Exception exception) {
+    public ResponseEntity<byte[]> handleInvalidInputException(ServerHttpRequest serverHttpRequest, Exception exception) {
         return createHttpErrorInfo(HttpStatus.UNPROCESSABLE_ENTITY,serverHttpRequest,exception);
     }
 
-    private HttpErrorInfo createHttpErrorInfo(HttpStatus httpStatus, ServerHttpRequest serverHttpRequest, Exception exception) {
+    private ResponseEntity<byte[]> createHttpErrorInfo(HttpStatus httpStatus, ServerHttpRequest serverHttpRequest, Exception exception) {
         final String path = serverHttpRequest.getPath().pathWithinApplication().value();
         final String exceptionMessage = exception.getMessage();
         LOG.debug("Returning HTTP status: {} for path: {}, message: {}", httpStatus, path, exceptionMessage);
-        return new HttpErrorInfo(httpStatus,path,exceptionMessage);
+        return ResponseEntity.status(httpStatus).contentType(MediaType.APPLICATION_JSON).body(HttpErrorBodies.write(httpStatus,path,exceptionMessage));
     }
 }
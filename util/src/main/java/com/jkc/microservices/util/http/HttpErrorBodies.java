@@ -0,0 +1,85 @@
+package com.jkc.microservices.util.http;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import org.springframework.http.HttpStatus;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * the json of {@link HttpErrorInfo} written and read without an ObjectMapper: the constant parts of each status are
+ * encoded once, only the path and the message are escaped per response. the fields are in the order jackson writes
+ * them
+ */
+public final class HttpErrorBodies {
+
+    private static final byte[] START = "{\"zonedDateTimestamp\":".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] PATH = ",\"path\":".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] NULL = "null".getBytes(StandardCharsets.UTF_8);
+    private static final Map<HttpStatus, byte[]> STATUS = new EnumMap<>(HttpStatus.class);
+    private static final Map<HttpStatus, byte[]> END = new EnumMap<>(HttpStatus.class);
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    static {
+        for (HttpStatus httpStatus : HttpStatus.values()) {
+            STATUS.put(httpStatus, (",\"httpStatus\":\"" + httpStatus.name() + "\",\"message\":").getBytes(StandardCharsets.UTF_8));
+            END.put(httpStatus, (",\"error\":\"" + httpStatus.getReasonPhrase() + "\"}").getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private HttpErrorBodies() {
+    }
+
+    public static byte[] write(HttpStatus httpStatus, String path, String message) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(128 + (message == null ? 0 : message.length()));
+        out.writeBytes(START);
+        out.writeBytes(CachedClock.nowAsJson());
+        out.writeBytes(PATH);
+        writeString(out, path);
+        out.writeBytes(STATUS.get(httpStatus));
+        writeString(out, message);
+        out.writeBytes(END.get(httpStatus));
+        return out.toByteArray();
+    }
+
+    /**
+     * @return the message of an error body, null when the body is not an error body
+     */
+    public static String readMessage(byte[] body) {
+        if (body == null || body.length == 0) {
+            return null;
+        }
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if ("message".equals(field)) {
+                    return value == JsonToken.VALUE_STRING ? parser.getText() : null;
+                }
+                parser.skipChildren();
+            }
+            return null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        if (value == null) {
+            out.writeBytes(NULL);
+            return;
+        }
+        out.write('"');
+        out.writeBytes(JsonStringEncoder.getInstance().quoteAsUTF8(value));
+        out.write('"');
+    }
+}
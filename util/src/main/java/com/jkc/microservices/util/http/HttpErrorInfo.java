@@ -4,6 +4,9 @@ import org.springframework.http.HttpStatus;
 
 import java.time.ZonedDateTime;
 
+/**
+ * the body of an error response, written by {@link HttpErrorBodies}
+ */
 public class HttpErrorInfo {
     private final ZonedDateTime zonedDateTimestamp;
     private final String path;
@@ -18,7 +21,7 @@ public class HttpErrorInfo {
     }
 
     public HttpErrorInfo(HttpStatus httpStatus,String path,String message) {
-        zonedDateTimestamp = ZonedDateTime.now();
+        zonedDateTimestamp = CachedClock.now();
         this.httpStatus = httpStatus;
         this.path = path;
         this.message = message;
@@ -0,0 +1,97 @@
+package com.jkc.microservices.util.http;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * per product version of the data a service serves for it, turned into a strong etag. a product that was never written
+ * since the start is at version 0; the etag also holds an epoch chosen at start (and again by {@link #changedAll}),
+ * so etags of a previous run or of a replaced data set never match.
+ * call {@link #changed} after a write is visible and take the etag before reading the data it tags: a read that
+ * races a write then pairs new data with the old etag, which only costs the client one more download, never a stale body
+ */
+public class ProductVersions {
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private int[] keys;
+    private long[] versions;
+    private int size;
+    private volatile String epoch = newEpoch();
+
+    public ProductVersions(int expectedProducts) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedProducts * 2) - 1) << 1;
+        keys = new int[capacity];
+        versions = new long[capacity];
+    }
+
+    /**
+     * @return the quoted etag of the current version of the product
+     */
+    public String etag(int productID) {
+        String currentEpoch = epoch;
+        lock.readLock().lock();
+        try {
+            int entry = find(keys, productID);
+            return '"' + currentEpoch + '.' + productID + '.' + (keys[entry] == productID ? versions[entry] : 0) + '"';
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void changed(int productID) {
+        if (productID < 1) {
+            throw new IllegalArgumentException("Invalid productID: " + productID);
+        }
+        lock.writeLock().lock();
+        try {
+            int entry = find(keys, productID);
+            if (keys[entry] != productID) {
+                if ((size + 1) * 2 > keys.length) {
+                    grow();
+                    entry = find(keys, productID);
+                }
+                keys[entry] = productID;
+                size++;
+            }
+            versions[entry]++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * invalidates the etags of all products, for when the whole data set was replaced
+     */
+    public void changedAll() {
+        epoch = newEpoch();
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        long[] oldVersions = versions;
+        keys = new int[oldKeys.length * 2];
+        versions = new long[oldKeys.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int entry = find(keys, oldKeys[i]);
+                keys[entry] = oldKeys[i];
+                versions[entry] = oldVersions[i];
+            }
+        }
+    }
+
+    // productIDs are positive, 0 marks a free entry
+    private static int find(int[] keys, int productID) {
+        int mask = keys.length - 1;
+        int h = productID * 0x9E3779B9;
+        int entry = (h ^ (h >>> 16)) & mask;
+        while (keys[entry] != 0 && keys[entry] != productID) {
+            entry = (entry + 1) & mask;
+        }
+        return entry;
+    }
+
+    private static String newEpoch() {
+        return Long.toString(ThreadLocalRandom.current().nextLong() >>> 1, 36);
+    }
+}
@@ -0,0 +1,71 @@
+package com.jkc.microservices.util.http;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * writes the serviceAddress of every response body (products, recommendations, reviews) from bytes encoded once.
+ * a service puts the same String instance from {@link ServiceUtil} into each of them, so the last encoded address is
+ * reused as long as the next one is that very instance
+ */
+@Configuration
+public class ServiceAddressConfig {
+
+    static final String PROPERTY = "serviceAddress";
+
+    @Bean
+    Module serviceAddressModule() {
+        return module();
+    }
+
+    public static Module module() {
+        SimpleModule module = new SimpleModule("service-address");
+        module.setSerializerModifier(new BeanSerializerModifier() {
+            @Override
+            public List<BeanPropertyWriter> changeProperties(SerializationConfig config, BeanDescription beanDescription, List<BeanPropertyWriter> properties) {
+                for (BeanPropertyWriter property : properties) {
+                    if (PROPERTY.equals(property.getName()) && property.getType().hasRawClass(String.class) && !property.hasSerializer()) {
+                        property.assignSerializer(new PreEncodedStringSerializer());
+                    }
+                }
+                return properties;
+            }
+        });
+        return module;
+    }
+
+    /**
+     * keeps the quoted utf-8 (or smile) bytes of the last written value, a SerializedString encodes itself lazily once
+     */
+    static final class PreEncodedStringSerializer extends StdSerializer<Object> {
+        private transient volatile SerializedString last = new SerializedString("");
+
+        PreEncodedStringSerializer() {
+            super(Object.class);
+        }
+
+        @Override
+        public void serialize(Object value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            SerializedString encoded = last;
+            // identity on purpose, an equal address in another String instance is just encoded again
+            if (encoded.getValue() != value) {
+                encoded = new SerializedString((String) value);
+                last = encoded;
+            }
+            generator.writeString(encoded);
+        }
+    }
+}
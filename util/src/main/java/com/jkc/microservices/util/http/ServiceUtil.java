@@ -9,40 +9,32 @@ import org.springframework.stereotype.Component;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
 
+/**
+ * the address this instance reports in its responses (host name/ip address:port), resolved once at startup.
+ * it is one interned String instance, which lets {@link ServiceAddressConfig} reuse its encoded bytes
+ */
 @Component
 public class ServiceUtil {
     private static final Logger LOGGER = LoggerFactory.getLogger(ServiceUtil.class);
-    private final String port;
-    private String serviceAddress = null;
+    private final String serviceAddress;
 
     @Autowired
     public ServiceUtil(@Value("${server.port}") String port) {
-        this.port = port;
+        this.serviceAddress = resolveServiceAddress(port);
+        LOGGER.info("service address: {}", serviceAddress);
     }
 
     public String getServiceAddress() {
-        if (serviceAddress == null) {
-            serviceAddress = findMyHostName()+"/"+findMyIPAddress()+":"+port;
-            LOGGER.info("service Address got :{}",serviceAddress);
-        }
         return serviceAddress;
     }
 
-    private String findMyHostName() {
-        try {
-            return InetAddress.getLocalHost().getHostName();
-        } catch (UnknownHostException e) {
-            e.printStackTrace();
-            return "unknown host name";
-        }
-    }
-
-    private String findMyIPAddress() {
+    static String resolveServiceAddress(String port) {
         try {
-            return InetAddress.getLocalHost().getHostAddress();
+            InetAddress localHost = InetAddress.getLocalHost();
+            return (localHost.getHostName() + "/" + localHost.getHostAddress() + ":" + port).intern();
         } catch (UnknownHostException e) {
-            e.printStackTrace();
-            return "unknown ip address";
+            LOGGER.warn("could not resolve the local host: {}", e.getMessage());
+            return ("unknown host name/unknown ip address:" + port).intern();
         }
     }
 }
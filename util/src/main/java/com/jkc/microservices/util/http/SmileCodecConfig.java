@@ -0,0 +1,41 @@
+package com.jkc.microservices.util.http;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * binary json (smile) for internal callers that ask for application/x-jackson-smile, with the same ObjectMapper
+ * settings as json. repeated short string values such as serviceAddress and author are written once per document
+ * and referenced afterwards
+ */
+@Configuration
+public class SmileCodecConfig {
+
+    public static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+
+    @Bean
+    @Order(2)
+    CodecCustomizer smileCodecCustomizer(Jackson2ObjectMapperBuilder objectMapperBuilder) {
+        ObjectMapper smileMapper = smileMapper(objectMapperBuilder);
+        return configurer -> {
+            configurer.defaultCodecs().jackson2SmileEncoder(new Jackson2SmileEncoder(smileMapper, APPLICATION_SMILE));
+            configurer.defaultCodecs().jackson2SmileDecoder(new Jackson2SmileDecoder(smileMapper, APPLICATION_SMILE));
+        };
+    }
+
+    public static ObjectMapper smileMapper(Jackson2ObjectMapperBuilder objectMapperBuilder) {
+        SmileFactory smileFactory = SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build();
+        return objectMapperBuilder.factory(smileFactory).build();
+    }
+}
@@ -0,0 +1,34 @@
+package com.jkc.microservices.util.http;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+
+import java.util.List;
+
+/**
+ * registers application/x-ndjson as a streaming json type, so that a Flux is written one line per element
+ * and flushed as each element is ready instead of being collected into a json array, and read back line by line
+ */
+@Configuration
+public class StreamingCodecConfig {
+
+    public static final MediaType APPLICATION_NDJSON = new MediaType("application", "x-ndjson");
+
+    @Bean
+    @Order(1)
+    CodecCustomizer ndjsonCodecCustomizer(ObjectMapper objectMapper) {
+        return configurer -> {
+            MediaType anyJson = new MediaType("application", "*+json");
+            Jackson2JsonEncoder encoder = new Jackson2JsonEncoder(objectMapper, MediaType.APPLICATION_JSON, anyJson, APPLICATION_NDJSON);
+            encoder.setStreamingMediaTypes(List.of(APPLICATION_NDJSON, MediaType.APPLICATION_STREAM_JSON));
+            configurer.defaultCodecs().jackson2JsonEncoder(encoder);
+            configurer.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper, MediaType.APPLICATION_JSON, anyJson, APPLICATION_NDJSON));
+        };
+    }
+}
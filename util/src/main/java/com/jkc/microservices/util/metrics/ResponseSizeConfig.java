@@ -0,0 +1,20 @@
+package com.jkc.microservices.util.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.server.WebFilter;
+
+/**
+ * response size metrics in every service, when actuator provides a MeterRegistry
+ */
+@Configuration
+public class ResponseSizeConfig {
+
+    @Bean
+    WebFilter responseSizeWebFilter(ObjectProvider<MeterRegistry> meterRegistry) {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        return registry == null ? (exchange, chain) -> chain.filter(exchange) : new ResponseSizeWebFilter(registry);
+    }
+}
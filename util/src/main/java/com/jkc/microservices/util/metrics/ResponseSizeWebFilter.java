@@ -0,0 +1,89 @@
+package com.jkc.microservices.util.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.reactivestreams.Publisher;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * records the body size of every response as http.server.response.size, tagged like http.server.requests with the
+ * uri pattern, method and status. the size is counted before the server compresses the body, a body that was written
+ * compressed already (one with a Content-Encoding, e.g. a cached gzip response) is tagged compressed=true
+ */
+public class ResponseSizeWebFilter implements WebFilter, Ordered {
+
+    static final String METRIC_NAME = "http.server.response.size";
+
+    private final MeterRegistry meterRegistry;
+
+    public ResponseSizeWebFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public int getOrder() {
+        // outside of the filters that answer requests themselves, such as cached responses
+        return Ordered.HIGHEST_PRECEDENCE + 2;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        AtomicLong size = new AtomicLong();
+        ServerHttpResponse response = new ServerHttpResponseDecorator(exchange.getResponse()) {
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                // a mono stays a mono, the server sends its content-length instead of chunks
+                return super.writeWith(body instanceof Mono
+                        ? Mono.from(body).doOnNext(buffer -> size.addAndGet(buffer.readableByteCount()))
+                        : Flux.from(body).doOnNext(buffer -> size.addAndGet(buffer.readableByteCount())));
+            }
+
+            @Override
+            public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+                return super.writeAndFlushWith(Flux.from(body).map(part -> Flux.from(part).doOnNext(buffer -> size.addAndGet(buffer.readableByteCount()))));
+            }
+        };
+        return chain.filter(exchange.mutate().response(response).build())
+                .doFinally(signal -> record(exchange, size.get()));
+    }
+
+    private void record(ServerWebExchange exchange, long size) {
+        Integer status = exchange.getResponse().getRawStatusCode();
+        DistributionSummary.builder(METRIC_NAME)
+                .baseUnit("bytes")
+                .tag("uri", uri(exchange))
+                .tag("method", exchange.getRequest().getMethodValue())
+                .tag("status", String.valueOf(status == null ? 200 : status))
+                .tag("compressed", String.valueOf(exchange.getResponse().getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)))
+                .publishPercentileHistogram()
+                .minimumExpectedValue(64d)
+                .maximumExpectedValue(16d * 1024 * 1024)
+                .register(meterRegistry)
+                .record(size);
+    }
+
+    /**
+     * the matched pattern as in http.server.requests, requests that no handler matched are not told apart by path
+     */
+    private static String uri(ServerWebExchange exchange) {
+        PathPattern pattern = exchange.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (pattern != null) {
+            return pattern.getPatternString();
+        }
+        Integer status = exchange.getResponse().getRawStatusCode();
+        return status != null && status == 404 ? "NOT_FOUND" : "UNKNOWN";
+    }
+}
@@ -0,0 +1,101 @@
+package com.jkc.microservices.util.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * appends the spans to a file, one json document per line, for offline analysis. the spans are queued and written by
+ * a thread of their own, spans that do not fit in the queue (maxPending) are dropped and counted
+ */
+public class FileSpanExporter implements SpanExporter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FileSpanExporter.class);
+
+    private final ObjectMapper objectMapper;
+    private final BlockingQueue<Span> pending;
+    private final BufferedWriter writer;
+    private final Thread writerThread;
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile boolean closed;
+
+    public FileSpanExporter(Path file, ObjectMapper objectMapper, int maxPending) {
+        this.objectMapper = objectMapper;
+        this.pending = new ArrayBlockingQueue<>(maxPending);
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.writerThread = new Thread(this::writeLoop, "span-exporter");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    @Override
+    public void export(List<Span> spans) {
+        for (Span span : spans) {
+            if (!pending.offer(span)) {
+                dropped.incrementAndGet();
+            }
+        }
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * writes the spans still queued and closes the file
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeLoop() {
+        List<Span> batch = new ArrayList<>();
+        try (writer) {
+            while (!closed || !pending.isEmpty()) {
+                Span span = pending.poll(100, TimeUnit.MILLISECONDS);
+                if (span == null) {
+                    continue;
+                }
+                batch.add(span);
+                pending.drainTo(batch);
+                for (Span queued : batch) {
+                    writer.write(objectMapper.writeValueAsString(queued));
+                    writer.newLine();
+                }
+                writer.flush();
+                batch.clear();
+            }
+        } catch (IOException e) {
+            LOGGER.warn("writing spans failed, no more spans are written: {}", e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
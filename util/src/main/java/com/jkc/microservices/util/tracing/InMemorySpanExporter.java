@@ -0,0 +1,38 @@
+package com.jkc.microservices.util.tracing;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * keeps the last maxSpans exported spans, served at /traces/{traceId}
+ */
+public class InMemorySpanExporter implements SpanExporter {
+
+    private final int maxSpans;
+    private final Deque<Span> spans = new ArrayDeque<>();
+
+    public InMemorySpanExporter(int maxSpans) {
+        this.maxSpans = maxSpans;
+    }
+
+    @Override
+    public synchronized void export(List<Span> exported) {
+        for (Span span : exported) {
+            if (spans.size() == maxSpans) {
+                spans.removeFirst();
+            }
+            spans.addLast(span);
+        }
+    }
+
+    public synchronized List<Span> getSpans() {
+        return new ArrayList<>(spans);
+    }
+
+    public synchronized List<Span> getSpans(String traceId) {
+        return spans.stream().filter(span -> span.getTraceId().equals(traceId)).collect(Collectors.toList());
+    }
+}
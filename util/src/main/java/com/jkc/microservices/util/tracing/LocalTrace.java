@@ -0,0 +1,112 @@
+package com.jkc.microservices.util.tracing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * the spans of one request in this service: its server span and the calls it made to other services. the spans are
+ * kept until the server span finishes, then all of them are exported or dropped at once. a call that finishes later
+ * (e.g. a losing hedge) follows that decision
+ */
+public final class LocalTrace {
+
+    private final Tracer tracer;
+    private final TraceContext context;
+    private final String parentId;
+    private final long startNanos = System.nanoTime();
+    private final long startEpochMicros = System.currentTimeMillis() * 1000;
+    private List<Span> spans = new ArrayList<>();
+    private boolean exported;
+
+    LocalTrace(Tracer tracer, TraceContext context, String parentId) {
+        this.tracer = tracer;
+        this.context = context;
+        this.parentId = parentId;
+    }
+
+    public String getTraceId() {
+        return context.getTraceId();
+    }
+
+    /**
+     * @param peer host:port of the called service
+     */
+    public ClientSpan startClientSpan(String name, String peer) {
+        return new ClientSpan(context.newChild(), name, peer);
+    }
+
+    TraceContext getContext() {
+        return context;
+    }
+
+    long getStartNanos() {
+        return startNanos;
+    }
+
+    String getParentId() {
+        return parentId;
+    }
+
+    long getStartEpochMicros() {
+        return startEpochMicros;
+    }
+
+    void add(Span span) {
+        boolean exportNow;
+        synchronized (this) {
+            if (spans != null) {
+                spans.add(span);
+                return;
+            }
+            exportNow = exported;
+        }
+        if (exportNow) {
+            tracer.export(List.of(span));
+        }
+    }
+
+    /**
+     * @return the spans collected so far, null when they are dropped. later spans follow the same decision
+     */
+    synchronized List<Span> finish(boolean export) {
+        List<Span> finished = spans;
+        spans = null;
+        exported = export;
+        return export ? finished : null;
+    }
+
+    /**
+     * a call to another service, send {@link #traceparent} along with it
+     */
+    public final class ClientSpan {
+        private final TraceContext context;
+        private final String name;
+        private final String peer;
+        private final long startNanos = System.nanoTime();
+        private final long startEpochMicros = System.currentTimeMillis() * 1000;
+        private final AtomicBoolean finished = new AtomicBoolean();
+
+        private ClientSpan(TraceContext context, String name, String peer) {
+            this.context = context;
+            this.name = name;
+            this.peer = peer;
+        }
+
+        public String traceparent() {
+            return context.traceparent();
+        }
+
+        /**
+         * @param status the http status, 0 without a response
+         * @param error  what went wrong, null when there was a response
+         */
+        public void finish(int status, String error) {
+            if (!finished.compareAndSet(false, true)) {
+                return;
+            }
+            add(new Span(context.getTraceId(), context.getSpanId(), LocalTrace.this.context.getSpanId(), tracer.getServiceName(), "CLIENT",
+                    name, peer, startEpochMicros, (System.nanoTime() - startNanos) / 1000, status, error));
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.jkc.microservices.util.tracing;
+
+/**
+ * a finished span: the server side of a request (SERVER) or a call to another service (CLIENT, timed until the
+ * response headers arrived)
+ */
+public class Span {
+    private final String traceId;
+    private final String spanId;
+    private final String parentId;
+    private final String service;
+    private final String kind;
+    private final String name;
+    private final String peer;
+    private final long startEpochMicros;
+    private final long durationMicros;
+    private final int status;
+    private final String error;
+
+    public Span(String traceId, String spanId, String parentId, String service, String kind, String name, String peer,
+                long startEpochMicros, long durationMicros, int status, String error) {
+        this.traceId = traceId;
+        this.spanId = spanId;
+        this.parentId = parentId;
+        this.service = service;
+        this.kind = kind;
+        this.name = name;
+        this.peer = peer;
+        this.startEpochMicros = startEpochMicros;
+        this.durationMicros = durationMicros;
+        this.status = status;
+        this.error = error;
+    }
+
+    public String getTraceId() {
+        return traceId;
+    }
+
+    public String getSpanId() {
+        return spanId;
+    }
+
+    public String getParentId() {
+        return parentId;
+    }
+
+    public String getService() {
+        return service;
+    }
+
+    public String getKind() {
+        return kind;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getPeer() {
+        return peer;
+    }
+
+    public long getStartEpochMicros() {
+        return startEpochMicros;
+    }
+
+    public long getDurationMicros() {
+        return durationMicros;
+    }
+
+    /**
+     * @return the http status, 0 when there was no response
+     */
+    public int getStatus() {
+        return status;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
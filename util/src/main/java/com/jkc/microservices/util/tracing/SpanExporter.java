@@ -0,0 +1,15 @@
+package com.jkc.microservices.util.tracing;
+
+import java.util.List;
+
+/**
+ * receives the spans of the requests that were sampled, on the thread that finished the request: implementations
+ * must not block
+ */
+public interface SpanExporter {
+
+    void export(List<Span> spans);
+
+    default void close() {
+    }
+}
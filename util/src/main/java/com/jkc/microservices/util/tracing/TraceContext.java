@@ -0,0 +1,99 @@
+package com.jkc.microservices.util.tracing;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * the ids of a span and whether its trace is sampled, in the w3c trace context format:
+ * traceparent: 00-{32 hex trace id}-{16 hex span id}-{01 when sampled, 00 otherwise}
+ */
+public final class TraceContext {
+
+    public static final String TRACEPARENT = "traceparent";
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final String traceId;
+    private final String spanId;
+    private final boolean sampled;
+
+    private TraceContext(String traceId, String spanId, boolean sampled) {
+        this.traceId = traceId;
+        this.spanId = spanId;
+        this.sampled = sampled;
+    }
+
+    public static TraceContext newRoot(boolean sampled) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return new TraceContext(hex(random.nextLong(), random.nextLong()), newSpanId(), sampled);
+    }
+
+    /**
+     * @return the context of the given traceparent header, null when it is missing or malformed
+     */
+    public static TraceContext parse(String traceparent) {
+        // version 00 is exactly 55 chars, only a later version may append fields after a '-'
+        if (traceparent == null || traceparent.length() < 55 || traceparent.charAt(2) != '-' || traceparent.charAt(35) != '-'
+                || traceparent.charAt(52) != '-' || traceparent.startsWith("ff")
+                || (traceparent.length() > 55 && (traceparent.startsWith("00") || traceparent.charAt(55) != '-'))) {
+            return null;
+        }
+        String traceId = traceparent.substring(3, 35);
+        String spanId = traceparent.substring(36, 52);
+        if (!isHex(traceparent, 0, 2) || !isHex(traceparent, 53, 55) || !isNonZeroHex(traceId) || !isNonZeroHex(spanId)) {
+            return null;
+        }
+        boolean sampled = (Character.digit(traceparent.charAt(54), 16) & 1) == 1;
+        return new TraceContext(traceId, spanId, sampled);
+    }
+
+    /**
+     * @return a new span of the same trace
+     */
+    public TraceContext newChild() {
+        return new TraceContext(traceId, newSpanId(), sampled);
+    }
+
+    public String getTraceId() {
+        return traceId;
+    }
+
+    public String getSpanId() {
+        return spanId;
+    }
+
+    public boolean isSampled() {
+        return sampled;
+    }
+
+    public String traceparent() {
+        return "00-" + traceId + '-' + spanId + (sampled ? "-01" : "-00");
+    }
+
+    private static String newSpanId() {
+        return hex(ThreadLocalRandom.current().nextLong());
+    }
+
+    private static String hex(long... values) {
+        char[] chars = new char[values.length * 16];
+        for (int i = 0; i < values.length; i++) {
+            for (int digit = 0; digit < 16; digit++) {
+                chars[i * 16 + digit] = HEX[(int) (values[i] >>> (60 - 4 * digit)) & 0xf];
+            }
+        }
+        return new String(chars);
+    }
+
+    private static boolean isNonZeroHex(String value) {
+        return isHex(value, 0, value.length()) && value.chars().anyMatch(c -> c != '0');
+    }
+
+    private static boolean isHex(String value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = value.charAt(i);
+            if ((c < '0' || c > '9') && (c < 'a' || c > 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
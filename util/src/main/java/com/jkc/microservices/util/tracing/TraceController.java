@@ -0,0 +1,31 @@
+package com.jkc.microservices.util.tracing;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+/**
+ * the spans this service kept of a trace, look up the X-Trace-Id of a slow response in each service it went through
+ */
+@RestController
+@ConditionalOnProperty(name = "app.tracing.exporter", havingValue = "in-memory", matchIfMissing = true)
+public class TraceController {
+
+    private final InMemorySpanExporter inMemorySpanExporter;
+
+    @Autowired
+    public TraceController(InMemorySpanExporter inMemorySpanExporter) {
+        this.inMemorySpanExporter = inMemorySpanExporter;
+    }
+
+    /**
+     * curl $HOST:$PORT/traces/{traceId}
+     */
+    @GetMapping(value = "/traces/{traceId}", produces = "application/json")
+    public Flux<Span> getTrace(@PathVariable String traceId) {
+        return Flux.fromIterable(inMemorySpanExporter.getSpans(traceId));
+    }
+}
@@ -0,0 +1,73 @@
+package com.jkc.microservices.util.tracing;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * starts and finishes the {@link LocalTrace} of each request. a request that starts a trace samples it with
+ * sampleRate (head sampling), the decision travels with the traceparent to every service the trace reaches. the spans
+ * of a request that was not sampled are exported as well when it took at least slowThreshold (tail sampling, decided
+ * in each service for its own spans). a request that can be neither is not recorded at all
+ */
+public class Tracer {
+
+    private final String serviceName;
+    private final double sampleRate;
+    private final long slowThresholdNanos;
+    private final SpanExporter exporter;
+
+    /**
+     * @param slowThreshold null or zero to export sampled requests only
+     * @param exporter      null to not trace at all
+     */
+    public Tracer(String serviceName, double sampleRate, Duration slowThreshold, SpanExporter exporter) {
+        this.serviceName = serviceName;
+        this.sampleRate = sampleRate;
+        this.slowThresholdNanos = slowThreshold == null ? 0 : slowThreshold.toNanos();
+        this.exporter = exporter;
+    }
+
+    public boolean isActive() {
+        return exporter != null;
+    }
+
+    /**
+     * @param traceparent the traceparent header of the request, a new trace is started without a valid one
+     * @return null when the request is neither sampled nor could be kept for being slow
+     */
+    public LocalTrace startTrace(String traceparent) {
+        TraceContext incoming = TraceContext.parse(traceparent);
+        TraceContext context = incoming != null
+                ? incoming.newChild()
+                : TraceContext.newRoot(sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate);
+        if (!context.isSampled() && slowThresholdNanos == 0) {
+            return null;
+        }
+        return new LocalTrace(this, context, incoming != null ? incoming.getSpanId() : null);
+    }
+
+    /**
+     * @param status the http status of the response
+     * @param error  what went wrong when there was no response, null otherwise
+     */
+    public void finishTrace(LocalTrace trace, String name, int status, String error) {
+        long durationNanos = System.nanoTime() - trace.getStartNanos();
+        boolean export = trace.getContext().isSampled() || (slowThresholdNanos > 0 && durationNanos >= slowThresholdNanos);
+        List<Span> spans = trace.finish(export);
+        if (spans != null) {
+            TraceContext context = trace.getContext();
+            spans.add(new Span(context.getTraceId(), context.getSpanId(), trace.getParentId(), serviceName, "SERVER", name, null,
+                    trace.getStartEpochMicros(), durationNanos / 1000, status, error));
+            exporter.export(spans);
+        }
+    }
+
+    String getServiceName() {
+        return serviceName;
+    }
+
+    void export(List<Span> spans) {
+        exporter.export(spans);
+    }
+}
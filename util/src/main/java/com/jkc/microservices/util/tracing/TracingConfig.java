@@ -0,0 +1,53 @@
+package com.jkc.microservices.util.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.reactive.function.client.WebClientCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+/**
+ * traces every request and the calls it makes with WebClients built from the boot WebClient.Builder, spans go to the
+ * exporter selected by app.tracing.exporter (in-memory, file or none)
+ */
+@Configuration
+public class TracingConfig {
+
+    @Bean
+    @ConfigurationProperties("app.tracing")
+    TracingProperties tracingProperties() {
+        return new TracingProperties();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.tracing.exporter", havingValue = "in-memory", matchIfMissing = true)
+    InMemorySpanExporter inMemorySpanExporter(TracingProperties tracingProperties) {
+        return new InMemorySpanExporter(tracingProperties.getMaxSpans());
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "app.tracing.exporter", havingValue = "file")
+    FileSpanExporter fileSpanExporter(TracingProperties tracingProperties, ObjectMapper objectMapper) {
+        return new FileSpanExporter(Path.of(tracingProperties.getFile()), objectMapper, tracingProperties.getMaxSpans());
+    }
+
+    @Bean
+    Tracer tracer(@Value("${spring.application.name:application}") String serviceName, TracingProperties tracingProperties, ObjectProvider<SpanExporter> spanExporter) {
+        return new Tracer(serviceName, tracingProperties.getSampleRate(), tracingProperties.getSlowThreshold(), spanExporter.getIfAvailable());
+    }
+
+    @Bean
+    TracingWebFilter tracingWebFilter(Tracer tracer) {
+        return new TracingWebFilter(tracer);
+    }
+
+    @Bean
+    WebClientCustomizer tracingWebClientCustomizer() {
+        return webClientBuilder -> webClientBuilder.filter(TracingExchangeFilter.INSTANCE);
+    }
+}
@@ -0,0 +1,37 @@
+package com.jkc.microservices.util.tracing;
+
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+
+/**
+ * a client span for each call made while serving a traced request, the traceparent is sent along. calls made outside
+ * of a request (e.g. background refreshes) are neither traced nor given a traceparent
+ */
+public final class TracingExchangeFilter implements ExchangeFilterFunction {
+
+    public static final TracingExchangeFilter INSTANCE = new TracingExchangeFilter();
+
+    private TracingExchangeFilter() {
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        return Mono.subscriberContext().flatMap(context -> {
+            LocalTrace trace = context.getOrDefault(LocalTrace.class, null);
+            if (trace == null) {
+                return next.exchange(request);
+            }
+            URI url = request.url();
+            LocalTrace.ClientSpan span = trace.startClientSpan(request.method() + " " + url.getPath(), url.getHost() + ':' + url.getPort());
+            return next.exchange(ClientRequest.from(request).header(TraceContext.TRACEPARENT, span.traceparent()).build())
+                    .doOnNext(response -> span.finish(response.rawStatusCode(), null))
+                    .doOnError(exception -> span.finish(0, exception.toString()))
+                    .doOnCancel(() -> span.finish(0, "cancelled"));
+        });
+    }
+}
@@ -0,0 +1,66 @@
+package com.jkc.microservices.util.tracing;
+
+import java.time.Duration;
+
+/**
+ * tracing settings, bound from app.tracing
+ */
+public class TracingProperties {
+    /**
+     * share of the traces started here that are sampled, 0 to 1
+     */
+    private double sampleRate = 0.0;
+    /**
+     * requests that took at least this long are exported even when not sampled, none to not keep slow requests
+     */
+    private Duration slowThreshold;
+    /**
+     * in-memory, file or none
+     */
+    private String exporter = "in-memory";
+    private String file = "traces.ndjson";
+    /**
+     * spans kept by the in-memory exporter, or queued by the file exporter
+     */
+    private int maxSpans = 10000;
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    public void setSampleRate(double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    public Duration getSlowThreshold() {
+        return slowThreshold;
+    }
+
+    public void setSlowThreshold(Duration slowThreshold) {
+        this.slowThreshold = slowThreshold;
+    }
+
+    public String getExporter() {
+        return exporter;
+    }
+
+    public void setExporter(String exporter) {
+        this.exporter = exporter;
+    }
+
+    public String getFile() {
+        return file;
+    }
+
+    public void setFile(String file) {
+        this.file = file;
+    }
+
+    public int getMaxSpans() {
+        return maxSpans;
+    }
+
+    public void setMaxSpans(int maxSpans) {
+        this.maxSpans = maxSpans;
+    }
+}
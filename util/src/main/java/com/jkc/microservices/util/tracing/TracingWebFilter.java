@@ -0,0 +1,56 @@
+package com.jkc.microservices.util.tracing;
+
+import org.springframework.core.Ordered;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import reactor.core.publisher.Mono;
+
+/**
+ * the server span of every request. its {@link LocalTrace} is put in the subscriber context, where
+ * {@link TracingExchangeFilter} finds it for the calls the request makes. the trace id is sent back in X-Trace-Id
+ */
+public class TracingWebFilter implements WebFilter, Ordered {
+
+    public static final String TRACE_ID_HEADER = "X-Trace-Id";
+
+    private final Tracer tracer;
+
+    public TracingWebFilter(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 1;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        LocalTrace trace = tracer.isActive() ? tracer.startTrace(exchange.getRequest().getHeaders().getFirst(TraceContext.TRACEPARENT)) : null;
+        if (trace == null) {
+            return chain.filter(exchange);
+        }
+        exchange.getResponse().getHeaders().set(TRACE_ID_HEADER, trace.getTraceId());
+        return chain.filter(exchange)
+                .doOnSuccess(done -> tracer.finishTrace(trace, name(exchange), status(exchange), null))
+                .doOnError(exception -> tracer.finishTrace(trace, name(exchange), 500, exception.toString()))
+                .doOnCancel(() -> tracer.finishTrace(trace, name(exchange), status(exchange), "cancelled"))
+                .subscriberContext(context -> context.put(LocalTrace.class, trace));
+    }
+
+    /**
+     * the method and route pattern, a fixed name for requests that matched no route so that span names stay few
+     */
+    private static String name(ServerWebExchange exchange) {
+        PathPattern pattern = exchange.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? exchange.getRequest().getMethodValue() + ' ' + pattern.getPatternString() : "UNMATCHED";
+    }
+
+    private static int status(ServerWebExchange exchange) {
+        Integer status = exchange.getResponse().getRawStatusCode();
+        return status == null ? 200 : status;
+    }
+}
@@ -0,0 +1,80 @@
+package com.jkc.microservices.util.batch;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class WriteBatcherTests {
+
+    @Test
+    void closesBatchesBySizeInOrder() throws InterruptedException {
+        List<List<Integer>> batches = new CopyOnWriteArrayList<>();
+        try (WriteBatcher<Integer> batcher = new WriteBatcher<>("test", properties(3, Duration.ofSeconds(10)), batches::add)) {
+            Flux.range(1, 9).flatMap(batcher::submit).then().block(Duration.ofSeconds(5));
+        }
+        assertEquals(List.of(List.of(1, 2, 3), List.of(4, 5, 6), List.of(7, 8, 9)), batches);
+    }
+
+    @Test
+    void writesPartialBatchAfterMaxDelay() throws InterruptedException {
+        List<List<Integer>> batches = new CopyOnWriteArrayList<>();
+        try (WriteBatcher<Integer> batcher = new WriteBatcher<>("test", properties(100, Duration.ofMillis(20)), batches::add)) {
+            Mono.when(batcher.submit(1), batcher.submit(2)).block(Duration.ofSeconds(5));
+            assertEquals(List.of(List.of(1, 2)), batches);
+            batcher.submit(3).block(Duration.ofSeconds(5));
+            assertEquals(List.of(List.of(1, 2), List.of(3)), batches);
+        }
+    }
+
+    @Test
+    void failsEveryWriteOfAFailedBatch() throws InterruptedException {
+        try (WriteBatcher<Integer> batcher = new WriteBatcher<>("test", properties(2, Duration.ofSeconds(10)), writes -> {
+            throw new IllegalStateException("store down");
+        })) {
+            List<String> errors = new CopyOnWriteArrayList<>();
+            Flux.range(1, 2).flatMap(write -> batcher.submit(write).doOnError(error -> errors.add(error.getMessage())).onErrorResume(error -> Mono.empty()))
+                    .then().block(Duration.ofSeconds(5));
+            assertEquals(List.of("store down", "store down"), errors);
+        }
+    }
+
+    @Test
+    void batchesAddedWritesWithSubmittedOnes() throws InterruptedException {
+        List<List<Integer>> batches = new CopyOnWriteArrayList<>();
+        WriteBatcher<Integer> batcher = new WriteBatcher<>("test", properties(3, Duration.ofSeconds(10)), batches::add);
+        batcher.add(List.of(1, 2));
+        batcher.submit(3).block(Duration.ofSeconds(5));
+        batcher.add(List.of(4));
+        batcher.close();
+        batcher.add(List.of(5));
+        assertEquals(List.of(List.of(1, 2, 3), List.of(4)), batches);
+    }
+
+    @Test
+    void closeWritesPendingWrites() throws InterruptedException {
+        List<Integer> written = new CopyOnWriteArrayList<>();
+        WriteBatcher<Integer> batcher = new WriteBatcher<>("test", properties(100, Duration.ofSeconds(10)), written::addAll);
+        List<Integer> writes = IntStream.rangeClosed(1, 5).boxed().collect(Collectors.toList());
+        writes.forEach(write -> batcher.submit(write).subscribe());
+        batcher.close();
+        assertEquals(writes, new ArrayList<>(written));
+        assertThrows(IllegalStateException.class, () -> batcher.submit(6).block(Duration.ofSeconds(1)));
+    }
+
+    private static WriteBatchProperties properties(int maxSize, Duration maxDelay) {
+        WriteBatchProperties properties = new WriteBatchProperties();
+        properties.setMaxSize(maxSize);
+        properties.setMaxDelay(maxDelay);
+        return properties;
+    }
+}
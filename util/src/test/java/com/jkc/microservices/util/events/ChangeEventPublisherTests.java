@@ -0,0 +1,52 @@
+package com.jkc.microservices.util.events;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ChangeEventPublisherTests {
+
+    @Test
+    void coalescesChangesOfAProductWithinTheWindow() throws InterruptedException {
+        InMemoryChangeEventBus bus = new InMemoryChangeEventBus(16);
+        List<List<ChangeEvent>> batches = new CopyOnWriteArrayList<>();
+        bus.subscribe().subscribe(batches::add);
+        try (ChangeEventPublisher publisher = new ChangeEventPublisher(ChangeEvent.Type.PRODUCT, bus, properties(Duration.ofSeconds(10), 100))) {
+            publisher.changed(1);
+            publisher.changed(2);
+            publisher.changed(1);
+        }
+        assertEquals(List.of(List.of(new ChangeEvent(1, ChangeEvent.Type.PRODUCT, 3), new ChangeEvent(2, ChangeEvent.Type.PRODUCT, 2))), batches);
+    }
+
+    @Test
+    void publishesAfterTheWindowOrAtMaxBatch() throws InterruptedException {
+        InMemoryChangeEventBus bus = new InMemoryChangeEventBus(16);
+        List<List<ChangeEvent>> batches = new CopyOnWriteArrayList<>();
+        bus.subscribe().subscribe(batches::add);
+        try (ChangeEventPublisher publisher = new ChangeEventPublisher(ChangeEvent.Type.REVIEW, bus, properties(Duration.ofMillis(20), 3))) {
+            publisher.changed(IntStream.rangeClosed(1, 7).boxed().collect(Collectors.toList()));
+            Thread.sleep(200);
+            assertEquals(List.of(List.of(1, 2, 3), List.of(4, 5, 6), List.of(7)), productIDs(batches));
+        }
+    }
+
+    private static List<List<Integer>> productIDs(List<List<ChangeEvent>> batches) {
+        return batches.stream()
+                .map(batch -> batch.stream().map(ChangeEvent::getProductID).collect(Collectors.toList()))
+                .collect(Collectors.toList());
+    }
+
+    private static ChangeEventProperties properties(Duration window, int maxBatch) {
+        ChangeEventProperties properties = new ChangeEventProperties();
+        properties.setWindow(window);
+        properties.setMaxBatch(maxBatch);
+        return properties;
+    }
+}
@@ -0,0 +1,25 @@
+package com.jkc.microservices.util.events;
+
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+
+class InMemoryChangeEventBusTests {
+
+    @Test
+    void disconnectsASubscriberThatFallsBehind() {
+        InMemoryChangeEventBus bus = new InMemoryChangeEventBus(2);
+        StepVerifier.create(bus.subscribe(), 0)
+                .then(() -> {
+                    for (int version = 1; version <= 4; version++) {
+                        bus.publish(List.of(new ChangeEvent(1, ChangeEvent.Type.REVIEW, version)));
+                    }
+                })
+                .thenRequest(10)
+                .expectNextCount(2)
+                .expectError(IllegalStateException.class)
+                .verify(Duration.ofSeconds(5));
+    }
+}
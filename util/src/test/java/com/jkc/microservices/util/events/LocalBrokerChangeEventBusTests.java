@@ -0,0 +1,40 @@
+package com.jkc.microservices.util.events;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+
+class LocalBrokerChangeEventBusTests {
+
+    @Test
+    void deliversDecodedCopiesOffThePublishingThread() {
+        try (LocalBrokerChangeEventBus bus = new LocalBrokerChangeEventBus(new ObjectMapper(), 16)) {
+            List<ChangeEvent> batch = List.of(new ChangeEvent(1, ChangeEvent.Type.PRODUCT, 1), new ChangeEvent(2, ChangeEvent.Type.PRODUCT, 2));
+            Thread publisher = Thread.currentThread();
+            StepVerifier.create(bus.subscribe().take(1))
+                    .then(() -> bus.publish(batch))
+                    .expectNextMatches(received -> received.equals(batch) && received != batch && Thread.currentThread() != publisher)
+                    .expectComplete()
+                    .verify(Duration.ofSeconds(5));
+        }
+    }
+
+    @Test
+    void disconnectsASubscriberThatFallsBehind() {
+        try (LocalBrokerChangeEventBus bus = new LocalBrokerChangeEventBus(new ObjectMapper(), 2)) {
+            StepVerifier.create(bus.subscribe(), 0)
+                    .then(() -> {
+                        for (int version = 1; version <= 4; version++) {
+                            bus.publish(List.of(new ChangeEvent(1, ChangeEvent.Type.REVIEW, version)));
+                        }
+                    })
+                    .thenRequest(10)
+                    .thenConsumeWhile(batch -> true)
+                    .expectError()
+                    .verify(Duration.ofSeconds(5));
+        }
+    }
+}
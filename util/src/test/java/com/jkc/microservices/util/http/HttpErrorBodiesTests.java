@@ -0,0 +1,62 @@
+package com.jkc.microservices.util.http;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.jkc.microservices.util.exceptions.NotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class HttpErrorBodiesTests {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+
+    @Test
+    void writesWhatJacksonWrites() throws IOException {
+        for (String message : new String[]{"No product found for productID: 13", "hé \"quoted\"\n\t\\", null}) {
+            byte[] body = HttpErrorBodies.write(HttpStatus.NOT_FOUND, "/product/13", message);
+            JsonNode written = objectMapper.readTree(body);
+            JsonNode expected = objectMapper.readTree(objectMapper.writeValueAsBytes(new HttpErrorInfo(HttpStatus.NOT_FOUND, "/product/13", message)));
+            assertEquals(fieldNames(expected), fieldNames(written));
+            ZonedDateTime.parse(written.get("zonedDateTimestamp").asText());
+            ((ObjectNode) written).remove("zonedDateTimestamp");
+            ((ObjectNode) expected).remove("zonedDateTimestamp");
+            assertEquals(expected, written);
+        }
+    }
+
+    @Test
+    void readsTheMessage() {
+        byte[] body = HttpErrorBodies.write(HttpStatus.UNPROCESSABLE_ENTITY, "/review", "Invalid cursor: {\"a\":[1]}");
+        assertEquals("Invalid cursor: {\"a\":[1]}", HttpErrorBodies.readMessage(body));
+        assertEquals("skipped", HttpErrorBodies.readMessage("{\"a\":{\"message\":\"nested\"},\"b\":[1,2],\"message\":\"skipped\"}".getBytes(StandardCharsets.UTF_8)));
+        assertNull(HttpErrorBodies.readMessage(HttpErrorBodies.write(HttpStatus.NOT_FOUND, "/product/13", null)));
+        assertNull(HttpErrorBodies.readMessage("Not Found".getBytes(StandardCharsets.UTF_8)));
+        assertNull(HttpErrorBodies.readMessage(new byte[0]));
+    }
+
+    @Test
+    void domainExceptionsHaveNoStackTrace() {
+        assertEquals(0, new NotFoundException("No product found for productID: 13").getStackTrace().length);
+    }
+
+    private static List<String> fieldNames(JsonNode node) {
+        List<String> names = new ArrayList<>();
+        for (Iterator<String> it = node.fieldNames(); it.hasNext(); ) {
+            names.add(it.next());
+        }
+        return names;
+    }
+}
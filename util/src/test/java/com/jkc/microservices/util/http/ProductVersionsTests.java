@@ -0,0 +1,41 @@
+package com.jkc.microservices.util.http;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class ProductVersionsTests {
+
+    @Test
+    void etagChangesWithTheProductOnly() {
+        ProductVersions versions = new ProductVersions(4);
+        String first = versions.etag(1);
+        String other = versions.etag(2);
+        assertNotEquals(first, other);
+
+        versions.changed(1);
+        assertNotEquals(first, versions.etag(1));
+        assertEquals(other, versions.etag(2));
+    }
+
+    @Test
+    void keepsVersionsWhileGrowing() {
+        ProductVersions versions = new ProductVersions(4);
+        for (int productID = 1; productID <= 1000; productID++) {
+            versions.changed(productID);
+        }
+        String before = versions.etag(500);
+        versions.changed(1000);
+        assertEquals(before, versions.etag(500));
+        assertEquals(before.replace(".500.1", ".1000.2"), versions.etag(1000));
+    }
+
+    @Test
+    void changedAllReplacesEveryETag() {
+        ProductVersions versions = new ProductVersions(4);
+        String before = versions.etag(1);
+        versions.changedAll();
+        assertNotEquals(before, versions.etag(1));
+    }
+}
@@ -0,0 +1,57 @@
+package com.jkc.microservices.util.http;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ServiceAddressConfigTests {
+
+    private final ObjectMapper plain = Jackson2ObjectMapperBuilder.json().build();
+    private final ObjectMapper preEncoded = Jackson2ObjectMapperBuilder.json().modulesToInstall(ServiceAddressConfig.module()).build();
+
+    @Test
+    void writesTheSameJson() throws JsonProcessingException {
+        String address = ServiceUtil.resolveServiceAddress("7003");
+        List<Body> bodies = List.of(new Body(1, address), new Body(2, address), new Body(3, null), new Body(4, "hé/\"quoted\":1"), new Body(5, address));
+        assertEquals(plain.writeValueAsString(bodies), preEncoded.writeValueAsString(bodies));
+    }
+
+    @Test
+    void writesTheSameSmile() throws JsonProcessingException {
+        ObjectMapper plainSmile = SmileCodecConfig.smileMapper(Jackson2ObjectMapperBuilder.json());
+        ObjectMapper preEncodedSmile = SmileCodecConfig.smileMapper(Jackson2ObjectMapperBuilder.json().modulesToInstall(ServiceAddressConfig.module()));
+        String address = ServiceUtil.resolveServiceAddress("7002");
+        List<Body> bodies = List.of(new Body(1, address), new Body(2, address), new Body(3, "other"));
+        assertArrayEquals(plainSmile.writeValueAsBytes(bodies), preEncodedSmile.writeValueAsBytes(bodies));
+    }
+
+    @Test
+    void resolvesOneInstance() {
+        assertSame(ServiceUtil.resolveServiceAddress("7001"), new ServiceUtil("7001").getServiceAddress());
+    }
+
+    static final class Body {
+        private final int id;
+        private final String serviceAddress;
+
+        Body(int id, String serviceAddress) {
+            this.id = id;
+            this.serviceAddress = serviceAddress;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public String getServiceAddress() {
+            return serviceAddress;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.jkc.microservices.util.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResponseSizeWebFilterTests {
+
+    private final PrometheusMeterRegistry meterRegistry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+    private final ResponseSizeWebFilter filter = new ResponseSizeWebFilter(meterRegistry);
+
+    @Test
+    void recordsTheBodySizePerPattern() {
+        byte[] body = "{\"productID\":1}".getBytes(StandardCharsets.UTF_8);
+        WebFilterChain chain = exchange -> {
+            exchange.getAttributes().put(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, new PathPatternParser().parse("/product/{productID}"));
+            return exchange.getResponse().writeWith(Mono.just(exchange.getResponse().bufferFactory().wrap(body)));
+        };
+        filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/product/1")), chain).block();
+        filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/product/2")), chain).block();
+
+        DistributionSummary summary = meterRegistry.get(ResponseSizeWebFilter.METRIC_NAME).tag("uri", "/product/{productID}").tag("status", "200").tag("compressed", "false").summary();
+        assertEquals(2, summary.count());
+        assertEquals(2.0 * body.length, summary.totalAmount());
+        assertTrue(meterRegistry.scrape().contains("http_server_response_size_bytes_bucket{compressed=\"false\",method=\"GET\",status=\"200\",uri=\"/product/{productID}\","));
+    }
+
+    @Test
+    void countsStreamedBodies() {
+        WebFilterChain chain = exchange -> exchange.getResponse().writeWith(Flux.range(0, 10)
+                .map(i -> exchange.getResponse().bufferFactory().wrap(new byte[100])));
+        filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/review/stream")), chain).block();
+
+        assertEquals(1000.0, meterRegistry.get(ResponseSizeWebFilter.METRIC_NAME).tag("uri", "UNKNOWN").summary().totalAmount());
+    }
+
+    @Test
+    void tagsBodiesWrittenCompressed() {
+        WebFilterChain chain = exchange -> {
+            exchange.getResponse().getHeaders().set(HttpHeaders.CONTENT_ENCODING, "gzip");
+            return exchange.getResponse().writeWith(Mono.just(exchange.getResponse().bufferFactory().wrap(new byte[40])));
+        };
+        filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/product-composite/1")), chain).block();
+
+        assertEquals(40.0, meterRegistry.get(ResponseSizeWebFilter.METRIC_NAME).tag("compressed", "true").summary().totalAmount());
+    }
+}
@@ -0,0 +1,129 @@
+package com.jkc.microservices.util.tracing;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TracingWebFilterTests {
+
+    private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+    private static final String PARENT_ID = "00f067aa0ba902b7";
+
+    private final InMemorySpanExporter exporter = new InMemorySpanExporter(100);
+    private final AtomicReference<ClientRequest> sent = new AtomicReference<>();
+    private final ExchangeFunction backend = request -> {
+        sent.set(request);
+        return Mono.just(ClientResponse.create(HttpStatus.OK).build());
+    };
+
+    @Test
+    void parsesAndWritesTraceparent() {
+        TraceContext context = TraceContext.parse("00-" + TRACE_ID + "-" + PARENT_ID + "-01");
+        assertNotNull(context);
+        assertEquals(TRACE_ID, context.getTraceId());
+        assertEquals(PARENT_ID, context.getSpanId());
+        assertTrue(context.isSampled());
+        assertEquals("00-" + TRACE_ID + "-" + PARENT_ID + "-01", context.traceparent());
+        assertFalse(TraceContext.parse("00-" + TRACE_ID + "-" + PARENT_ID + "-00").isSampled());
+
+        assertNull(TraceContext.parse(null));
+        assertNull(TraceContext.parse("00-" + TRACE_ID + "-" + PARENT_ID));
+        assertNull(TraceContext.parse("00-00000000000000000000000000000000-" + PARENT_ID + "-01"));
+        assertNull(TraceContext.parse("00-" + TRACE_ID.toUpperCase() + "-" + PARENT_ID + "-01"));
+        assertNull(TraceContext.parse("ff-" + TRACE_ID + "-" + PARENT_ID + "-01"));
+        assertNull(TraceContext.parse("00-" + TRACE_ID + "-" + PARENT_ID + "-01-future"));
+        assertNotNull(TraceContext.parse("01-" + TRACE_ID + "-" + PARENT_ID + "-01-future"));
+        assertNull(TraceContext.parse("01-" + TRACE_ID + "-" + PARENT_ID + "-01future"));
+    }
+
+    @Test
+    void continuesTheTraceOfTheCallerInTheCallsOfARequest() {
+        TracingWebFilter filter = new TracingWebFilter(new Tracer("composite", 0.0, null, exporter));
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/product-composite/1")
+                .header(TraceContext.TRACEPARENT, "00-" + TRACE_ID + "-" + PARENT_ID + "-01"));
+        exchange.getAttributes().put(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, new PathPatternParser().parse("/product-composite/{productId}"));
+
+        filter.filter(exchange, callBackend()).block();
+
+        assertEquals(TRACE_ID, exchange.getResponse().getHeaders().getFirst(TracingWebFilter.TRACE_ID_HEADER));
+        List<Span> spans = exporter.getSpans(TRACE_ID);
+        assertEquals(2, spans.size());
+        Span client = spans.get(0);
+        Span server = spans.get(1);
+        assertEquals("SERVER", server.getKind());
+        assertEquals("GET /product-composite/{productId}", server.getName());
+        assertEquals(PARENT_ID, server.getParentId());
+        assertEquals("composite", server.getService());
+        assertEquals("CLIENT", client.getKind());
+        assertEquals("GET /product/1", client.getName());
+        assertEquals("product:7001", client.getPeer());
+        assertEquals(200, client.getStatus());
+        assertEquals(server.getSpanId(), client.getParentId());
+        assertEquals("00-" + TRACE_ID + "-" + client.getSpanId() + "-01", sent.get().headers().getFirst(TraceContext.TRACEPARENT));
+    }
+
+    @Test
+    void dropsRequestsThatAreNeitherSampledNorSlow() {
+        TracingWebFilter filter = new TracingWebFilter(new Tracer("composite", 0.0, Duration.ofSeconds(10), exporter));
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/product-composite/1")
+                .header(TraceContext.TRACEPARENT, "00-" + TRACE_ID + "-" + PARENT_ID + "-00"));
+
+        filter.filter(exchange, callBackend()).block();
+
+        assertTrue(exporter.getSpans().isEmpty());
+        // not sampled upstream, still propagated so that slow downstream requests keep their trace id
+        assertTrue(sent.get().headers().getFirst(TraceContext.TRACEPARENT).startsWith("00-" + TRACE_ID + "-"));
+    }
+
+    @Test
+    void keepsSlowRequests() {
+        TracingWebFilter filter = new TracingWebFilter(new Tracer("composite", 0.0, Duration.ofMillis(20), exporter));
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/product-composite/1"));
+
+        filter.filter(exchange, slow -> callBackend().filter(slow).then(Mono.delay(Duration.ofMillis(50))).then()).block();
+
+        String traceId = exchange.getResponse().getHeaders().getFirst(TracingWebFilter.TRACE_ID_HEADER);
+        List<Span> spans = exporter.getSpans(traceId);
+        assertEquals(2, spans.size());
+        assertNull(spans.get(1).getParentId());
+        assertEquals("UNMATCHED", spans.get(1).getName());
+        assertTrue(spans.get(1).getDurationMicros() >= 20_000);
+    }
+
+    @Test
+    void recordsNothingThatCouldNotBeKept() {
+        TracingWebFilter filter = new TracingWebFilter(new Tracer("composite", 0.0, null, exporter));
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/product-composite/1"));
+
+        filter.filter(exchange, callBackend()).block();
+
+        assertNull(exchange.getResponse().getHeaders().getFirst(TracingWebFilter.TRACE_ID_HEADER));
+        assertNull(sent.get().headers().getFirst(TraceContext.TRACEPARENT));
+        assertTrue(exporter.getSpans().isEmpty());
+    }
+
+    private WebFilterChain callBackend() {
+        return exchange -> TracingExchangeFilter.INSTANCE
+                .filter(ClientRequest.create(exchange.getRequest().getMethod(), URI.create("http://product:7001/product/1")).build(), backend)
+                .then();
+    }
+}